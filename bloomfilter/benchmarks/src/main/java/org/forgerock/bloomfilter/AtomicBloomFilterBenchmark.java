@@ -0,0 +1,137 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.bloomfilter;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.Funnels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link AtomicBloomFilter} with the implementation it replaced, {@link BaselineAtomicBloomFilter}, and with
+ * {@link SynchronizedBloomFilter}. Each filter is sized for {@code capacity} session-token-like strings and filled to
+ * capacity during setup. The benchmark methods measure the throughput of testing a token that is present, testing a
+ * token that is absent, and adding a new token.
+ * <p/>
+ * Run with several threads to measure contention, and with the GC profiler to see the allocation per operation, for
+ * example:
+ * <pre>
+ * java -jar target/bloomfilter-benchmarks.jar AtomicBloomFilterBenchmark -t 8 -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class AtomicBloomFilterBenchmark {
+    private static final Funnel<CharSequence> FUNNEL = Funnels.stringFunnel(StandardCharsets.UTF_8);
+    private static final int KEYS = 1 << 16;
+
+    @Param({ "Atomic", "Baseline", "Synchronized" })
+    public String impl;
+
+    @Param({ "1000000" })
+    public int capacity;
+
+    @Param({ "0.01" })
+    public double falsePositiveProbability;
+
+    private BloomFilter<CharSequence> bloomFilter;
+    private String[] present;
+    private String[] absent;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if ("Atomic".equals(impl)) {
+            bloomFilter = new AtomicBloomFilter<>(FUNNEL, capacity, falsePositiveProbability);
+        } else if ("Baseline".equals(impl)) {
+            bloomFilter = new BaselineAtomicBloomFilter<>(FUNNEL, capacity, falsePositiveProbability);
+        } else if ("Synchronized".equals(impl)) {
+            bloomFilter = new SynchronizedBloomFilter<>(FUNNEL, capacity, falsePositiveProbability);
+        } else {
+            throw new IllegalArgumentException("Unknown implementation: " + impl);
+        }
+
+        // fixed seed so that every implementation sees the same tokens.
+        final Random random = new Random(1);
+        present = new String[KEYS];
+        for (int i = 0; i < capacity; ++i) {
+            final String token = token(random);
+            bloomFilter.add(token);
+            if (i < KEYS) {
+                present[i] = token;
+            }
+        }
+        absent = new String[KEYS];
+        for (int i = 0; i < KEYS; ++i) {
+            absent[i] = token(random);
+        }
+    }
+
+    @Benchmark
+    public boolean mightContainPresent(final Cursor cursor) {
+        return bloomFilter.mightContain(present[cursor.next()]);
+    }
+
+    @Benchmark
+    public boolean mightContainAbsent(final Cursor cursor) {
+        return bloomFilter.mightContain(absent[cursor.next()]);
+    }
+
+    @Benchmark
+    public void add(final Cursor cursor) {
+        bloomFilter.add(absent[cursor.next()]);
+    }
+
+    private static String token(final Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    /**
+     * Per-thread position in the arrays of tokens, starting at a different place in each thread.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            next = (int) Thread.currentThread().getId() * 7919;
+        }
+
+        int next() {
+            return next++ & (KEYS - 1);
+        }
+    }
+}
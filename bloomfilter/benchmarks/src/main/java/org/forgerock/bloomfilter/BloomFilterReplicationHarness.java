@@ -0,0 +1,186 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.bloomfilter;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.Funnels;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates a cluster of nodes that each hold a rolling bloom filter of revoked session tokens and keep them in step
+ * by exchanging {@link BloomFilterDelta deltas}. In each round every node revokes some new tokens, exports a delta,
+ * encodes it and sends it to every other node, which decodes and merges it. Deltas are delivered in a random order,
+ * and some are delivered twice, as an unreliable transport might.
+ * <p/>
+ * For each round the harness reports the time from the start of the exchange until every node has merged every delta,
+ * and the bytes sent, compared with sending the revoked tokens themselves and with sending a full copy of each filter.
+ * Each changed block of a delta costs up to 69 bytes, so deltas are smaller than a full copy of the filter while only
+ * a small fraction of its blocks change between exchanges, that is while exchanges are frequent compared with the
+ * rate of revocation. At the end the harness checks that every node might contain every revoked token. Run with:
+ * <pre>
+ * java -cp target/bloomfilter-benchmarks.jar org.forgerock.bloomfilter.BloomFilterReplicationHarness \
+ *     [nodes] [rounds] [tokensPerNodePerRound]
+ * </pre>
+ */
+public final class BloomFilterReplicationHarness {
+    private static final Funnel<CharSequence> FUNNEL = Funnels.stringFunnel(StandardCharsets.UTF_8);
+    private static final long TOKEN_LIFETIME_MS = TimeUnit.HOURS.toMillis(1);
+    private static final double DUPLICATE_DELIVERY_PROBABILITY = 0.1d;
+
+    private final List<Node> nodes = new ArrayList<Node>();
+    private final Random random = new Random(42L);
+
+    private BloomFilterReplicationHarness(final int numNodes) {
+        for (int i = 0; i < numNodes; ++i) {
+            nodes.add(new Node());
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        final int tokensPerRound = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        new BloomFilterReplicationHarness(numNodes).run(rounds, tokensPerRound);
+    }
+
+    private void run(final int rounds, final int tokensPerRound) throws IOException {
+        System.out.printf("%d nodes, %d rounds, %d tokens per node per round%n", nodes.size(), rounds, tokensPerRound);
+        System.out.printf("%5s %12s %14s %14s %14s %10s%n", "round", "converge(ms)", "delta(bytes)",
+                "tokens(bytes)", "full(bytes)", "blocks");
+        long totalDeltaBytes = 0L;
+        long totalTokenBytes = 0L;
+        long totalFullBytes = 0L;
+        for (int round = 1; round <= rounds; ++round) {
+            long tokenBytes = 0L;
+            for (Node node : nodes) {
+                tokenBytes += node.revoke(tokensPerRound) * (nodes.size() - 1);
+            }
+
+            final long start = System.nanoTime();
+            final List<Message> messages = new ArrayList<Message>();
+            long deltaBytes = 0L;
+            int blocks = 0;
+            for (Node node : nodes) {
+                final BloomFilterDelta delta = node.filter.exportDelta(node.cursor);
+                final byte[] encoded = delta.toByteArray();
+                blocks += delta.getChangedBlockCount();
+                for (Node peer : nodes) {
+                    if (peer != node) {
+                        messages.add(new Message(peer, encoded));
+                        deltaBytes += encoded.length;
+                        if (random.nextDouble() < DUPLICATE_DELIVERY_PROBABILITY) {
+                            messages.add(new Message(peer, encoded));
+                        }
+                    }
+                }
+            }
+            Collections.shuffle(messages, random);
+            for (Message message : messages) {
+                message.recipient.filter.mergeDelta(BloomFilterDelta.fromByteArray(message.encoded));
+            }
+            final long elapsed = System.nanoTime() - start;
+
+            long fullBytes = 0L;
+            for (Node node : nodes) {
+                fullBytes += node.filter.exportDelta(new BloomFilterDelta.Cursor()).toByteArray().length
+                        * (long) (nodes.size() - 1);
+            }
+            totalDeltaBytes += deltaBytes;
+            totalTokenBytes += tokenBytes;
+            totalFullBytes += fullBytes;
+            System.out.printf("%5d %12.2f %,14d %,14d %,14d %,10d%n", round, elapsed / 1.0e6d, deltaBytes,
+                    tokenBytes, fullBytes, blocks);
+        }
+        System.out.printf("Total: delta %,d bytes, tokens %,d bytes, full %,d bytes (delta/tokens = %.2f, "
+                + "delta/full = %.4f)%n", totalDeltaBytes, totalTokenBytes, totalFullBytes,
+                totalDeltaBytes / (double) totalTokenBytes, totalDeltaBytes / (double) totalFullBytes);
+        checkConverged();
+    }
+
+    private void checkConverged() {
+        long missing = 0L;
+        long checked = 0L;
+        for (Node source : nodes) {
+            for (String token : source.revoked) {
+                for (Node node : nodes) {
+                    checked++;
+                    if (!node.filter.mightContain(token)) {
+                        missing++;
+                    }
+                }
+            }
+        }
+        System.out.printf("Converged: %s (%,d of %,d lookups missing)%n", missing == 0L, missing, checked);
+        if (missing != 0L) {
+            throw new IllegalStateException("Nodes did not converge");
+        }
+    }
+
+    private static final class Node {
+        private final ConcurrentRollingBloomFilter<CharSequence> filter = (ConcurrentRollingBloomFilter<CharSequence>)
+                BloomFilters.create(FUNNEL)
+                        .withConcurrencyStrategy(ConcurrencyStrategy.ATOMIC)
+                        .withInitialCapacity(100000)
+                        .withFalsePositiveProbability(0.001d)
+                        .rolling()
+                        .withExpiryStrategy(new ExpiryStrategy<CharSequence>() {
+                            @Override
+                            public long expiryTime(final CharSequence token) {
+                                final String value = token.toString();
+                                return Long.parseLong(value.substring(0, value.indexOf('.')));
+                            }
+                        })
+                        .build();
+        private final BloomFilterDelta.Cursor cursor = new BloomFilterDelta.Cursor();
+        private final List<String> revoked = new ArrayList<String>();
+
+        /**
+         * Revokes the given number of new tokens, each of which carries its expiry time.
+         *
+         * @return the number of bytes needed to send the tokens to one peer.
+         */
+        long revoke(final int count) {
+            final long expiryTime = System.currentTimeMillis() + TOKEN_LIFETIME_MS;
+            long bytes = 0L;
+            for (int i = 0; i < count; ++i) {
+                final String token = expiryTime + "." + UUID.randomUUID();
+                filter.add(token);
+                revoked.add(token);
+                bytes += token.length();
+            }
+            return bytes;
+        }
+    }
+
+    private static final class Message {
+        private final Node recipient;
+        private final byte[] encoded;
+
+        Message(final Node recipient, final byte[] encoded) {
+            this.recipient = recipient;
+            this.encoded = encoded;
+        }
+    }
+}
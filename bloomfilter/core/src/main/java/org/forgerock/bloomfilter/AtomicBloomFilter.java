@@ -13,33 +13,70 @@
  */
 
 // Portions Copyrighted 2015 ForgeRock AS.
+// Portions Copyrighted 2026 3A Systems LLC.
 
 package org.forgerock.bloomfilter;
 
 import com.google.common.hash.Funnel;
-import com.google.common.hash.Hashing;
-import com.google.common.primitives.Longs;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A BloomFilter that stores elements in an {@link AtomicLongArray} and uses atomic compare-and-swap operations to
  * ensure thread safety.
+ * <p/>
+ * The bit-vector is divided into blocks of {@value #BLOCK_BITS} bits (eight longs, the size of a typical cache line)
+ * and all of the probes for an element fall within a single block, chosen by the first half of the element's hash, so
+ * that adding or testing an element touches at most two cache lines however many hash functions are used. Confining
+ * the probes to a block makes the false positive probability slightly worse than that of a classic Bloom Filter of the
+ * same size, so the filter is made a few percent larger than {@link BloomFilterStatistics#optimumBitSize} to meet the
+ * configured probability at capacity.
+ * <p/>
+ * Elements are hashed with 128-bit Murmur3 directly into two longs, without allocating, and the number of set bits is
+ * kept in a {@link LongAdder} so that concurrent writers do not contend on a single counter.
+ * <p/>
+ * Each block is stamped with the version of the filter current when a bit in it was last set, so that the blocks
+ * changed since a given version can be exported as a {@link BloomFilterDelta}. Exporting starts a new version.
  */
 @ThreadSafe
 final class AtomicBloomFilter<T> implements BloomFilter<T> {
     private static final int BITS_PER_WORD = 64;
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BLOCK_BITS = BITS_PER_WORD * WORDS_PER_BLOCK;
+    /** Multiplier of the generator used to derive the probe positions within a block (Knuth's MMIX LCG). */
+    private static final long PROBE_MULTIPLIER = 0x5851f42d4c957f2dL;
+    /** Above this mean number of elements per block the Poisson model is replaced by the classic approximation. */
+    private static final double MAX_POISSON_MEAN = 500.0d;
+    /** The expected false positive probability is recalculated once this fraction of the bits has changed. */
+    private static final long FPP_RECALCULATION_DIVISOR = 4096L;
+    private static final AtomicLong NEXT_ID = new AtomicLong();
 
     private final long capacity;
     private final double falsePositiveProbability;
     private final AtomicLongArray bits;
-    private final AtomicLong bitCount = new AtomicLong(0);
+    private final LongAdder bitCount = new LongAdder();
     private final Funnel<? super T> funnel;
     private final int numHashFunctions;
+    private final int numBlocks;
     private final long bitSize;
+    /**
+     * The expected false positive probability, as last calculated. Evaluating the Poisson model costs far more than
+     * an add, and a {@link BloomFilterChain} asks for statistics on every add to detect saturation, so the result is
+     * reused until the number of set bits has moved by {@code bitSize / }{@value #FPP_RECALCULATION_DIVISOR}.
+     */
+    private volatile FppEstimate fppEstimate = new FppEstimate(0L, 0.0d);
+    /** Distinguishes this filter from earlier filters that held the same position in a pool. */
+    private final long id = NEXT_ID.incrementAndGet();
+    /** Starts at one, so that blocks holding only merged bits keep the initial stamp of zero. */
+    private final AtomicInteger version = new AtomicInteger(1);
+    private final AtomicIntegerArray blockVersions;
 
     /**
      * Constructs an atomic bloom filter with the given parameters.
@@ -55,24 +92,49 @@ final class AtomicBloomFilter<T> implements BloomFilter<T> {
         this.capacity = capacity;
         this.falsePositiveProbability = falsePositiveProbability;
 
-        this.bitSize = BloomFilterStatistics.optimumBitSize(capacity, falsePositiveProbability);
-        int arraySize = (int) Math.ceil((double) bitSize / (double) BITS_PER_WORD);
-        this.bits = new AtomicLongArray(arraySize);
-        this.numHashFunctions = BloomFilterStatistics.optimalNumberOfHashFunctions(bitSize, capacity);
+        final long optimumBitSize = BloomFilterStatistics.optimumBitSize(capacity, falsePositiveProbability);
+        this.numHashFunctions = BloomFilterStatistics.optimalNumberOfHashFunctions(optimumBitSize, capacity);
+        this.numBlocks = blocksFor(optimumBitSize, capacity, falsePositiveProbability, numHashFunctions);
+        this.bitSize = (long) numBlocks * BLOCK_BITS;
+        this.bits = new AtomicLongArray(numBlocks * WORDS_PER_BLOCK);
+        this.blockVersions = new AtomicIntegerArray(numBlocks);
+    }
+
+    /**
+     * Constructs an atomic bloom filter from the words of a bit-vector read from a snapshot.
+     */
+    private AtomicBloomFilter(final Funnel<? super T> funnel, final long capacity,
+                              final double falsePositiveProbability, final int numHashFunctions, final int numBlocks,
+                              final long[] words) {
+        this.funnel = funnel;
+        this.capacity = capacity;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.numHashFunctions = numHashFunctions;
+        this.numBlocks = numBlocks;
+        this.bitSize = (long) numBlocks * BLOCK_BITS;
+        this.bits = new AtomicLongArray(words);
+        this.blockVersions = new AtomicIntegerArray(numBlocks);
+        long count = 0L;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        this.bitCount.add(count);
     }
 
     @Override
     public void add(final T element) {
-        // Implementation derived from Guava MURMUR128_MITZ_64 in BloomFilterStrategies
-        byte[] hashBytes = Hashing.murmur3_128().hashObject(element, funnel).asBytes();
-        long hash1 = lowerEight(hashBytes);
-        long hash2 = upperEight(hashBytes);
+        final ElementHasher hasher = ElementHasher.hash(element, funnel);
+        final long hash1 = hasher.getHash1();
+        final long hash2 = hasher.getHash2();
 
-        long combinedHash = hash1;
+        final int base = firstWord(hash1);
+        final long increment = hash1 | 1L;
+        long probe = hash2;
 
-        for (int i = 1; i <= numHashFunctions; ++i) {
-            set((combinedHash & Long.MAX_VALUE) % bitSize);
-            combinedHash += hash2;
+        for (int i = 0; i < numHashFunctions; ++i) {
+            probe = probe * PROBE_MULTIPLIER + increment;
+            final int bit = (int) (probe >>> 55);
+            set(base + (bit >>> 6), 1L << bit);
         }
     }
 
@@ -86,77 +148,284 @@ final class AtomicBloomFilter<T> implements BloomFilter<T> {
 
     @Override
     public boolean mightContain(final T element) {
-        // Implementation derived from Guava MURMUR128_MITZ_64 in BloomFilterStrategies
-        byte[] hashBytes = Hashing.murmur3_128().hashObject(element, funnel).asBytes();
-        long hash1 = lowerEight(hashBytes);
-        long hash2 = upperEight(hashBytes);
+        final ElementHasher hasher = ElementHasher.hash(element, funnel);
+        final long hash1 = hasher.getHash1();
+        final long hash2 = hasher.getHash2();
 
-        long combinedHash = hash1;
+        final int base = firstWord(hash1);
+        final long increment = hash1 | 1L;
+        long probe = hash2;
 
-        for (int i = 1; i <= numHashFunctions; ++i) {
-            if (!get((combinedHash & Long.MAX_VALUE) % bitSize)) {
+        for (int i = 0; i < numHashFunctions; ++i) {
+            probe = probe * PROBE_MULTIPLIER + increment;
+            final int bit = (int) (probe >>> 55);
+            if (!get(base + (bit >>> 6), 1L << bit)) {
                 return false;
             }
-            combinedHash += hash2;
         }
 
         return true;
     }
 
     double expectedFpp() {
-        return Math.pow((double)bitCount.get() / (double)bitSize, (double)this.numHashFunctions);
-
+        final long setBits = bitCount.sum();
+        FppEstimate estimate = fppEstimate;
+        if (Math.abs(setBits - estimate.setBits) >= Math.max(1L, bitSize / FPP_RECALCULATION_DIVISOR)) {
+            estimate = new FppEstimate(setBits, blockedFpp(numBlocks, estimatedCardinality(setBits), numHashFunctions));
+            fppEstimate = estimate;
+        }
+        return estimate.fpp;
     }
 
     @Override
     public BloomFilterStatistics getStatistics() {
         double expectedFpp = expectedFpp();
-        // Estimate the current cardinality of the bloom filter
-        long cardinality = (long) -((bitSize * Math.log(1.0d - bitCount.get()/(double)bitSize)) / numHashFunctions);
 
         return new BloomFilterStatistics(falsePositiveProbability, expectedFpp, capacity, bitSize, Long.MAX_VALUE,
-                capacity - cardinality);
+                capacity - (long) estimatedCardinality(bitCount.sum()));
     }
 
     /**
-     * Atomically sets the bit at the given index.
+     * Writes the parameters and bit-vector of this bloom filter to a snapshot.
      *
-     * @param index the index of the bit to set.
-     * @return true if the bits changed as a result of setting this index.
+     * @param out the snapshot being written.
+     * @throws IOException if the snapshot cannot be written.
      */
-    boolean set(long index) {
+    void writeTo(final BloomFilterSnapshot.Writer out) throws IOException {
+        out.putLong(capacity);
+        out.putDouble(falsePositiveProbability);
+        out.putInt(numHashFunctions);
+        out.putInt(numBlocks);
+        out.putWords(bits);
+    }
+
+    /**
+     * Reads a bloom filter written by {@link #writeTo(BloomFilterSnapshot.Writer)}. The bit-vector is copied from
+     * the snapshot as it stands and the number of set bits is recounted from it.
+     *
+     * @param in the snapshot being read.
+     * @param funnel the funnel to use for serialising objects for hashing.
+     * @param <T> the type of elements in the bloom filter.
+     * @return the bloom filter.
+     * @throws IOException if the snapshot is truncated or holds invalid parameters.
+     */
+    static <T> AtomicBloomFilter<T> readFrom(final BloomFilterSnapshot.Reader in, final Funnel<? super T> funnel)
+            throws IOException {
+        final long capacity = in.getLong();
+        final double falsePositiveProbability = in.getDouble();
+        final int numHashFunctions = in.getInt();
+        final int numBlocks = in.getInt();
+        if (capacity <= 0L || !(falsePositiveProbability > 0.0d && falsePositiveProbability < 1.0d)
+                || numHashFunctions <= 0 || numBlocks <= 0 || numBlocks > Integer.MAX_VALUE / WORDS_PER_BLOCK) {
+            throw new IOException("Invalid bloom filter in snapshot: capacity=" + capacity + ", fpp="
+                    + falsePositiveProbability + ", numHashFunctions=" + numHashFunctions + ", numBlocks="
+                    + numBlocks);
+        }
+        final long[] words = in.getWords(numBlocks * WORDS_PER_BLOCK);
+        return new AtomicBloomFilter<T>(funnel, capacity, falsePositiveProbability, numHashFunctions, numBlocks,
+                words);
+    }
+
+    /**
+     * Estimates the cardinality of the bloom filter from the number of bits that are set.
+     */
+    private double estimatedCardinality(final long setBits) {
+        final double oneBits = Math.min(setBits, bitSize - 1);
+        return -((bitSize * Math.log(1.0d - oneBits / (double) bitSize)) / numHashFunctions);
+    }
+
+    /**
+     * Atomically sets a bit in the word at the given index.
+     *
+     * @param word the index of the word containing the bit.
+     * @param mask the bit to set within the word.
+     * @return true if the bits changed as a result of setting this bit.
+     */
+    boolean set(int word, long mask) {
         // Based on Guava BloomFilterStrategies.BitArray, but adapted to AtomicLongArray.
         boolean changed;
         long prev, next;
-        int bucket = (int) (index >>> 6);
         do {
-            prev = this.bits.get(bucket);
-            next = prev | 1L << (int) index;
+            prev = this.bits.get(word);
+            next = prev | mask;
             changed = (prev != next);
-        } while (changed && !bits.compareAndSet(bucket, prev, next));
+        } while (changed && !bits.compareAndSet(word, prev, next));
 
         if (changed) {
-            bitCount.incrementAndGet();
+            bitCount.increment();
+            stampBlock(word / WORDS_PER_BLOCK);
         }
 
         return changed;
     }
 
     /**
-     * Atomically tests the bit at the given index.
-     * @param index the index of the bit to test.
-     * @return whether the bit at the index is set or not.
+     * Stamps a block with the current version. If an export starts a new version while the stamp is being written the
+     * block is stamped again, so a change is never stamped with a version that has already been exported.
      */
-    boolean get(long index) {
-        // Based on Guava BloomFilterStrategies.BitArray, but adapted to AtomicLongArray.
-        return (bits.get((int) (index >>> 6)) & 1L << (int) index) != 0L;
+    private void stampBlock(final int block) {
+        int current;
+        do {
+            current = version.get();
+            if (blockVersions.get(block) != current) {
+                blockVersions.set(block, current);
+            }
+        } while (version.get() != current);
     }
 
-    private long lowerEight(byte[] bytes) {
-        return Longs.fromBytes(bytes[7], bytes[6], bytes[5], bytes[4], bytes[3], bytes[2], bytes[1], bytes[0]);
+    long getId() {
+        return id;
     }
 
-    private long upperEight(byte[] bytes) {
-        return Longs.fromBytes(bytes[15], bytes[14], bytes[13], bytes[12], bytes[11], bytes[10], bytes[9], bytes[8]);
+    /**
+     * Creates an empty delta bucket with the parameters of this bloom filter.
+     */
+    BloomFilterDelta.Bucket newDeltaBucket(final int bucketNumber, final boolean expiring) {
+        return new BloomFilterDelta.Bucket(bucketNumber, capacity, falsePositiveProbability, numHashFunctions,
+                numBlocks, expiring);
+    }
+
+    /**
+     * Adds every non-empty block stamped with the given version or later to the delta bucket, and starts a new
+     * version. Blocks changed while the export is in progress may be exported now, and are exported again by the
+     * next export from the returned version.
+     *
+     * @param sinceVersion the version returned by the previous export, one to export every block changed by this
+     *                     filter, or zero to export every non-empty block, including those that only hold merged bits.
+     * @param out the delta bucket to add blocks to.
+     * @return the version from which to make the next export.
+     */
+    int exportChanges(final int sinceVersion, final BloomFilterDelta.Bucket out) {
+        final int nextVersion = version.incrementAndGet();
+        final long[] blockWords = new long[WORDS_PER_BLOCK];
+        for (int block = 0; block < numBlocks; ++block) {
+            if (blockVersions.get(block) - sinceVersion >= 0) {
+                final int base = block * WORDS_PER_BLOCK;
+                for (int i = 0; i < WORDS_PER_BLOCK; ++i) {
+                    blockWords[i] = bits.get(base + i);
+                }
+                out.addBlock(block, blockWords, 0);
+            }
+        }
+        return nextVersion;
+    }
+
+    /**
+     * Indicates whether the bits of the delta bucket were laid out by a bloom filter with the same parameters as
+     * this one.
+     */
+    boolean matches(final BloomFilterDelta.Bucket delta) {
+        return delta.getCapacity() == capacity
+                && Double.compare(delta.getFalsePositiveProbability(), falsePositiveProbability) == 0
+                && delta.getNumHashFunctions() == numHashFunctions
+                && delta.getNumBlocks() == numBlocks;
+    }
+
+    /**
+     * ORs the blocks of a delta bucket into this bloom filter. Merged blocks are not stamped, so they are not
+     * exported again, except by an export from version zero or along with bits set later by this filter.
+     *
+     * @param delta a delta bucket whose parameters {@link #matches(BloomFilterDelta.Bucket) match} this filter.
+     */
+    void merge(final BloomFilterDelta.Bucket delta) {
+        final long[] words = delta.getWords();
+        int next = 0;
+        for (int i = 0; i < delta.getBlockCount(); ++i) {
+            final int base = delta.getBlock(i) * WORDS_PER_BLOCK;
+            final int mask = delta.getMask(i);
+            for (int j = 0; j < WORDS_PER_BLOCK; ++j) {
+                if ((mask & (1 << j)) != 0) {
+                    or(base + j, words[next++]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Atomically ORs a value into the word at the given index.
+     */
+    private void or(final int word, final long value) {
+        long prev, next;
+        do {
+            prev = bits.get(word);
+            next = prev | value;
+        } while (prev != next && !bits.compareAndSet(word, prev, next));
+        if (prev != next) {
+            bitCount.add(Long.bitCount(next & ~prev));
+        }
+    }
+
+    /**
+     * Atomically tests a bit in the word at the given index.
+     * @param word the index of the word containing the bit.
+     * @param mask the bit to test within the word.
+     * @return whether the bit is set or not.
+     */
+    boolean get(int word, long mask) {
+        return (bits.get(word) & mask) != 0L;
+    }
+
+    /**
+     * Index of the first word of the block that holds the probes for an element.
+     */
+    private int firstWord(final long hash1) {
+        return (int) ((hash1 & Long.MAX_VALUE) % numBlocks) * WORDS_PER_BLOCK;
+    }
+
+    /**
+     * Calculates the number of blocks needed for the blocked layout to achieve the given false positive probability
+     * at capacity, starting from the optimum size of a classic bloom filter and growing it until the target is met.
+     */
+    private static int blocksFor(final long optimumBitSize, final long capacity,
+                                 final double falsePositiveProbability, final int numHashFunctions) {
+        long blocks = Math.max(1L, (optimumBitSize + BLOCK_BITS - 1) / BLOCK_BITS);
+        while (blockedFpp(blocks, capacity, numHashFunctions) > falsePositiveProbability
+                && blocks < Integer.MAX_VALUE / WORDS_PER_BLOCK) {
+            blocks += Math.max(1L, blocks / 64);
+        }
+        return (int) Math.min(blocks, Integer.MAX_VALUE / WORDS_PER_BLOCK);
+    }
+
+    /**
+     * Calculates the false positive probability of a blocked bloom filter. The number of elements that hash to any
+     * one block follows a Poisson distribution, and a block holding {@code j} elements behaves as a classic bloom
+     * filter of {@value #BLOCK_BITS} bits holding {@code j} elements.
+     *
+     * @param blocks the number of blocks.
+     * @param elements the number of elements in the bloom filter.
+     * @param numHashFunctions the number of probes per element.
+     * @return the probability that an element that has not been added is reported as present.
+     */
+    static double blockedFpp(final long blocks, final double elements, final int numHashFunctions) {
+        final double mean = elements / blocks;
+        if (mean > MAX_POISSON_MEAN) {
+            return Math.pow(1.0d - Math.exp(-numHashFunctions * elements / ((double) blocks * BLOCK_BITS)),
+                    numHashFunctions);
+        }
+        final double logMean = Math.log(mean);
+        final double logUnset = Math.log1p(-1.0d / BLOCK_BITS) * numHashFunctions;
+        final long limit = (long) Math.ceil(mean + 12.0d * Math.sqrt(mean) + 12.0d);
+        double fpp = 0.0d;
+        double logPoisson = -mean;
+        for (long j = 0; j <= limit; ++j) {
+            if (j > 0) {
+                logPoisson += logMean - Math.log(j);
+            }
+            fpp += Math.exp(logPoisson) * Math.pow(-Math.expm1(logUnset * j), numHashFunctions);
+        }
+        return fpp;
+    }
+
+    /**
+     * An expected false positive probability and the number of set bits it was calculated from.
+     */
+    private static final class FppEstimate {
+        private final long setBits;
+        private final double fpp;
+
+        FppEstimate(final long setBits, final double fpp) {
+            this.setBits = setBits;
+            this.fpp = fpp;
+        }
     }
 }
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.bloomfilter;
@@ -25,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -152,6 +154,158 @@ final class BloomFilterChain<T> implements BloomFilter<T> {
                 remainingCapacity);
     }
 
+    /**
+     * Writes the number of buckets in the chain followed by each bucket and its position in the pool. Buckets are
+     * written in chain order. Elements added while the snapshot is being written may or may not be included.
+     *
+     * @param out the snapshot being written.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    void writeTo(final BloomFilterSnapshot.Writer out) throws IOException {
+        final List<BloomFilter<T>> buckets;
+        final int[] bucketNumbers;
+        // Hold the lock so that no bucket is released and its number reused while the numbers are collected.
+        synchronized (chain) {
+            buckets = new ArrayList<BloomFilter<T>>(chain);
+            bucketNumbers = new int[buckets.size()];
+            for (int i = 0; i < bucketNumbers.length; ++i) {
+                bucketNumbers[i] = pool.indexOf(buckets.get(i));
+            }
+        }
+        out.putInt(buckets.size());
+        for (int i = 0; i < bucketNumbers.length; ++i) {
+            out.putInt(bucketNumbers[i]);
+            BloomFilterSnapshot.writeBucket(out, buckets.get(i));
+        }
+    }
+
+    /**
+     * Appends a bucket read from a snapshot to the chain, taking its position in the pool.
+     *
+     * @param bucket the bucket.
+     * @param bucketNumber the position of the bucket in the pool.
+     */
+    void restore(final BloomFilter<T> bucket, final int bucketNumber) {
+        synchronized (chain) {
+            pool.restore(bucket, bucketNumber);
+            chain.add(bucket);
+        }
+    }
+
+    /**
+     * Exports the bits set in each bucket since the previous export with the same cursor, and advances the cursor. A
+     * bucket is included if it has changed bits, if its latest expiry time has changed or if the cursor has not seen
+     * it before. The first export with a cursor includes every bit, including bits merged from other chains; later
+     * exports only include bits set by this chain, so that merged bits are not echoed back to the peers they came
+     * from.
+     *
+     * @param cursor the position of the previous export.
+     * @return the delta.
+     * @throws UnsupportedOperationException if a bucket is not an {@link AtomicBloomFilter}.
+     */
+    BloomFilterDelta exportDelta(final BloomFilterDelta.Cursor cursor) {
+        final List<BloomFilter<T>> buckets;
+        final int[] bucketNumbers;
+        synchronized (chain) {
+            buckets = new ArrayList<BloomFilter<T>>(chain);
+            bucketNumbers = new int[buckets.size()];
+            for (int i = 0; i < bucketNumbers.length; ++i) {
+                bucketNumbers[i] = pool.indexOf(buckets.get(i));
+            }
+        }
+        final List<BloomFilterDelta.Bucket> deltaBuckets = new ArrayList<BloomFilterDelta.Bucket>(buckets.size());
+        final List<Integer> exported = new ArrayList<Integer>(buckets.size());
+        for (int i = 0; i < bucketNumbers.length; ++i) {
+            final BloomFilter<T> bucket = buckets.get(i);
+            final AtomicBloomFilter<T> bits = bitsOf(bucket);
+            final boolean expiring = bucket instanceof ExpiringBloomFilter;
+            final BloomFilterDelta.Position previous = cursor.get(bucketNumbers[i]);
+            final boolean seen = previous != null && previous.bucketId == bits.getId();
+            // Elements raise the expiry time before setting their bits, so reading the expiry time after the bits
+            // gives a time that covers every element whose bits are exported.
+            final BloomFilterDelta.Bucket changes = bits.newDeltaBucket(bucketNumbers[i], expiring);
+            final int since = seen ? previous.version : cursor.isStarted() ? 1 : 0;
+            final int version = bits.exportChanges(since, changes);
+            final long latestExpiryTime = expiring
+                    ? ((ExpiringBloomFilter<T>) bucket).getLatestExpiryTime() : Long.MAX_VALUE;
+            changes.setLatestExpiryTime(latestExpiryTime);
+            if (!seen || changes.getBlockCount() > 0 || previous.latestExpiryTime != latestExpiryTime) {
+                deltaBuckets.add(changes);
+            }
+            cursor.put(bucketNumbers[i], new BloomFilterDelta.Position(bits.getId(), version, latestExpiryTime));
+            exported.add(bucketNumbers[i]);
+        }
+        cursor.retain(exported);
+        cursor.start();
+        return new BloomFilterDelta(deltaBuckets);
+    }
+
+    /**
+     * Merges the buckets of a delta into the buckets at the same positions in the pool. A bucket that is not in the
+     * chain is taken from the pool and added to the front of the chain, so that new elements continue to be added to
+     * the current last bucket, unless all of its elements have already expired. On failure, buckets earlier in the
+     * delta may already have been merged.
+     *
+     * @param delta the delta to merge.
+     * @param expiring whether the buckets of this chain expire.
+     * @throws IllegalArgumentException if a bucket of the delta does not have the parameters of the bucket at the
+     * same position in the pool.
+     * @throws UnsupportedOperationException if a bucket is not an {@link AtomicBloomFilter}.
+     */
+    @SuppressWarnings("unchecked")
+    void mergeDelta(final BloomFilterDelta delta, final boolean expiring) {
+        synchronized (chain) {
+            for (BloomFilterDelta.Bucket changes : delta.getBuckets()) {
+                Reject.ifFalse(changes.isExpiring() == expiring, "Delta bucket expiry does not match bloom filter");
+                BloomFilter<T> bucket = bucketAt(changes.getBucketNumber());
+                if (bucket == null) {
+                    if (changes.getLatestExpiryTime() < clock.now()) {
+                        LOGGER.debug("Skipping expired delta bucket: {}", changes);
+                        continue;
+                    }
+                    bucket = pool.take(changes.getBucketNumber());
+                    if (!bitsOf(bucket).matches(changes)) {
+                        pool.release(bucket);
+                        throw new IllegalArgumentException("Delta bucket does not match bloom filter: " + changes);
+                    }
+                    LOGGER.debug("Adding bucket for delta: {}", changes);
+                    chain.add(0, bucket);
+                }
+                final AtomicBloomFilter<T> bits = bitsOf(bucket);
+                Reject.ifFalse(bits.matches(changes), "Delta bucket does not match bloom filter");
+                if (expiring) {
+                    ((ExpiringBloomFilter<T>) bucket).mergeExpiryTime(changes.getLatestExpiryTime());
+                }
+                bits.merge(changes);
+            }
+        }
+    }
+
+    /**
+     * Returns the bucket in the chain at the given position in the pool, or {@code null} if there is none.
+     */
+    private BloomFilter<T> bucketAt(final int bucketNumber) {
+        for (BloomFilter<T> bucket : chain) {
+            if (pool.indexOf(bucket) == bucketNumber) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the bit-vector of a bucket, an {@link AtomicBloomFilter} optionally decorated by an
+     * {@link ExpiringBloomFilter}.
+     */
+    private static <T> AtomicBloomFilter<T> bitsOf(final BloomFilter<T> bucket) {
+        final BloomFilter<T> bits = bucket instanceof ExpiringBloomFilter
+                ? ((ExpiringBloomFilter<T>) bucket).getDelegate() : bucket;
+        if (!(bits instanceof AtomicBloomFilter)) {
+            throw new UnsupportedOperationException("Cannot export or merge the bits of " + bucket);
+        }
+        return (AtomicBloomFilter<T>) bits;
+    }
+
     /**
      * Returns a reference to the last bucket in the chain, creating a new bucket if the chain is empty or if the
      * last bucket is saturated. Additionally, this method will release any buckets that have expired.
@@ -0,0 +1,373 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.bloomfilter;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The bits set in the buckets of a {@link ConcurrentRollingBloomFilter} since some earlier point, as exported by
+ * {@link ConcurrentRollingBloomFilter#exportDelta(Cursor)}. Merging a delta into another bloom filter with the same
+ * configuration with {@link ConcurrentRollingBloomFilter#mergeDelta(BloomFilterDelta)} ORs the bits into the bucket
+ * with the same position in the bucket pool, so nodes of a cluster can share the elements each has added by
+ * exchanging changed words rather than the elements themselves. Merging is idempotent and commutative: a delta may be
+ * merged more than once, and deltas may be merged in any order.
+ * <p/>
+ * Each bucket of a delta carries the parameters of the bucket, which must match those of the bucket it is merged
+ * into, and the latest expiry time of its elements. Bits are carried in blocks of eight words, as laid out by
+ * {@link AtomicBloomFilter}, and only the non-zero words of a block are included. Use {@link #toByteArray()} and
+ * {@link #fromByteArray(byte[])} to send deltas between processes.
+ */
+@Immutable
+public final class BloomFilterDelta {
+    private static final int MAGIC = 0x52424644; // "RBFD"
+    private static final int VERSION = 1;
+    private static final int WORDS_PER_BLOCK = 8;
+
+    private final List<Bucket> buckets;
+
+    BloomFilterDelta(final List<Bucket> buckets) {
+        this.buckets = Collections.unmodifiableList(buckets);
+    }
+
+    List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Indicates whether merging this delta would change nothing: no bucket carries any bits.
+     *
+     * @return {@code true} if no bucket carries any bits.
+     */
+    public boolean isEmpty() {
+        for (Bucket bucket : buckets) {
+            if (bucket.getBlockCount() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of blocks of bits carried by this delta, over all buckets.
+     *
+     * @return the number of changed blocks.
+     */
+    public int getChangedBlockCount() {
+        int count = 0;
+        for (Bucket bucket : buckets) {
+            count += bucket.getBlockCount();
+        }
+        return count;
+    }
+
+    /**
+     * Encodes this delta for transmission to another process.
+     *
+     * @return the encoded delta.
+     */
+    public byte[] toByteArray() {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(buckets.size());
+            for (Bucket bucket : buckets) {
+                bucket.writeTo(out);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected error writing to memory", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a delta encoded by {@link #toByteArray()}.
+     *
+     * @param encoded the encoded delta.
+     * @return the delta.
+     * @throws IOException if the encoded delta is truncated or invalid.
+     */
+    public static BloomFilterDelta fromByteArray(final byte[] encoded) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a bloom filter delta");
+            }
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported bloom filter delta version " + version);
+            }
+            final int numBuckets = in.readInt();
+            if (numBuckets < 0) {
+                throw new IOException("Invalid bloom filter delta bucket count " + numBuckets);
+            }
+            final List<Bucket> buckets = new ArrayList<Bucket>(Math.min(numBuckets, 64));
+            for (int i = 0; i < numBuckets; ++i) {
+                buckets.add(Bucket.readFrom(in));
+            }
+            if (in.read() != -1) {
+                throw new IOException("Unexpected trailing bytes in bloom filter delta");
+            }
+            return new BloomFilterDelta(buckets);
+        } catch (EOFException e) {
+            throw new IOException("Bloom filter delta is truncated", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BloomFilterDelta{buckets=" + buckets + '}';
+    }
+
+    /**
+     * The changed blocks of one bucket.
+     */
+    @NotThreadSafe
+    static final class Bucket {
+        private final int bucketNumber;
+        private final long capacity;
+        private final double falsePositiveProbability;
+        private final int numHashFunctions;
+        private final int numBlocks;
+        private final boolean expiring;
+        private long latestExpiryTime = Long.MAX_VALUE;
+        private int blockCount;
+        private int wordCount;
+        private int[] blocks = new int[16];
+        private byte[] masks = new byte[16];
+        private long[] words = new long[64];
+
+        Bucket(final int bucketNumber, final long capacity, final double falsePositiveProbability,
+               final int numHashFunctions, final int numBlocks, final boolean expiring) {
+            this.bucketNumber = bucketNumber;
+            this.capacity = capacity;
+            this.falsePositiveProbability = falsePositiveProbability;
+            this.numHashFunctions = numHashFunctions;
+            this.numBlocks = numBlocks;
+            this.expiring = expiring;
+        }
+
+        /**
+         * Appends a block. Blocks must be added in increasing order.
+         *
+         * @param block the index of the block.
+         * @param blockWords the eight words of the block, starting at {@code offset}.
+         * @param offset the index of the first word of the block in {@code blockWords}.
+         */
+        void addBlock(final int block, final long[] blockWords, final int offset) {
+            int mask = 0;
+            for (int i = 0; i < WORDS_PER_BLOCK; ++i) {
+                if (blockWords[offset + i] != 0L) {
+                    mask |= 1 << i;
+                }
+            }
+            if (mask == 0) {
+                return;
+            }
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blockCount * 2);
+                masks = Arrays.copyOf(masks, blockCount * 2);
+            }
+            if (wordCount + WORDS_PER_BLOCK > words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            blocks[blockCount] = block;
+            masks[blockCount] = (byte) mask;
+            blockCount++;
+            for (int i = 0; i < WORDS_PER_BLOCK; ++i) {
+                if (blockWords[offset + i] != 0L) {
+                    words[wordCount++] = blockWords[offset + i];
+                }
+            }
+        }
+
+        int getBucketNumber() {
+            return bucketNumber;
+        }
+
+        long getCapacity() {
+            return capacity;
+        }
+
+        double getFalsePositiveProbability() {
+            return falsePositiveProbability;
+        }
+
+        int getNumHashFunctions() {
+            return numHashFunctions;
+        }
+
+        int getNumBlocks() {
+            return numBlocks;
+        }
+
+        boolean isExpiring() {
+            return expiring;
+        }
+
+        long getLatestExpiryTime() {
+            return latestExpiryTime;
+        }
+
+        void setLatestExpiryTime(final long latestExpiryTime) {
+            this.latestExpiryTime = latestExpiryTime;
+        }
+
+        int getBlockCount() {
+            return blockCount;
+        }
+
+        /**
+         * Index of the {@code i}th block carried by this bucket.
+         */
+        int getBlock(final int i) {
+            return blocks[i];
+        }
+
+        /**
+         * Bit {@code j} of the mask of the {@code i}th block is set if word {@code j} of the block is carried.
+         */
+        int getMask(final int i) {
+            return masks[i] & 0xff;
+        }
+
+        /**
+         * The carried words of all blocks, in order.
+         */
+        long[] getWords() {
+            return words;
+        }
+
+        private void writeTo(final DataOutputStream out) throws IOException {
+            out.writeInt(bucketNumber);
+            out.writeLong(capacity);
+            out.writeDouble(falsePositiveProbability);
+            out.writeInt(numHashFunctions);
+            out.writeInt(numBlocks);
+            out.writeBoolean(expiring);
+            out.writeLong(latestExpiryTime);
+            out.writeInt(blockCount);
+            int word = 0;
+            for (int i = 0; i < blockCount; ++i) {
+                out.writeInt(blocks[i]);
+                out.writeByte(masks[i]);
+                for (int j = Integer.bitCount(masks[i] & 0xff); j > 0; --j) {
+                    out.writeLong(words[word++]);
+                }
+            }
+        }
+
+        private static Bucket readFrom(final DataInputStream in) throws IOException {
+            final Bucket bucket = new Bucket(in.readInt(), in.readLong(), in.readDouble(), in.readInt(), in.readInt(),
+                    in.readBoolean());
+            bucket.setLatestExpiryTime(in.readLong());
+            final int numChangedBlocks = in.readInt();
+            if (numChangedBlocks < 0 || numChangedBlocks > bucket.numBlocks || bucket.numBlocks <= 0) {
+                throw new IOException("Invalid bloom filter delta block count " + numChangedBlocks);
+            }
+            final long[] blockWords = new long[WORDS_PER_BLOCK];
+            int previous = -1;
+            for (int i = 0; i < numChangedBlocks; ++i) {
+                final int block = in.readInt();
+                if (block <= previous || block >= bucket.numBlocks) {
+                    throw new IOException("Invalid bloom filter delta block index " + block);
+                }
+                previous = block;
+                final int mask = in.readByte() & 0xff;
+                for (int j = 0; j < WORDS_PER_BLOCK; ++j) {
+                    blockWords[j] = (mask & (1 << j)) != 0 ? in.readLong() : 0L;
+                }
+                bucket.addBlock(block, blockWords, 0);
+            }
+            return bucket;
+        }
+
+        @Override
+        public String toString() {
+            return "Bucket{bucketNumber=" + bucketNumber + ", capacity=" + capacity + ", blocks=" + blockCount + '}';
+        }
+    }
+
+    /**
+     * Remembers how far each bucket of a bloom filter has been exported, so that each call to
+     * {@link ConcurrentRollingBloomFilter#exportDelta(Cursor)} returns only the bits set since the previous call. A
+     * new cursor starts from the beginning: the first delta exported with it carries every bit of the filter, including
+     * bits merged from other filters, which suits a peer that has just joined. Later deltas only carry bits set by the
+     * filter itself. Use one cursor for each stream of deltas, for example one for all peers that receive every delta.
+     */
+    @NotThreadSafe
+    public static final class Cursor {
+        private final Map<Integer, Position> positions = new HashMap<Integer, Position>();
+        private boolean started;
+
+        /**
+         * Creates a cursor at the beginning of the filter.
+         */
+        public Cursor() {
+        }
+
+        Position get(final int bucketNumber) {
+            return positions.get(bucketNumber);
+        }
+
+        void put(final int bucketNumber, final Position position) {
+            positions.put(bucketNumber, position);
+        }
+
+        void retain(final Collection<Integer> bucketNumbers) {
+            positions.keySet().retainAll(bucketNumbers);
+        }
+
+        boolean isStarted() {
+            return started;
+        }
+
+        void start() {
+            started = true;
+        }
+    }
+
+    /**
+     * The export position of one bucket: which bucket it was, the version at which it was last exported and the
+     * expiry time sent with it.
+     */
+    @Immutable
+    static final class Position {
+        final long bucketId;
+        final int version;
+        final long latestExpiryTime;
+
+        Position(final long bucketId, final int version, final long latestExpiryTime) {
+            this.bucketId = bucketId;
+            this.version = version;
+            this.latestExpiryTime = latestExpiryTime;
+        }
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.bloomfilter;
@@ -31,6 +32,16 @@ interface BloomFilterPool<T> {
      */
     BloomFilter<T> nextAvailable();
 
+    /**
+     * Returns a new bloom filter at the given position in the pool, as if it had been returned by
+     * {@link #nextAvailable()}. Used to create the bucket that a bucket of another pool with the same parameters is
+     * merged into.
+     *
+     * @param index the position in the pool.
+     * @throws IllegalStateException if the position is already taken.
+     */
+    BloomFilter<T> take(int index);
+
     /**
      * Releases a bloom filter back to the pool to be reused.
      *
@@ -38,6 +49,23 @@ interface BloomFilterPool<T> {
      */
     void release(BloomFilter<T> released);
 
+    /**
+     * Returns the position in the pool of a bloom filter obtained from {@link #nextAvailable()}.
+     *
+     * @param bucket a bloom filter taken from this pool.
+     */
+    int indexOf(BloomFilter<T> bucket);
+
+    /**
+     * Marks the position in the pool as taken by the given bloom filter, as if it had been returned by
+     * {@link #nextAvailable()}. Used to rebuild a pool from a snapshot.
+     *
+     * @param bucket the bloom filter that holds the position.
+     * @param index the position in the pool.
+     * @throws IllegalStateException if the position is already taken.
+     */
+    void restore(BloomFilter<T> bucket, int index);
+
     /**
      * The overall false positive probability that this pool is trying to achieve.
      */
@@ -0,0 +1,324 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import com.google.common.hash.Funnel;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot format for the buckets of a {@link ConcurrentRollingBloomFilter}. A snapshot holds the settings of
+ * the bucket pool followed by each bucket in the chain: its number in the geometric series, the latest expiry time of
+ * its elements and the raw words of its {@link AtomicBloomFilter} bit-vector. Loading a snapshot copies the words
+ * straight back into the bit-vector, so no element is rehashed.
+ * <p/>
+ * All values are big-endian. The file ends with a CRC-32 of everything before it:
+ * <pre>
+ *     snapshot  := magic:int version:int pool bucketCount:int bucket* crc:long
+ *     pool      := initialCapacity:long capacityGrowthFactor:double initialFpp:double fppScaleFactor:double
+ *                  maxBuckets:int
+ *     bucket    := bucketNumber:int filter
+ *     filter    := EXPIRING latestExpiryTime:long filter
+ *                | ATOMIC capacity:long fpp:double numHashFunctions:int numBlocks:int word:long*
+ * </pre>
+ * Snapshots are written to a temporary file which then replaces the target, so a crash while writing never leaves a
+ * torn snapshot behind, and are read through a read-only memory mapping of the file.
+ */
+final class BloomFilterSnapshot {
+    static final int MAGIC = 0x52424653; // "RBFS"
+    static final int VERSION = 1;
+    private static final byte ATOMIC = 1;
+    private static final byte EXPIRING = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final int TRAILER_SIZE = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private BloomFilterSnapshot() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Writes a snapshot to a temporary file next to the given file and then moves it into place.
+     *
+     * @param file the file to write.
+     * @param content writes the body of the snapshot.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    static void write(final Path file, final Content content) throws IOException {
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = new Writer(FileChannel.open(temp, CREATE, TRUNCATE_EXISTING, WRITE))) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            content.writeTo(out);
+            out.finish();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a snapshot file into memory and checks its header and checksum.
+     *
+     * @param file the file to read.
+     * @return a reader positioned at the start of the body of the snapshot.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    static Reader read(final Path file) throws IOException {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            final long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("Bloom filter snapshot is truncated: " + file);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Bloom filter snapshot is too large to map: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        final int end = buffer.capacity() - TRAILER_SIZE;
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(end));
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a bloom filter snapshot: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported bloom filter snapshot version " + buffer.getInt(4) + ": " + file);
+        }
+        if (buffer.getLong(end) != crc.getValue()) {
+            throw new IOException("Bloom filter snapshot is corrupt: " + file);
+        }
+        buffer.position(HEADER_SIZE).limit(end);
+        return new Reader(buffer);
+    }
+
+    /**
+     * Writes a bucket of a bloom filter chain.
+     *
+     * @param out the snapshot being written.
+     * @param bucket the bucket to write, an {@link AtomicBloomFilter} optionally decorated by an
+     *               {@link ExpiringBloomFilter}.
+     * @throws IOException if the snapshot cannot be written.
+     * @throws UnsupportedOperationException if the bucket is of some other type.
+     */
+    static void writeBucket(final Writer out, final BloomFilter<?> bucket) throws IOException {
+        if (bucket instanceof ExpiringBloomFilter) {
+            out.putByte(EXPIRING);
+            ((ExpiringBloomFilter<?>) bucket).writeTo(out);
+        } else if (bucket instanceof AtomicBloomFilter) {
+            out.putByte(ATOMIC);
+            ((AtomicBloomFilter<?>) bucket).writeTo(out);
+        } else {
+            throw new UnsupportedOperationException("Cannot write a snapshot of " + bucket);
+        }
+    }
+
+    /**
+     * Reads a bucket written by {@link #writeBucket(Writer, BloomFilter)}.
+     *
+     * @param in the snapshot being read.
+     * @param funnel the funnel used to hash elements of the bucket.
+     * @param expiryStrategy the expiry strategy of the bucket, or {@code null} if elements never expire.
+     * @param <T> the type of elements in the bucket.
+     * @return the bucket.
+     * @throws IOException if the bucket does not match the expiry strategy.
+     */
+    static <T> BloomFilter<T> readBucket(final Reader in, final Funnel<? super T> funnel,
+                                         final ExpiryStrategy<T> expiryStrategy) throws IOException {
+        final byte type = in.getByte();
+        if (type == EXPIRING && expiryStrategy != null) {
+            return ExpiringBloomFilter.readFrom(in, funnel, expiryStrategy);
+        } else if (type == ATOMIC && expiryStrategy == null) {
+            return AtomicBloomFilter.readFrom(in, funnel);
+        }
+        throw new IOException("Bloom filter snapshot bucket type " + type + " does not match the configured "
+                + (expiryStrategy == null ? "scalable" : "rolling") + " bloom filter");
+    }
+
+    /**
+     * The body of a snapshot, written between the header and the checksum.
+     */
+    interface Content {
+        void writeTo(Writer out) throws IOException;
+    }
+
+    /**
+     * Buffers values and writes them to a file channel, keeping a running checksum.
+     */
+    @NotThreadSafe
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        private final CRC32 crc = new CRC32();
+
+        Writer(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putByte(final byte value) throws IOException {
+            ensureRemaining(1);
+            buffer.put(value);
+        }
+
+        void putInt(final int value) throws IOException {
+            ensureRemaining(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(final long value) throws IOException {
+            ensureRemaining(8);
+            buffer.putLong(value);
+        }
+
+        void putDouble(final double value) throws IOException {
+            ensureRemaining(8);
+            buffer.putDouble(value);
+        }
+
+        /**
+         * Writes every word of the array. Words updated concurrently may be written before or after the update.
+         */
+        void putWords(final AtomicLongArray words) throws IOException {
+            for (int i = 0; i < words.length(); ++i) {
+                ensureRemaining(8);
+                buffer.putLong(words.get(i));
+            }
+        }
+
+        /**
+         * Writes the checksum and forces the file to disk.
+         */
+        void finish() throws IOException {
+            flush();
+            buffer.putLong(crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            channel.force(false);
+        }
+
+        private void ensureRemaining(final int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads values from a mapped snapshot file.
+     */
+    @NotThreadSafe
+    static final class Reader {
+        private final ByteBuffer buffer;
+
+        Reader(final ByteBuffer buffer) {
+            this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        }
+
+        byte getByte() throws IOException {
+            try {
+                return buffer.get();
+            } catch (BufferUnderflowException e) {
+                throw truncated(e);
+            }
+        }
+
+        int getInt() throws IOException {
+            try {
+                return buffer.getInt();
+            } catch (BufferUnderflowException e) {
+                throw truncated(e);
+            }
+        }
+
+        long getLong() throws IOException {
+            try {
+                return buffer.getLong();
+            } catch (BufferUnderflowException e) {
+                throw truncated(e);
+            }
+        }
+
+        double getDouble() throws IOException {
+            try {
+                return buffer.getDouble();
+            } catch (BufferUnderflowException e) {
+                throw truncated(e);
+            }
+        }
+
+        /**
+         * Bulk copies the given number of words out of the snapshot.
+         */
+        long[] getWords(final int count) throws IOException {
+            if (count < 0 || buffer.remaining() / 8 < count) {
+                throw new IOException("Bloom filter snapshot is truncated");
+            }
+            final long[] words = new long[count];
+            buffer.asLongBuffer().get(words);
+            buffer.position(buffer.position() + count * 8);
+            return words;
+        }
+
+        /**
+         * Checks that every value of the snapshot has been read.
+         */
+        void finish() throws IOException {
+            if (buffer.hasRemaining()) {
+                throw new IOException("Bloom filter snapshot has " + buffer.remaining() + " unexpected trailing bytes");
+            }
+        }
+
+        private static IOException truncated(final BufferUnderflowException cause) {
+            return new IOException("Bloom filter snapshot is truncated", cause);
+        }
+    }
+}
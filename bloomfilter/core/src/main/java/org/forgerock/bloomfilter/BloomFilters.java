@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.bloomfilter;
@@ -22,6 +23,9 @@ import org.forgerock.util.Reject;
 import org.forgerock.util.annotations.VisibleForTesting;
 import org.forgerock.util.time.TimeService;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * Factory methods for creating bloom filters with various requirements.
  */
@@ -280,6 +284,23 @@ public final class BloomFilters {
             return new RollingBloomFilterBuilder<T>(this).withExpiryStrategy(NeverExpires.<T>strategy())
                     .buildBloomFilter();
         }
+
+        /**
+         * Builds the bloom filter with the configured options and loads its contents from a snapshot written by
+         * {@link ConcurrentRollingBloomFilter#writeSnapshot(Path)}. Elements are not rehashed, so loading takes
+         * little more than the time needed to read the file. The configuration must match that of the bloom filter
+         * that wrote the snapshot, and the concurrency strategy must be {@link ConcurrencyStrategy#ATOMIC}. Write
+         * batching is not applied to the loaded filter.
+         *
+         * @param file the snapshot file.
+         * @return the bloom filter holding the contents of the snapshot.
+         * @throws IOException if the snapshot cannot be read, is corrupt or does not match the configuration.
+         * @throws UnsupportedOperationException if the concurrency strategy is not {@link ConcurrencyStrategy#ATOMIC}.
+         */
+        public ConcurrentRollingBloomFilter<T> buildFromSnapshot(final Path file) throws IOException {
+            return new RollingBloomFilterBuilder<T>(this).withExpiryStrategy(NeverExpires.<T>strategy())
+                    .buildFromSnapshot(file);
+        }
     }
 
     /**
@@ -315,5 +336,11 @@ public final class BloomFilters {
             Reject.ifNull(expiryStrategy, "No expiry strategy specified");
             return new ConcurrentRollingBloomFilter<T>(this);
         }
+
+        @Override
+        public ConcurrentRollingBloomFilter<T> buildFromSnapshot(final Path file) throws IOException {
+            Reject.ifNull(expiryStrategy, "No expiry strategy specified");
+            return ConcurrentRollingBloomFilter.readSnapshot(this, file);
+        }
     }
 }
@@ -12,15 +12,19 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.bloomfilter;
 
+import com.google.common.hash.Funnel;
 import org.forgerock.util.Reject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
 
 /**
@@ -33,21 +37,36 @@ import java.util.Collection;
  * critical and writes are relatively rare. Write performance may be improved by batching writes via the
  * {@link #addAll(Collection)} method, or by using some external synchronisation mechanism to perform pre-emptive
  * locking (at the cost of reducing read performance).
+ * <p/>
+ * When built with the {@link ConcurrencyStrategy#ATOMIC} strategy the buckets of the filter, together with the expiry
+ * time of each, can be saved with {@link #writeSnapshot(Path)} and loaded again with
+ * {@link BloomFilters.ScalableBloomFilterBuilder#buildFromSnapshot(Path)}, letting a restarted process resume with the
+ * filter it had rather than rebuilding it element by element. Such a filter can also be kept in step with filters
+ * of the same configuration on other nodes by exchanging {@link BloomFilterDelta deltas}: each node periodically
+ * sends {@link #exportDelta(BloomFilterDelta.Cursor)} to its peers, which {@link #mergeDelta(BloomFilterDelta) merge}
+ * it into their own filter.
  */
 @ThreadSafe
 public final class ConcurrentRollingBloomFilter<T> implements BloomFilter<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentRollingBloomFilter.class);
 
     private final BloomFilterChain<T> bucketChain;
-    private final BloomFilterPool<T> bucketPool;
+    private final GeometricSeriesBloomFilterPool<T> bucketPool;
     private final ConcurrencyStrategy concurrencyStrategy;
+    private final Funnel<? super T> funnel;
+    /** The expiry strategy of the buckets, or {@code null} if elements never expire. */
+    private final ExpiryStrategy<T> expiryStrategy;
 
     ConcurrentRollingBloomFilter(final BloomFilters.RollingBloomFilterBuilder<T> builder) {
         this.concurrencyStrategy = builder.concurrencyStrategy;
+        this.funnel = builder.funnel;
 
         BloomFilterFactory<T> factory = concurrencyStrategy.<T>getFactory(builder.funnel);
         if (builder.expiryStrategy != BloomFilters.NeverExpires.strategy()) {
             factory = new ExpiringBloomFilterFactory<T>(factory, builder.expiryStrategy);
+            this.expiryStrategy = builder.expiryStrategy;
+        } else {
+            this.expiryStrategy = null;
         }
         this.bucketPool = new GeometricSeriesBloomFilterPool<T>(factory, builder.maxNumberOfBuckets,
                 builder.initialCapacity, builder.capacityGrowthFactor,
@@ -97,6 +116,105 @@ public final class ConcurrentRollingBloomFilter<T> implements BloomFilter<T> {
     }
 
 
+    /**
+     * Writes a snapshot of this bloom filter to the given file, replacing any existing file. The snapshot holds the
+     * bit-vector and expiry time of every bucket. It is written to a temporary file in the same directory, which is
+     * then moved into place, so the file always holds a complete snapshot.
+     * <p/>
+     * Elements added while the snapshot is being written may or may not be included in it, so a caller that needs
+     * every element should replay those added since it called this method when loading the snapshot.
+     *
+     * @param file the file to write.
+     * @throws IOException if the snapshot cannot be written.
+     * @throws UnsupportedOperationException if the filter was not built with the {@link ConcurrencyStrategy#ATOMIC}
+     * concurrency strategy.
+     */
+    public void writeSnapshot(final Path file) throws IOException {
+        Reject.ifNull(file);
+        checkAtomic(concurrencyStrategy, "Snapshots");
+        final long start = System.nanoTime();
+        BloomFilterSnapshot.write(file, out -> {
+            bucketPool.writeTo(out);
+            bucketChain.writeTo(out);
+        });
+        LOGGER.debug("Wrote snapshot {} in {}us", file, (System.nanoTime() - start) / 1000L);
+    }
+
+    /**
+     * Creates a bloom filter with the given configuration and loads its buckets from a snapshot written by
+     * {@link #writeSnapshot(Path)}. The bit-vectors are copied from the snapshot without rehashing any element.
+     *
+     * @param builder the configuration, which must match the configuration of the filter that wrote the snapshot.
+     * @param file the snapshot file.
+     * @param <T> the type of elements in the bloom filter.
+     * @return the bloom filter.
+     * @throws IOException if the snapshot cannot be read, is corrupt or was written with a different configuration.
+     */
+    static <T> ConcurrentRollingBloomFilter<T> readSnapshot(final BloomFilters.RollingBloomFilterBuilder<T> builder,
+                                                            final Path file) throws IOException {
+        Reject.ifNull(file);
+        checkAtomic(builder.concurrencyStrategy, "Snapshots");
+        final long start = System.nanoTime();
+        final ConcurrentRollingBloomFilter<T> filter = new ConcurrentRollingBloomFilter<T>(builder);
+        final BloomFilterSnapshot.Reader in = BloomFilterSnapshot.read(file);
+        filter.bucketPool.checkSnapshot(in);
+        final int numBuckets = in.getInt();
+        for (int i = 0; i < numBuckets; ++i) {
+            final int bucketNumber = in.getInt();
+            final BloomFilter<T> bucket = BloomFilterSnapshot.readBucket(in, filter.funnel, filter.expiryStrategy);
+            try {
+                filter.bucketChain.restore(bucket, bucketNumber);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                throw new IOException("Invalid bucket number in bloom filter snapshot: " + bucketNumber, e);
+            }
+        }
+        in.finish();
+        LOGGER.debug("Loaded {} buckets from snapshot {} in {}us", numBuckets, file,
+                (System.nanoTime() - start) / 1000L);
+        return filter;
+    }
+
+    /**
+     * Exports the bits set in this bloom filter since the previous export with the same cursor, and advances the
+     * cursor. Merging the delta into another bloom filter with the same configuration, on this or another node, with
+     * {@link #mergeDelta(BloomFilterDelta)} adds the elements added here since the previous export, along with any
+     * added earlier. Bits merged into this filter from other deltas are only exported by the first export with a new
+     * cursor, so every node should merge the deltas of every other node.
+     *
+     * @param cursor the position of the previous export with this cursor.
+     * @return the delta, which may be empty.
+     * @throws UnsupportedOperationException if the filter was not built with the {@link ConcurrencyStrategy#ATOMIC}
+     * concurrency strategy.
+     */
+    public BloomFilterDelta exportDelta(final BloomFilterDelta.Cursor cursor) {
+        Reject.ifNull(cursor);
+        checkAtomic(concurrencyStrategy, "Deltas");
+        return bucketChain.exportDelta(cursor);
+    }
+
+    /**
+     * Merges a delta exported by a bloom filter with the same configuration into this one, so that this filter might
+     * contain every element that the exporting filter might contain. Merging the same delta again has no effect, and
+     * deltas may be merged in any order.
+     *
+     * @param delta the delta to merge.
+     * @throws IllegalArgumentException if the delta was exported by a filter with a different configuration.
+     * @throws UnsupportedOperationException if the filter was not built with the {@link ConcurrencyStrategy#ATOMIC}
+     * concurrency strategy.
+     */
+    public void mergeDelta(final BloomFilterDelta delta) {
+        Reject.ifNull(delta);
+        checkAtomic(concurrencyStrategy, "Deltas");
+        bucketChain.mergeDelta(delta, expiryStrategy != null);
+    }
+
+    private static void checkAtomic(final ConcurrencyStrategy concurrencyStrategy, final String feature) {
+        if (concurrencyStrategy != ConcurrencyStrategy.ATOMIC) {
+            throw new UnsupportedOperationException(feature + " require the " + ConcurrencyStrategy.ATOMIC
+                    + " concurrency strategy, not " + concurrencyStrategy);
+        }
+    }
+
     @Override
     public String toString() {
         return "ConcurrentRollingBloomFilter{" +
@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2011 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+// Portions Copyrighted 2026 3A Systems LLC.
+
+package org.forgerock.bloomfilter;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.PrimitiveSink;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Computes the 128-bit Murmur3 hash of an element straight into two longs, without allocating. The result is the same
+ * as {@code Hashing.murmur3_128().hashObject(element, funnel)}: {@link #getHash1()} is the first eight bytes of the
+ * hash code read as a little-endian long, and {@link #getHash2()} is the last eight. Each thread reuses a single
+ * instance, obtained through {@link #hash(Object, Funnel)}.
+ */
+@NotThreadSafe
+final class ElementHasher implements PrimitiveSink {
+    // Implementation derived from Guava Murmur3_128HashFunction, with a seed of zero.
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private static final ThreadLocal<ElementHasher> HASHER = ThreadLocal.withInitial(ElementHasher::new);
+
+    private long h1;
+    private long h2;
+    private long k1;
+    private long k2;
+    private int pending;
+    private long length;
+
+    /**
+     * Hashes the given element with the calling thread's hasher.
+     *
+     * @param element the element to hash.
+     * @param funnel the funnel to use for serialising the element.
+     * @param <T> the type of the element.
+     * @return the calling thread's hasher, holding the hash of the element until it is next used.
+     */
+    static <T> ElementHasher hash(final T element, final Funnel<? super T> funnel) {
+        final ElementHasher hasher = HASHER.get();
+        hasher.reset();
+        funnel.funnel(element, hasher);
+        hasher.finish();
+        return hasher;
+    }
+
+    /**
+     * Clears any state left by a previous element.
+     */
+    void reset() {
+        h1 = 0;
+        h2 = 0;
+        k1 = 0;
+        k2 = 0;
+        pending = 0;
+        length = 0;
+    }
+
+    /**
+     * Completes the hash of the bytes written since the last {@link #reset()}.
+     */
+    void finish() {
+        if (pending > 0) {
+            h1 ^= mixK1(k1);
+            h2 ^= mixK2(k2);
+        }
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+    }
+
+    /**
+     * The first eight bytes of the hash, read as a little-endian long.
+     *
+     * @return the lower half of the hash.
+     */
+    long getHash1() {
+        return h1;
+    }
+
+    /**
+     * The last eight bytes of the hash, read as a little-endian long.
+     *
+     * @return the upper half of the hash.
+     */
+    long getHash2() {
+        return h2;
+    }
+
+    @Override
+    public ElementHasher putByte(final byte b) {
+        update(b & 0xFFL, 1);
+        return this;
+    }
+
+    @Override
+    public ElementHasher putBytes(final byte[] bytes) {
+        return putBytes(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public ElementHasher putBytes(final byte[] bytes, final int off, final int len) {
+        int i = off;
+        final int end = off + len;
+        for (; i + 8 <= end; i += 8) {
+            update((bytes[i] & 0xFFL)
+                    | (bytes[i + 1] & 0xFFL) << 8
+                    | (bytes[i + 2] & 0xFFL) << 16
+                    | (bytes[i + 3] & 0xFFL) << 24
+                    | (bytes[i + 4] & 0xFFL) << 32
+                    | (bytes[i + 5] & 0xFFL) << 40
+                    | (bytes[i + 6] & 0xFFL) << 48
+                    | (bytes[i + 7] & 0xFFL) << 56, 8);
+        }
+        for (; i < end; i++) {
+            update(bytes[i] & 0xFFL, 1);
+        }
+        return this;
+    }
+
+    @Override
+    public ElementHasher putBytes(final ByteBuffer bytes) {
+        while (bytes.hasRemaining()) {
+            update(bytes.get() & 0xFFL, 1);
+        }
+        return this;
+    }
+
+    @Override
+    public ElementHasher putShort(final short s) {
+        update(s & 0xFFFFL, 2);
+        return this;
+    }
+
+    @Override
+    public ElementHasher putInt(final int i) {
+        update(i & 0xFFFFFFFFL, 4);
+        return this;
+    }
+
+    @Override
+    public ElementHasher putLong(final long l) {
+        update(l, 8);
+        return this;
+    }
+
+    @Override
+    public ElementHasher putFloat(final float f) {
+        return putInt(Float.floatToRawIntBits(f));
+    }
+
+    @Override
+    public ElementHasher putDouble(final double d) {
+        return putLong(Double.doubleToRawLongBits(d));
+    }
+
+    @Override
+    public ElementHasher putBoolean(final boolean b) {
+        return putByte(b ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public ElementHasher putChar(final char c) {
+        update(c, 2);
+        return this;
+    }
+
+    @Override
+    public ElementHasher putUnencodedChars(final CharSequence charSequence) {
+        for (int i = 0, len = charSequence.length(); i < len; i++) {
+            update(charSequence.charAt(i), 2);
+        }
+        return this;
+    }
+
+    @Override
+    public ElementHasher putString(final CharSequence charSequence, final Charset charset) {
+        if (!StandardCharsets.UTF_8.equals(charset)) {
+            return putBytes(charSequence.toString().getBytes(charset));
+        }
+        // Encode as String.getBytes(UTF_8) would, including replacing unpaired surrogates with '?'.
+        final int len = charSequence.length();
+        for (int i = 0; i < len; i++) {
+            final char c = charSequence.charAt(i);
+            if (c < 0x80) {
+                update(c, 1);
+            } else if (c < 0x800) {
+                update((0xC0 | c >>> 6) | (0x80 | c & 0x3F) << 8, 2);
+            } else if (!Character.isSurrogate(c)) {
+                update((0xE0 | c >>> 12) | (0x80 | c >>> 6 & 0x3F) << 8 | (0x80 | c & 0x3F) << 16, 3);
+            } else if (Character.isHighSurrogate(c) && i + 1 < len
+                    && Character.isLowSurrogate(charSequence.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, charSequence.charAt(++i));
+                update((0xF0 | codePoint >>> 18)
+                        | (0x80 | codePoint >>> 12 & 0x3F) << 8
+                        | (0x80 | codePoint >>> 6 & 0x3F) << 16
+                        | (0x80L | codePoint & 0x3F) << 24, 4);
+            } else {
+                update('?', 1);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends the given number of bytes, taken little-endian from the low bytes of the value, mixing each complete
+     * block of sixteen bytes into the hash.
+     *
+     * @param value the bytes to append, with all higher bytes zero.
+     * @param bytes the number of bytes to append, between one and eight.
+     */
+    private void update(final long value, final int bytes) {
+        length += bytes;
+        if (pending < 8) {
+            k1 |= value << (pending << 3);
+            if (pending + bytes > 8) {
+                k2 = value >>> ((8 - pending) << 3);
+            }
+            pending += bytes;
+        } else {
+            k2 |= value << ((pending - 8) << 3);
+            pending += bytes;
+            if (pending >= 16) {
+                bmix64(k1, k2);
+                pending -= 16;
+                k1 = pending > 0 ? value >>> ((bytes - pending) << 3) : 0;
+                k2 = 0;
+            }
+        }
+    }
+
+    private void bmix64(final long k1, final long k2) {
+        h1 ^= mixK1(k1);
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        h2 ^= mixK2(k2);
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+}
@@ -12,15 +12,18 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.bloomfilter;
 
+import com.google.common.hash.Funnel;
 import org.forgerock.util.Reject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -33,13 +36,20 @@ final class ExpiringBloomFilter<T> implements BloomFilter<T> {
     private final BloomFilter<T> delegate;
     private final ExpiryStrategy<T> expiryStrategy;
 
-    private final AtomicLong latestExpiryTime = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong latestExpiryTime;
 
     ExpiringBloomFilter(final BloomFilter<T> delegate,
                         final ExpiryStrategy<T> expiryStrategy) {
+        this(delegate, expiryStrategy, Long.MIN_VALUE);
+    }
+
+    private ExpiringBloomFilter(final BloomFilter<T> delegate,
+                                final ExpiryStrategy<T> expiryStrategy,
+                                final long latestExpiryTime) {
         Reject.ifNull(delegate, expiryStrategy);
         this.delegate = delegate;
         this.expiryStrategy = expiryStrategy;
+        this.latestExpiryTime = new AtomicLong(latestExpiryTime);
     }
 
     @Override
@@ -70,6 +80,51 @@ final class ExpiringBloomFilter<T> implements BloomFilter<T> {
                 stats.getEstimatedRemainingCapacity());
     }
 
+    /**
+     * Writes the latest expiry time followed by the delegate bloom filter to a snapshot.
+     *
+     * @param out the snapshot being written.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    void writeTo(final BloomFilterSnapshot.Writer out) throws IOException {
+        out.putLong(latestExpiryTime.get());
+        BloomFilterSnapshot.writeBucket(out, delegate);
+    }
+
+    /**
+     * Reads a bloom filter written by {@link #writeTo(BloomFilterSnapshot.Writer)}.
+     *
+     * @param in the snapshot being read.
+     * @param funnel the funnel to use for serialising objects for hashing.
+     * @param expiryStrategy the strategy for determining element expiry time.
+     * @param <T> the type of elements in the bloom filter.
+     * @return the bloom filter.
+     * @throws IOException if the snapshot is truncated or invalid.
+     */
+    static <T> ExpiringBloomFilter<T> readFrom(final BloomFilterSnapshot.Reader in, final Funnel<? super T> funnel,
+                                               final ExpiryStrategy<T> expiryStrategy) throws IOException {
+        final long latestExpiryTime = in.getLong();
+        final BloomFilter<T> delegate = BloomFilterSnapshot.readBucket(in, funnel, null);
+        return new ExpiringBloomFilter<T>(delegate, expiryStrategy, latestExpiryTime);
+    }
+
+    BloomFilter<T> getDelegate() {
+        return delegate;
+    }
+
+    long getLatestExpiryTime() {
+        return latestExpiryTime.get();
+    }
+
+    /**
+     * Raises the latest expiry time to that of a bucket merged into this one, if it is later.
+     *
+     * @param mergedExpiryTime the latest expiry time of the merged bucket.
+     */
+    void mergeExpiryTime(final long mergedExpiryTime) {
+        updateExpiryTime(mergedExpiryTime);
+    }
+
     /**
      * Atomic update of the latest expiry time.
      * @param newExpiryTime the candidate new latest expiry time.
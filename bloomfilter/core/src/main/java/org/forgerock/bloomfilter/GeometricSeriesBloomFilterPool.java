@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.bloomfilter;
@@ -24,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
 import java.util.BitSet;
 import java.util.IdentityHashMap;
 import java.util.Map;
@@ -131,6 +133,23 @@ final class GeometricSeriesBloomFilterPool<T> implements BloomFilterPool<T> {
             bucketNumbers.set(bucketNumber);
         }
 
+        return create(bucketNumber);
+    }
+
+    @Override
+    public BloomFilter<T> take(final int bucketNumber) {
+        Reject.ifFalse(bucketNumber >= 0 && bucketNumber < maxBuckets, "Bucket number out of range");
+        synchronized (bucketNumbers) {
+            if (bucketNumbers.get(bucketNumber)) {
+                throw new IllegalStateException("Bucket number already taken: " + bucketNumber);
+            }
+            bucketNumbers.set(bucketNumber);
+        }
+
+        return create(bucketNumber);
+    }
+
+    private BloomFilter<T> create(final int bucketNumber) {
         final long capacity = (long) (initialCapacity * pow(capacityGrowthFactor, bucketNumber));
         final double fpp =
                 initialFalsePositiveProbability * pow(falsePositiveProbabilityScaleFactor, bucketNumber);
@@ -157,6 +176,67 @@ final class GeometricSeriesBloomFilterPool<T> implements BloomFilterPool<T> {
         }
     }
 
+    @Override
+    public int indexOf(final BloomFilter<T> bucket) {
+        final Integer bucketNumber = takenBucketNumbers.get(bucket);
+        if (bucketNumber == null) {
+            throw new NoSuchElementException("Bloom filter was not taken from this pool: " + bucket);
+        }
+        return bucketNumber;
+    }
+
+    @Override
+    public void restore(final BloomFilter<T> bucket, final int bucketNumber) {
+        Reject.ifFalse(bucketNumber >= 0 && bucketNumber < maxBuckets, "Bucket number out of range");
+        synchronized (bucketNumbers) {
+            if (bucketNumbers.get(bucketNumber)) {
+                throw new IllegalStateException("Bucket number already taken: " + bucketNumber);
+            }
+            bucketNumbers.set(bucketNumber);
+        }
+        takenBucketNumbers.put(bucket, bucketNumber);
+    }
+
+    /**
+     * Writes the parameters of the geometric series to a snapshot.
+     *
+     * @param out the snapshot being written.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    void writeTo(final BloomFilterSnapshot.Writer out) throws IOException {
+        out.putLong(initialCapacity);
+        out.putDouble(capacityGrowthFactor);
+        out.putDouble(initialFalsePositiveProbability);
+        out.putDouble(falsePositiveProbabilityScaleFactor);
+        out.putInt(maxBuckets);
+    }
+
+    /**
+     * Reads the parameters written by {@link #writeTo(BloomFilterSnapshot.Writer)} and checks that they match the
+     * parameters of this pool, so that buckets restored from the snapshot fit the series.
+     *
+     * @param in the snapshot being read.
+     * @throws IOException if the snapshot was written by a pool with different parameters.
+     */
+    void checkSnapshot(final BloomFilterSnapshot.Reader in) throws IOException {
+        final long snapshotInitialCapacity = in.getLong();
+        final double snapshotCapacityGrowthFactor = in.getDouble();
+        final double snapshotInitialFalsePositiveProbability = in.getDouble();
+        final double snapshotFalsePositiveProbabilityScaleFactor = in.getDouble();
+        final int snapshotMaxBuckets = in.getInt();
+        if (snapshotInitialCapacity != initialCapacity
+                || Double.compare(snapshotCapacityGrowthFactor, capacityGrowthFactor) != 0
+                || Double.compare(snapshotInitialFalsePositiveProbability, initialFalsePositiveProbability) != 0
+                || Double.compare(snapshotFalsePositiveProbabilityScaleFactor, falsePositiveProbabilityScaleFactor) != 0
+                || snapshotMaxBuckets != maxBuckets) {
+            throw new IOException("Bloom filter snapshot was written with different settings: initialCapacity="
+                    + snapshotInitialCapacity + ", capacityGrowthFactor=" + snapshotCapacityGrowthFactor
+                    + ", initialFalsePositiveProbability=" + snapshotInitialFalsePositiveProbability
+                    + ", falsePositiveProbabilityScaleFactor=" + snapshotFalsePositiveProbabilityScaleFactor
+                    + ", maxBuckets=" + snapshotMaxBuckets + "; expected " + this);
+        }
+    }
+
     @Override
     public double getOverallFalsePositiveProbability() {
         return initialFalsePositiveProbability / (1.0d - falsePositiveProbabilityScaleFactor);
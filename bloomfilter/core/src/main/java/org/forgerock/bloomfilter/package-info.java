@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 /**
@@ -95,6 +96,22 @@
  * good choice when throughput is paramount and occasional high write latencies can be tolerated. Use
  * {@link org.forgerock.bloomfilter.BloomFilters.BloomFilterBuilder#withWriteBatchSize(int)} to enable write batching.
  *
+ * <h2>Snapshots</h2>
+ * Scalable and rolling Bloom Filters built with the ATOMIC concurrency strategy can be saved to a file with {@link
+ * org.forgerock.bloomfilter.ConcurrentRollingBloomFilter#writeSnapshot(java.nio.file.Path)} and loaded again with
+ * {@link org.forgerock.bloomfilter.BloomFilters.ScalableBloomFilterBuilder#buildFromSnapshot(java.nio.file.Path)},
+ * configured exactly as the filter that wrote the snapshot. Loading copies the bits of each bucket straight from the
+ * file, so a restarted process can resume with its filter in a fraction of the time needed to add every element again.
+ *
+ * <h2>Replication</h2>
+ * Such filters can also be shared between the nodes of a cluster. Each node exports the blocks of bits it has set
+ * since its previous export with {@link
+ * org.forgerock.bloomfilter.ConcurrentRollingBloomFilter#exportDelta(org.forgerock.bloomfilter.BloomFilterDelta.Cursor)}
+ * and sends the encoded {@link org.forgerock.bloomfilter.BloomFilterDelta} to every other node, which ORs the bits into
+ * its own filter with {@link
+ * org.forgerock.bloomfilter.ConcurrentRollingBloomFilter#mergeDelta(org.forgerock.bloomfilter.BloomFilterDelta)}.
+ * Merging is idempotent and commutative, so deltas may be delivered more than once and in any order.
+ *
  * @see <a href="http://en.wikipedia.org/wiki/Bloom_filter">Bloom Filter Wikipedia entry</a>
  */
 package org.forgerock.bloomfilter;
\ No newline at end of file
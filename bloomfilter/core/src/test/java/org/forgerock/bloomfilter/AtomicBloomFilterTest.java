@@ -12,11 +12,13 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.bloomfilter;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
 
 import com.google.common.hash.Funnel;
 import com.google.common.hash.Funnels;
@@ -55,6 +57,32 @@ public class AtomicBloomFilterTest {
         assertThat(bloomFilter.mightContain(value)).isTrue();
     }
 
+    @Test
+    public void shouldMaintainFalsePositiveProbabilityAtCapacity() {
+        // Given
+        final int capacity = 10000;
+        final double falsePositiveProbability = 0.01d;
+        final AtomicBloomFilter<Integer> bf = new AtomicBloomFilter<Integer>(FUNNEL, capacity, falsePositiveProbability);
+        for (int i = 0; i < capacity; ++i) {
+            bf.add(i);
+        }
+
+        // When
+        int falsePositives = 0;
+        final int trials = 100000;
+        for (int i = 0; i < trials; ++i) {
+            if (bf.mightContain(-1 - i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertThat((double) falsePositives / trials).isLessThan(falsePositiveProbability * 1.5d);
+        assertThat(bf.getStatistics().getExpectedFalsePositiveProbability())
+                .isCloseTo(falsePositiveProbability, offset(falsePositiveProbability / 5.0d));
+        assertThat(bf.getStatistics().getEstimatedRemainingCapacity()).isBetween(-500L, 500L);
+    }
+
     @DataProvider
     public Object[][] randomInts() {
         final Random random = new Random();
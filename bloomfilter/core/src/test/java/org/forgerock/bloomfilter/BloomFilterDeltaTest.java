@@ -0,0 +1,216 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static com.google.common.hash.Funnels.integerFunnel;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.bloomfilter.RollingBloomFilterFixture.EXPIRY_STRATEGY;
+import static org.forgerock.bloomfilter.RollingBloomFilterFixture.EXPIRY_TIME;
+import static org.forgerock.bloomfilter.RollingBloomFilterFixture.INITIAL_CAPACITY;
+import static org.forgerock.bloomfilter.RollingBloomFilterFixture.NUM_ELEMENTS;
+import static org.forgerock.bloomfilter.RollingBloomFilterFixture.rollingBuilder;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class BloomFilterDeltaTest {
+    private static ConcurrentRollingBloomFilter<Integer> rollingFilter(final ExpiryStrategy<Integer> expiryStrategy) {
+        return (ConcurrentRollingBloomFilter<Integer>) rollingBuilder(expiryStrategy).build();
+    }
+
+    private static ConcurrentRollingBloomFilter<Integer> rollingFilter() {
+        return rollingFilter(EXPIRY_STRATEGY);
+    }
+
+    private static void addRange(final BloomFilter<Integer> filter, final int from, final int to) {
+        for (int i = from; i < to; ++i) {
+            filter.add(i);
+        }
+    }
+
+    @Test
+    public void shouldConvergeAfterExchangingDeltas() {
+        // Given
+        final ConcurrentRollingBloomFilter<Integer> first = rollingFilter();
+        final ConcurrentRollingBloomFilter<Integer> second = rollingFilter();
+        addRange(first, 0, NUM_ELEMENTS);
+        addRange(second, NUM_ELEMENTS, 3 * NUM_ELEMENTS);
+
+        // When
+        final BloomFilterDelta fromFirst = first.exportDelta(new BloomFilterDelta.Cursor());
+        final BloomFilterDelta fromSecond = second.exportDelta(new BloomFilterDelta.Cursor());
+        first.mergeDelta(fromSecond);
+        second.mergeDelta(fromFirst);
+
+        // Then
+        for (int i = 0; i < 3 * NUM_ELEMENTS; ++i) {
+            assertThat(first.mightContain(i)).as("element " + i).isTrue();
+            assertThat(second.mightContain(i)).as("element " + i).isTrue();
+        }
+        assertThat(first.getStatistics().getExpiryTime()).isEqualTo(EXPIRY_TIME + 3 * NUM_ELEMENTS - 1);
+        assertThat(second.getStatistics().getBitSize()).isEqualTo(first.getStatistics().getBitSize());
+    }
+
+    @Test
+    public void shouldExportOnlyChangesSinceCursor() {
+        // Given
+        final ConcurrentRollingBloomFilter<Integer> filter = rollingFilter();
+        final BloomFilterDelta.Cursor cursor = new BloomFilterDelta.Cursor();
+        addRange(filter, 0, NUM_ELEMENTS);
+        final BloomFilterDelta full = filter.exportDelta(cursor);
+
+        // When
+        final BloomFilterDelta unchanged = filter.exportDelta(cursor);
+        filter.add(NUM_ELEMENTS);
+        final BloomFilterDelta changed = filter.exportDelta(cursor);
+
+        // Then
+        assertThat(full.getChangedBlockCount()).isGreaterThan(1);
+        assertThat(unchanged.isEmpty()).isTrue();
+        assertThat(unchanged.getBuckets()).isEmpty();
+        assertThat(changed.getChangedBlockCount()).isEqualTo(1);
+        final ConcurrentRollingBloomFilter<Integer> other = rollingFilter();
+        other.mergeDelta(changed);
+        assertThat(other.mightContain(NUM_ELEMENTS)).isTrue();
+    }
+
+    @Test
+    public void shouldNotExportMergedBits() {
+        // Given
+        final ConcurrentRollingBloomFilter<Integer> source = rollingFilter();
+        final ConcurrentRollingBloomFilter<Integer> target = rollingFilter();
+        final BloomFilterDelta.Cursor cursor = new BloomFilterDelta.Cursor();
+        target.add(-1);
+        target.exportDelta(cursor);
+        addRange(source, 0, NUM_ELEMENTS);
+
+        // When
+        target.mergeDelta(source.exportDelta(new BloomFilterDelta.Cursor()));
+
+        // Then
+        assertThat(target.exportDelta(cursor).isEmpty()).isTrue();
+        assertThat(target.exportDelta(new BloomFilterDelta.Cursor()).getChangedBlockCount())
+                .isGreaterThanOrEqualTo(source.exportDelta(new BloomFilterDelta.Cursor()).getChangedBlockCount());
+    }
+
+    @Test
+    public void shouldIgnoreRepeatedMerge() {
+        // Given
+        final ConcurrentRollingBloomFilter<Integer> source = rollingFilter();
+        final ConcurrentRollingBloomFilter<Integer> target = rollingFilter();
+        addRange(source, 0, NUM_ELEMENTS);
+        final BloomFilterDelta delta = source.exportDelta(new BloomFilterDelta.Cursor());
+        target.mergeDelta(delta);
+        final BloomFilterStatistics expected = target.getStatistics();
+
+        // When
+        target.mergeDelta(delta);
+
+        // Then
+        final BloomFilterStatistics actual = target.getStatistics();
+        assertThat(actual.getExpectedFalsePositiveProbability())
+                .isEqualTo(expected.getExpectedFalsePositiveProbability());
+        assertThat(actual.getBitSize()).isEqualTo(expected.getBitSize());
+        assertThat(actual.getExpectedFalsePositiveProbability())
+                .isEqualTo(source.getStatistics().getExpectedFalsePositiveProbability());
+    }
+
+    @Test
+    public void shouldRoundTripEncodedDelta() throws Exception {
+        // Given
+        final ConcurrentRollingBloomFilter<Integer> source = rollingFilter();
+        addRange(source, 0, NUM_ELEMENTS);
+        final byte[] encoded = source.exportDelta(new BloomFilterDelta.Cursor()).toByteArray();
+
+        // When
+        final BloomFilterDelta decoded = BloomFilterDelta.fromByteArray(encoded);
+
+        // Then
+        assertThat(decoded.toByteArray()).isEqualTo(encoded);
+        final ConcurrentRollingBloomFilter<Integer> target = rollingFilter();
+        target.mergeDelta(decoded);
+        for (int i = 0; i < NUM_ELEMENTS; ++i) {
+            assertThat(target.mightContain(i)).as("element " + i).isTrue();
+        }
+    }
+
+    @Test
+    public void shouldSkipExpiredBuckets() {
+        // Given
+        final ExpiryStrategy<Integer> expired = new ExpiryStrategy<Integer>() {
+            @Override
+            public long expiryTime(final Integer element) {
+                return element;
+            }
+        };
+        final ConcurrentRollingBloomFilter<Integer> source = rollingFilter(expired);
+        final ConcurrentRollingBloomFilter<Integer> target = rollingFilter(expired);
+        addRange(source, 0, NUM_ELEMENTS);
+
+        // When
+        target.mergeDelta(source.exportDelta(new BloomFilterDelta.Cursor()));
+
+        // Then
+        assertThat(target.getStatistics().getBitSize()).isZero();
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*truncated.*")
+    public void shouldRejectTruncatedDelta() throws Exception {
+        // Given
+        final ConcurrentRollingBloomFilter<Integer> source = rollingFilter();
+        addRange(source, 0, NUM_ELEMENTS);
+        final byte[] encoded = source.exportDelta(new BloomFilterDelta.Cursor()).toByteArray();
+
+        // When
+        BloomFilterDelta.fromByteArray(Arrays.copyOf(encoded, encoded.length - 1));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Not a bloom filter delta")
+    public void shouldRejectInvalidDelta() throws Exception {
+        BloomFilterDelta.fromByteArray(new byte[] { 0x52, 0x42, 0x46, 0x53, 0, 0, 0, 1, 0, 0, 0, 0 });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectDeltaFromDifferentConfiguration() {
+        // Given
+        final ConcurrentRollingBloomFilter<Integer> source = rollingFilter();
+        source.add(1);
+        final ConcurrentRollingBloomFilter<Integer> target = (ConcurrentRollingBloomFilter<Integer>)
+                BloomFilters.create(integerFunnel())
+                        .withConcurrencyStrategy(ConcurrencyStrategy.ATOMIC)
+                        .withInitialCapacity(2 * INITIAL_CAPACITY)
+                        .rolling()
+                        .withExpiryStrategy(EXPIRY_STRATEGY)
+                        .build();
+
+        // When
+        target.mergeDelta(source.exportDelta(new BloomFilterDelta.Cursor()));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void shouldRequireAtomicConcurrencyStrategy() {
+        final ConcurrentRollingBloomFilter<Integer> filter = (ConcurrentRollingBloomFilter<Integer>)
+                BloomFilters.create(integerFunnel())
+                        .withConcurrencyStrategy(ConcurrencyStrategy.SYNCHRONIZED)
+                        .rolling()
+                        .withExpiryStrategy(EXPIRY_STRATEGY)
+                        .build();
+        filter.exportDelta(new BloomFilterDelta.Cursor());
+    }
+}
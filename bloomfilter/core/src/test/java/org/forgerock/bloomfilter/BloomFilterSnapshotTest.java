@@ -0,0 +1,170 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static com.google.common.hash.Funnels.integerFunnel;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+import static org.forgerock.bloomfilter.RollingBloomFilterFixture.EXPIRY_STRATEGY;
+import static org.forgerock.bloomfilter.RollingBloomFilterFixture.EXPIRY_TIME;
+import static org.forgerock.bloomfilter.RollingBloomFilterFixture.INITIAL_CAPACITY;
+import static org.forgerock.bloomfilter.RollingBloomFilterFixture.NUM_ELEMENTS;
+import static org.forgerock.bloomfilter.RollingBloomFilterFixture.rollingBuilder;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class BloomFilterSnapshotTest {
+    private Path directory;
+    private Path file;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("bloomfilter");
+        file = directory.resolve("filter.snapshot");
+    }
+
+    @AfterMethod
+    public void deleteDirectory() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    private static ConcurrentRollingBloomFilter<Integer> populatedRollingFilter() {
+        final ConcurrentRollingBloomFilter<Integer> filter = (ConcurrentRollingBloomFilter<Integer>) rollingBuilder()
+                .build();
+        for (int i = 0; i < NUM_ELEMENTS; ++i) {
+            filter.add(i);
+        }
+        return filter;
+    }
+
+    @Test
+    public void shouldRestoreRollingBloomFilter() throws Exception {
+        // Given
+        final ConcurrentRollingBloomFilter<Integer> original = populatedRollingFilter();
+        original.writeSnapshot(file);
+
+        // When
+        final ConcurrentRollingBloomFilter<Integer> restored = rollingBuilder().buildFromSnapshot(file);
+
+        // Then
+        for (int i = 0; i < NUM_ELEMENTS; ++i) {
+            assertThat(restored.mightContain(i)).as("element " + i).isTrue();
+        }
+        final BloomFilterStatistics expected = original.getStatistics();
+        final BloomFilterStatistics actual = restored.getStatistics();
+        assertThat(actual.getCapacity()).isEqualTo(expected.getCapacity());
+        assertThat(actual.getBitSize()).isEqualTo(expected.getBitSize());
+        assertThat(actual.getExpiryTime()).isEqualTo(EXPIRY_TIME + NUM_ELEMENTS - 1);
+        assertThat(actual.getExpectedFalsePositiveProbability())
+                .isCloseTo(expected.getExpectedFalsePositiveProbability(), offset(1.0e-12d));
+        assertThat(Files.exists(directory.resolve("filter.snapshot.tmp"))).isFalse();
+    }
+
+    @Test
+    public void shouldContinueAddingToRestoredBloomFilter() throws Exception {
+        // Given
+        populatedRollingFilter().writeSnapshot(file);
+        final ConcurrentRollingBloomFilter<Integer> restored = rollingBuilder().buildFromSnapshot(file);
+        final long capacity = restored.getStatistics().getCapacity();
+
+        // When
+        for (int i = NUM_ELEMENTS; i < 4 * NUM_ELEMENTS; ++i) {
+            restored.add(i);
+        }
+
+        // Then
+        for (int i = 0; i < 4 * NUM_ELEMENTS; ++i) {
+            assertThat(restored.mightContain(i)).as("element " + i).isTrue();
+        }
+        assertThat(restored.getStatistics().getCapacity()).isGreaterThan(capacity);
+    }
+
+    @Test
+    public void shouldRestoreScalableBloomFilter() throws Exception {
+        // Given
+        final BloomFilters.ScalableBloomFilterBuilder<Integer> builder = BloomFilters.create(integerFunnel())
+                .withConcurrencyStrategy(ConcurrencyStrategy.ATOMIC)
+                .withInitialCapacity(INITIAL_CAPACITY)
+                .scalable();
+        final ConcurrentRollingBloomFilter<Integer> original = (ConcurrentRollingBloomFilter<Integer>) builder.build();
+        for (int i = 0; i < NUM_ELEMENTS; ++i) {
+            original.add(i);
+        }
+        original.writeSnapshot(file);
+
+        // When
+        final ConcurrentRollingBloomFilter<Integer> restored = builder.buildFromSnapshot(file);
+
+        // Then
+        for (int i = 0; i < NUM_ELEMENTS; ++i) {
+            assertThat(restored.mightContain(i)).as("element " + i).isTrue();
+        }
+        assertThat(restored.getStatistics().getBitSize()).isEqualTo(original.getStatistics().getBitSize());
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*corrupt.*")
+    public void shouldRejectCorruptSnapshot() throws Exception {
+        // Given
+        populatedRollingFilter().writeSnapshot(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() / 2);
+            final int b = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(b ^ 0xff);
+        }
+
+        // When
+        rollingBuilder().buildFromSnapshot(file);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*truncated.*")
+    public void shouldRejectTruncatedSnapshot() throws Exception {
+        // Given
+        Files.write(file, new byte[] { 0x52, 0x42, 0x46, 0x53 });
+
+        // When
+        rollingBuilder().buildFromSnapshot(file);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*different settings.*")
+    public void shouldRejectSnapshotWithDifferentSettings() throws Exception {
+        // Given
+        populatedRollingFilter().writeSnapshot(file);
+
+        // When
+        rollingBuilder().withCapacityGrowthFactor(3.0d).buildFromSnapshot(file);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void shouldRequireAtomicConcurrencyStrategy() throws Exception {
+        final ConcurrentRollingBloomFilter<Integer> filter = (ConcurrentRollingBloomFilter<Integer>)
+                BloomFilters.create(integerFunnel())
+                        .withConcurrencyStrategy(ConcurrencyStrategy.SYNCHRONIZED)
+                        .rolling()
+                        .withExpiryStrategy(EXPIRY_STRATEGY)
+                        .build();
+        filter.writeSnapshot(file);
+    }
+}
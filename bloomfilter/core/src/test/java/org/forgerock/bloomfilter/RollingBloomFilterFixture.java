@@ -0,0 +1,53 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.bloomfilter;
+
+import static com.google.common.hash.Funnels.integerFunnel;
+
+/**
+ * Atomic rolling bloom filters of integers for the snapshot and delta tests.
+ */
+final class RollingBloomFilterFixture {
+    static final int INITIAL_CAPACITY = 1000;
+    static final int NUM_ELEMENTS = 5000;
+
+    /** Each element expires at a time far in the future, offset by its own value. */
+    static final long EXPIRY_TIME = Long.MAX_VALUE / 2;
+    static final ExpiryStrategy<Integer> EXPIRY_STRATEGY = new ExpiryStrategy<Integer>() {
+        @Override
+        public long expiryTime(final Integer element) {
+            return EXPIRY_TIME + element;
+        }
+    };
+
+    private RollingBloomFilterFixture() {
+        // Utility class
+    }
+
+    static BloomFilters.RollingBloomFilterBuilder<Integer> rollingBuilder(
+            final ExpiryStrategy<Integer> expiryStrategy) {
+        return BloomFilters.create(integerFunnel())
+                .withConcurrencyStrategy(ConcurrencyStrategy.ATOMIC)
+                .withInitialCapacity(INITIAL_CAPACITY)
+                .rolling()
+                .withExpiryStrategy(expiryStrategy);
+    }
+
+    static BloomFilters.RollingBloomFilterBuilder<Integer> rollingBuilder() {
+        return rollingBuilder(EXPIRY_STRATEGY);
+    }
+}
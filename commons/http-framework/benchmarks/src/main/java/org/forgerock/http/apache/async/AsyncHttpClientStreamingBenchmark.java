@@ -0,0 +1,142 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.apache.async;
+
+import static org.forgerock.http.apache.async.AsyncHttpClientProvider.OPTION_STREAMING_EXECUTOR;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.http.handler.HttpClientHandler;
+import org.forgerock.http.io.IO;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.services.context.RootContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Measures how a gateway proxies large response bodies with the async HTTP client: each operation sends a request to
+ * a local server and copies the response body to a sink, as a gateway copies it to its own client. The {@code
+ * Buffered} client receives the whole body before returning the response, the {@code Streaming} client returns the
+ * response once its headers are received and streams the body through a bounded buffer.
+ * <p>
+ * Besides throughput, the benchmark runs with the GC profiler: {@code gc.alloc.rate.norm} is the number of bytes
+ * allocated for each proxied response, which grows with the body size when the body is buffered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+public class AsyncHttpClientStreamingBenchmark {
+
+    @Param({ "1048576", "16777216" })
+    public int bodySize;
+
+    @Param({ "Buffered", "Streaming" })
+    public String client;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ExecutorService streamingExecutor;
+    private HttpClientHandler handler;
+    private String uri;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final byte[] chunk = new byte[8192];
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(200, bodySize);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    for (int written = 0; written < bodySize; written += chunk.length) {
+                        out.write(chunk, 0, Math.min(chunk.length, bodySize - written));
+                    }
+                }
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        uri = "http://localhost:" + server.getAddress().getPort() + "/";
+
+        org.forgerock.util.Options options = org.forgerock.util.Options.defaultOptions();
+        if ("Streaming".equals(client)) {
+            streamingExecutor = Executors.newCachedThreadPool();
+            options.set(OPTION_STREAMING_EXECUTOR, streamingExecutor);
+        }
+        handler = new HttpClientHandler(options);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        handler.close();
+        if (streamingExecutor != null) {
+            streamingExecutor.shutdownNow();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int proxy() throws Exception {
+        Request request = new Request().setMethod("GET").setUri(uri);
+        try (Response response = handler.handle(new RootContext(), request).getOrThrow()) {
+            response.getEntity().copyRawContentTo(IO.nullOutputStream());
+            return response.getStatus().getCode();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(AsyncHttpClientStreamingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
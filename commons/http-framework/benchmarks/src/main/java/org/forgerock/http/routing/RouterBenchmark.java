@@ -0,0 +1,146 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.routing;
+
+import static org.forgerock.http.routing.RouteMatchers.requestUriMatcher;
+import static org.forgerock.http.routing.RoutingMode.EQUALS;
+import static org.forgerock.http.routing.RoutingMode.STARTS_WITH;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.http.Handler;
+import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
+import org.forgerock.http.protocol.Status;
+import org.forgerock.services.context.Context;
+import org.forgerock.services.context.RootContext;
+import org.forgerock.services.routing.DelegatingRouteMatcher;
+import org.forgerock.services.routing.RouteMatcher;
+import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.promise.Promise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of routing a request with a {@link Router} holding {@code routes} URI template routes. Each
+ * resource has a collection route, an instance route with a template variable, and a sub-resource route matched with
+ * {@link RoutingMode#STARTS_WITH STARTS_WITH}. Requests are spread over all the routes.
+ * <p>
+ * The {@code Indexed} router looks routes up by URI template. The {@code Linear} router wraps each matcher in a
+ * {@link DelegatingRouteMatcher}, which hides the URI template, so every route is evaluated for every request as
+ * before routes were indexed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class RouterBenchmark {
+
+    private static final int REQUESTS = 1024;
+
+    @Param({ "10", "100", "2000" })
+    public int routes;
+
+    @Param({ "Indexed", "Linear" })
+    public String router;
+
+    private final Promise<Response, NeverThrowsException> okResponse =
+            Response.newResponsePromise(new Response(Status.OK));
+
+    private final Handler okHandler = new Handler() {
+        @Override
+        public Promise<Response, NeverThrowsException> handle(final Context context, final Request request) {
+            return okResponse;
+        }
+    };
+
+    private final RootContext context = new RootContext();
+    private final Request[] requests = new Request[REQUESTS];
+    private Router routerUnderTest;
+    private int next;
+
+    @Setup
+    public void setup() throws Exception {
+        final boolean linear = "Linear".equals(router);
+        routerUnderTest = new Router();
+        final int resources = Math.max(1, routes / 3);
+        for (int i = 0; i < routes; i++) {
+            final String resource = "resource" + (i % resources);
+            final RouteMatcher<Request> matcher;
+            switch (i / resources) {
+            case 0:
+                matcher = requestUriMatcher(EQUALS, resource);
+                break;
+            case 1:
+                matcher = requestUriMatcher(EQUALS, resource + "/{id}");
+                break;
+            default:
+                matcher = requestUriMatcher(STARTS_WITH, resource + "/{id}/children" + (i / resources - 2));
+                break;
+            }
+            routerUnderTest.addRoute(linear ? new DelegatingRouteMatcher<>(matcher) : matcher, okHandler);
+        }
+
+        final Random random = new Random(42);
+        for (int i = 0; i < REQUESTS; i++) {
+            final String resource = "resource" + random.nextInt(resources);
+            final String uri;
+            switch (random.nextInt(3)) {
+            case 0:
+                uri = resource;
+                break;
+            case 1:
+                uri = resource + "/" + random.nextInt(1000);
+                break;
+            default:
+                uri = resource + "/" + random.nextInt(1000) + "/children0/" + random.nextInt(1000);
+                break;
+            }
+            requests[i] = new Request().setUri("http://example.com/" + uri);
+        }
+    }
+
+    @Benchmark
+    public Promise<Response, NeverThrowsException> route() {
+        final Request request = requests[next++ & (REQUESTS - 1)];
+        return routerUnderTest.handle(context, request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(RouterBenchmark.class.getSimpleName())
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -12,22 +12,26 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.http.apache.async;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
 import org.forgerock.http.apache.AbstractHttpClient;
 import org.forgerock.http.io.Buffer;
 import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Status;
+import org.forgerock.http.spi.ConnectionPoolMetrics;
 import org.forgerock.util.Factory;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
@@ -38,17 +42,38 @@ import org.slf4j.MDC;
 
 /**
  * Apache HTTP Async Client based implementation.
+ * <p>
+ * By default the async client receives the whole response body before the response is returned. If a streaming
+ * executor is provided, the response is returned as soon as its headers are received and its entity streams the body
+ * while it is received, see {@link AsyncHttpClientProvider#OPTION_STREAMING_EXECUTOR}.
  */
 public class AsyncHttpClient extends AbstractHttpClient {
 
     private static final Logger logger = LoggerFactory.getLogger(AsyncHttpClient.class);
 
     private final CloseableHttpAsyncClient client;
+    private final ConnectionPoolMetrics connectionPoolMetrics;
+    private final Executor streamingExecutor;
+    private final int streamingBufferSize;
 
     AsyncHttpClient(final CloseableHttpAsyncClient client, final Factory<Buffer> storage) {
+        this(client, storage, null, null, 0);
+    }
+
+    AsyncHttpClient(final CloseableHttpAsyncClient client, final Factory<Buffer> storage,
+            final ConnectionPoolMetrics connectionPoolMetrics, final Executor streamingExecutor,
+            final int streamingBufferSize) {
         super(storage);
         // Client should already be started
         this.client = client;
+        this.connectionPoolMetrics = connectionPoolMetrics;
+        this.streamingExecutor = streamingExecutor;
+        this.streamingBufferSize = streamingBufferSize;
+    }
+
+    @Override
+    public ConnectionPoolMetrics getConnectionPoolMetrics() {
+        return connectionPoolMetrics;
     }
 
     @Override
@@ -87,7 +112,13 @@ public class AsyncHttpClient extends AbstractHttpClient {
         }
 
         // Execute
-        client.execute(clientRequest, callback);
+        if (streamingExecutor != null) {
+            StreamingResponseConsumer consumer =
+                    new StreamingResponseConsumer(callback, streamingExecutor, streamingBufferSize);
+            client.execute(HttpAsyncMethods.create(clientRequest), consumer, consumer.executionCallback());
+        } else {
+            client.execute(clientRequest, callback);
+        }
 
         return promise;
     }
@@ -12,6 +12,7 @@
  * information: "Portions Copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions Copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.http.apache.async;
@@ -19,8 +20,9 @@ package org.forgerock.http.apache.async;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_CONNECT_TIMEOUT;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_HOSTNAME_VERIFIER;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_IDLE_CONNECTION_TIMEOUT;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_KEEP_ALIVE_TIMEOUT;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_KEY_MANAGERS;
-import static org.forgerock.http.handler.HttpClientHandler.OPTION_MAX_CONNECTIONS;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_PROXY;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_PROXY_SYSTEM;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_REUSE_CONNECTIONS;
@@ -34,6 +36,7 @@ import static org.forgerock.http.util.Lists.asArrayOrNull;
 
 import java.security.GeneralSecurityException;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import java.net.ProxySelector;
 import java.net.URI;
@@ -73,6 +76,8 @@ import org.apache.http.nio.reactor.ConnectingIOReactor;
 import org.apache.http.nio.reactor.IOReactorException;
 import org.apache.http.protocol.HttpContext;
 import org.forgerock.http.HttpApplicationException;
+import org.forgerock.http.apache.ConnectionPoolMonitor;
+import org.forgerock.http.apache.MaxKeepAliveStrategy;
 import org.forgerock.http.apache.NoAuthenticationStrategy;
 import org.forgerock.http.handler.HttpClientHandler;
 import org.forgerock.http.io.Buffer;
@@ -96,6 +101,24 @@ public class AsyncHttpClientProvider implements HttpClientProvider {
      */
     public static final Option<Integer> OPTION_WORKER_THREADS = Option.of(Integer.class, null);
 
+    /**
+     * Specify the executor which hands the responses over to the caller when their body is streamed. If set, a
+     * response is returned as soon as its headers are received, and its entity reads the body while it is received,
+     * through a buffer of {@link #OPTION_STREAMING_BUFFER_SIZE} bytes: the client stops reading from the connection
+     * while the buffer is full. If not set, the whole body is received before the response is returned.
+     * <p>
+     * The response promise is completed by this executor rather than by an I/O reactor thread, so that callbacks may
+     * read the entity, which an I/O reactor thread could not do without waiting for itself. The entity must be read
+     * or closed, otherwise the connection is never released.
+     */
+    public static final Option<Executor> OPTION_STREAMING_EXECUTOR = Option.of(Executor.class, null);
+
+    /**
+     * Specify the number of bytes of a streamed response body which may be received and not read yet (default is 64
+     * KB). Only used if {@link #OPTION_STREAMING_EXECUTOR} is set.
+     */
+    public static final Option<Integer> OPTION_STREAMING_BUFFER_SIZE = Option.withDefault(64 * 1024);
+
     /**
      * A redirect strategy that never performs a redirect.
      */
@@ -178,9 +201,10 @@ public class AsyncHttpClientProvider implements HttpClientProvider {
         PoolingNHttpClientConnectionManager manager = new PoolingNHttpClientConnectionManager(reactor, registry);
 
         // Connection pooling
-        final int maxConnections = options.get(OPTION_MAX_CONNECTIONS);
-        manager.setMaxTotal(maxConnections);
-        manager.setDefaultMaxPerRoute(maxConnections);
+        final ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(manager, options);
+        final Duration idleConnectionTimeout = options.get(OPTION_IDLE_CONNECTION_TIMEOUT);
+        final MonitoredConnectionManager monitoredManager = new MonitoredConnectionManager(manager, monitor,
+                idleConnectionTimeout.isUnlimited() ? -1 : idleConnectionTimeout.to(MILLISECONDS));
 
         // FIXME GSA Couldn't find how to configure retries in async http client
         //if (!options.get(OPTION_RETRY_REQUESTS)) {
@@ -193,6 +217,10 @@ public class AsyncHttpClientProvider implements HttpClientProvider {
         if (!options.get(OPTION_REUSE_CONNECTIONS)) {
             builder.setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE);
         }
+        final Duration keepAliveTimeout = options.get(OPTION_KEEP_ALIVE_TIMEOUT);
+        if (!keepAliveTimeout.isUnlimited()) {
+            builder.setKeepAliveStrategy(new MaxKeepAliveStrategy(keepAliveTimeout.to(MILLISECONDS)));
+        }
 
         // Apply proxy settings if necessary
         AuthenticationStrategy proxyStrategy = NoAuthenticationStrategy.INSTANCE;
@@ -224,13 +252,14 @@ public class AsyncHttpClientProvider implements HttpClientProvider {
         // TODO Uncomment when we'll have a user-agent Option
         // builder.setUserAgent("CHF/1.0");
 
-        CloseableHttpAsyncClient client = builder.setConnectionManager(manager)
+        CloseableHttpAsyncClient client = builder.setConnectionManager(monitoredManager)
                 .disableCookieManagement()
                 .setRedirectStrategy(DISABLE_REDIRECT)
                 .setTargetAuthenticationStrategy(NoAuthenticationStrategy.INSTANCE)
                 .setProxyAuthenticationStrategy(proxyAuthenticationStrategy)
                 .build();
         client.start();
-        return new AsyncHttpClient(client, storage);
+        return new AsyncHttpClient(client, storage, monitor, options.get(OPTION_STREAMING_EXECUTOR),
+                options.get(OPTION_STREAMING_BUFFER_SIZE));
     }
 }
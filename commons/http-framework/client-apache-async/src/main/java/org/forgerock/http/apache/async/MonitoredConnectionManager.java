@@ -0,0 +1,169 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.apache.async;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+import org.apache.http.nio.reactor.IOEventDispatch;
+import org.apache.http.protocol.HttpContext;
+import org.forgerock.http.apache.ConnectionPoolMonitor;
+
+/**
+ * A connection manager which reports the connection requests of a {@link PoolingNHttpClientConnectionManager} to a
+ * {@link ConnectionPoolMonitor}, and optionally closes the idle and expired connections of the pool.
+ * <p>
+ * Unlike the synchronous client builder, the async client builder cannot evict idle connections, hence the evictor
+ * thread, which is stopped when the connection manager is shut down.
+ */
+final class MonitoredConnectionManager implements NHttpClientConnectionManager {
+
+    private final PoolingNHttpClientConnectionManager delegate;
+    private final ConnectionPoolMonitor monitor;
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Creates a new connection manager.
+     *
+     * @param delegate The pooling connection manager.
+     * @param monitor The monitor of the pool.
+     * @param idleConnectionTimeoutMillis How long a connection may stay idle in the pool, or a negative value to keep
+     *         idle connections.
+     */
+    MonitoredConnectionManager(final PoolingNHttpClientConnectionManager delegate,
+            final ConnectionPoolMonitor monitor, final long idleConnectionTimeoutMillis) {
+        this.delegate = delegate;
+        this.monitor = monitor;
+        if (idleConnectionTimeoutMillis >= 0) {
+            evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "HTTP client idle connection evictor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            final long period = Math.max(idleConnectionTimeoutMillis, 1);
+            evictor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    delegate.closeExpiredConnections();
+                    delegate.closeIdleConnections(idleConnectionTimeoutMillis, MILLISECONDS);
+                }
+            }, period, period, MILLISECONDS);
+        } else {
+            evictor = null;
+        }
+    }
+
+    @Override
+    public Future<NHttpClientConnection> requestConnection(final HttpRoute route, final Object state,
+            final long connectTimeout, final long leaseTimeout, final TimeUnit tunit,
+            final FutureCallback<NHttpClientConnection> callback) {
+        monitor.routeRequested(route);
+        final long requestedAt = System.nanoTime();
+        return delegate.requestConnection(route, state, connectTimeout, leaseTimeout, tunit,
+                new FutureCallback<NHttpClientConnection>() {
+                    @Override
+                    public void completed(final NHttpClientConnection connection) {
+                        monitor.connectionLeased(requestedAt);
+                        if (callback != null) {
+                            callback.completed(connection);
+                        }
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        monitor.connectionLeaseFailed(requestedAt);
+                        if (callback != null) {
+                            callback.failed(ex);
+                        }
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        monitor.connectionLeaseFailed(requestedAt);
+                        if (callback != null) {
+                            callback.cancelled();
+                        }
+                    }
+                });
+    }
+
+    @Override
+    public void releaseConnection(final NHttpClientConnection managedConn, final Object state, final long keepalive,
+            final TimeUnit tunit) {
+        delegate.releaseConnection(managedConn, state, keepalive, tunit);
+    }
+
+    @Override
+    public void startRoute(final NHttpClientConnection managedConn, final HttpRoute route,
+            final HttpContext context) throws IOException {
+        delegate.startRoute(managedConn, route, context);
+    }
+
+    @Override
+    public void upgrade(final NHttpClientConnection managedConn, final HttpRoute route, final HttpContext context)
+            throws IOException {
+        delegate.upgrade(managedConn, route, context);
+    }
+
+    @Override
+    public void routeComplete(final NHttpClientConnection managedConn, final HttpRoute route,
+            final HttpContext context) {
+        delegate.routeComplete(managedConn, route, context);
+    }
+
+    @Override
+    public boolean isRouteComplete(final NHttpClientConnection managedConn) {
+        return delegate.isRouteComplete(managedConn);
+    }
+
+    @Override
+    public void closeIdleConnections(final long idletime, final TimeUnit tunit) {
+        delegate.closeIdleConnections(idletime, tunit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void execute(final IOEventDispatch eventDispatch) throws IOException {
+        delegate.execute(eventDispatch);
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        delegate.shutdown();
+    }
+}
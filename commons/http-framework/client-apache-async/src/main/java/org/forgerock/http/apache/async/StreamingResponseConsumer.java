@@ -0,0 +1,299 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.apache.async;
+
+import static org.forgerock.util.Utils.closeSilently;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Consumes a response without buffering its body: the response is handed over as soon as its headers are received,
+ * with an entity which reads the body while it is being received.
+ * <p>
+ * The body goes through a fixed size buffer between the I/O reactor and the thread which reads the entity. When the
+ * buffer is full, the consumer suspends input on the connection, so that the I/O reactor stops reading from the
+ * socket until the entity has been read, and requests input again once the reader has made room in the buffer. The
+ * I/O reactor therefore never waits for the reader.
+ * <p>
+ * The reader of the entity must not be the I/O reactor thread, which would wait for itself. For this reason the
+ * callback is always invoked by the executor. If the body is not fully received, the reader gets an
+ * {@link IOException} rather than the end of the stream. If the entity is closed before the end of the body, the
+ * connection is shut down rather than reading the rest of the body.
+ */
+final class StreamingResponseConsumer extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingResponseConsumer.class);
+
+    private final FutureCallback<HttpResponse> callback;
+    private final Executor executor;
+    private final AtomicBoolean delivered = new AtomicBoolean();
+    private final Pipe pipe;
+    private HttpResponse response;
+
+    /**
+     * Creates a consumer for a single response.
+     *
+     * @param callback The callback which receives the response, or the reason why it could not be received.
+     * @param executor The executor which invokes the callback.
+     * @param bufferSize The number of bytes of the body which may be received and not read yet.
+     */
+    StreamingResponseConsumer(final FutureCallback<HttpResponse> callback, final Executor executor,
+            final int bufferSize) {
+        this.callback = callback;
+        this.executor = executor;
+        this.pipe = new Pipe(bufferSize);
+    }
+
+    /**
+     * Returns the callback to pass to the HTTP client along with this consumer. It delivers the responses without
+     * body and the failures which occur before the response is received; the other responses have already been
+     * delivered when their headers were received.
+     *
+     * @return The callback to pass to the HTTP client.
+     */
+    FutureCallback<HttpResponse> executionCallback() {
+        return new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(final HttpResponse result) {
+                deliver(result);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                deliverFailure(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                deliverFailure(new InterruptedException("Request processing has been cancelled"));
+            }
+        };
+    }
+
+    @Override
+    protected void onResponseReceived(final HttpResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(final HttpEntity entity, final ContentType contentType) {
+        final BasicHttpEntity streamingEntity = new BasicHttpEntity();
+        streamingEntity.setContent(pipe);
+        streamingEntity.setContentLength(entity.getContentLength());
+        streamingEntity.setContentType(entity.getContentType());
+        streamingEntity.setContentEncoding(entity.getContentEncoding());
+        streamingEntity.setChunked(entity.isChunked());
+        response.setEntity(streamingEntity);
+        deliver(response);
+    }
+
+    @Override
+    protected void onContentReceived(final ContentDecoder decoder, final IOControl ioctrl) throws IOException {
+        pipe.receive(decoder, ioctrl);
+    }
+
+    @Override
+    protected HttpResponse buildResult(final HttpContext context) {
+        pipe.complete();
+        return response;
+    }
+
+    @Override
+    protected void releaseResources() {
+        // Called once the exchange is over: if the body has not been completed, it never will be.
+        final Exception cause = getException();
+        pipe.fail(cause != null ? cause : new InterruptedIOException("The response has been cancelled"));
+    }
+
+    private void deliver(final HttpResponse result) {
+        if (delivered.compareAndSet(false, true)) {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.completed(result);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Nobody will read the body, stop receiving it.
+                closeSilently(pipe);
+                callback.failed(e);
+            }
+        }
+    }
+
+    private void deliverFailure(final Exception ex) {
+        if (!delivered.compareAndSet(false, true)) {
+            // The response has been delivered, the reader of its body gets the failure.
+            logger.debug("Failed to receive the response body", ex);
+        } else {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.failed(ex);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                callback.failed(ex);
+            }
+        }
+    }
+
+    /**
+     * A fixed size buffer which is filled by the I/O reactor and drained by the reader of the entity.
+     */
+    private static final class Pipe extends InputStream {
+        private final byte[] buffer;
+        /** Position of the next byte to read. */
+        private int head;
+        /** Number of bytes which have been received and not read yet. */
+        private int count;
+        private boolean completed;
+        private boolean closed;
+        private IOException failure;
+        /** The control of the connection while its input is suspended, {@code null} otherwise. */
+        private IOControl suspended;
+        /** The control of the connection, known once content has been received. */
+        private IOControl ioctrl;
+
+        Pipe(final int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        /**
+         * Moves as much content as possible from the decoder to the buffer, and suspends input if the buffer is full.
+         * Called by the I/O reactor, never waits.
+         */
+        synchronized void receive(final ContentDecoder decoder, final IOControl ioctrl) throws IOException {
+            this.ioctrl = ioctrl;
+            if (closed) {
+                // The reader has gone away before the end of the body, don't keep receiving it.
+                ioctrl.shutdown();
+                return;
+            }
+            while (count < buffer.length) {
+                final int tail = (head + count) % buffer.length;
+                final int room = Math.min(buffer.length - count, buffer.length - tail);
+                final int n = decoder.read(ByteBuffer.wrap(buffer, tail, room));
+                if (n <= 0) {
+                    break;
+                }
+                count += n;
+                notifyAll();
+            }
+            if (count == buffer.length && !decoder.isCompleted()) {
+                ioctrl.suspendInput();
+                suspended = ioctrl;
+            }
+        }
+
+        synchronized void complete() {
+            completed = true;
+            notifyAll();
+        }
+
+        synchronized void fail(final Exception cause) {
+            if (!completed && failure == null) {
+                failure = cause instanceof IOException
+                        ? (IOException) cause
+                        : new IOException("The response body could not be received", cause);
+                notifyAll();
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) > 0 ? b[0] & 0xff : -1;
+        }
+
+        @Override
+        public synchronized int read(final byte[] b, final int off, final int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (count == 0 && !completed && failure == null && !closed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the response body");
+                }
+            }
+            if (closed) {
+                throw new IOException("The response body has been closed");
+            }
+            if (count == 0) {
+                if (failure != null) {
+                    throw new IOException(failure.getMessage(), failure);
+                }
+                return -1;
+            }
+            final int n = Math.min(len, Math.min(count, buffer.length - head));
+            System.arraycopy(buffer, head, b, off, n);
+            head = (head + n) % buffer.length;
+            count -= n;
+            // Resume once half of the buffer is free, rather than for every read.
+            if (suspended != null && count <= buffer.length / 2) {
+                suspended.requestInput();
+                suspended = null;
+            }
+            return n;
+        }
+
+        @Override
+        public synchronized int available() {
+            return count;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            count = 0;
+            notifyAll();
+            if (!completed && failure == null && ioctrl != null) {
+                logger.debug("Response body closed before it was fully received, shutting down the connection");
+                ioctrl.shutdown();
+            }
+        }
+    }
+}
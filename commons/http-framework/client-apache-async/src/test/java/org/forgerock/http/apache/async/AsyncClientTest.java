@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions Copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.http.apache.async;
@@ -21,9 +22,21 @@ import static com.xebialabs.restito.semantics.Action.composite;
 import static com.xebialabs.restito.semantics.Action.*;
 import static com.xebialabs.restito.semantics.Condition.*;
 import static java.lang.String.*;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.forgerock.http.apache.async.AsyncHttpClientProvider.OPTION_STREAMING_BUFFER_SIZE;
+import static org.forgerock.http.apache.async.AsyncHttpClientProvider.OPTION_STREAMING_EXECUTOR;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_ROUTE_MAX_CONNECTIONS;
 import static org.assertj.core.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Random;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.forgerock.http.Client;
 import org.forgerock.http.handler.HttpClientHandler;
@@ -31,6 +44,7 @@ import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Status;
 import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.Options;
 import org.forgerock.util.promise.Promise;
 import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeMethod;
@@ -119,6 +133,128 @@ public class AsyncClientTest {
         assertThat(response.getCause()).isNotNull();
     }
 
+    @Test
+    public void shouldStreamResponseBodyLargerThanBuffer() throws Exception {
+        byte[] content = new byte[1024 * 1024];
+        new Random(42).nextBytes(content);
+        whenHttp(server).match(get("/large"))
+                        .then(composite(ok(), bytesContent(content)));
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Options options = Options.defaultOptions()
+                                 .set(OPTION_STREAMING_EXECUTOR, executor)
+                                 .set(OPTION_STREAMING_BUFFER_SIZE, 4096);
+        try (HttpClientHandler handler = new HttpClientHandler(options)) {
+            Request request = new Request();
+            request.setMethod("GET");
+            request.setUri(format("http://localhost:%d/large", server.getPort()));
+            Response response = new Client(handler).send(request).get();
+            assertThat(response.getStatus()).isEqualTo(Status.OK);
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            response.getEntity().copyRawContentTo(body);
+            assertThat(body.toByteArray()).isEqualTo(content);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The reader only starts once the buffer is full, so the client has to suspend input on the connection, and
+     * resume it as the reader makes room.
+     */
+    @Test(timeOut = 10000)
+    public void shouldResumeStreamedResponseAfterBufferFills() throws Exception {
+        byte[] content = new byte[256 * 1024];
+        new Random(42).nextBytes(content);
+        whenHttp(server).match(get("/large"))
+                        .then(composite(ok(), bytesContent(content)));
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Options options = Options.defaultOptions()
+                                 .set(OPTION_STREAMING_EXECUTOR, executor)
+                                 .set(OPTION_STREAMING_BUFFER_SIZE, 4096);
+        try (HttpClientHandler handler = new HttpClientHandler(options)) {
+            Request request = new Request();
+            request.setMethod("GET");
+            request.setUri(format("http://localhost:%d/large", server.getPort()));
+            Response response = new Client(handler).send(request).get();
+            InputStream in = response.getEntity().getRawContentInputStream();
+            Thread.sleep(500);
+            assertThat(in.available()).isEqualTo(4096);
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1000];
+            for (int n; (n = in.read(buffer)) != -1;) {
+                body.write(buffer, 0, n);
+            }
+            assertThat(body.toByteArray()).isEqualTo(content);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Closing the body before its end shuts the connection down, and gives it back to the pool: the only connection
+     * of the route is available to the next request.
+     */
+    @Test(timeOut = 10000)
+    public void shouldReleaseConnectionWhenStreamedResponseClosedEarly() throws Exception {
+        byte[] content = new byte[1024 * 1024];
+        whenHttp(server).match(get("/large"))
+                        .then(composite(ok(), bytesContent(content)));
+        whenHttp(server).match(post("/ping"))
+                        .then(composite(ok(), stringContent("Pong")));
+
+        URI uri = URI.create(format("http://localhost:%d/", server.getPort()));
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Options options = Options.defaultOptions()
+                                 .set(OPTION_STREAMING_EXECUTOR, executor)
+                                 .set(OPTION_STREAMING_BUFFER_SIZE, 4096)
+                                 .set(OPTION_ROUTE_MAX_CONNECTIONS, singletonMap(uri, 1));
+        try (HttpClientHandler handler = new HttpClientHandler(options)) {
+            Client client = new Client(handler);
+            Request request = new Request();
+            request.setMethod("GET");
+            request.setUri(uri.resolve("/large"));
+            Response response = client.send(request).get();
+            InputStream in = response.getEntity().getRawContentInputStream();
+            assertThat(in.read(new byte[100])).isPositive();
+            in.close();
+            try {
+                in.read();
+                failBecauseExceptionWasNotThrown(IOException.class);
+            } catch (IOException e) {
+                // Expected
+            }
+
+            Request ping = new Request();
+            ping.setMethod("POST");
+            ping.setUri(uri.resolve("/ping"));
+            Response pong = client.send(ping).get(5, SECONDS);
+            assertThat(pong.getStatus()).isEqualTo(Status.OK);
+            assertThat(pong.getEntity().getString()).isEqualTo("Pong");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldFailToObtainStreamedResponse() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Options options = Options.defaultOptions().set(OPTION_STREAMING_EXECUTOR, executor);
+        try (HttpClientHandler handler = new HttpClientHandler(options)) {
+            Request invalidRequest = new Request();
+            invalidRequest.setUri(format("http://localhost:%d/shouldFail", server.getPort()));
+            Response response = new Client(handler).send(invalidRequest).get();
+
+            assertThat(response.getStatus()).isEqualTo(Status.BAD_GATEWAY);
+            assertThat(response.getCause()).isNotNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private static class WaitForLatch implements Applicable {
         private final CountDownLatch one;
         public WaitForLatch(final CountDownLatch one) {
@@ -0,0 +1,77 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.apache.async;
+
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_ROUTE_MAX_CONNECTIONS;
+
+import java.net.URI;
+import java.util.concurrent.Future;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.nio.NHttpClientConnection;
+import org.forgerock.http.apache.ConnectionPoolMonitor;
+import org.forgerock.util.Options;
+import org.testng.annotations.Test;
+
+import com.xebialabs.restito.server.StubServer;
+
+@SuppressWarnings("javadoc")
+public class MonitoredConnectionManagerTest {
+
+    @Test(timeOut = 10000)
+    public void shouldRecordCancelledLeases() throws Exception {
+        // Given
+        StubServer server = new StubServer().run();
+        PoolingNHttpClientConnectionManager pool =
+                new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor());
+        URI uri = URI.create("http://localhost:" + server.getPort() + "/");
+        Options options = Options.defaultOptions().set(OPTION_ROUTE_MAX_CONNECTIONS, singletonMap(uri, 1));
+        ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(pool, options);
+        MonitoredConnectionManager manager = new MonitoredConnectionManager(pool, monitor, -1);
+        // The client runs the I/O reactor which opens the connections.
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom().setConnectionManager(manager).build();
+        client.start();
+        HttpRoute route = new HttpRoute(new HttpHost("localhost", server.getPort(), "http"));
+        try {
+            NHttpClientConnection connection =
+                    manager.requestConnection(route, null, 1000, 0, MILLISECONDS, null).get(5, SECONDS);
+
+            // When
+            Future<NHttpClientConnection> pending = manager.requestConnection(route, null, 1000, 0, MILLISECONDS, null);
+            Thread.sleep(50);
+            pending.cancel(true);
+            manager.releaseConnection(connection, null, 0, MILLISECONDS);
+
+            // Then
+            assertThat(monitor.getLeaseWaitHistogram().getCount()).isEqualTo(1);
+            assertThat(monitor.getFailedLeaseWaitHistogram().getCount()).isEqualTo(1);
+            assertThat(monitor.getFailedLeaseWaitHistogram().getMaxTime(MILLISECONDS)).isGreaterThanOrEqualTo(25);
+        } finally {
+            client.close();
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.apache;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_MAX_CONNECTIONS;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_MAX_CONNECTIONS_PER_ROUTE;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_ROUTE_MAX_CONNECTIONS;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.pool.ConnPoolControl;
+import org.apache.http.pool.PoolStats;
+import org.forgerock.http.spi.ConnectionPoolMetrics;
+import org.forgerock.http.spi.ConnectionPoolStats;
+import org.forgerock.http.spi.LeaseWaitHistogram;
+import org.forgerock.util.Options;
+
+/**
+ * Sizes the connection pool of an Apache HTTP client from the {@link org.forgerock.http.handler.HttpClientHandler}
+ * options, and collects its metrics.
+ * <p>
+ * Apache HTTP client pools are sized per {@link HttpRoute}, which also depends on the proxy and on the local address.
+ * The routes are therefore sized when they are first requested, according to their target host, which is how the
+ * routes are configured by {@link org.forgerock.http.handler.HttpClientHandler#OPTION_ROUTE_MAX_CONNECTIONS}. The
+ * connection manager of the client must call {@link #routeRequested(HttpRoute)} before requesting a connection, and
+ * {@link #connectionLeased(long)} once the connection is leased, or {@link #connectionLeaseFailed(long)} if it is not.
+ */
+public final class ConnectionPoolMonitor implements ConnectionPoolMetrics {
+
+    private final ConnPoolControl<HttpRoute> pool;
+    private final Map<String, Integer> routeMaxConnections = new HashMap<>();
+    private final ConcurrentMap<HttpRoute, String> routes = new ConcurrentHashMap<>();
+    private final LeaseWaitHistogram leaseWaitHistogram = new LeaseWaitHistogram();
+    private final LeaseWaitHistogram failedLeaseWaitHistogram = new LeaseWaitHistogram();
+
+    /**
+     * Creates a monitor for the given pool, and sizes the pool according to the given options.
+     *
+     * @param pool The connection pool of the client.
+     * @param options The options of the client.
+     */
+    public ConnectionPoolMonitor(final ConnPoolControl<HttpRoute> pool, final Options options) {
+        this.pool = pool;
+        final int maxConnections = options.get(OPTION_MAX_CONNECTIONS);
+        final Integer maxConnectionsPerRoute = options.get(OPTION_MAX_CONNECTIONS_PER_ROUTE);
+        pool.setMaxTotal(maxConnections);
+        pool.setDefaultMaxPerRoute(maxConnectionsPerRoute != null ? maxConnectionsPerRoute : maxConnections);
+        for (final Map.Entry<URI, Integer> route : options.get(OPTION_ROUTE_MAX_CONNECTIONS).entrySet()) {
+            final URI uri = route.getKey();
+            routeMaxConnections.put(targetKey(uri.getScheme(), uri.getHost(), uri.getPort()), route.getValue());
+        }
+    }
+
+    /**
+     * Registers a route for which a connection is about to be requested, and sizes it if it is the first request for
+     * this route.
+     *
+     * @param route The route for which a connection is requested.
+     */
+    public void routeRequested(final HttpRoute route) {
+        if (!routes.containsKey(route)) {
+            final HttpHost target = route.getTargetHost();
+            final String key = targetKey(target.getSchemeName(), target.getHostName(), target.getPort());
+            final Integer maxConnections = routeMaxConnections.get(key);
+            if (maxConnections != null) {
+                pool.setMaxPerRoute(route, maxConnections);
+            }
+            routes.putIfAbsent(route, key);
+        }
+    }
+
+    /**
+     * Records that a connection has been leased.
+     *
+     * @param requestedAtNanos The {@link System#nanoTime()} at which the connection was requested.
+     */
+    public void connectionLeased(final long requestedAtNanos) {
+        leaseWaitHistogram.record(System.nanoTime() - requestedAtNanos, NANOSECONDS);
+    }
+
+    /**
+     * Records that a connection request timed out, failed or was cancelled.
+     *
+     * @param requestedAtNanos The {@link System#nanoTime()} at which the connection was requested.
+     */
+    public void connectionLeaseFailed(final long requestedAtNanos) {
+        failedLeaseWaitHistogram.record(System.nanoTime() - requestedAtNanos, NANOSECONDS);
+    }
+
+    @Override
+    public ConnectionPoolStats getTotalStats() {
+        final PoolStats stats = pool.getTotalStats();
+        return new ConnectionPoolStats(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+    }
+
+    @Override
+    public Map<String, ConnectionPoolStats> getRouteStats() {
+        // Routes to the same target through different proxies or local addresses are merged.
+        final Map<String, ConnectionPoolStats> routeStats = new TreeMap<>();
+        for (final Map.Entry<HttpRoute, String> route : routes.entrySet()) {
+            final PoolStats stats = pool.getStats(route.getKey());
+            final ConnectionPoolStats previous = routeStats.get(route.getValue());
+            routeStats.put(route.getValue(), previous == null
+                    ? new ConnectionPoolStats(stats.getLeased(), stats.getPending(), stats.getAvailable(),
+                            stats.getMax())
+                    : new ConnectionPoolStats(previous.getLeased() + stats.getLeased(),
+                            previous.getPending() + stats.getPending(),
+                            previous.getAvailable() + stats.getAvailable(),
+                            previous.getMax() + stats.getMax()));
+        }
+        return routeStats;
+    }
+
+    @Override
+    public LeaseWaitHistogram getLeaseWaitHistogram() {
+        return leaseWaitHistogram;
+    }
+
+    @Override
+    public LeaseWaitHistogram getFailedLeaseWaitHistogram() {
+        return failedLeaseWaitHistogram;
+    }
+
+    private static String targetKey(final String scheme, final String host, final int port) {
+        final String normalizedScheme = scheme.toLowerCase(Locale.ROOT);
+        final int normalizedPort = port >= 0 ? port : "https".equals(normalizedScheme) ? 443 : 80;
+        return normalizedScheme + "://" + host.toLowerCase(Locale.ROOT) + ":" + normalizedPort;
+    }
+}
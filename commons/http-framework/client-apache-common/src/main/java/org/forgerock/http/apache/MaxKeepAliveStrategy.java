@@ -0,0 +1,49 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.apache;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Keeps connections alive as long as the remote server allows with its {@code Keep-Alive} header, but no longer than
+ * a maximum time.
+ *
+ * @see org.forgerock.http.handler.HttpClientHandler#OPTION_KEEP_ALIVE_TIMEOUT
+ */
+public final class MaxKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+
+    private final long maxKeepAliveMillis;
+
+    /**
+     * Creates a new strategy.
+     *
+     * @param maxKeepAliveMillis The maximum time a connection may be kept alive, in milliseconds.
+     */
+    public MaxKeepAliveStrategy(final long maxKeepAliveMillis) {
+        this.maxKeepAliveMillis = maxKeepAliveMillis;
+    }
+
+    @Override
+    public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+        // The default strategy returns -1 when the server does not limit the keep-alive time.
+        final long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+        return keepAlive > 0 ? Math.min(keepAlive, maxKeepAliveMillis) : maxKeepAliveMillis;
+    }
+}
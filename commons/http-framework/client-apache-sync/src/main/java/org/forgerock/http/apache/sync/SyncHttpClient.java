@@ -14,6 +14,7 @@
  * Copyright 2009 Sun Microsystems Inc.
  * Portions Copyright 2010–2011 ApexIdentity Inc.
  * Portions Copyright 2011-2016 ForgeRock AS.
+ * Portions Copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.http.apache.sync;
@@ -29,6 +30,7 @@ import org.forgerock.http.apache.AbstractHttpClient;
 import org.forgerock.http.io.Buffer;
 import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
+import org.forgerock.http.spi.ConnectionPoolMetrics;
 import org.forgerock.util.Factory;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
@@ -42,9 +44,19 @@ final class SyncHttpClient extends AbstractHttpClient {
     /** The Apache HTTP client to transmit requests through. */
     private final CloseableHttpClient httpClient;
 
-    SyncHttpClient(final CloseableHttpClient httpClient, final Factory<Buffer> storage) {
+    /** The metrics of the connection pool of the Apache HTTP client. */
+    private final ConnectionPoolMetrics connectionPoolMetrics;
+
+    SyncHttpClient(final CloseableHttpClient httpClient, final Factory<Buffer> storage,
+            final ConnectionPoolMetrics connectionPoolMetrics) {
         super(storage);
         this.httpClient = httpClient;
+        this.connectionPoolMetrics = connectionPoolMetrics;
+    }
+
+    @Override
+    public ConnectionPoolMetrics getConnectionPoolMetrics() {
+        return connectionPoolMetrics;
     }
 
     @Override
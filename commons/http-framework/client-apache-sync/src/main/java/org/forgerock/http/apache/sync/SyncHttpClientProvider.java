@@ -14,6 +14,7 @@
  * Copyright 2009 Sun Microsystems Inc.
  * Portions Copyright 2010–2011 ApexIdentity Inc.
  * Portions Copyright 2011-2015 ForgeRock AS.
+ * Portions Copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.http.apache.sync;
@@ -21,8 +22,9 @@ package org.forgerock.http.apache.sync;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_CONNECT_TIMEOUT;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_HOSTNAME_VERIFIER;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_IDLE_CONNECTION_TIMEOUT;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_KEEP_ALIVE_TIMEOUT;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_KEY_MANAGERS;
-import static org.forgerock.http.handler.HttpClientHandler.OPTION_MAX_CONNECTIONS;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_PROXY;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_PROXY_SYSTEM;
 import static org.forgerock.http.handler.HttpClientHandler.OPTION_RETRY_REQUESTS;
@@ -50,7 +52,11 @@ import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.AuthenticationStrategy;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.DefaultHostnameVerifier;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
@@ -58,8 +64,11 @@ import org.apache.http.impl.NoConnectionReuseStrategy;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.ProxyAuthenticationStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
 import org.forgerock.http.HttpApplicationException;
+import org.forgerock.http.apache.ConnectionPoolMonitor;
+import org.forgerock.http.apache.MaxKeepAliveStrategy;
 import org.forgerock.http.apache.NoAuthenticationStrategy;
 import org.forgerock.http.handler.HttpClientHandler;
 import org.forgerock.http.io.Buffer;
@@ -80,13 +89,19 @@ public final class SyncHttpClientProvider implements HttpClientProvider {
 
         final HttpClientBuilder builder = HttpClientBuilder.create();
 
-        // Connection pooling.
-        final int maxConnections = options.get(OPTION_MAX_CONNECTIONS);
-        builder.setMaxConnTotal(maxConnections);
-        builder.setMaxConnPerRoute(maxConnections);
+        // Connection reuse.
         if (!options.get(OPTION_REUSE_CONNECTIONS)) {
             builder.setConnectionReuseStrategy(NoConnectionReuseStrategy.INSTANCE);
         }
+        final Duration keepAliveTimeout = options.get(OPTION_KEEP_ALIVE_TIMEOUT);
+        if (!keepAliveTimeout.isUnlimited()) {
+            builder.setKeepAliveStrategy(new MaxKeepAliveStrategy(keepAliveTimeout.to(MILLISECONDS)));
+        }
+        final Duration idleConnectionTimeout = options.get(OPTION_IDLE_CONNECTION_TIMEOUT);
+        if (!idleConnectionTimeout.isUnlimited()) {
+            builder.evictExpiredConnections();
+            builder.evictIdleConnections(idleConnectionTimeout.to(MILLISECONDS), MILLISECONDS);
+        }
         if (!options.get(OPTION_RETRY_REQUESTS)) {
             builder.disableAutomaticRetries();
         }
@@ -128,8 +143,16 @@ public final class SyncHttpClientProvider implements HttpClientProvider {
         List<String> protocols = options.get(OPTION_SSL_ENABLED_PROTOCOLS);
         List<String> ciphers = options.get(OPTION_SSL_CIPHER_SUITES);
 
-        builder.setSSLSocketFactory(new SSLConnectionSocketFactory(context, asArrayOrNull(protocols),
-                asArrayOrNull(ciphers), hostnameVerifier));
+        final Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(context, asArrayOrNull(protocols),
+                        asArrayOrNull(ciphers), hostnameVerifier))
+                .build();
+
+        // Connection pooling.
+        final PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(registry);
+        final ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(manager, options);
+        builder.setConnectionManager(new MonitoredConnectionManager(manager, monitor));
 
         // Apply proxy settings if necessary
         AuthenticationStrategy proxyStrategy = NoAuthenticationStrategy.INSTANCE;
@@ -163,6 +186,6 @@ public final class SyncHttpClientProvider implements HttpClientProvider {
         builder.setProxyAuthenticationStrategy(proxyAuthenticationStrategy);
         builder.setTargetAuthenticationStrategy(NoAuthenticationStrategy.INSTANCE);
 
-        return new SyncHttpClient(builder.build(), storage);
+        return new SyncHttpClient(builder.build(), storage, monitor);
     }
 }
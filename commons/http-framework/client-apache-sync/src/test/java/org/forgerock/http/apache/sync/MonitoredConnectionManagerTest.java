@@ -0,0 +1,68 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.apache.sync;
+
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_ROUTE_MAX_CONNECTIONS;
+
+import java.net.URI;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.forgerock.http.apache.ConnectionPoolMonitor;
+import org.forgerock.util.Options;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class MonitoredConnectionManagerTest {
+
+    @Test
+    public void shouldRecordTimedOutLeases() throws Exception {
+        // Given
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        Options options = Options.defaultOptions()
+                .set(OPTION_ROUTE_MAX_CONNECTIONS, singletonMap(URI.create("http://localhost:8080/"), 1));
+        ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(pool, options);
+        MonitoredConnectionManager manager = new MonitoredConnectionManager(pool, monitor);
+        HttpRoute route = new HttpRoute(new HttpHost("localhost", 8080, "http"));
+        try {
+            HttpClientConnection connection = manager.requestConnection(route, null).get(1, MILLISECONDS);
+
+            // When
+            try {
+                manager.requestConnection(route, null).get(50, MILLISECONDS);
+                fail("Expected the pool to be exhausted");
+            } catch (ConnectionPoolTimeoutException e) {
+                // Expected
+            }
+            manager.releaseConnection(connection, null, 0, MILLISECONDS);
+
+            // Then
+            assertThat(monitor.getLeaseWaitHistogram().getCount()).isEqualTo(1);
+            assertThat(monitor.getFailedLeaseWaitHistogram().getCount()).isEqualTo(1);
+            assertThat(monitor.getFailedLeaseWaitHistogram().getMaxTime(MILLISECONDS)).isGreaterThanOrEqualTo(25);
+        } finally {
+            manager.shutdown();
+        }
+    }
+}
@@ -12,24 +12,35 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.http.apache.sync;
 
 import static com.xebialabs.restito.builder.stub.StubHttp.whenHttp;
 import static com.xebialabs.restito.semantics.Action.status;
+import static com.xebialabs.restito.semantics.Condition.get;
 import static com.xebialabs.restito.semantics.Condition.post;
 import static com.xebialabs.restito.semantics.Condition.withPostBody;
 import static com.xebialabs.restito.semantics.Condition.withPostBodyContaining;
 import static java.lang.String.format;
+import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.http.handler.HttpClientHandler.OPTION_ROUTE_MAX_CONNECTIONS;
 
 import com.xebialabs.restito.semantics.Predicate;
 import com.xebialabs.restito.semantics.Predicates;
+
+import java.net.URI;
+
 import org.forgerock.http.Client;
 import org.forgerock.http.handler.HttpClientHandler;
 import org.forgerock.http.protocol.Request;
+import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Status;
+import org.forgerock.http.spi.ConnectionPoolMetrics;
+import org.forgerock.http.spi.ConnectionPoolStats;
+import org.forgerock.util.Options;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeMethod;
@@ -95,6 +106,33 @@ public class SyncClientTest {
         assertThat(client.send(request).get().getStatus()).isEqualTo(Status.OK);
     }
 
+    @Test
+    public void shouldSizeRoutesAndExposeConnectionPoolMetrics() throws Exception {
+        whenHttp(server).match(get("/test"))
+                        .then(status(HttpStatus.OK_200));
+
+        String target = format("http://localhost:%d", server.getPort());
+        Options options = Options.defaultOptions()
+                .set(OPTION_ROUTE_MAX_CONNECTIONS, singletonMap(URI.create(target + "/"), 1));
+        try (HttpClientHandler handler = new HttpClientHandler(options)) {
+            Client client = new Client(handler);
+            Request request = new Request();
+            request.setMethod("GET");
+            request.setUri(target + "/test");
+            try (Response response = client.send(request).get()) {
+                assertThat(response.getStatus()).isEqualTo(Status.OK);
+            }
+
+            ConnectionPoolMetrics metrics = handler.getConnectionPoolMetrics();
+            assertThat(metrics.getLeaseWaitHistogram().getCount()).isEqualTo(1);
+            assertThat(metrics.getTotalStats().getLeased()).isZero();
+            assertThat(metrics.getRouteStats()).containsOnlyKeys(target);
+            ConnectionPoolStats route = metrics.getRouteStats().get(target);
+            assertThat(route.getMax()).isEqualTo(1);
+            assertThat(route.getPending()).isZero();
+        }
+    }
+
     /**
      * Restito doesn't provide any way to express a negative condition yet.
      */
@@ -0,0 +1,121 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.handler;
+
+import java.util.Map;
+
+import org.forgerock.http.spi.ConnectionPoolMetrics;
+import org.forgerock.http.spi.ConnectionPoolStats;
+
+/**
+ * The JMX view of the {@link ConnectionPoolMetrics} of an {@link HttpClientHandler}.
+ *
+ * @see HttpClientHandler#OPTION_CONNECTION_POOL_JMX_NAME
+ */
+public interface ConnectionPoolMXBean {
+
+    /**
+     * Returns the number of connections which are in use.
+     *
+     * @return The number of connections which are in use.
+     */
+    int getLeased();
+
+    /**
+     * Returns the number of requests which are waiting for a connection.
+     *
+     * @return The number of requests which are waiting for a connection.
+     */
+    int getPending();
+
+    /**
+     * Returns the number of idle connections which may be reused.
+     *
+     * @return The number of idle connections which may be reused.
+     */
+    int getAvailable();
+
+    /**
+     * Returns the maximum number of connections of the pool.
+     *
+     * @return The maximum number of connections of the pool.
+     */
+    int getMax();
+
+    /**
+     * Returns a snapshot of the connections of each route which has been used so far.
+     *
+     * @return The snapshots of the connections of each route, keyed by the URI of the route target.
+     */
+    Map<String, ConnectionPoolStats> getRouteStats();
+
+    /**
+     * Returns the number of connections which have been leased from the pool.
+     *
+     * @return The number of connections which have been leased from the pool.
+     */
+    long getLeaseCount();
+
+    /**
+     * Returns the mean time requests waited for a connection, in milliseconds.
+     *
+     * @return The mean time requests waited for a connection, in milliseconds.
+     */
+    double getLeaseWaitMeanMillis();
+
+    /**
+     * Returns the longest time a request waited for a connection, in milliseconds.
+     *
+     * @return The longest time a request waited for a connection, in milliseconds.
+     */
+    long getLeaseWaitMaxMillis();
+
+    /**
+     * Returns the upper bounds of the buckets of the lease wait histogram, in milliseconds.
+     *
+     * @return The upper bounds of the buckets of the lease wait histogram, in milliseconds.
+     */
+    long[] getLeaseWaitBucketUpperBoundsMillis();
+
+    /**
+     * Returns the number of leases in each bucket of the lease wait histogram.
+     *
+     * @return The number of leases in each bucket of the lease wait histogram.
+     */
+    long[] getLeaseWaitBucketCounts();
+
+    /**
+     * Returns the number of connection requests which timed out, failed or were cancelled.
+     *
+     * @return The number of connection requests which timed out, failed or were cancelled.
+     */
+    long getFailedLeaseCount();
+
+    /**
+     * Returns the longest time a request waited for a connection which it did not get, in milliseconds.
+     *
+     * @return The longest time a request waited for a connection which it did not get, in milliseconds.
+     */
+    long getFailedLeaseWaitMaxMillis();
+
+    /**
+     * Returns the number of failed connection requests in each bucket of the lease wait histogram.
+     *
+     * @return The number of failed connection requests in each bucket of the lease wait histogram.
+     */
+    long[] getFailedLeaseWaitBucketCounts();
+}
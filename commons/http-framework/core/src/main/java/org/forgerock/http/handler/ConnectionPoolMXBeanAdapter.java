@@ -0,0 +1,104 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.handler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Map;
+
+import org.forgerock.http.spi.ConnectionPoolMetrics;
+import org.forgerock.http.spi.ConnectionPoolStats;
+import org.forgerock.http.spi.LeaseWaitHistogram;
+
+/**
+ * Exposes {@link ConnectionPoolMetrics} as a {@link ConnectionPoolMXBean}.
+ */
+final class ConnectionPoolMXBeanAdapter implements ConnectionPoolMXBean {
+    private final ConnectionPoolMetrics metrics;
+
+    ConnectionPoolMXBeanAdapter(final ConnectionPoolMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int getLeased() {
+        return metrics.getTotalStats().getLeased();
+    }
+
+    @Override
+    public int getPending() {
+        return metrics.getTotalStats().getPending();
+    }
+
+    @Override
+    public int getAvailable() {
+        return metrics.getTotalStats().getAvailable();
+    }
+
+    @Override
+    public int getMax() {
+        return metrics.getTotalStats().getMax();
+    }
+
+    @Override
+    public Map<String, ConnectionPoolStats> getRouteStats() {
+        return metrics.getRouteStats();
+    }
+
+    @Override
+    public long getLeaseCount() {
+        return metrics.getLeaseWaitHistogram().getCount();
+    }
+
+    @Override
+    public double getLeaseWaitMeanMillis() {
+        final LeaseWaitHistogram histogram = metrics.getLeaseWaitHistogram();
+        final long count = histogram.getCount();
+        return count == 0 ? 0 : (double) histogram.getTotalTime(NANOSECONDS) / count / MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public long getLeaseWaitMaxMillis() {
+        return metrics.getLeaseWaitHistogram().getMaxTime(MILLISECONDS);
+    }
+
+    @Override
+    public long[] getLeaseWaitBucketUpperBoundsMillis() {
+        return metrics.getLeaseWaitHistogram().getBucketUpperBoundsMillis();
+    }
+
+    @Override
+    public long[] getLeaseWaitBucketCounts() {
+        return metrics.getLeaseWaitHistogram().getBucketCounts();
+    }
+
+    @Override
+    public long getFailedLeaseCount() {
+        return metrics.getFailedLeaseWaitHistogram().getCount();
+    }
+
+    @Override
+    public long getFailedLeaseWaitMaxMillis() {
+        return metrics.getFailedLeaseWaitHistogram().getMaxTime(MILLISECONDS);
+    }
+
+    @Override
+    public long[] getFailedLeaseWaitBucketCounts() {
+        return metrics.getFailedLeaseWaitHistogram().getBucketCounts();
+    }
+}
@@ -12,18 +12,24 @@
  * information: "Portions Copyright [year] [name of copyright owner]".
  *
  * Copyright 2014-2015 ForgeRock AS.
+ * Portions Copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.http.handler;
 
+import static org.forgerock.util.Utils.closeSilently;
 import static org.forgerock.util.time.Duration.duration;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.TrustManager;
 
@@ -34,6 +40,7 @@ import org.forgerock.http.io.Buffer;
 import org.forgerock.http.io.IO;
 import org.forgerock.http.protocol.Request;
 import org.forgerock.http.protocol.Response;
+import org.forgerock.http.spi.ConnectionPoolMetrics;
 import org.forgerock.http.spi.HttpClient;
 import org.forgerock.http.spi.HttpClientProvider;
 import org.forgerock.http.spi.Loader;
@@ -44,12 +51,16 @@ import org.forgerock.util.Reject;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
 import org.forgerock.util.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * An HTTP client for sending requests to remote servers.
  */
 public final class HttpClientHandler implements Handler, Closeable {
 
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientHandler.class);
+
     /**
      * The TCP connect timeout for new HTTP connections. The default timeout is
      * 10 seconds.
@@ -95,6 +106,53 @@ public final class HttpClientHandler implements Handler, Closeable {
      */
     public static final Option<Integer> OPTION_MAX_CONNECTIONS = Option.withDefault(64);
 
+    /**
+     * Specifies the maximum number of connections that should be pooled by the
+     * HTTP client for a single route, unless the route is listed in
+     * {@link #OPTION_ROUTE_MAX_CONNECTIONS}. By default a single route may use
+     * up to {@link #OPTION_MAX_CONNECTIONS} connections.
+     */
+    public static final Option<Integer> OPTION_MAX_CONNECTIONS_PER_ROUTE = Option.of(Integer.class, null);
+
+    /**
+     * Specifies the maximum number of connections that should be pooled by the
+     * HTTP client for specific routes, keyed by the URI of the route target.
+     * Only the scheme, host and port of the URIs are used, the port defaulting
+     * to the default port of the scheme. This prevents a busy or slow remote
+     * server from using all the connections of the pool. By default, no route
+     * has a specific maximum.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public static final Option<Map<URI, Integer>> OPTION_ROUTE_MAX_CONNECTIONS =
+            (Option) Option.of(Map.class, Collections.<URI, Integer>emptyMap());
+
+    /**
+     * Specifies how long a pooled connection may stay idle before it is
+     * closed. Connections whose keep-alive time has expired are closed as
+     * well. By default idle connections are kept until they are reused or
+     * found closed by the remote server.
+     */
+    public static final Option<Duration> OPTION_IDLE_CONNECTION_TIMEOUT = Option.withDefault(Duration.UNLIMITED);
+
+    /**
+     * Specifies how long a connection may be kept alive in the pool between
+     * two requests. The remote server's {@code Keep-Alive} header is honored
+     * when it specifies a shorter time. By default connections are kept alive
+     * as long as the remote server allows.
+     */
+    public static final Option<Duration> OPTION_KEEP_ALIVE_TIMEOUT = Option.withDefault(Duration.UNLIMITED);
+
+    /**
+     * Specifies the name under which the metrics of the connection pool are
+     * registered in the platform MBean server, as a
+     * {@link ConnectionPoolMXBean} whose object name is
+     * {@code org.forgerock.http:type=ConnectionPool,name=<name>}. By default
+     * the metrics are not registered.
+     *
+     * @see #getConnectionPoolMetrics()
+     */
+    public static final Option<String> OPTION_CONNECTION_POOL_JMX_NAME = Option.of(String.class, null);
+
     /**
      * Specifies the temporary storage that should be used for storing HTTP
      * responses. By default {@link IO#newTemporaryStorage()} is used.
@@ -122,6 +180,9 @@ public final class HttpClientHandler implements Handler, Closeable {
     /** The client implementation. */
     private final HttpClient httpClient;
 
+    /** The name of the connection pool MBean, {@code null} if it is not registered. */
+    private final ObjectName connectionPoolMBeanName;
+
     /**
      * SSL host name verification policies.
      */
@@ -203,6 +264,35 @@ public final class HttpClientHandler implements Handler, Closeable {
             throw new HttpApplicationException("No HTTP client provider found");
         }
         this.httpClient = factory.newHttpClient(options);
+        final String jmxName = options.get(OPTION_CONNECTION_POOL_JMX_NAME);
+        this.connectionPoolMBeanName = jmxName != null ? registerConnectionPoolMBean(jmxName) : null;
+    }
+
+    private ObjectName registerConnectionPoolMBean(final String jmxName) throws HttpApplicationException {
+        final ConnectionPoolMetrics metrics = httpClient.getConnectionPoolMetrics();
+        if (metrics == null) {
+            closeSilently(httpClient);
+            throw new HttpApplicationException("The HTTP client provider does not expose connection pool metrics");
+        }
+        try {
+            final ObjectName name = new ObjectName(
+                    "org.forgerock.http:type=ConnectionPool,name=" + ObjectName.quote(jmxName));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new ConnectionPoolMXBeanAdapter(metrics), name);
+            return name;
+        } catch (final JMException e) {
+            closeSilently(httpClient);
+            throw new HttpApplicationException("Cannot register the connection pool MBean " + jmxName, e);
+        }
+    }
+
+    /**
+     * Returns the metrics of the connection pool of the client.
+     *
+     * @return The metrics of the connection pool, or {@code null} if the
+     *         client implementation does not expose them.
+     */
+    public ConnectionPoolMetrics getConnectionPoolMetrics() {
+        return httpClient.getConnectionPoolMetrics();
     }
 
     /**
@@ -214,6 +304,13 @@ public final class HttpClientHandler implements Handler, Closeable {
      */
     @Override
     public void close() throws IOException {
+        if (connectionPoolMBeanName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(connectionPoolMBeanName);
+            } catch (final JMException e) {
+                logger.debug("Cannot unregister the connection pool MBean {}", connectionPoolMBeanName, e);
+            }
+        }
         httpClient.close();
     }
 
@@ -0,0 +1,255 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.io;
+
+import static org.forgerock.http.io.IO.newBranchingInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.forgerock.util.Factory;
+
+/**
+ * Represents a pipe for transferring bytes from an {@link OutputStream} written by one thread to a
+ * {@link BranchingInputStream} read by another thread, through a fixed size buffer.
+ * <p>
+ * Unlike {@link PipeBufferedStream}, the content does not have to be fully written before it is read: the reader
+ * receives bytes as soon as they are written, and waits for more bytes until the output stream is closed. The writer
+ * waits while the buffer is full, so a slow reader slows down the writer instead of the content piling up in memory.
+ * A writer that waits longer than the write timeout, or that writes once the input stream has been closed, gets an
+ * {@link IOException} and should stop producing content.
+ * <p>
+ * The writer may also {@link #abort(IOException) abort} the pipe, in which case the reader gets an
+ * {@link IOException} rather than the end of the stream, so that incomplete content is not mistaken for complete
+ * content.
+ */
+public final class BoundedPipeStream {
+    private final OutputStream outputStream = new PipeOutputStream();
+    private final BranchingInputStream inputStream;
+    private final long writeTimeoutNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final byte[] buffer;
+    /** Position of the next byte to read. */
+    private int head;
+    /** Number of bytes which have been written and not read yet. */
+    private int count;
+    private boolean outputClosed;
+    private boolean inputClosed;
+    private IOException abortCause;
+
+    /**
+     * Constructs a new {@link BoundedPipeStream} which uses temporary storage for the branches of its input stream.
+     *
+     * @param capacity The number of bytes which may be written and not read yet before writes wait.
+     * @param writeTimeout How long a write may wait for the reader to free space in the buffer.
+     * @param unit The unit of the write timeout.
+     */
+    public BoundedPipeStream(final int capacity, final long writeTimeout, final TimeUnit unit) {
+        this(capacity, writeTimeout, unit, IO.newTemporaryStorage());
+    }
+
+    /**
+     * Constructs a new {@link BoundedPipeStream}.
+     *
+     * @param capacity The number of bytes which may be written and not read yet before writes wait.
+     * @param writeTimeout How long a write may wait for the reader to free space in the buffer.
+     * @param unit The unit of the write timeout.
+     * @param bufferFactory The buffer factory used by the branches of the {@link BranchingInputStream}.
+     */
+    public BoundedPipeStream(final int capacity, final long writeTimeout, final TimeUnit unit,
+            final Factory<Buffer> bufferFactory) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive");
+        }
+        this.buffer = new byte[capacity];
+        this.writeTimeoutNanos = unit.toNanos(writeTimeout);
+        this.inputStream = newBranchingInputStream(new PipeInputStream(), bufferFactory);
+    }
+
+    /**
+     * Returns the output stream which writes to the pipe.
+     *
+     * @return The output stream.
+     */
+    public OutputStream getIn() {
+        return outputStream;
+    }
+
+    /**
+     * Returns the input stream which reads from the pipe.
+     *
+     * @return The input stream.
+     */
+    public BranchingInputStream getOut() {
+        return inputStream;
+    }
+
+    /**
+     * Stops the transfer because the content could not be completed. Pending and subsequent reads and writes fail
+     * with the given exception, and the bytes which have not been read yet are discarded.
+     *
+     * @param cause The reason why the content could not be completed.
+     */
+    public void abort(final IOException cause) {
+        lock.lock();
+        try {
+            if (abortCause == null) {
+                abortCause = cause;
+            }
+            count = 0;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkNotAborted() throws IOException {
+        if (abortCause != null) {
+            throw new IOException(abortCause.getMessage(), abortCause);
+        }
+    }
+
+    private class PipeOutputStream extends OutputStream {
+        @Override
+        public void write(final int i) throws IOException {
+            write(new byte[] { (byte) i }, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            lock.lock();
+            try {
+                while (len > 0) {
+                    long nanos = writeTimeoutNanos;
+                    while (count == buffer.length && !inputClosed && abortCause == null) {
+                        if (nanos <= 0) {
+                            throw new IOException("Timed out waiting for the pipe to be read");
+                        }
+                        nanos = notFull.awaitNanos(nanos);
+                    }
+                    checkNotAborted();
+                    if (outputClosed) {
+                        throw new IOException("The pipe output has been closed");
+                    }
+                    if (inputClosed) {
+                        throw new IOException("The pipe input has been closed");
+                    }
+                    final int tail = (head + count) % buffer.length;
+                    final int n = Math.min(len, Math.min(buffer.length - count, buffer.length - tail));
+                    System.arraycopy(b, off, buffer, tail, n);
+                    count += n;
+                    off += n;
+                    len -= n;
+                    notEmpty.signal();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the pipe to be read");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            lock.lock();
+            try {
+                outputClosed = true;
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private class PipeInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) > 0 ? b[0] & 0xff : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            lock.lock();
+            try {
+                while (count == 0 && !outputClosed && !inputClosed && abortCause == null) {
+                    notEmpty.await();
+                }
+                checkNotAborted();
+                if (inputClosed) {
+                    throw new IOException("The pipe input has been closed");
+                }
+                if (count == 0) {
+                    return -1;
+                }
+                final int n = Math.min(len, Math.min(count, buffer.length - head));
+                System.arraycopy(buffer, head, b, off, n);
+                head = (head + n) % buffer.length;
+                count -= n;
+                notFull.signal();
+                return n;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the pipe to be written");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int available() throws IOException {
+            lock.lock();
+            try {
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            lock.lock();
+            try {
+                inputClosed = true;
+                count = 0;
+                notEmpty.signalAll();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.http.routing;
@@ -138,6 +139,16 @@ public final class RouteMatchers {
             return delegate.idFragment();
         }
 
+        @Override
+        public String uriTemplate() {
+            return delegate.uriTemplate();
+        }
+
+        @Override
+        public RoutingMode uriRoutingMode() {
+            return delegate.uriRoutingMode();
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 package org.forgerock.http.routing;
 
@@ -19,6 +20,8 @@ import static org.forgerock.http.protocol.Responses.newNotFound;
 import static org.forgerock.http.routing.RouteMatchers.getRemainingRequestUri;
 import static org.forgerock.util.promise.Promises.newResultPromise;
 
+import java.util.List;
+
 import org.forgerock.http.Handler;
 import org.forgerock.http.handler.DescribableHandler;
 import org.forgerock.http.protocol.Request;
@@ -92,6 +95,11 @@ public final class Router extends AbstractRouter<Router, Request, Handler, Swagg
         return RouteMatchers.requestUriMatcher(mode, pattern);
     }
 
+    @Override
+    protected List<String> getRoutingPathElements(Context context, Request request) {
+        return getRemainingRequestUri(context, request);
+    }
+
     @Override
     public Promise<Response, NeverThrowsException> handle(Context context, Request request) {
         try {
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2012-2016 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.http.routing;
@@ -161,6 +162,16 @@ class UriRouteMatcher extends RouteMatcher<List<String>> {
         return "/" + uriTemplate;
     }
 
+    @Override
+    public String uriTemplate() {
+        return uriTemplate;
+    }
+
+    @Override
+    public RoutingMode uriRoutingMode() {
+        return mode;
+    }
+
     @Override
     public <D> D transformApi(D descriptor, ApiProducer<D> producer) {
         return descriptor != null ? producer.withPath(descriptor, uriTemplate) : null;
@@ -0,0 +1,57 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.spi;
+
+import java.util.Map;
+
+/**
+ * Exposes the usage of the connection pool of an {@link HttpClient}, so that the pool may be sized from actual
+ * usage: a pool whose requests are often pending, or wait long for a connection, is too small for its load.
+ */
+public interface ConnectionPoolMetrics {
+
+    /**
+     * Returns a snapshot of all the connections of the pool.
+     *
+     * @return A snapshot of all the connections of the pool.
+     */
+    ConnectionPoolStats getTotalStats();
+
+    /**
+     * Returns a snapshot of the connections of each route which has been used so far.
+     *
+     * @return The snapshots of the connections of each route, keyed by the {@code scheme://host:port} URI of the
+     *         route target.
+     */
+    Map<String, ConnectionPoolStats> getRouteStats();
+
+    /**
+     * Returns the times requests waited for a connection to be leased from the pool.
+     *
+     * @return The times requests waited for a connection.
+     */
+    LeaseWaitHistogram getLeaseWaitHistogram();
+
+    /**
+     * Returns the times requests waited for a connection which they did not get, because the wait timed out, failed
+     * or was cancelled. A pool which is too small for its load shows here as well as in
+     * {@link #getLeaseWaitHistogram()}.
+     *
+     * @return The times requests waited for a connection which they did not get.
+     */
+    LeaseWaitHistogram getFailedLeaseWaitHistogram();
+}
@@ -0,0 +1,85 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.spi;
+
+/**
+ * A snapshot of the connections of a connection pool, or of the part of a pool which holds the connections to a
+ * single route.
+ */
+public final class ConnectionPoolStats {
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int max;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param leased The number of connections which are in use.
+     * @param pending The number of requests which are waiting for a connection.
+     * @param available The number of idle connections which may be reused.
+     * @param max The maximum number of connections.
+     */
+    public ConnectionPoolStats(final int leased, final int pending, final int available, final int max) {
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+    }
+
+    /**
+     * Returns the number of connections which are in use.
+     *
+     * @return The number of connections which are in use.
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Returns the number of requests which are waiting for a connection. A request waits when the pool already
+     * holds as many connections as it may.
+     *
+     * @return The number of requests which are waiting for a connection.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Returns the number of idle connections which may be reused.
+     *
+     * @return The number of idle connections which may be reused.
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * Returns the maximum number of connections.
+     *
+     * @return The maximum number of connections.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "[leased: " + leased + "; pending: " + pending + "; available: " + available + "; max: " + max + "]";
+    }
+}
@@ -12,6 +12,7 @@
  * information: "Portions Copyright [year] [name of copyright owner]".
  *
  * Copyright 2014-2016 ForgeRock AS.
+ * Portions Copyright 2026 3A Systems LLC.
  */
 package org.forgerock.http.spi;
 
@@ -63,6 +64,15 @@ public interface HttpClient extends Closeable {
      */
     Promise<Response, NeverThrowsException> sendAsync(Request request);
 
+    /**
+     * Returns the metrics of the connection pool of this client.
+     *
+     * @return The metrics of the connection pool, or {@code null} if this client does not expose them.
+     */
+    default ConnectionPoolMetrics getConnectionPoolMetrics() {
+        return null;
+    }
+
     /**
      * Completes all pending requests and release resources associated with
      * underlying implementation.
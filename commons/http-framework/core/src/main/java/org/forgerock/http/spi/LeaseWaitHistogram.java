@@ -0,0 +1,121 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.spi;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts how long requests waited for a connection to be leased from a connection pool, in buckets of increasing
+ * width. The buckets have fixed bounds so that recording a time never allocates nor locks.
+ * <p>
+ * Bucket {@code i} counts the times greater than the upper bound of bucket {@code i - 1} and lower than or equal to
+ * its own upper bound. The last bucket has no upper bound.
+ */
+public final class LeaseWaitHistogram {
+
+    private static final long[] UPPER_BOUNDS_MILLIS = {
+        1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, Long.MAX_VALUE
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS_MILLIS.length);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records the time a request waited for a connection.
+     *
+     * @param duration The time the request waited.
+     * @param unit The unit of the duration.
+     */
+    public void record(final long duration, final TimeUnit unit) {
+        final long nanos = Math.max(0, unit.toNanos(duration));
+        counts.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    private static int bucketOf(final long nanos) {
+        int bucket = 0;
+        while (nanos > MILLISECONDS.toNanos(UPPER_BOUNDS_MILLIS[bucket])) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * Returns the upper bounds of the buckets in milliseconds. The upper bound of the last bucket is
+     * {@link Long#MAX_VALUE}.
+     *
+     * @return The upper bounds of the buckets in milliseconds.
+     */
+    public long[] getBucketUpperBoundsMillis() {
+        return Arrays.copyOf(UPPER_BOUNDS_MILLIS, UPPER_BOUNDS_MILLIS.length);
+    }
+
+    /**
+     * Returns the number of times recorded in each bucket.
+     *
+     * @return The number of times recorded in each bucket, in the order of {@link #getBucketUpperBoundsMillis()}.
+     */
+    public long[] getBucketCounts() {
+        final long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of recorded times.
+     *
+     * @return The number of recorded times.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the sum of the recorded times.
+     *
+     * @param unit The unit of the returned time.
+     * @return The sum of the recorded times.
+     */
+    public long getTotalTime(final TimeUnit unit) {
+        return unit.convert(totalNanos.get(), NANOSECONDS);
+    }
+
+    /**
+     * Returns the longest recorded time.
+     *
+     * @param unit The unit of the returned time.
+     * @return The longest recorded time, or 0 if no time has been recorded.
+     */
+    public long getMaxTime(final TimeUnit unit) {
+        return unit.convert(maxNanos.get(), NANOSECONDS);
+    }
+}
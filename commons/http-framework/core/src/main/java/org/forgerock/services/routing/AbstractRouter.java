@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 package org.forgerock.services.routing;
 
@@ -22,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.forgerock.http.ApiProducer;
 import org.forgerock.http.routing.RoutingMode;
@@ -39,6 +41,11 @@ import org.forgerock.util.Pair;
  * and a handler (H). When a request (R) is received the router invokes each {@code RouteMatcher} to see if it
  * matches and then invokes the associated handler if it is the best match.
  * <p>
+ * Routers which provide the {@link #getRoutingPathElements(Context, Object) path} of a request only evaluate the
+ * routes whose {@link RouteMatcher#uriTemplate() URI template} might match it, looked up in an index of the URI
+ * templates, together with the routes that have no URI template. The index is rebuilt on the first request after the
+ * routes change.
+ * <p>
  * Concrete implementations of {@code AbstractRouter} existing in both {@link org.forgerock.http.routing.Router CHF}
  * and CREST.
  *
@@ -51,6 +58,8 @@ public abstract class AbstractRouter<T extends AbstractRouter<T, R, H, D>, R, H,
         implements Describable<D, R>, Describable.Listener {
 
     private final Map<RouteMatcher<R>, H> routes = new ConcurrentHashMap<>();
+    private final AtomicLong routesVersion = new AtomicLong();
+    private volatile RouteIndex<R, H> routeIndex;
     /** Matches the current route. */
     protected final RouteMatcher<R> thisRouterUriMatcher = uriMatcher(RoutingMode.EQUALS, "");
     private final Set<Describable.Listener> apiListeners = ConcurrentHashMap.newKeySet();
@@ -106,6 +115,7 @@ public abstract class AbstractRouter<T extends AbstractRouter<T, R, H, D>, R, H,
                 H handler = route.getValue();
                 descriptorChanged |= updateApiDescriptor(routes.put(route.getKey(), handler), handler);
             }
+            routesVersion.incrementAndGet();
             if (descriptorChanged) {
                 notifyDescriptorChange();
             }
@@ -126,7 +136,9 @@ public abstract class AbstractRouter<T extends AbstractRouter<T, R, H, D>, R, H,
      * @return This router instance.
      */
     public final T addRoute(RouteMatcher<R> matcher, H handler) {
-        return updateApiDescriptorAndNotify(routes.put(matcher, handler), handler);
+        H oldHandler = routes.put(matcher, handler);
+        routesVersion.incrementAndGet();
+        return updateApiDescriptorAndNotify(oldHandler, handler);
     }
 
     private boolean updateApiDescriptor(H oldHandler, H newHandler) {
@@ -179,6 +191,7 @@ public abstract class AbstractRouter<T extends AbstractRouter<T, R, H, D>, R, H,
      */
     public final T removeAllRoutes() {
         routes.clear();
+        routesVersion.incrementAndGet();
         api = null;
         return getThis();
     }
@@ -199,6 +212,7 @@ public abstract class AbstractRouter<T extends AbstractRouter<T, R, H, D>, R, H,
             isModified |= removed != null;
             apiDescriptorModified |= updateApiDescriptor(removed, null);
         }
+        routesVersion.incrementAndGet();
         if (apiDescriptorModified) {
             notifyDescriptorChange();
         }
@@ -221,7 +235,15 @@ public abstract class AbstractRouter<T extends AbstractRouter<T, R, H, D>, R, H,
     protected Pair<Context, H> getBestRoute(Context context, R request) throws IncomparableRouteMatchException {
         H handler = null;
         RouteMatch bestMatch = null;
-        for (Map.Entry<RouteMatcher<R>, H> route : routes.entrySet()) {
+        Iterable<Map.Entry<RouteMatcher<R>, H>> candidates = routes.entrySet();
+        RouteIndex<R, H> index = getRouteIndex();
+        if (index.hasUriTemplates()) {
+            List<String> pathElements = getRoutingPathElements(context, request);
+            if (pathElements != null) {
+                candidates = index.candidates(pathElements);
+            }
+        }
+        for (Map.Entry<RouteMatcher<R>, H> route : candidates) {
             RouteMatch result = route.getKey().evaluate(context, request);
             if (result != null) {
                 if (result.isBetterMatchThan(bestMatch)) {
@@ -238,6 +260,30 @@ public abstract class AbstractRouter<T extends AbstractRouter<T, R, H, D>, R, H,
         return dftRoute != null ? Pair.of(context, dftRoute) : null;
     }
 
+    /**
+     * Returns the path elements of the request that the {@link #uriMatcher(RoutingMode, String) URI matchers} of this
+     * router evaluate, so that only the routes whose URI template might match them are evaluated. The default
+     * implementation returns {@code null}, in which case every route is evaluated.
+     *
+     * @param context The request context.
+     * @param request The request.
+     * @return The path elements, or {@code null} to evaluate every route.
+     */
+    protected List<String> getRoutingPathElements(Context context, R request) {
+        return null;
+    }
+
+    private RouteIndex<R, H> getRouteIndex() {
+        RouteIndex<R, H> index = routeIndex;
+        long version = routesVersion.get();
+        if (index == null || index.getVersion() != version) {
+            // Routes changed while the index is built are indexed again on the next request.
+            index = new RouteIndex<>(version, routes);
+            routeIndex = index;
+        }
+        return index;
+    }
+
     @Override
     public synchronized D api(ApiProducer<D> producer) {
         if (apiProducer == null) {
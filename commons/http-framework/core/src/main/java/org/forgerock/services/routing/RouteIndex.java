@@ -0,0 +1,167 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.services.routing;
+
+import static org.forgerock.http.util.Paths.joinPath;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.forgerock.http.routing.RoutingMode;
+
+/**
+ * An immutable index of the routes of an {@link AbstractRouter}, used to find the routes that might match a request
+ * without evaluating every route.
+ * <p>
+ * Routes whose matcher has a {@link RouteMatcher#uriTemplate() URI template} are held in a tree with one level for
+ * each path element of the template. A literal path element is an edge that only matches the same path element of
+ * the request URI, and a path element containing a template variable is a wildcard edge that matches any path
+ * element. {@link RoutingMode#EQUALS EQUALS} routes are held by the node reached by the whole template and
+ * {@link RoutingMode#STARTS_WITH STARTS_WITH} routes also match any longer URI, so a lookup walks the request URI down
+ * the tree and collects the routes of each node it reaches. Routes whose matcher has no URI template, such as API
+ * version matchers, are candidates for every request.
+ * <p>
+ * The tree only narrows down the routes to evaluate: it matches a superset of the URIs matched by each template, and
+ * the router still evaluates the matcher of every candidate.
+ *
+ * @param <R> The type of the request.
+ * @param <H> The type of the handler.
+ */
+final class RouteIndex<R, H> {
+
+    private final long version;
+    private final Node<R, H> root = new Node<>();
+    private final List<Map.Entry<RouteMatcher<R>, H>> unindexed = new ArrayList<>();
+    private final boolean hasUriTemplates;
+
+    /**
+     * Builds an index of the given routes.
+     *
+     * @param version The version of the routes, used to detect that the index is out of date.
+     * @param routes The routes to index.
+     */
+    RouteIndex(long version, Map<RouteMatcher<R>, H> routes) {
+        this.version = version;
+        int indexed = 0;
+        for (Map.Entry<RouteMatcher<R>, H> route : routes.entrySet()) {
+            RouteMatcher<R> matcher = route.getKey();
+            String template = matcher.uriTemplate();
+            RoutingMode mode = matcher.uriRoutingMode();
+            if (template == null || mode == null) {
+                unindexed.add(route);
+                continue;
+            }
+            indexed++;
+            Node<R, H> node = root;
+            for (String element : split(trimSlashes(template))) {
+                node = node.child(element);
+            }
+            if (mode == RoutingMode.EQUALS) {
+                node.equalsRoutes.add(route);
+            } else {
+                node.startsWithRoutes.add(route);
+            }
+        }
+        this.hasUriTemplates = indexed > 0;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Indicates whether any route has a URI template. If none has, looking up candidates is of no benefit.
+     *
+     * @return {@code true} if at least one route is held in the tree.
+     */
+    boolean hasUriTemplates() {
+        return hasUriTemplates;
+    }
+
+    /**
+     * Returns the routes that might match a request with the given path, that is the routes whose template might match
+     * the path followed by the routes without a template.
+     *
+     * @param pathElements The path elements of the request that URI matchers evaluate.
+     * @return The candidate routes.
+     */
+    List<Map.Entry<RouteMatcher<R>, H>> candidates(List<String> pathElements) {
+        List<Map.Entry<RouteMatcher<R>, H>> candidates = new ArrayList<>();
+        // URI matchers match against the encoded, joined path, so walk the same string.
+        collect(root, split(joinPath(pathElements)), 0, candidates);
+        candidates.addAll(unindexed);
+        return candidates;
+    }
+
+    private static <R, H> void collect(Node<R, H> node, String[] elements, int depth,
+            List<Map.Entry<RouteMatcher<R>, H>> candidates) {
+        candidates.addAll(node.startsWithRoutes);
+        if (depth == elements.length) {
+            candidates.addAll(node.equalsRoutes);
+            return;
+        }
+        if (node.literals != null) {
+            Node<R, H> literal = node.literals.get(elements[depth]);
+            if (literal != null) {
+                collect(literal, elements, depth + 1, candidates);
+            }
+        }
+        if (node.wildcard != null) {
+            collect(node.wildcard, elements, depth + 1, candidates);
+        }
+    }
+
+    private static String trimSlashes(String template) {
+        int start = template.startsWith("/") ? 1 : 0;
+        int end = template.length() > start && template.endsWith("/") ? template.length() - 1 : template.length();
+        return template.substring(start, end);
+    }
+
+    private static String[] split(String path) {
+        return path.isEmpty() ? new String[0] : path.split("/", -1);
+    }
+
+    /**
+     * A node of the tree, reached by a sequence of path elements.
+     */
+    private static final class Node<R, H> {
+        private Map<String, Node<R, H>> literals;
+        private Node<R, H> wildcard;
+        private final List<Map.Entry<RouteMatcher<R>, H>> equalsRoutes = new ArrayList<>(1);
+        private final List<Map.Entry<RouteMatcher<R>, H>> startsWithRoutes = new ArrayList<>(1);
+
+        private Node<R, H> child(String element) {
+            if (element.indexOf('{') >= 0) {
+                if (wildcard == null) {
+                    wildcard = new Node<>();
+                }
+                return wildcard;
+            }
+            if (literals == null) {
+                literals = new HashMap<>();
+            }
+            Node<R, H> child = literals.get(element);
+            if (child == null) {
+                child = new Node<>();
+                literals.put(element, child);
+            }
+            return child;
+        }
+    }
+}
@@ -12,11 +12,13 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.services.routing;
 
 import org.forgerock.http.ApiProducer;
+import org.forgerock.http.routing.RoutingMode;
 import org.forgerock.services.context.Context;
 
 /**
@@ -63,6 +65,28 @@ public abstract class RouteMatcher<R> {
     @Override
     public abstract boolean equals(Object o);
 
+    /**
+     * Returns the URI template that the remaining request URI must match for this matcher to match the request, or
+     * {@code null} if this matcher does not only match on the request URI. Routers use the template, together with
+     * {@link #uriRoutingMode()}, to index their routes so that only the routes whose template might match the request
+     * URI are evaluated. The default implementation returns {@code null}, so the route is evaluated for every request.
+     *
+     * @return The URI template, or {@code null}.
+     */
+    public String uriTemplate() {
+        return null;
+    }
+
+    /**
+     * Returns how the request URI is matched against the {@link #uriTemplate() URI template} of this matcher, or
+     * {@code null} if it has no URI template.
+     *
+     * @return The routing mode, or {@code null}.
+     */
+    public RoutingMode uriRoutingMode() {
+        return null;
+    }
+
     /**
      * Transform the API Descriptor as appropriate for the parent router's view of the child routes.
      * @param descriptor The descriptor to be mutated.
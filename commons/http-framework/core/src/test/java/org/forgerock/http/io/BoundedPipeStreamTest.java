@@ -0,0 +1,155 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.io;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class BoundedPipeStreamTest {
+
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldTransferMoreBytesThanCapacityWhileReading() throws Exception {
+        //Given
+        final BoundedPipeStream pipe = new BoundedPipeStream(16, 10, SECONDS);
+        final byte[] content = new byte[10_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        //When
+        Future<Void> writer = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                try (OutputStream out = pipe.getIn()) {
+                    for (int i = 0; i < content.length; i += 100) {
+                        out.write(content, i, 100);
+                    }
+                }
+                return null;
+            }
+        });
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        IO.stream(pipe.getOut(), read);
+
+        //Then
+        writer.get(10, SECONDS);
+        assertThat(read.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    public void shouldReadBytesBeforeOutputIsClosed() throws Exception {
+        //Given
+        BoundedPipeStream pipe = new BoundedPipeStream(16, 10, SECONDS);
+        byte[] read = new byte[16];
+
+        //When
+        pipe.getIn().write("hello".getBytes());
+        int length = pipe.getOut().read(read);
+
+        //Then
+        assertThat(length).isEqualTo(5);
+        assertThat(new String(read, 0, length)).isEqualTo("hello");
+    }
+
+    @Test
+    public void shouldReadEndOfStreamOnceOutputIsClosed() throws Exception {
+        //Given
+        BoundedPipeStream pipe = new BoundedPipeStream(16, 10, SECONDS);
+        pipe.getIn().write(42);
+
+        //When
+        pipe.getIn().close();
+
+        //Then
+        assertThat(pipe.getOut().read()).isEqualTo(42);
+        assertThat(pipe.getOut().read()).isEqualTo(-1);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Timed out.*")
+    public void shouldFailWriteWhenReaderIsTooSlow() throws Exception {
+        //Given
+        BoundedPipeStream pipe = new BoundedPipeStream(16, 50, MILLISECONDS);
+
+        //When
+        pipe.getIn().write(new byte[17]);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*input has been closed")
+    public void shouldFailWriteWhenInputIsClosed() throws Exception {
+        //Given
+        final BoundedPipeStream pipe = new BoundedPipeStream(16, 10, SECONDS);
+        pipe.getIn().write(new byte[16]);
+
+        //When
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                MILLISECONDS.sleep(50);
+                pipe.getOut().close();
+                return null;
+            }
+        });
+        pipe.getIn().write(new byte[16]);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "aborted")
+    public void shouldFailReadWhenAborted() throws Exception {
+        //Given
+        final BoundedPipeStream pipe = new BoundedPipeStream(16, 10, SECONDS);
+        pipe.getIn().write(new byte[8]);
+        InputStream in = pipe.getOut();
+        in.read(new byte[8]);
+
+        //When
+        executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                MILLISECONDS.sleep(50);
+                pipe.abort(new IOException("aborted"));
+                return null;
+            }
+        });
+        in.read();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.http.spi;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class LeaseWaitHistogramTest {
+
+    @Test
+    public void shouldCountTimesInBuckets() {
+        //Given
+        LeaseWaitHistogram histogram = new LeaseWaitHistogram();
+
+        //When
+        histogram.record(500, MICROSECONDS);
+        histogram.record(1, MILLISECONDS);
+        histogram.record(3, MILLISECONDS);
+        histogram.record(1, SECONDS);
+        histogram.record(1, HOURS);
+
+        //Then
+        long[] bounds = histogram.getBucketUpperBoundsMillis();
+        long[] counts = histogram.getBucketCounts();
+        assertThat(bounds).hasSameSizeAs(counts);
+        assertThat(bounds[bounds.length - 1]).isEqualTo(Long.MAX_VALUE);
+        assertThat(counts[0]).isEqualTo(2);
+        assertThat(counts[1]).isEqualTo(1);
+        assertThat(counts[indexOf(bounds, 1000)]).isEqualTo(1);
+        assertThat(counts[counts.length - 1]).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSumAndTrackLongestTime() {
+        //Given
+        LeaseWaitHistogram histogram = new LeaseWaitHistogram();
+
+        //When
+        histogram.record(10, MILLISECONDS);
+        histogram.record(30, MILLISECONDS);
+        histogram.record(20, MILLISECONDS);
+
+        //Then
+        assertThat(histogram.getCount()).isEqualTo(3);
+        assertThat(histogram.getTotalTime(MILLISECONDS)).isEqualTo(60);
+        assertThat(histogram.getMaxTime(MILLISECONDS)).isEqualTo(30);
+    }
+
+    @Test
+    public void shouldBeEmptyInitially() {
+        LeaseWaitHistogram histogram = new LeaseWaitHistogram();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMaxTime(MILLISECONDS)).isZero();
+        assertThat(histogram.getBucketCounts()).containsOnly(0L);
+    }
+
+    private static int indexOf(final long[] bounds, final long bound) {
+        for (int i = 0; i < bounds.length; i++) {
+            if (bounds[i] == bound) {
+                return i;
+            }
+        }
+        throw new AssertionError("No bucket bounded by " + bound);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.services.routing;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.forgerock.http.routing.RouteMatchers.uriMatcher;
+import static org.forgerock.http.routing.RoutingMode.EQUALS;
+import static org.forgerock.http.routing.RoutingMode.STARTS_WITH;
+import static org.forgerock.http.util.Paths.getPathElements;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.forgerock.http.routing.RoutingMode;
+import org.forgerock.services.context.Context;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class RouteIndexTest {
+
+    @DataProvider
+    public Object[][] testData() {
+        return new Object[][] {
+            // @formatter:off
+            /* mode,       template,       resourceName,        candidate */
+            { EQUALS,      "",             "",                  true },
+            { EQUALS,      "",             "test",              false },
+            { EQUALS,      "test",         "test",              true },
+            { EQUALS,      "test/",        "test",              true },
+            { EQUALS,      "/test",        "test",              true },
+            { EQUALS,      "test",         "testremaining",     false },
+            { EQUALS,      "test",         "test/remaining",    false },
+            { EQUALS,      "users/{id}",   "users/1",           true },
+            { EQUALS,      "users/{id}",   "users/1/devices/0", false },
+            { EQUALS,      "users/{id}",   "groups/1",          false },
+            { EQUALS,      "a b/{id}",     "a b/1",             false },
+            { EQUALS,      "a%20b/{id}",   "a b/1",             true },
+            { STARTS_WITH, "users/{id}",   "users/1",           true },
+            { STARTS_WITH, "users/{id}",   "users/1/devices/0", true },
+            { STARTS_WITH, "users/{id}",   "users",             false },
+            { STARTS_WITH, "test/",        "test/remaining",    true },
+            { STARTS_WITH, "test/",        "testremaining",     false },
+            { STARTS_WITH, "test/",        "test",              true },
+            { STARTS_WITH, "test",         "other/test",        false },
+            { STARTS_WITH, "test{suffix}", "testabc/123",       true },
+            { STARTS_WITH, "{a}/{b}",      "x/y/z",             true },
+            { STARTS_WITH, "",             "",                  true },
+            { STARTS_WITH, "",             "123/456",           true },
+            // @formatter:on
+        };
+    }
+
+    @Test(dataProvider = "testData")
+    public void shouldReturnCandidatesMatchingUriTemplate(RoutingMode mode, String template, String resourceName,
+            boolean expectedCandidate) {
+        //Given
+        RouteMatcher<List<String>> matcher = uriMatcher(mode, template);
+        Map<RouteMatcher<List<String>>, String> routes = new LinkedHashMap<>();
+        routes.put(matcher, "handler");
+        List<String> path = getPathElements(resourceName);
+
+        //When
+        List<RouteMatcher<List<String>>> candidates = matchers(new RouteIndex<>(0L, routes).candidates(path));
+
+        //Then
+        assertThat(candidates.contains(matcher)).isEqualTo(expectedCandidate);
+        if (matcher.evaluate(mock(Context.class), path) != null) {
+            assertThat(candidates).containsExactly(matcher);
+        }
+    }
+
+    @Test
+    public void shouldOnlyReturnCandidatesOnPath() {
+        //Given
+        Map<RouteMatcher<List<String>>, String> routes = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            routes.put(uriMatcher(EQUALS, "resource" + i), "collection" + i);
+            routes.put(uriMatcher(EQUALS, "resource" + i + "/{id}"), "instance" + i);
+            routes.put(uriMatcher(STARTS_WITH, "resource" + i + "/{id}/children"), "children" + i);
+        }
+        RouteIndex<List<String>, String> index = new RouteIndex<>(0L, routes);
+
+        //When
+        List<RouteMatcher<List<String>>> candidates = matchers(index.candidates(getPathElements("resource42/7")));
+
+        //Then
+        assertThat(index.hasUriTemplates()).isTrue();
+        assertThat(candidates).containsExactly(uriMatcher(EQUALS, "resource42/{id}"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void shouldAlwaysReturnRoutesWithoutUriTemplate() {
+        //Given
+        RouteMatcher<List<String>> versionMatcher = mock(RouteMatcher.class);
+        RouteMatcher<List<String>> uriMatcher = uriMatcher(EQUALS, "users");
+        Map<RouteMatcher<List<String>>, String> routes = new LinkedHashMap<>();
+        routes.put(versionMatcher, "version");
+        routes.put(uriMatcher, "users");
+        RouteIndex<List<String>, String> index = new RouteIndex<>(0L, routes);
+
+        //When
+        List<RouteMatcher<List<String>>> usersCandidates = matchers(index.candidates(getPathElements("users")));
+        List<RouteMatcher<List<String>>> otherCandidates = matchers(index.candidates(getPathElements("groups")));
+
+        //Then
+        assertThat(usersCandidates).containsOnly(uriMatcher, versionMatcher);
+        assertThat(otherCandidates).containsOnly(versionMatcher);
+    }
+
+    private static List<RouteMatcher<List<String>>> matchers(
+            List<Map.Entry<RouteMatcher<List<String>>, String>> routes) {
+        List<RouteMatcher<List<String>>> matchers = new ArrayList<>();
+        for (Map.Entry<RouteMatcher<List<String>>, String> route : routes) {
+            matchers.add(route.getKey());
+        }
+        return matchers;
+    }
+}
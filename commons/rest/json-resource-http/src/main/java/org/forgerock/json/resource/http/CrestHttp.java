@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2012-2016 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.json.resource.http;
@@ -19,6 +20,7 @@ package org.forgerock.json.resource.http;
 import static org.forgerock.json.resource.http.HttpUtils.*;
 
 import java.net.URI;
+import java.util.concurrent.Executor;
 
 import org.forgerock.json.resource.CrestApplication;
 import org.forgerock.services.context.Context;
@@ -137,6 +139,25 @@ public final class CrestHttp {
         return Handlers.chainOf(new HttpAdapter(application, factory), newOptionsFilter());
     }
 
+    /**
+     * Creates a new JSON resource HTTP handler with the provided CREST request handler, which streams query results
+     * to the client as they are received instead of buffering them until the query completes. Each query runs on the
+     * streaming executor, which may be bounded, and its response is delivered by the response executor, which must
+     * not be the streaming executor if that executor is bounded. The caller owns both executors.
+     *
+     * @param application The application.
+     * @param factory A factory for creating parent HTTP Contexts.
+     * @param streamingExecutor The executor which runs streamed queries.
+     * @param responseExecutor The executor which delivers the responses of streamed queries.
+     * @return The handler
+     */
+    public static Handler newHttpHandler(CrestApplication application, HttpContextFactory factory,
+            Executor streamingExecutor, Executor responseExecutor) {
+        Reject.ifNull(application, streamingExecutor, responseExecutor);
+        return Handlers.chainOf(new HttpAdapter(application, factory, streamingExecutor, responseExecutor),
+                newOptionsFilter());
+    }
+
     /**
      * Creates a new JSON resource HTTP handler with the provided CREST request handler.
      *
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2012-2016 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 package org.forgerock.json.resource.http;
 
@@ -67,6 +68,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 import org.forgerock.api.CrestApiProducer;
 import org.forgerock.api.jackson.PathsModule;
@@ -111,6 +113,7 @@ import org.forgerock.services.context.ClientContext;
 import org.forgerock.services.context.Context;
 import org.forgerock.services.descriptor.Describable;
 import org.forgerock.util.AsyncFunction;
+import org.forgerock.util.Reject;
 import org.forgerock.util.i18n.PreferredLocales;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
@@ -170,6 +173,8 @@ final class HttpAdapter implements Handler, Describable<Swagger, org.forgerock.h
     private Swagger descriptor;
     private final List<Describable.Listener> apiListeners = new CopyOnWriteArrayList<>();
     private ApiProducer<Swagger> apiProducer;
+    private final Executor streamingExecutor;
+    private final Executor responseExecutor;
 
     /**
      * Creates a new HTTP adapter with the provided connection factory and a
@@ -230,8 +235,50 @@ final class HttpAdapter implements Handler, Describable<Swagger, org.forgerock.h
      *            context of each request context, or {@code null} if the
      *            {@link SecurityContextFactory} should be used.
      */
-    @SuppressWarnings("deprecation")
     public HttpAdapter(CrestApplication application, HttpContextFactory contextFactory) {
+        this(application, contextFactory, null, null);
+    }
+
+    /**
+     * Creates a new HTTP adapter with the provided connection factory and
+     * context factory, which streams query results to the client if a
+     * streaming executor is provided.
+     * <p>
+     * Query results are otherwise buffered until the query completes. When
+     * they are streamed, each query runs on the streaming executor, the HTTP
+     * response is delivered by the response executor as soon as the first
+     * result is received, and each result is written to the client as it is
+     * received. A query whose client goes away or reads too slowly is asked
+     * to stop.
+     * <p>
+     * The thread delivering a response writes its entity while the query
+     * produces it, so the response executor must not be the streaming
+     * executor if that executor is bounded. A response which waits for a
+     * thread of the response executor delays its query, until the query
+     * times out writing its results. Both executors belong to the caller,
+     * which shuts them down.
+     *
+     * @param application
+     *            The CREST application.
+     * @param contextFactory
+     *            The context factory which will be used to obtain the parent
+     *            context of each request context, or {@code null} if the
+     *            {@link SecurityContextFactory} should be used.
+     * @param streamingExecutor
+     *            The executor which runs streamed queries, or {@code null} if
+     *            query results should be buffered.
+     * @param responseExecutor
+     *            The executor which delivers the responses of streamed
+     *            queries, or {@code null} if query results should be
+     *            buffered.
+     */
+    @SuppressWarnings("deprecation")
+    public HttpAdapter(CrestApplication application, HttpContextFactory contextFactory,
+            Executor streamingExecutor, Executor responseExecutor) {
+        Reject.ifTrue((streamingExecutor == null) != (responseExecutor == null),
+                "The streaming and response executors must both be provided, or neither");
+        this.streamingExecutor = streamingExecutor;
+        this.responseExecutor = responseExecutor;
         this.contextFactory = contextFactory != null ? contextFactory : SecurityContextFactory
                 .getHttpServletContextFactory();
         this.connectionFactory = checkNotNull(application.getConnectionFactory());
@@ -703,7 +750,8 @@ final class HttpAdapter implements Handler, Describable<Swagger, org.forgerock.h
     private Promise<Response, NeverThrowsException> doRequest(Context context, org.forgerock.http.protocol.Request req,
             Response resp, Request request) throws Exception {
         Context ctx = prepareRequest(context, req, request);
-        final RequestRunner runner = new RequestRunner(ctx, request, req, resp);
+        final RequestRunner runner = new RequestRunner(ctx, request, req, resp, streamingExecutor,
+                responseExecutor);
         return connectionFactory.getConnectionAsync()
                 .thenAsync(new AsyncFunction<Connection, Response, NeverThrowsException>() {
                     @Override
@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2012-2016 ForgeRock AS.
- * Portions copyright 2024 3A Systems LLC.
+ * Portions copyright 2024-2026 3A Systems LLC.
  */
 
 package org.forgerock.json.resource.http;
@@ -49,6 +49,7 @@ import jakarta.mail.internet.ParseException;
 import org.forgerock.http.header.AcceptApiVersionHeader;
 import org.forgerock.http.header.ContentTypeHeader;
 import org.forgerock.http.header.MalformedHeaderException;
+import org.forgerock.http.io.BoundedPipeStream;
 import org.forgerock.http.io.PipeBufferedStream;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Status;
@@ -571,9 +572,33 @@ public final class HttpUtils {
 
         PipeBufferedStream pipeStream = new PipeBufferedStream();
         resp.setEntity(pipeStream.getOut());
+        return newJsonGenerator(req, pipeStream.getIn());
+    }
+
+    /**
+     * Creates a JSON generator which streams JSON content in HTTP responses
+     * through the provided pipe: the content written to the generator can be
+     * read from the response entity before the generator is closed.
+     *
+     * @param req
+     *            The HTTP request.
+     * @param resp
+     *            The HTTP response.
+     * @param pipeStream
+     *            The pipe from the generator to the response entity.
+     * @return A JSON generator which can be used to write out a JSON response.
+     * @throws IOException
+     *             If an error occurred while obtaining an output stream.
+     */
+    static JsonGenerator getJsonGenerator(org.forgerock.http.protocol.Request req,
+            Response resp, BoundedPipeStream pipeStream) throws IOException {
+        resp.setEntity(pipeStream.getOut());
+        return newJsonGenerator(req, pipeStream.getIn());
+    }
 
-        final JsonGenerator writer =
-                JSON_MAPPER.getFactory().createGenerator(pipeStream.getIn());
+    private static JsonGenerator newJsonGenerator(org.forgerock.http.protocol.Request req,
+            OutputStream out) throws IOException {
+        final JsonGenerator writer = JSON_MAPPER.getFactory().createGenerator(out);
 
         // Need to have the JsonGenerator close the stream so that it is
         // properly released.
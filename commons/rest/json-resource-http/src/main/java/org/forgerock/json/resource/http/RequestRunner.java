@@ -12,7 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2012-2016 ForgeRock AS.
- * Portions copyright 2020-2024 3A Systems, LLC
+ * Portions copyright 2020-2026 3A Systems, LLC
  */
 
 package org.forgerock.json.resource.http;
@@ -25,6 +25,7 @@ import static org.forgerock.json.resource.QueryResponse.FIELD_RESULT_COUNT;
 import static org.forgerock.json.resource.QueryResponse.FIELD_TOTAL_PAGED_RESULTS;
 import static org.forgerock.json.resource.QueryResponse.FIELD_TOTAL_PAGED_RESULTS_POLICY;
 import static org.forgerock.json.resource.Requests.newUpdateRequest;
+import static org.forgerock.json.resource.ResourceException.UNAVAILABLE;
 import static org.forgerock.json.resource.ResourceException.newResourceException;
 import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_ID;
 import static org.forgerock.json.resource.ResourceResponse.FIELD_CONTENT_REVISION;
@@ -46,6 +47,9 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -55,6 +59,7 @@ import jakarta.mail.internet.ParseException;
 import org.forgerock.http.header.ContentApiVersionHeader;
 import org.forgerock.http.header.ContentTypeHeader;
 import org.forgerock.http.header.MalformedHeaderException;
+import org.forgerock.http.io.BoundedPipeStream;
 import org.forgerock.http.protocol.Response;
 import org.forgerock.http.protocol.Status;
 import org.forgerock.http.routing.UriRouterContext;
@@ -84,7 +89,10 @@ import org.forgerock.util.encode.Base64url;
 import org.forgerock.util.promise.ExceptionHandler;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
 import org.forgerock.util.promise.ResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -94,6 +102,12 @@ import com.fasterxml.jackson.databind.ObjectWriter;
  */
 final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrowsException>, Void> {
 
+    private static final Logger logger = LoggerFactory.getLogger(RequestRunner.class);
+
+    /** The number of bytes of a streamed query response which may be waiting for the client. */
+    static final int STREAMING_BUFFER_SIZE = 64 * 1024;
+    /** How long a streamed query waits for a slow client before it is stopped. */
+    static final long STREAMING_WRITE_TIMEOUT_SECONDS = 60;
     // Connection set on handleResult(Connection).
     private Connection connection = null;
     private final Context context;
@@ -102,16 +116,41 @@ final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrow
     private final Version protocolVersion;
     private final Request request;
     private final JsonGenerator jsonGenerator;
+    // Executors and pipe used to stream query results, or null if the results are buffered.
+    private final Executor streamingExecutor;
+    private final Executor responseExecutor;
+    private final BoundedPipeStream streamingPipe;
 
     RequestRunner(Context context, Request request, org.forgerock.http.protocol.Request httpRequest,
             Response httpResponse) throws Exception {
+        this(context, request, httpRequest, httpResponse, null, null);
+    }
+
+    /**
+     * Creates a request runner which streams query results to the client if a streaming executor is provided. The
+     * query then runs on the streaming executor, and the HTTP response is delivered by the response executor, so that
+     * the response entity is read while the query writes its results.
+     */
+    RequestRunner(Context context, Request request, org.forgerock.http.protocol.Request httpRequest,
+            Response httpResponse, Executor streamingExecutor, Executor responseExecutor) throws Exception {
         this.context = context;
         this.request = request;
         this.httpRequest = httpRequest;
         this.httpResponse = httpResponse;
         // cache the request's protocol version to avoid repeated BadRequestExceptions at call-sites
         this.protocolVersion = getRequestedProtocolVersion(httpRequest);
-        this.jsonGenerator = getJsonGenerator(httpRequest, httpResponse);
+        if (streamingExecutor != null && request instanceof QueryRequest) {
+            this.streamingExecutor = streamingExecutor;
+            this.responseExecutor = responseExecutor;
+            this.streamingPipe = new BoundedPipeStream(STREAMING_BUFFER_SIZE, STREAMING_WRITE_TIMEOUT_SECONDS,
+                    TimeUnit.SECONDS);
+            this.jsonGenerator = getJsonGenerator(httpRequest, httpResponse, streamingPipe);
+        } else {
+            this.streamingExecutor = null;
+            this.responseExecutor = null;
+            this.streamingPipe = null;
+            this.jsonGenerator = getJsonGenerator(httpRequest, httpResponse);
+        }
     }
 
     /**
@@ -256,6 +295,9 @@ final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrow
      */
     @Override
     public final Promise<Response, NeverThrowsException> visitQueryRequest(final Void p, final QueryRequest request) {
+        if (streamingExecutor != null) {
+            return streamQueryRequest(request);
+        }
         final AtomicBoolean isFirstResult = new AtomicBoolean(true);
         final AtomicInteger resultCount = new AtomicInteger(0);
         return connection.queryAsync(context, request, new QueryResourceHandler() {
@@ -276,15 +318,7 @@ final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrow
             public void handleResult(QueryResponse result) {
                 try {
                     writeHeader(result, isFirstResult);
-                    jsonGenerator.writeEndArray();
-                    jsonGenerator.writeNumberField(FIELD_RESULT_COUNT, resultCount.get());
-                    jsonGenerator.writeStringField(FIELD_PAGED_RESULTS_COOKIE, result.getPagedResultsCookie());
-                    jsonGenerator.writeStringField(FIELD_TOTAL_PAGED_RESULTS_POLICY,
-                            result.getTotalPagedResultsPolicy().toString());
-                    jsonGenerator.writeNumberField(FIELD_TOTAL_PAGED_RESULTS, result.getTotalPagedResults());
-                    // Remaining is only present for backwards compatibility with CREST2 via Accept-API-Version
-                    jsonGenerator.writeNumberField(FIELD_REMAINING_PAGED_RESULTS, result.getRemainingPagedResults());
-                    jsonGenerator.writeEndObject();
+                    writeQueryResponse(result, resultCount.get());
                     onSuccess();
                 } catch (final Exception e) {
                     onError(e);
@@ -321,14 +355,177 @@ final class RequestRunner implements RequestVisitor<Promise<Response, NeverThrow
         });
     }
 
-    private void writeHeader(org.forgerock.json.resource.Response response, AtomicBoolean isFirstResult)
+    /**
+     * Runs the query on the streaming executor and returns a promise of the HTTP response which is completed as soon
+     * as the headers are known, that is when the first result, the query response or an error is received. The
+     * results are written to the response entity while the client reads it. If the client goes away or reads too
+     * slowly, writes fail and the query is asked to stop by returning {@code false} from
+     * {@link QueryResourceHandler#handleResource(ResourceResponse)}.
+     */
+    private Promise<Response, NeverThrowsException> streamQueryRequest(final QueryRequest request) {
+        final StreamingResponse streamingResponse = new StreamingResponse();
+        final AtomicBoolean isFirstResult = new AtomicBoolean(true);
+        final AtomicInteger resultCount = new AtomicInteger(0);
+        final QueryResourceHandler resourceHandler = new QueryResourceHandler() {
+            @Override
+            public boolean handleResource(final ResourceResponse resource) {
+                if (streamingResponse.isStopped()) {
+                    return false;
+                }
+                try {
+                    if (writeHeader(resource, isFirstResult)) {
+                        streamingResponse.send();
+                    }
+                    writeResourceJsonContent(resource);
+                    // Flush so that each result reaches the client without waiting for the next ones.
+                    jsonGenerator.flush();
+                    resultCount.incrementAndGet();
+                    return true;
+                } catch (final Exception e) {
+                    streamingResponse.stop(e);
+                    return false;
+                }
+            }
+        };
+        final Runnable query = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    connection.queryAsync(context, request, resourceHandler)
+                            .thenOnResult(new ResultHandler<QueryResponse>() {
+                                @Override
+                                public void handleResult(QueryResponse result) {
+                                    if (streamingResponse.isStopped()) {
+                                        return;
+                                    }
+                                    try {
+                                        if (writeHeader(result, isFirstResult)) {
+                                            streamingResponse.send();
+                                        }
+                                        writeQueryResponse(result, resultCount.get());
+                                        onSuccess();
+                                    } catch (final Exception e) {
+                                        streamingResponse.stop(e);
+                                    }
+                                }
+                            })
+                            .thenOnException(new ExceptionHandler<ResourceException>() {
+                                @Override
+                                public void handleException(ResourceException error) {
+                                    if (streamingResponse.isStopped()) {
+                                        return;
+                                    }
+                                    if (isFirstResult.get()) {
+                                        streamingResponse.stop(error);
+                                        return;
+                                    }
+                                    // Partial results - it's too late to set the status.
+                                    try {
+                                        jsonGenerator.writeEndArray();
+                                        jsonGenerator.writeNumberField(FIELD_RESULT_COUNT, resultCount.get());
+                                        jsonGenerator.writeObjectField(FIELD_ERROR, error.toJsonValue().getObject());
+                                        jsonGenerator.writeEndObject();
+                                        onSuccess();
+                                    } catch (final Exception e) {
+                                        streamingResponse.stop(e);
+                                    }
+                                }
+                            });
+                } catch (final RuntimeException e) {
+                    streamingResponse.stop(e);
+                }
+            }
+        };
+        try {
+            streamingExecutor.execute(query);
+        } catch (final RejectedExecutionException e) {
+            return handleError(newResourceException(UNAVAILABLE, "Unable to run the query", e));
+        }
+        return streamingResponse.promise;
+    }
+
+    /**
+     * The HTTP response of a streamed query, which is sent as soon as its headers are known and before its entity is
+     * complete.
+     */
+    private final class StreamingResponse {
+        private final PromiseImpl<Response, NeverThrowsException> promise = PromiseImpl.create();
+        private final AtomicBoolean sent = new AtomicBoolean();
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        /**
+         * Completes the response promise on the response executor: the HTTP response is written by the thread
+         * completing the promise, which must not be the thread writing the response entity.
+         */
+        void send() throws ResourceException {
+            try {
+                responseExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        promise.tryHandleResult(httpResponse);
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                throw newResourceException(UNAVAILABLE, "Unable to send the response", e);
+            }
+            sent.set(true);
+        }
+
+        boolean isStopped() {
+            return stopped.get();
+        }
+
+        /**
+         * Stops streaming the query results after a failure. If the response has not been sent yet, an error response
+         * is sent instead, otherwise the response entity is aborted so that the client does not take the truncated
+         * results for complete results.
+         */
+        void stop(final Exception e) {
+            if (!stopped.compareAndSet(false, true)) {
+                return;
+            }
+            if (sent.get()) {
+                logger.debug("Stopped streaming query results", e);
+                streamingPipe.abort(e instanceof IOException ? (IOException) e : new IOException(e));
+                onError(e);
+            } else {
+                handleError(adapt(e)).thenOnResult(new ResultHandler<Response>() {
+                    @Override
+                    public void handleResult(Response response) {
+                        promise.tryHandleResult(response);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Writes the response headers and the start of the JSON content if this is the first result.
+     *
+     * @return {@code true} if this was the first result.
+     */
+    private boolean writeHeader(org.forgerock.json.resource.Response response, AtomicBoolean isFirstResult)
             throws IOException {
         if (isFirstResult.compareAndSet(true, false)) {
             writeApiVersionHeaders(response);
             writeAdvice();
             jsonGenerator.writeStartObject();
             jsonGenerator.writeArrayFieldStart(FIELD_RESULT);
+            return true;
         }
+        return false;
+    }
+
+    private void writeQueryResponse(final QueryResponse result, final int resultCount) throws IOException {
+        jsonGenerator.writeEndArray();
+        jsonGenerator.writeNumberField(FIELD_RESULT_COUNT, resultCount);
+        jsonGenerator.writeStringField(FIELD_PAGED_RESULTS_COOKIE, result.getPagedResultsCookie());
+        jsonGenerator.writeStringField(FIELD_TOTAL_PAGED_RESULTS_POLICY,
+                result.getTotalPagedResultsPolicy().toString());
+        jsonGenerator.writeNumberField(FIELD_TOTAL_PAGED_RESULTS, result.getTotalPagedResults());
+        // Remaining is only present for backwards compatibility with CREST2 via Accept-API-Version
+        jsonGenerator.writeNumberField(FIELD_REMAINING_PAGED_RESULTS, result.getRemainingPagedResults());
+        jsonGenerator.writeEndObject();
     }
 
     /**
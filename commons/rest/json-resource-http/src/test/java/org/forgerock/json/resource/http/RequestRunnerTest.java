@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2013-2015 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.json.resource.http;
@@ -25,10 +26,16 @@ import static org.forgerock.util.promise.Promises.newResultPromise;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.eq;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.forgerock.services.context.Context;
 import org.forgerock.http.protocol.Request;
@@ -101,6 +108,178 @@ public class RequestRunnerTest {
         assertEquals(getResponseContent(response), "{\"code\":404,\"reason\":\"Not Found\",\"message\":\"Not Found\"}");
     }
 
+    @Test
+    public void shouldStreamQueryResultsBeforeQueryCompletes() throws Exception {
+        // Given
+        final int resultCount = 2 * RequestRunner.STREAMING_BUFFER_SIZE / 50;
+        final CountDownLatch responseReceived = new CountDownLatch(1);
+        Connection connection = mock(Connection.class);
+        when(connection.queryAsync(any(Context.class), any(QueryRequest.class), any(QueryResourceHandler.class)))
+                .thenAnswer(new Answer<Promise<QueryResponse, ResourceException>>() {
+                    @Override
+                    public Promise<QueryResponse, ResourceException> answer(InvocationOnMock invocationOnMock)
+                            throws Exception {
+                        QueryResourceHandler handler = (QueryResourceHandler) invocationOnMock.getArguments()[2];
+                        handler.handleResource(newResource(0));
+                        assertTrue(responseReceived.await(10, TimeUnit.SECONDS));
+                        for (int i = 1; i < resultCount; i++) {
+                            handler.handleResource(newResource(i));
+                        }
+                        return QUERY_RESULT;
+                    }
+                });
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            // When
+            Response response = newStreamingRequestRunner(executor).handleResult(connection)
+                    .getOrThrow(10, TimeUnit.SECONDS);
+            responseReceived.countDown();
+
+            // Then
+            String content = getResponseContent(response);
+            assertTrue(content.startsWith("{\"result\":[{\"_id\":\"0\""));
+            assertTrue(content.endsWith("\"resultCount\":" + resultCount + ",\"pagedResultsCookie\":null,"
+                    + "\"totalPagedResultsPolicy\":\"NONE\",\"totalPagedResults\":-1,"
+                    + "\"remainingPagedResults\":-1}"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldStreamQueryResultsLargerThanBufferWithSingleThreadExecutor() throws Exception {
+        // Given
+        final int resultCount = 4 * RequestRunner.STREAMING_BUFFER_SIZE / 50;
+        Connection connection = mock(Connection.class);
+        when(connection.queryAsync(any(Context.class), any(QueryRequest.class), any(QueryResourceHandler.class)))
+                .thenAnswer(new Answer<Promise<QueryResponse, ResourceException>>() {
+                    @Override
+                    public Promise<QueryResponse, ResourceException> answer(InvocationOnMock invocationOnMock) {
+                        QueryResourceHandler handler = (QueryResourceHandler) invocationOnMock.getArguments()[2];
+                        for (int i = 0; i < resultCount; i++) {
+                            handler.handleResource(newResource(i));
+                        }
+                        return QUERY_RESULT;
+                    }
+                });
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        ExecutorService responseExecutor = Executors.newFixedThreadPool(1);
+        try {
+            // When
+            Response response = newStreamingRequestRunner(executor, responseExecutor).handleResult(connection)
+                    .getOrThrow(10, TimeUnit.SECONDS);
+
+            // Then
+            String content = getResponseContent(response);
+            assertTrue(content.length() > RequestRunner.STREAMING_BUFFER_SIZE);
+            assertTrue(content.endsWith("\"resultCount\":" + resultCount + ",\"pagedResultsCookie\":null,"
+                    + "\"totalPagedResultsPolicy\":\"NONE\",\"totalPagedResults\":-1,"
+                    + "\"remainingPagedResults\":-1}"));
+        } finally {
+            executor.shutdownNow();
+            responseExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldSendUnavailableWhenStreamedResponseIsRejected() throws Exception {
+        // Given
+        Connection connection = mock(Connection.class);
+        when(connection.queryAsync(any(Context.class), any(QueryRequest.class), any(QueryResourceHandler.class)))
+                .thenAnswer(new Answer<Promise<QueryResponse, ResourceException>>() {
+                    @Override
+                    public Promise<QueryResponse, ResourceException> answer(InvocationOnMock invocationOnMock) {
+                        QueryResourceHandler handler = (QueryResourceHandler) invocationOnMock.getArguments()[2];
+                        handler.handleResource(newResource(0));
+                        return QUERY_RESULT;
+                    }
+                });
+        ExecutorService executor = Executors.newCachedThreadPool();
+        ExecutorService responseExecutor = Executors.newCachedThreadPool();
+        responseExecutor.shutdown();
+        try {
+            // When
+            Response response = newStreamingRequestRunner(executor, responseExecutor).handleResult(connection)
+                    .getOrThrow(10, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals(response.getStatus().getCode(), 503);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldStopStreamedQueryWhenClientGoesAway() throws Exception {
+        // Given
+        final AtomicBoolean stopped = new AtomicBoolean();
+        Connection connection = mock(Connection.class);
+        when(connection.queryAsync(any(Context.class), any(QueryRequest.class), any(QueryResourceHandler.class)))
+                .thenAnswer(new Answer<Promise<QueryResponse, ResourceException>>() {
+                    @Override
+                    public Promise<QueryResponse, ResourceException> answer(InvocationOnMock invocationOnMock) {
+                        QueryResourceHandler handler = (QueryResourceHandler) invocationOnMock.getArguments()[2];
+                        for (int i = 0; i < 1_000_000; i++) {
+                            if (!handler.handleResource(newResource(i))) {
+                                stopped.set(true);
+                                break;
+                            }
+                        }
+                        return QUERY_RESULT;
+                    }
+                });
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            Response response = newStreamingRequestRunner(executor).handleResult(connection)
+                    .getOrThrow(10, TimeUnit.SECONDS);
+
+            // When
+            response.getEntity().getRawContentInputStream().close();
+
+            // Then
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            assertTrue(stopped.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldSendErrorWhenStreamedQueryFailsBeforeFirstResult() throws Exception {
+        // Given
+        Connection connection = mock(Connection.class);
+        when(connection.queryAsync(any(Context.class), any(QueryRequest.class), any(QueryResourceHandler.class)))
+                .thenReturn(RESOURCE_EXCEPTION);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            // When
+            Response response = newStreamingRequestRunner(executor).handleResult(connection)
+                    .getOrThrow(10, TimeUnit.SECONDS);
+
+            // Then
+            assertEquals(response.getStatus().getCode(), 404);
+            assertEquals(getResponseContent(response),
+                    "{\"code\":404,\"reason\":\"Not Found\",\"message\":\"Not Found\"}");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private RequestRunner newStreamingRequestRunner(ExecutorService executor) throws Exception {
+        return newStreamingRequestRunner(executor, executor);
+    }
+
+    private RequestRunner newStreamingRequestRunner(ExecutorService executor, ExecutorService responseExecutor)
+            throws Exception {
+        return new RequestRunner(mock(Context.class), Requests.newQueryRequest(""), newRequest(), new Response(),
+                executor, responseExecutor);
+    }
+
+    private static ResourceResponse newResource(int id) {
+        return newResourceResponse(String.valueOf(id), "rev", json(object(field("stringField", "stringValue"))));
+    }
+
     private String getResponseContent(Response response) throws IOException {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         response.getEntity().copyDecodedContentTo(outputStream);
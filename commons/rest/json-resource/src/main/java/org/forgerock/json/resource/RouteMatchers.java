@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.json.resource;
@@ -102,11 +103,7 @@ public final class RouteMatchers {
 
         @Override
         public RouteMatch evaluate(Context context, Request request) {
-            final List<String> pathElements = new ArrayList<>(request.getResourcePathObject().size());
-            for (String pathElement : request.getResourcePathObject()) {
-                pathElements.add(pathElement);
-            }
-            return delegate.evaluate(context, pathElements);
+            return delegate.evaluate(context, getPathElements(request));
         }
 
         @Override
@@ -119,6 +116,16 @@ public final class RouteMatchers {
             return delegate.idFragment();
         }
 
+        @Override
+        public String uriTemplate() {
+            return delegate.uriTemplate();
+        }
+
+        @Override
+        public RoutingMode uriRoutingMode() {
+            return delegate.uriRoutingMode();
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
@@ -142,6 +149,14 @@ public final class RouteMatchers {
         }
     }
 
+    static List<String> getPathElements(Request request) {
+        final List<String> pathElements = new ArrayList<>(request.getResourcePathObject().size());
+        for (String pathElement : request.getResourcePathObject()) {
+            pathElements.add(pathElement);
+        }
+        return pathElements;
+    }
+
     /**
      * A CREST specific {@code RouteMatcher} which extracts the resource API
      * version from a {@code Request} and passes it to the common
@@ -12,6 +12,7 @@
  * information: "Portions copyright [year] [name of copyright owner]".
  *
  * Copyright 2015-2016 ForgeRock AS.
+ * Portions copyright 2026 3A Systems LLC.
  */
 
 package org.forgerock.json.resource;
@@ -23,6 +24,8 @@ import static org.forgerock.json.resource.Resources.*;
 import static org.forgerock.json.resource.RouteMatchers.*;
 import static org.forgerock.util.promise.Promises.*;
 
+import java.util.List;
+
 import org.forgerock.api.models.ApiDescription;
 import org.forgerock.http.routing.ApiVersionRouterContext;
 import org.forgerock.http.routing.RoutingMode;
@@ -221,6 +224,11 @@ public class Router extends AbstractRouter<Router, Request, RequestHandler, ApiD
         return routeMatcher;
     }
 
+    @Override
+    protected List<String> getRoutingPathElements(Context context, Request request) {
+        return getPathElements(request);
+    }
+
     private Pair<Context, RequestHandler> getBestMatch(Context context, Request request)
             throws ResourceException {
         try {
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.persistit.BufferPool.BufferHolder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>
+ * Measures the throughput of {@link BufferPool#get(Volume, long, boolean, boolean)}
+ * as the number of concurrent threads increases. The <code>hit</code>
+ * benchmark touches a working set that fits in the pool and so exercises the
+ * hash table and the statistics counters; the <code>miss</code> benchmark
+ * touches a working set four times the size of the pool and so also exercises
+ * the clock hands that choose a buffer to evict. Pages are allocated without
+ * being read, so no disk I/O is measured. The <code>selectDirtyBuffers</code>
+ * benchmark measures one scan of the pool by the PAGE_WRITER thread; run it
+ * with a single thread.
+ * </p>
+ * <p>
+ * The <code>segments</code> parameter compares a pool with a single clock hand
+ * (the behavior before the pool was divided into segments) with a pool whose
+ * segment count is chosen automatically. Run with, for example,
+ *
+ * <pre>
+ * java -jar target/persistit-benchmarks.jar BufferPoolBenchmark -t 8
+ * </pre>
+ *
+ * or run {@link #main(String[])} to repeat the measurement for each power of two
+ * up to the number of available processors.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class BufferPoolBenchmark {
+
+    private final static int BUFFER_SIZE = 16384;
+
+    private final static int BUFFER_COUNT = 4096;
+
+    /**
+     * Page addresses are synthetic and well beyond the end of the volume
+     */
+    private final static long FIRST_PAGE = 1000000;
+
+    @Param({ "1", "0" })
+    public int segments;
+
+    private File directory;
+
+    private Persistit persistit;
+
+    private Volume volume;
+
+    private BufferPool pool;
+
+    private int[] priorities;
+
+    private BufferHolder[] holders;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("BufferPoolBenchmark").toFile();
+        final Properties p = new Properties();
+        p.setProperty("datapath", directory.getPath());
+        p.setProperty("buffer.count." + BUFFER_SIZE, Integer.toString(BUFFER_COUNT));
+        p.setProperty("buffer.segments." + BUFFER_SIZE, Integer.toString(segments));
+        p.setProperty("volume.1", "${datapath}/persistit,create,pageSize:" + BUFFER_SIZE
+                + ",initialPages:100,extensionPages:100,maximumPages:25000");
+        p.setProperty("journalpath", "${datapath}/persistit_journal");
+        p.setProperty("tmpvoldir", "${datapath}");
+        persistit = new Persistit(p);
+        volume = persistit.createTemporaryVolume();
+        pool = volume.getPool();
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            pool.get(volume, FIRST_PAGE + i, false, false).release();
+        }
+        priorities = new int[BUFFER_COUNT / 4];
+        holders = new BufferHolder[BUFFER_COUNT / 4];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = new BufferHolder();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        persistit.close();
+        for (final File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public void hit() throws Exception {
+        get(BUFFER_COUNT / 2);
+    }
+
+    @Benchmark
+    public void miss() throws Exception {
+        get(BUFFER_COUNT * 4);
+    }
+
+    @Benchmark
+    public int selectDirtyBuffers() throws Exception {
+        return pool.selectDirtyBuffers(priorities, holders);
+    }
+
+    private void get(final int workingSet) throws Exception {
+        final long page = FIRST_PAGE + ThreadLocalRandom.current().nextInt(workingSet);
+        pool.get(volume, page, false, false).release();
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            final Options opt = new OptionsBuilder().include(BufferPoolBenchmark.class.getSimpleName())
+                    .threads(threads).build();
+            new Runner(opt).run();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Compares loading <code>records</code> key-ordered records into an empty tree
+ * with a {@link BulkLoader} against storing them one at a time with
+ * {@link Exchange#store()}. Both variants end with a checkpoint so that the
+ * loaded tree is durable in either case. Each invocation loads a new tree,
+ * which is removed afterwards.
+ * </p>
+ * <p>
+ * Scores are milliseconds per load. Run with, for example,
+ *
+ * <pre>
+ * java -jar target/persistit-benchmarks.jar BulkLoaderBenchmark -p records=1000000
+ * </pre>
+ *
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkLoaderBenchmark {
+
+    private final static String TREE_NAME = "BulkLoaderBenchmark";
+
+    @Param({ "200000" })
+    public int records;
+
+    private File directory;
+
+    private Persistit persistit;
+
+    private Exchange exchange;
+
+    private Key key;
+
+    private Value value;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("BulkLoaderBenchmark").toFile();
+        final Properties p = new Properties();
+        p.setProperty("datapath", directory.getPath());
+        p.setProperty("buffer.count.16384", "4096");
+        p.setProperty("volume.1", "${datapath}/persistit,create,pageSize:16384,initialPages:1000,"
+                + "extensionPages:10000,maximumPages:10000000");
+        p.setProperty("journalpath", "${datapath}/persistit_journal");
+        p.setProperty("tmpvoldir", "${datapath}");
+        persistit = new Persistit(p);
+        key = new Key(persistit);
+        value = new Value(persistit);
+    }
+
+    @Setup(Level.Invocation)
+    public void createTree() throws Exception {
+        exchange = persistit.getExchange("persistit", TREE_NAME, true);
+    }
+
+    @TearDown(Level.Invocation)
+    public void removeTree() throws Exception {
+        exchange.removeTree();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        persistit.close();
+        for (final File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public long bulkLoad() throws Exception {
+        final BulkLoader loader = new BulkLoader(exchange);
+        for (int i = 0; i < records; i++) {
+            key.clear().append(i);
+            value.put("value" + i);
+            loader.append(key, value);
+        }
+        loader.finish();
+        return loader.getPageCount();
+    }
+
+    @Benchmark
+    public long store() throws Exception {
+        for (int i = 0; i < records; i++) {
+            exchange.getValue().put("value" + i);
+            exchange.clear().append(i).store();
+        }
+        persistit.checkpoint();
+        return exchange.getVolume().getStatistics().getWriteCounter();
+    }
+}
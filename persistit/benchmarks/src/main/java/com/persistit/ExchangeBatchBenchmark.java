@@ -0,0 +1,150 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Compares {@link Exchange#fetch(Key[], Value[])} with a loop of
+ * {@link Exchange#fetch(Value)} calls over the same keys. Each invocation
+ * fetches one batch of <code>batchSize</code> random keys drawn from
+ * <code>records</code> stored records, so the number of keys that share a
+ * data page grows with the batch size and falls with the number of records.
+ * Every tree page is resident in the buffer pool.
+ * </p>
+ * <p>
+ * Scores are batches per millisecond; multiply by <code>batchSize</code> for
+ * key lookups per millisecond. Run with, for example,
+ *
+ * <pre>
+ * java -jar target/persistit-benchmarks.jar ExchangeBatchBenchmark -p batchSize=50,500
+ * </pre>
+ *
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ExchangeBatchBenchmark {
+
+    private final static String TREE_NAME = "ExchangeBatchBenchmark";
+
+    private final static int BATCHES = 64;
+
+    @Param({ "50", "500" })
+    public int batchSize;
+
+    @Param({ "20000", "200000" })
+    public int records;
+
+    private File directory;
+
+    private Persistit persistit;
+
+    private Exchange exchange;
+
+    private Key[][] batches;
+
+    private Value[] values;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("ExchangeBatchBenchmark").toFile();
+        final Properties p = new Properties();
+        p.setProperty("datapath", directory.getPath());
+        p.setProperty("buffer.count.16384", "4096");
+        p.setProperty("volume.1", "${datapath}/persistit,create,pageSize:16384,initialPages:1000,"
+                + "extensionPages:1000,maximumPages:1000000");
+        p.setProperty("journalpath", "${datapath}/persistit_journal");
+        p.setProperty("tmpvoldir", "${datapath}");
+        persistit = new Persistit(p);
+        exchange = persistit.getExchange("persistit", TREE_NAME, true);
+        for (int i = 0; i < records; i++) {
+            exchange.getValue().put("value" + i);
+            exchange.clear().append(i).store();
+        }
+
+        final Random random = new Random(1);
+        batches = new Key[BATCHES][batchSize];
+        for (final Key[] batch : batches) {
+            for (int i = 0; i < batchSize; i++) {
+                batch[i] = new Key(persistit).append(random.nextInt(records));
+            }
+        }
+        values = new Value[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            values[i] = new Value(persistit);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        persistit.close();
+        for (final File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public int batch() throws Exception {
+        return exchange.fetch(nextBatch(), values);
+    }
+
+    @Benchmark
+    public int loop() throws Exception {
+        final Key[] keys = nextBatch();
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            keys[i].copyTo(exchange.getKey());
+            exchange.fetch(values[i]);
+            if (values[i].isDefined()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Key[] nextBatch() {
+        next = (next + 1) % BATCHES;
+        return batches[next];
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.persistit.Transaction.CommitPolicy;
+
+/**
+ * <p>
+ * Measures transaction commit through the real {@link JournalManager} as the
+ * number of concurrently committing threads increases. Where
+ * {@link JournalManagerBench} emulates the I/O pattern of a durable commit on a
+ * bare file, this benchmark stores one small record per transaction and
+ * commits it with the configured {@link CommitPolicy}, so that contention for
+ * the journal write buffer and the grouping of commits by the JOURNAL_FLUSHER
+ * are both measured.
+ * </p>
+ * <p>
+ * The benchmark runs in two modes: <code>thrpt</code> reports commits per
+ * second and <code>sample</code> reports the distribution of commit latency
+ * including the p0.50, p0.90, p0.99 and p0.999 percentiles. Run with, for
+ * example,
+ *
+ * <pre>
+ * java -jar target/persistit-benchmarks.jar JournalCommitBenchmark -t 64
+ * </pre>
+ *
+ * or run {@link #main(String[])} to repeat the measurement for each power of two
+ * from 1 to 512 threads.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class JournalCommitBenchmark {
+
+    private final static int MAXIMUM_THREADS = 512;
+
+    private final static String TREE_NAME = "JournalCommitBenchmark";
+
+    @Param({ "HARD", "GROUP" })
+    public String policy;
+
+    private File directory;
+
+    private Persistit persistit;
+
+    private CommitPolicy commitPolicy;
+
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class Committer {
+
+        private Exchange exchange;
+
+        private Transaction transaction;
+
+        private int thread;
+
+        private int sequence;
+
+        @Setup(Level.Trial)
+        public void setup(final JournalCommitBenchmark benchmark) throws Exception {
+            exchange = benchmark.persistit.getExchange("persistit", TREE_NAME, true);
+            transaction = benchmark.persistit.getTransaction();
+            thread = benchmark.threadCounter.getAndIncrement();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown(final JournalCommitBenchmark benchmark) {
+            benchmark.persistit.releaseExchange(exchange);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("JournalCommitBenchmark").toFile();
+        final Properties p = new Properties();
+        p.setProperty("datapath", directory.getPath());
+        p.setProperty("buffer.count.16384", "4096");
+        p.setProperty("volume.1", "${datapath}/persistit,create,pageSize:16384,initialPages:1000,"
+                + "extensionPages:1000,maximumPages:1000000");
+        p.setProperty("journalpath", "${datapath}/persistit_journal");
+        p.setProperty("tmpvoldir", "${datapath}");
+        persistit = new Persistit(p);
+        commitPolicy = CommitPolicy.valueOf(policy);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        persistit.close();
+        for (final File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public void commit(final Committer committer) throws Exception {
+        final Transaction txn = committer.transaction;
+        txn.begin();
+        try {
+            final Exchange ex = committer.exchange;
+            ex.clear().append(committer.thread).append(committer.sequence++);
+            ex.getValue().put(committer.sequence);
+            ex.store();
+            txn.commit(commitPolicy);
+        } finally {
+            txn.end();
+        }
+    }
+
+    public static void main(final String[] args) throws RunnerException {
+        for (int threads = 1; threads <= MAXIMUM_THREADS; threads *= 2) {
+            final Options opt = new OptionsBuilder().include(JournalCommitBenchmark.class.getSimpleName())
+                    .threads(threads).build();
+            new Runner(opt).run();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.persistit.JournalManager.PageNode;
+
+/**
+ * <p>
+ * Compares the {@link PageMap} used by {@link JournalManager} to hold its page
+ * map with the <code>HashMap&lt;PageNode, PageNode&gt;</code> it replaced. The
+ * map is loaded with <code>entries</code> pages spread over four volume
+ * handles, each with a single PageNode.
+ * </p>
+ * <p>
+ * During setup the benchmark reports the heap retained by the map itself, not
+ * counting the PageNode instances, which both implementations share, as
+ * <code>bytes/entry</code>. The benchmark methods measure the latency of
+ * looking up a page that is present, looking up a page that is absent, and
+ * visiting every entry as <code>writePageMap</code> and the JOURNAL_COPIER do.
+ * Run with, for example,
+ *
+ * <pre>
+ * java -jar target/persistit-benchmarks.jar PageMapBenchmark -p entries=10000000,20000000
+ * </pre>
+ *
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class PageMapBenchmark {
+
+    private final static int VOLUMES = 4;
+
+    private final static int LOOKUPS = 1 << 20;
+
+    @Param({ "PageMap", "HashMap" })
+    public String map;
+
+    @Param({ "10000000" })
+    public int entries;
+
+    private PageNode[] pageNodes;
+
+    private PageMap pageMap;
+
+    private Map<PageNode, PageNode> hashMap;
+
+    private int[] lookupHandles;
+
+    private long[] lookupPages;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pageNodes = new PageNode[entries];
+        for (int i = 0; i < entries; i++) {
+            pageNodes[i] = new PageNode(i % VOLUMES + 1, i / VOLUMES, (long) i * 100, i);
+        }
+        final long before = usedMemory();
+        if ("PageMap".equals(map)) {
+            pageMap = new PageMap();
+            for (final PageNode pageNode : pageNodes) {
+                pageMap.put(pageNode);
+            }
+        } else {
+            hashMap = new HashMap<PageNode, PageNode>();
+            for (final PageNode pageNode : pageNodes) {
+                hashMap.put(pageNode, pageNode);
+            }
+        }
+        final long after = usedMemory();
+        System.out.printf("%n%s with %,d entries retains %,d bytes: %.1f bytes/entry%n", map, entries, after
+                - before, (double) (after - before) / entries);
+
+        final Random random = new Random(1);
+        lookupHandles = new int[LOOKUPS];
+        lookupPages = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            final PageNode pageNode = pageNodes[random.nextInt(entries)];
+            lookupHandles[i] = pageNode.getVolumeHandle();
+            lookupPages[i] = pageNode.getPageAddress();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pageNodes = null;
+        pageMap = null;
+        hashMap = null;
+    }
+
+    @Benchmark
+    public PageNode getPresent() {
+        final int index = next++ & (LOOKUPS - 1);
+        return get(lookupHandles[index], lookupPages[index]);
+    }
+
+    @Benchmark
+    public PageNode getAbsent() {
+        final int index = next++ & (LOOKUPS - 1);
+        return get(lookupHandles[index] + VOLUMES, lookupPages[index]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long iterate() {
+        long sum = 0;
+        for (final PageNode pageNode : pageMap != null ? pageMap : hashMap.values()) {
+            sum += pageNode.getJournalAddress();
+        }
+        return sum;
+    }
+
+    private PageNode get(final int volumeHandle, final long pageAddress) {
+        if (pageMap != null) {
+            return pageMap.get(volumeHandle, pageAddress);
+        } else {
+            return hashMap.get(new PageNode(volumeHandle, pageAddress, -1, -1));
+        }
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
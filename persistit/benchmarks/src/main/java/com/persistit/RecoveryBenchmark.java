@@ -0,0 +1,180 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Measures the time {@link RecoveryManager} takes to apply the committed
+ * transactions in the journal after a crash, for each number of recovery
+ * threads. During setup the benchmark commits <code>transactions</code>
+ * transactions, each storing <code>records</code> values of
+ * <code>valueSize</code> bytes in one of <code>trees</code> trees, with
+ * checkpoints and copying suppressed so that every transaction must be
+ * replayed, and then crashes. Each iteration recovers a fresh copy of the
+ * crashed database and reports the elapsed time of
+ * {@link Persistit#initialize()}.
+ * </p>
+ * <p>
+ * The default parameters produce a journal of a few hundred megabytes. For a
+ * multi-gigabyte journal run with, for example,
+ *
+ * <pre>
+ * java -jar target/persistit-benchmarks.jar RecoveryBenchmark -p transactions=2000000
+ * </pre>
+ *
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class RecoveryBenchmark {
+
+    private final static String TREE_NAME = "RecoveryBenchmark";
+
+    @Param({ "1", "4", "16" })
+    public int threads;
+
+    @Param({ "200000" })
+    public int transactions;
+
+    @Param({ "64" })
+    public int trees;
+
+    @Param({ "4" })
+    public int records;
+
+    @Param({ "200" })
+    public int valueSize;
+
+    private File crashed;
+
+    private File directory;
+
+    private Persistit persistit;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        crashed = Files.createTempDirectory("RecoveryBenchmark").toFile();
+        final Persistit db = new Persistit(properties(crashed));
+        db.getJournalManager().setAppendOnly(true);
+        final Exchange[] exchanges = new Exchange[trees];
+        for (int tree = 0; tree < trees; tree++) {
+            exchanges[tree] = db.getExchange("persistit", TREE_NAME + tree, true);
+        }
+        final Random random = new Random(1);
+        final Transaction txn = db.getTransaction();
+        for (int i = 0; i < transactions; i++) {
+            final Exchange ex = exchanges[random.nextInt(trees)];
+            txn.begin();
+            try {
+                for (int record = 0; record < records; record++) {
+                    ex.getValue().put(new byte[valueSize]);
+                    ex.clear().append(random.nextInt()).store();
+                }
+                txn.commit();
+            } finally {
+                txn.end();
+            }
+        }
+        db.getJournalManager().flush();
+        db.crash();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        delete(crashed);
+    }
+
+    @Setup(Level.Iteration)
+    public void copy() throws Exception {
+        directory = Files.createTempDirectory("RecoveryBenchmark").toFile();
+        for (final File file : crashed.listFiles()) {
+            Files.copy(file.toPath(), new File(directory, file.getName()).toPath());
+        }
+        persistit = new Persistit();
+        persistit.setConfiguration(new Configuration(properties(directory)));
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws Exception {
+        persistit.close();
+        delete(directory);
+    }
+
+    @Benchmark
+    public int recover() throws Exception {
+        persistit.initialize();
+        return persistit.getRecoveryManager().getAppliedTransactionCount();
+    }
+
+    private Properties properties(final File datapath) {
+        final Properties p = new Properties();
+        p.setProperty("datapath", datapath.getPath());
+        p.setProperty("buffer.count.16384", "16384");
+        p.setProperty("volume.1", "${datapath}/persistit,create,pageSize:16384,initialPages:1000,"
+                + "extensionPages:10000,maximumPages:10000000");
+        p.setProperty("journalpath", "${datapath}/persistit_journal");
+        p.setProperty("tmpvoldir", "${datapath}");
+        p.setProperty("checkpointinterval", "3600");
+        p.setProperty("recoverythreads", Integer.toString(threads));
+        return p;
+    }
+
+    private static void delete(final File directory) throws IOException {
+        Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
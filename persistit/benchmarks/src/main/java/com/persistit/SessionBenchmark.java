@@ -0,0 +1,187 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Runs <code>tasks</code> short transactions, each on its own virtual thread,
+ * and reports the time taken for all of them to complete. Each transaction
+ * stores one small record and commits with the SOFT policy so that the cost
+ * of establishing the session context, rather than journal I/O, dominates.
+ * </p>
+ * <p>
+ * With <code>api=session</code> each task opens a {@link Session}, takes its
+ * {@link Exchange} and {@link Transaction} from the session and closes it.
+ * With <code>api=thread</code> each task uses the per-thread session of
+ * {@link Persistit#getExchange(String, String, boolean)} and
+ * {@link Persistit#getTransaction()}, leaving a session behind for every
+ * thread until {@link Persistit#cleanup()} runs.
+ * </p>
+ * <p>
+ * Virtual threads require Java 21 or later. On an earlier JVM the tasks run on
+ * a fixed pool of <code>fallbackThreads</code> platform threads instead. Run
+ * with, for example,
+ *
+ * <pre>
+ * java -jar target/persistit-benchmarks.jar SessionBenchmark -p tasks=1000000
+ * </pre>
+ *
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SessionBenchmark {
+
+    private final static String TREE_NAME = "SessionBenchmark";
+
+    @Param({ "session", "thread" })
+    public String api;
+
+    @Param({ "100000" })
+    public int tasks;
+
+    @Param({ "64" })
+    public int fallbackThreads;
+
+    private File directory;
+
+    private Persistit persistit;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("SessionBenchmark").toFile();
+        final Properties p = new Properties();
+        p.setProperty("datapath", directory.getPath());
+        p.setProperty("buffer.count.16384", "4096");
+        p.setProperty("volume.1", "${datapath}/persistit,create,pageSize:16384,initialPages:1000,"
+                + "extensionPages:1000,maximumPages:1000000");
+        p.setProperty("journalpath", "${datapath}/persistit_journal");
+        p.setProperty("tmpvoldir", "${datapath}");
+        p.setProperty("txnpolicy", "SOFT");
+        persistit = new Persistit(p);
+        persistit.getExchange("persistit", TREE_NAME, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        persistit.close();
+        for (final File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Setup(Level.Iteration)
+    public void startExecutor() {
+        executor = newVirtualThreadPerTaskExecutor();
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(fallbackThreads);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopExecutor() throws Exception {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        persistit.cleanup();
+    }
+
+    @Benchmark
+    public int transactions() throws Exception {
+        final boolean explicit = "session".equals(api);
+        final List<Future<?>> futures = new ArrayList<Future<?>>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            final int key = i;
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (explicit) {
+                            try (Session session = persistit.openSession()) {
+                                store(session.getExchange("persistit", TREE_NAME, false), session.getTransaction(),
+                                        key);
+                            }
+                        } else {
+                            final Exchange ex = persistit.getExchange("persistit", TREE_NAME, false);
+                            store(ex, persistit.getTransaction(), key);
+                            persistit.releaseExchange(ex);
+                        }
+                    } catch (final Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }));
+        }
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        return futures.size();
+    }
+
+    private static void store(final Exchange ex, final Transaction txn, final int key) throws Exception {
+        txn.begin();
+        try {
+            ex.getValue().put(key);
+            ex.clear().append(key).store();
+            txn.commit();
+        } finally {
+            txn.end();
+        }
+    }
+
+    /**
+     * Look up Executors.newVirtualThreadPerTaskExecutor reflectively so that
+     * the benchmarks still compile for, and run on, Java 11.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
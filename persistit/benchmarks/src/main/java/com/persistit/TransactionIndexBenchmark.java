@@ -0,0 +1,172 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Measures {@link TransactionIndex#commitStatus(long, long, int)}, the check
+ * an {@link Exchange} makes to decide whether an MVV version is visible, with
+ * 1, 4, 16 and 64 threads reading. The readers look up versions written by
+ * <code>open</code> aborted transactions whose versions have not yet been
+ * pruned, so that every lookup has to search a bucket. When <code>churn</code>
+ * is true a background thread keeps registering and committing transactions,
+ * changing the bucket lists while they are read.
+ * </p>
+ * <p>
+ * Scores are nanoseconds per visibility check. Run with, for example,
+ *
+ * <pre>
+ * java -jar target/persistit-benchmarks.jar TransactionIndexBenchmark -p churn=true
+ * </pre>
+ *
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class TransactionIndexBenchmark {
+
+    @Param({ "256" })
+    public int open;
+
+    @Param({ "256" })
+    public int buckets;
+
+    @Param({ "false", "true" })
+    public boolean churn;
+
+    private TimestampAllocator timestampAllocator;
+
+    private TransactionIndex transactionIndex;
+
+    private long[] versionHandles;
+
+    private long readerTimestamp;
+
+    private final AtomicBoolean stop = new AtomicBoolean();
+
+    private Thread churnThread;
+
+    @State(Scope.Thread)
+    public static class Reader {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        timestampAllocator = new TimestampAllocator();
+        transactionIndex = new TransactionIndex(timestampAllocator, buckets);
+        versionHandles = new long[open];
+        for (int index = 0; index < open; index++) {
+            /*
+             * An aborted transaction that still has a version in the database
+             * stays on its bucket's aborted list until the version is pruned.
+             */
+            final TransactionStatus status = transactionIndex.registerTransaction();
+            versionHandles[index] = TransactionIndex.ts2vh(status.getTs());
+            status.incrementMvvCount();
+            status.abort();
+            transactionIndex.notifyCompleted(status, TransactionStatus.ABORTED);
+        }
+        readerTimestamp = timestampAllocator.updateTimestamp();
+        transactionIndex.updateActiveTransactionCache();
+        transactionIndex.cleanup();
+
+        stop.set(false);
+        if (churn) {
+            churnThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int count = 0; !stop.get(); count++) {
+                            final TransactionStatus status = transactionIndex.registerTransaction();
+                            status.commit(timestampAllocator.updateTimestamp());
+                            transactionIndex.notifyCompleted(status, timestampAllocator.updateTimestamp());
+                            if (count % 100 == 0) {
+                                transactionIndex.updateActiveTransactionCache();
+                            }
+                        }
+                    } catch (final Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            }, "TransactionIndexBenchmark_CHURN");
+            churnThread.setDaemon(true);
+            churnThread.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        stop.set(true);
+        if (churnThread != null) {
+            churnThread.join();
+            churnThread = null;
+        }
+    }
+
+    private long commitStatus(final Reader reader) throws Exception {
+        final int index = reader.next;
+        reader.next = index + 1 == versionHandles.length ? 0 : index + 1;
+        return transactionIndex.commitStatus(versionHandles[index], readerTimestamp, 0);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long threads1(final Reader reader) throws Exception {
+        return commitStatus(reader);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long threads4(final Reader reader) throws Exception {
+        return commitStatus(reader);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long threads16(final Reader reader) throws Exception {
+        return commitStatus(reader);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long threads64(final Reader reader) throws Exception {
+        return commitStatus(reader);
+    }
+}
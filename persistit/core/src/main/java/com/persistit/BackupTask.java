@@ -18,14 +18,22 @@ package com.persistit;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
@@ -58,6 +66,16 @@ import com.persistit.util.Util;
  * form a complete backup, and as a convenience, a mechanism to compress and
  * copy them.
  * </p>
+ * <p>
+ * A backup archive written by this class records a <i>backup timestamp</i>,
+ * available from {@link #getBackupTimestamp()}. Every page written to a
+ * volume file after the backup carries a timestamp at least this large. An
+ * <i>incremental</i> backup, requested by supplying the backup timestamp of a
+ * previous backup, stores for each volume only the pages whose timestamp is
+ * at least that large, together with the complete set of journal files needed
+ * for recovery. {@link #doRestore(List)} unpacks a full backup followed by a
+ * chain of incremental backups, each taken since the one before it.
+ * </p>
  * 
  * @author peter
  * 
@@ -66,6 +84,18 @@ public class BackupTask extends Task {
 
     private final static int BUFFER_SIZE = 1024 * 1024;
     private final static int PROGRESS_MARK_AT = 100 * 1000 * 1000;
+    /**
+     * Name of the archive entry holding the backup properties. It is written
+     * first and is not restored as a file.
+     */
+    final static String PROPERTIES_ENTRY = "persistit_backup.properties";
+    /**
+     * Suffix appended to the path of a volume file to name the archive entry
+     * holding the pages changed since the previous backup.
+     */
+    final static String DELTA_SUFFIX = ".pagedelta";
+    private final static String PROPERTY_TIMESTAMP = "timestamp";
+    private final static String PROPERTY_SINCE = "since";
     private boolean _start;
     private boolean _end;
     private boolean _showFiles;
@@ -73,7 +103,10 @@ public class BackupTask extends Task {
     private boolean _checkpoint;
     private boolean _copyback;
     private String _toFile;
+    private long _since;
+    private long _backupTimestamp;
     final List<String> _files = new ArrayList<String>();
+    final Map<String, Integer> _volumePageSizes = new HashMap<String, Integer>();
     private volatile String _backupStatus;
 
     @Cmd("backup")
@@ -83,7 +116,9 @@ public class BackupTask extends Task {
             @Arg("_flag|c|Request checkpoint before backup") final boolean checkpoint,
             @Arg("_flag|z|Compress output to ZIP format") final boolean compressed,
             @Arg("_flag|f|Emit a list of files that need to be copied") final boolean showFiles,
-            @Arg("_flag|y|Copyback pages before starting") final boolean copyback) throws Exception {
+            @Arg("_flag|y|Copyback pages before starting") final boolean copyback,
+            @Arg("since|long:0:0:9223372036854775807|Backup timestamp of a previous backup: copy only pages changed since") final long since)
+            throws Exception {
         final BackupTask task = new BackupTask();
         task._toFile = file;
         task._start = start;
@@ -92,6 +127,7 @@ public class BackupTask extends Task {
         task._compressed = compressed;
         task._checkpoint = checkpoint;
         task._copyback = copyback;
+        task._since = since;
         return task;
     }
 
@@ -125,6 +161,7 @@ public class BackupTask extends Task {
         try {
             if (_showFiles || !_toFile.isEmpty()) {
                 management.setAppendOnly(true);
+                _backupTimestamp = computeBackupTimestamp();
                 populateBackupFiles();
                 if (!_toFile.isEmpty()) {
                     doBackup();
@@ -143,11 +180,24 @@ public class BackupTask extends Task {
         _backupStatus = message;
     }
 
+    /**
+     * Compute the timestamp from which an incremental backup following this
+     * one must copy pages. With <code>appendOnly</code> set, a page can reach
+     * a volume file after this backup only if it was modified after the last
+     * valid checkpoint or is still waiting in the journal to be copied back.
+     */
+    private long computeBackupTimestamp() {
+        final JournalManager journalManager = _persistit.getJournalManager();
+        return Math.min(journalManager.getLastValidCheckpoint().getTimestamp(),
+                journalManager.getEarliestPageMapTimestamp());
+    }
+
     private void populateBackupFiles() throws Exception {
         final VolumeInfo[] volumes = _persistit.getManagement().getVolumeInfoArray();
         for (final VolumeInfo info : volumes) {
             if (!info.isTransient()) {
                 _files.add(info.getPath());
+                _volumePageSizes.put(info.getPath(), info.getPageSize());
             }
         }
         final JournalInfo info = _persistit.getManagement().getJournalInfo();
@@ -185,8 +235,17 @@ public class BackupTask extends Task {
                 size += new File(file).length();
             }
             postMessage("Total size of files in backup set: " + formatedSize(size), 0);
+            final Properties properties = new Properties();
+            properties.setProperty(PROPERTY_TIMESTAMP, Long.toString(_backupTimestamp));
+            properties.setProperty(PROPERTY_SINCE, Long.toString(_since));
+            zos.putNextEntry(new ZipEntry(PROPERTIES_ENTRY));
+            properties.store(zos, "Persistit backup");
             for (final String path : _files) {
                 final File file = new File(path);
+                if (_since > 0 && _volumePageSizes.containsKey(path)) {
+                    backupDelta(zos, file, _volumePageSizes.get(path), buffer);
+                    continue;
+                }
                 postMessage("Backing up " + path + " size=" + formatedSize(file.length()), 1);
                 final ZipEntry ze = new ZipEntry(path);
                 ze.setSize(file.length());
@@ -211,16 +270,97 @@ public class BackupTask extends Task {
                     is.close();
                 }
             }
-            postMessage("Backup of " + _files.size() + " files to " + _toFile + " completed", 0);
+            postMessage("Backup of " + _files.size() + " files to " + _toFile + " completed - backup timestamp is "
+                    + _backupTimestamp, 0);
         } finally {
             zos.close();
         }
     }
 
+    /**
+     * Write an entry holding each page of a volume file whose timestamp is at
+     * least {@link #_since}. Page 0, the volume head page, is always included.
+     * The entry holds the page size and the file length, followed by a page
+     * address and page image for each page, and ends with address -1.
+     */
+    private void backupDelta(final ZipOutputStream zos, final File file, final int pageSize, final byte[] buffer)
+            throws Exception {
+        postMessage("Backing up pages changed since " + _since + " in " + file + " size="
+                + formatedSize(file.length()), 1);
+        zos.putNextEntry(new ZipEntry(file.getPath() + DELTA_SUFFIX));
+        final DataOutputStream dos = new DataOutputStream(zos);
+        final byte[] bytes = pageSize <= buffer.length ? buffer : new byte[pageSize];
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        long pages = 0;
+        long changed = 0;
+        try {
+            final long length = raf.length();
+            dos.writeInt(pageSize);
+            dos.writeLong(length);
+            for (long page = 0; (page + 1) * pageSize <= length; page++) {
+                raf.seek(page * pageSize);
+                raf.readFully(bytes, 0, pageSize);
+                pages++;
+                if (page == 0 || Util.getLong(bytes, Buffer.TIMESTAMP_OFFSET) >= _since) {
+                    dos.writeLong(page);
+                    dos.write(bytes, 0, pageSize);
+                    changed++;
+                }
+                poll();
+            }
+            dos.writeLong(-1);
+            dos.flush();
+        } finally {
+            raf.close();
+        }
+        appendMessage(" (" + changed + " of " + pages + " pages)", 1);
+    }
+
+    /**
+     * Restore a full backup followed by a chain of incremental backups. Each
+     * incremental backup must have been taken since the backup timestamp of
+     * the backup preceding it in the list.
+     * 
+     * @param paths
+     *            Archive files, beginning with a full backup
+     * @throws Exception
+     */
+    public void doRestore(final List<String> paths) throws Exception {
+        long timestamp = -1;
+        for (final String path : paths) {
+            final Properties properties = readProperties(path);
+            final long since = Long.parseLong(properties.getProperty(PROPERTY_SINCE, "0"));
+            if (timestamp == -1 ? since != 0 : since == 0 || since > timestamp) {
+                throw new IOException("Backup " + path + " taken since " + since
+                        + " does not follow a backup with timestamp " + timestamp);
+            }
+            timestamp = Long.parseLong(properties.getProperty(PROPERTY_TIMESTAMP, "0"));
+        }
+        for (final String path : paths) {
+            doRestore(path);
+        }
+    }
+
+    private Properties readProperties(final String path) throws IOException {
+        final Properties properties = new Properties();
+        final ZipFile zipFile = new ZipFile(path);
+        try {
+            final ZipEntry ze = zipFile.getEntry(PROPERTIES_ENTRY);
+            if (ze != null) {
+                properties.load(zipFile.getInputStream(ze));
+            }
+        } finally {
+            zipFile.close();
+        }
+        return properties;
+    }
+
     /**
      * A convenience method for unit tests to unzip a backup created by
      * {@link #doBackup()}. In production it is expected a backup produced by
-     * {@link #doBackup()} will be restored via an external unzip utility.
+     * {@link #doBackup()} will be restored via an external unzip utility. The
+     * pages held by an incremental backup are written into volume files that
+     * must already have been restored from earlier backups.
      * 
      * @throws Exception
      */
@@ -232,6 +372,13 @@ public class BackupTask extends Task {
                 new BufferedInputStream(new FileInputStream(zipFile), BUFFER_SIZE));
         ZipEntry ze;
         while ((ze = zis.getNextEntry()) != null) {
+            if (PROPERTIES_ENTRY.equals(ze.getName())) {
+                continue;
+            }
+            if (ze.getName().endsWith(DELTA_SUFFIX)) {
+                restoreDelta(zis, new File(ze.getName().substring(0, ze.getName().length() - DELTA_SUFFIX.length())));
+                continue;
+            }
             postMessage("Unzipping " + ze, 0);
             final File file = new File(ze.getName());
             if (file.exists()) {
@@ -255,6 +402,33 @@ public class BackupTask extends Task {
         zis.close();
     }
 
+    private void restoreDelta(final ZipInputStream zis, final File file) throws Exception {
+        postMessage("Applying changed pages to " + file, 0);
+        if (!file.exists()) {
+            throw new IOException("Volume file " + file + " must be restored from a previous backup");
+        }
+        final DataInputStream dis = new DataInputStream(zis);
+        final int pageSize = dis.readInt();
+        final long length = dis.readLong();
+        final byte[] bytes = new byte[pageSize];
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        long changed = 0;
+        try {
+            for (long page = dis.readLong(); page != -1; page = dis.readLong()) {
+                dis.readFully(bytes);
+                raf.seek(page * pageSize);
+                raf.write(bytes);
+                changed++;
+            }
+            raf.setLength(length);
+        } catch (final EOFException e) {
+            throw new IOException("Truncated page delta for " + file, e);
+        } finally {
+            raf.close();
+        }
+        appendMessage(" (" + changed + " pages)", 0);
+    }
+
     private void rename(final File file) throws Exception {
         for (int k = 0; k < 1000; k++) {
             final String candidate = k == 0 ? file.getAbsolutePath() + "~" : file.getAbsoluteFile() + "~" + k;
@@ -285,4 +459,32 @@ public class BackupTask extends Task {
     public List<String> getFileList() {
         return _files;
     }
+
+    /**
+     * @return the timestamp to supply to a subsequent incremental backup that
+     *         follows this one
+     */
+    public long getBackupTimestamp() {
+        return _backupTimestamp;
+    }
+
+    /**
+     * @return the backup timestamp of the backup this one follows, or 0 for a
+     *         full backup
+     */
+    public long getSince() {
+        return _since;
+    }
+
+    /**
+     * Make this an incremental backup that copies only the pages changed
+     * since a previous backup.
+     * 
+     * @param since
+     *            The {@link #getBackupTimestamp()} of the previous backup, or
+     *            0 for a full backup
+     */
+    public void setSince(final long since) {
+        _since = since;
+    }
 }
@@ -2390,6 +2390,13 @@ public class Buffer extends SharedResource {
      * <code>RebalanceException</code>. Calling code should catch and handle
      * this exception by, for example, splitting one of the pages.
      * </p>
+     * <p>
+     * When the supplied <code>Buffer</code> is the right sibling of this one,
+     * foundAt1 may identify the right edge key and foundAt2 may be the first
+     * key block, in which case no records are removed. The caller must first
+     * establish by {@link #canJoin(Buffer, JoinPolicy)} that the two pages
+     * fit in one.
+     * </p>
      *
      * @param buffer
      *            The buffer containing the right edge key
@@ -2412,8 +2419,14 @@ public class Buffer extends SharedResource {
         foundAt1 &= P_MASK;
         foundAt2 &= P_MASK;
 
-        if (buffer == this || foundAt1 <= KEY_BLOCK_START || foundAt1 >= _keyBlockEnd || foundAt2 <= KEY_BLOCK_START
-                || foundAt2 >= buffer._keyBlockEnd) {
+        /*
+         * True if the first key of the right page, which is identical to the
+         * right edge key of this page, is to be kept.
+         */
+        final boolean keepFirst = foundAt2 == KEY_BLOCK_START && _rightSibling == buffer._page;
+
+        if (buffer == this || foundAt1 <= KEY_BLOCK_START || foundAt1 >= _keyBlockEnd
+                || (foundAt2 <= KEY_BLOCK_START && !keepFirst) || foundAt2 >= buffer._keyBlockEnd) {
             Debug.$assert0.t(false);
             throw new IllegalArgumentException("foundAt1=" + foundAt1 + " foundAt2=" + foundAt2 + " _keyBlockEnd="
                     + _keyBlockEnd + " buffer._keyBlockEnd=" + buffer._keyBlockEnd);
@@ -2447,7 +2460,13 @@ public class Buffer extends SharedResource {
         final int oldEbc = decodeKeyBlockEbc(kbData);
 
         final int newEbc;
-        if (_rightSibling == buffer._page) {
+        if (keepFirst) {
+            /*
+             * The first key of the right page is stored in full. Its ebc in
+             * the joined page is that of the right edge key it replaces.
+             */
+            newEbc = (int) (measureLeft >>> 32);
+        } else if (_rightSibling == buffer._page) {
             /*
              * Pages are are contiguous so first key of right sibling is
              * identical to max key of the current page.
@@ -2484,6 +2503,12 @@ public class Buffer extends SharedResource {
 
         final boolean okayToRejoin = virtualKeyCount < _pool.getMaxKeys() && policy.acceptJoin(this, virtualSize);
 
+        if (keepFirst && !okayToRejoin) {
+            Debug.$assert0.t(false);
+            throw new IllegalArgumentException("Pages do not fit: virtualSize=" + virtualSize + " virtualKeyCount="
+                    + virtualKeyCount);
+        }
+
         boolean result;
 
         if (okayToRejoin) {
@@ -2519,6 +2544,9 @@ public class Buffer extends SharedResource {
              * Move non-removed records from the right page to the left page.
              */
             moveRecords(buffer, foundAt2, buffer._keyBlockEnd, foundAt1, false);
+            if (keepFirst) {
+                increaseEbc(foundAt1, newEbc, spareKeyBytes);
+            }
 
             /*
              * Now set the right page to have no key blocks; this allows all the
@@ -2881,6 +2909,66 @@ public class Buffer extends SharedResource {
         return _fastIndex;
     }
 
+    /**
+     * Determines whether this page and its right sibling can be joined into
+     * one page, without removing any records, under the supplied
+     * {@link JoinPolicy}. See {@link #join(Buffer, int, int, Key, Key, JoinPolicy)}.
+     *
+     * @param buffer
+     *            The right sibling of this buffer
+     * @param policy
+     *            The JoinPolicy
+     * @return <code>true</code> if the join would combine the pages
+     */
+    boolean canJoin(final Buffer buffer, final JoinPolicy policy) {
+        final int foundAt1 = _keyBlockEnd - KEYBLOCK_LENGTH;
+        if (buffer == this || _rightSibling != buffer._page || foundAt1 <= KEY_BLOCK_START
+                || buffer._keyBlockEnd <= KEY_BLOCK_START) {
+            return false;
+        }
+        final long measureLeft = joinMeasure(foundAt1, _keyBlockEnd);
+        final int newEbc = (int) (measureLeft >>> 32);
+        final int oldSize = decodeTailBlockSize(buffer.getInt(decodeKeyBlockTail(buffer.getInt(KEY_BLOCK_START))));
+        final int adjustmentForNewEbc = ((oldSize - newEbc + ~TAILBLOCK_MASK) & TAILBLOCK_MASK)
+                - ((oldSize + ~TAILBLOCK_MASK) & TAILBLOCK_MASK);
+        final int virtualSize = inUseSize() + buffer.inUseSize() - (int) measureLeft + adjustmentForNewEbc
+                + KEY_BLOCK_START;
+        final int virtualKeyCount = ((foundAt1 - KEY_BLOCK_START) + (buffer._keyBlockEnd - KEY_BLOCK_START))
+                / KEYBLOCK_LENGTH;
+        return virtualKeyCount < _pool.getMaxKeys() && policy.acceptJoin(this, virtualSize);
+    }
+
+    /**
+     * Removes leading key bytes from the tail block of the key at p, which
+     * now follows a key that shares more of its bytes. The freed space at the
+     * end of the tail block is returned to the page.
+     */
+    private void increaseEbc(final int p, final int newEbc, final byte[] keyBytes) {
+        final int kbData = getInt(p);
+        final int oldEbc = decodeKeyBlockEbc(kbData);
+        if (newEbc == oldEbc) {
+            return;
+        }
+        if (newEbc < oldEbc) {
+            throw new IllegalArgumentException("newEbc=" + newEbc + " must be greater than oldEbc=" + oldEbc);
+        }
+        final int tail = decodeKeyBlockTail(kbData);
+        final int tbData = getInt(tail);
+        final int size = decodeTailBlockSize(tbData);
+        final int klength = decodeTailBlockKLength(tbData);
+        final int delta = newEbc - oldEbc;
+
+        System.arraycopy(_bytes, tail + _tailHeaderSize + delta, _bytes, tail + _tailHeaderSize, size
+                - _tailHeaderSize - delta);
+        putInt(tail, encodeTailBlock(size - delta, klength - delta));
+        final int oldAllocated = (size + ~TAILBLOCK_MASK) & TAILBLOCK_MASK;
+        final int newAllocated = (size - delta + ~TAILBLOCK_MASK) & TAILBLOCK_MASK;
+        if (newAllocated < oldAllocated) {
+            deallocTail(tail + newAllocated, oldAllocated - newAllocated);
+        }
+        putInt(p, encodeKeyBlock(newEbc, keyBytes[newEbc] & 0xFF, tail));
+    }
+
     private void reduceEbc(final int p, final int newEbc, final byte[] indexKeyBytes) {
         int kbData = getInt(p);
         final int oldDb = decodeKeyBlockDb(kbData);
@@ -28,8 +28,10 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.ReentrantLock;
@@ -44,6 +46,7 @@ import com.persistit.exception.PersistitInterruptedException;
 import com.persistit.exception.RetryException;
 import com.persistit.exception.VolumeClosedException;
 import com.persistit.util.Debug;
+import com.persistit.util.StripedCounter;
 import com.persistit.util.Util;
 
 /**
@@ -85,6 +88,18 @@ public class BufferPool {
      */
     private final static int HASH_LOCKS = 4096;
 
+    /**
+     * Minimum number of buffers in each independently clocked segment when the
+     * segment count is chosen automatically
+     */
+    private final static int MINIMUM_SEGMENT_SIZE = 256;
+
+    /**
+     * Spacing, in ints, between adjacent clock hands so that each hand
+     * occupies its own cache line
+     */
+    private final static int CLOCK_STRIDE = 16;
+
     /**
      * Ratio determines which of two volume invalidation algorithms to invoke.
      */
@@ -150,29 +165,45 @@ public class BufferPool {
     private final int _maxKeys;
 
     /**
-     * Pointer to next location to look for a replacement buffer
+     * Count of independently clocked segments
+     */
+    private final int _segmentCount;
+
+    /**
+     * Count of buffers in each segment; the last segment may be smaller
      */
-    private final AtomicInteger _clock = new AtomicInteger();
+    private final int _segmentSize;
+
+    /**
+     * Pointers to next location to look for a replacement buffer, one per
+     * segment, spaced {@link #CLOCK_STRIDE} elements apart.
+     */
+    private final AtomicIntegerArray _clocks;
+
+    /**
+     * Policy that selects buffers for replacement
+     */
+    private final ReplacementPolicy _replacementPolicy;
 
     /**
      * Count of buffer pool misses (buffer not found in pool)
      */
-    private final AtomicLong _missCounter = new AtomicLong();
+    private final StripedCounter _missCounter = new StripedCounter();
 
     /**
      * Count of buffer pool hits (buffer found in pool)
      */
-    private final AtomicLong _hitCounter = new AtomicLong();
+    private final StripedCounter _hitCounter = new StripedCounter();
 
     /**
      * Count of newly created pages
      */
-    private final AtomicLong _newCounter = new AtomicLong();
+    private final StripedCounter _newCounter = new StripedCounter();
 
     /**
      * Count of valid buffers evicted to make room for another page.
      */
-    private final AtomicLong _evictCounter = new AtomicLong();
+    private final StripedCounter _evictCounter = new StripedCounter();
 
     /**
      * Count of dirty pages
@@ -182,17 +213,17 @@ public class BufferPool {
     /**
      * Count of pages written from this pool
      */
-    private final AtomicLong _writeCounter = new AtomicLong();
+    private final StripedCounter _writeCounter = new StripedCounter();
     /**
      * Count of pages written due to being dirty when selected by the buffer
      * allocator.
      */
-    private final AtomicLong _forcedWriteCounter = new AtomicLong();
+    private final StripedCounter _forcedWriteCounter = new StripedCounter();
 
     /**
      * (with n Count of pages written due to being dirty before a checkpoint
      */
-    private final AtomicLong _forcedCheckpointWriteCounter = new AtomicLong();
+    private final StripedCounter _forcedCheckpointWriteCounter = new StripedCounter();
     /**
      * Indicates that Persistit has closed this buffer pool.
      */
@@ -223,7 +254,7 @@ public class BufferPool {
 
     /**
      * Construct a BufferPool with the specified count of <code>Buffer</code>s
-     * of the specified size.
+     * of the specified size using the default replacement policy.
      *
      * @param count
      *            The number of buffers in the pool
@@ -231,6 +262,43 @@ public class BufferPool {
      *            The size (in bytes) of each buffer
      */
     BufferPool(final int count, final int size, final Persistit persistit) {
+        this(count, size, ReplacementPolicy.DEFAULT_POLICY_NAME, persistit);
+    }
+
+    /**
+     * Construct a BufferPool with the specified count of <code>Buffer</code>s
+     * of the specified size and an automatically chosen segment count.
+     *
+     * @param count
+     *            The number of buffers in the pool
+     * @param size
+     *            The size (in bytes) of each buffer
+     * @param policyName
+     *            Name of the {@link ReplacementPolicy} used to select buffers
+     *            for eviction
+     */
+    BufferPool(final int count, final int size, final String policyName, final Persistit persistit) {
+        this(count, size, policyName, 0, persistit);
+    }
+
+    /**
+     * Construct a BufferPool with the specified count of <code>Buffer</code>s
+     * of the specified size.
+     *
+     * @param count
+     *            The number of buffers in the pool
+     * @param size
+     *            The size (in bytes) of each buffer
+     * @param policyName
+     *            Name of the {@link ReplacementPolicy} used to select buffers
+     *            for eviction
+     * @param segments
+     *            The number of independently clocked segments into which the
+     *            pool is divided, or zero to choose a count based on the
+     *            number of available processors
+     */
+    BufferPool(final int count, final int size, final String policyName, final int segments,
+            final Persistit persistit) {
         _persistit = persistit;
         if (count < MINIMUM_POOL_COUNT) {
             throw new IllegalArgumentException("Buffer pool count too small: " + count);
@@ -252,6 +320,14 @@ public class BufferPool {
 
         _bufferCount = count;
         _bufferSize = size;
+        _replacementPolicy = ReplacementPolicy.create(policyName, count);
+        final int requestedSegments = Math.min(count, segments > 0 ? segments : defaultSegmentCount(count));
+        _segmentSize = (count + requestedSegments - 1) / requestedSegments;
+        _segmentCount = (count + _segmentSize - 1) / _segmentSize;
+        _clocks = new AtomicIntegerArray(_segmentCount * CLOCK_STRIDE);
+        for (int segment = 0; segment < _segmentCount; segment++) {
+            _clocks.set(segment * CLOCK_STRIDE, segment * _segmentSize);
+        }
         _buffers = new Buffer[_bufferCount];
         _availablePagesBits = new AtomicLongArray((count + 63) / 64);
         _hashTable = new Buffer[_bufferCount * HASH_MULTIPLE];
@@ -327,6 +403,44 @@ public class BufferPool {
         return (int) (((page ^ vol.hashCode()) & Integer.MAX_VALUE) % _hashTable.length);
     }
 
+    static int defaultSegmentCount(final int count) {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), count / MINIMUM_SEGMENT_SIZE));
+    }
+
+    /**
+     * @return the segment in which to start looking for a buffer to evict.
+     *         Chosen at random so that concurrent threads rarely contend for
+     *         the same clock hand, while the hands of all segments advance at
+     *         about the same rate and a single thread still cycles through
+     *         the entire pool.
+     */
+    private int startSegment() {
+        return _segmentCount == 1 ? 0 : ThreadLocalRandom.current().nextInt(_segmentCount);
+    }
+
+    private int segmentStart(final int segment) {
+        return segment * _segmentSize;
+    }
+
+    private int segmentEnd(final int segment) {
+        return Math.min(_bufferCount, (segment + 1) * _segmentSize);
+    }
+
+    private int clock(final int segment) {
+        return _clocks.get(segment * CLOCK_STRIDE);
+    }
+
+    /**
+     * @return the current position of the clock hand of every segment
+     */
+    int[] clocks() {
+        final int[] clocks = new int[_segmentCount];
+        for (int segment = 0; segment < _segmentCount; segment++) {
+            clocks[segment] = clock(segment);
+        }
+        return clocks;
+    }
+
     int countInUse(final Volume vol, final boolean writer) {
         int count = 0;
         for (int i = 0; i < _bufferCount; i++) {
@@ -350,6 +464,9 @@ public class BufferPool {
         info.writeCount = _writeCounter.get();
         info.forcedCheckpointWriteCount = _forcedCheckpointWriteCounter.get();
         info.forcedWriteCount = _forcedWriteCounter.get();
+        info.replacementPolicy = _replacementPolicy.getName();
+        info.ghostHitCount = _replacementPolicy.getGhostHitCount();
+        info.probationaryPageCount = _replacementPolicy.getProbationaryPageCount();
         int validPages = 0;
         int readerClaimedPages = 0;
         int writerClaimedPages = 0;
@@ -420,6 +537,14 @@ public class BufferPool {
         return _bufferCount;
     }
 
+    /**
+     * @return The count of independently clocked segments into which this
+     *         pool is divided.
+     */
+    public int getSegmentCount() {
+        return _segmentCount;
+    }
+
     /**
      * @return The count of lookup operations for pages images in this pool that
      *         required a physical read operation. This number, in comparison
@@ -473,14 +598,40 @@ public class BufferPool {
         return _forcedCheckpointWriteCounter.get();
     }
 
+    /**
+     * @return The name of the {@link ReplacementPolicy} used to select buffers
+     *         for eviction from this pool.
+     */
+    public String getReplacementPolicy() {
+        return _replacementPolicy.getName();
+    }
+
+    /**
+     * @return The count of pages read into this pool that the replacement
+     *         policy recognized as having been recently evicted. Always zero
+     *         for the CLOCK policy.
+     */
+    public long getGhostHitCounter() {
+        return _replacementPolicy.getGhostHitCount();
+    }
+
+    /**
+     * @return The count of buffers holding pages the replacement policy
+     *         considers probationary. Always zero for the CLOCK policy.
+     */
+    public int getProbationaryPageCount() {
+        return _replacementPolicy.getProbationaryPageCount();
+    }
+
     /**
      * Resets the get and hit counters to zero.
      */
     public void resetCounters() {
-        _missCounter.set(0);
-        _hitCounter.set(0);
-        _newCounter.set(0);
-        _evictCounter.set(0);
+        _missCounter.reset();
+        _hitCounter.reset();
+        _newCounter.reset();
+        _evictCounter.reset();
+        _replacementPolicy.resetCounters();
     }
 
     int getMaxKeys() {
@@ -488,23 +639,37 @@ public class BufferPool {
     }
 
     private void bumpHitCounter() {
-        _hitCounter.incrementAndGet();
+        _hitCounter.increment();
     }
 
     private void bumpMissCounter() {
-        _missCounter.incrementAndGet();
+        _missCounter.increment();
     }
 
     private void bumpNewCounter() {
-        _newCounter.incrementAndGet();
+        _newCounter.increment();
+    }
+
+    private void notePrefetchHit(final Buffer buffer) {
+        if (buffer.clearPrefetched()) {
+            _persistit.getIOMeter().chargePrefetchHit(buffer.getVolume(), buffer.getPageAddress(),
+                    buffer.getBufferSize(), buffer.getIndex());
+        }
+    }
+
+    private void notePrefetchWaste(final Buffer buffer) {
+        if (buffer.clearPrefetched()) {
+            _persistit.getIOMeter().chargePrefetchWaste(buffer.getVolume(), buffer.getPageAddress(),
+                    buffer.getBufferSize(), buffer.getIndex());
+        }
     }
 
     void bumpWriteCounter() {
-        _writeCounter.incrementAndGet();
+        _writeCounter.increment();
     }
 
     void bumpForcedCheckpointWrites() {
-        _forcedCheckpointWriteCounter.incrementAndGet();
+        _forcedCheckpointWriteCounter.increment();
     }
 
     /**
@@ -741,6 +906,32 @@ public class BufferPool {
      */
     Buffer get(final Volume vol, final long page, final boolean writer, final boolean wantRead, final long timeout)
             throws PersistitException {
+        return get(vol, page, writer, wantRead, timeout, false);
+    }
+
+    /**
+     * Read a page into the pool in anticipation of its use, unless it is
+     * already present. Called by the {@link ReadAheadManager}. The page is
+     * marked as prefetched until it is used or evicted.
+     *
+     * @param vol
+     *            The Volume
+     * @param page
+     *            The address of the page
+     * @return <code>true</code> if the page was read
+     * @throws PersistitException
+     */
+    boolean prefetch(final Volume vol, final long page) throws PersistitException {
+        final Buffer buffer = get(vol, page, false, true, 0, true);
+        if (buffer != null) {
+            buffer.release();
+            return true;
+        }
+        return false;
+    }
+
+    private Buffer get(final Volume vol, final long page, final boolean writer, final boolean wantRead,
+            final long timeout, final boolean prefetch) throws PersistitException {
         final int hash = hashIndex(vol, page);
         Buffer buffer = null;
 
@@ -755,12 +946,19 @@ public class BufferPool {
                 while (buffer != null) {
                     Debug.$assert0.t(buffer.getNext() != buffer);
                     if (buffer.getPageAddress() == page && buffer.getVolume() == vol) {
+                        if (prefetch) {
+                            //
+                            // Already present - nothing to do.
+                            //
+                            return null;
+                        }
                         //
                         // Found it - now claim it.
                         //
                         if (buffer.claim(writer, 0)) {
                             vol.getStatistics().bumpGetCounter();
                             bumpHitCounter();
+                            notePrefetchHit(buffer);
                             assert !buffer.isOwnedAsWriterByOther();
                             return buffer;
                         } else {
@@ -781,7 +979,9 @@ public class BufferPool {
                     Debug.$assert0.t(buffer != _hashTable[hash]);
                     Debug.$assert0.t(buffer.getNext() != buffer);
 
+                    buffer.clearPrefetched();
                     buffer.setPageAddressAndVolume(page, vol);
+                    _replacementPolicy.pageAssigned(buffer);
                     buffer.setNext(_hashTable[hash]);
                     _hashTable[hash] = buffer;
                     //
@@ -829,6 +1029,7 @@ public class BufferPool {
                         //
                         vol.getStatistics().bumpGetCounter();
                         bumpHitCounter();
+                        notePrefetchHit(buffer);
                         assert !buffer.isOwnedAsWriterByOther();
                         return buffer;
                     } else {
@@ -861,8 +1062,14 @@ public class BufferPool {
                                 && hashIndex(buffer.getVolume(), buffer.getPageAddress()) == hash);
                         buffer.load(vol, page);
                         loaded = true;
-                        vol.getStatistics().bumpGetCounter();
-                        bumpMissCounter();
+                        if (prefetch) {
+                            buffer.setPrefetched();
+                            _persistit.getIOMeter().chargePrefetchPage(vol, page, buffer.getBufferSize(),
+                                    buffer.getIndex());
+                        } else {
+                            vol.getStatistics().bumpGetCounter();
+                            bumpMissCounter();
+                        }
                     } finally {
                         if (!loaded) {
                             invalidate(buffer);
@@ -946,9 +1153,9 @@ public class BufferPool {
 
     /**
      * Returns an available buffer. The replacement policy is to return a buffer
-     * that's already been marked invalid, if available. Otherwise use the Clock
-     * algorithm to choose a page for replacement that is approximately the
-     * least-recently-used page.
+     * that's already been marked invalid, if available. Otherwise advance the
+     * clock hand, using the pool's {@link ReplacementPolicy} to decide which
+     * buffers to pass over, to choose a page for replacement.
      *
      * @return Buffer An available buffer, or <i>null</i> if no buffer is
      *         currently available. The buffer has a writer claim.
@@ -962,8 +1169,9 @@ public class BufferPool {
         // Start by searching for an invalid page. It's preferable
         // since no valid page will need to be evicted.
         //
+        final int home = startSegment();
         if (_availablePages.get()) {
-            final int start = (_clock.get() / 64) * 64;
+            final int start = (clock(home) / 64) * 64;
             for (int q = start;;) {
                 q += 64;
                 if (q >= _bufferCount) {
@@ -999,18 +1207,47 @@ public class BufferPool {
             _availablePages.set(false);
         }
         //
-        // Look for a page to evict.
+        // Look for a page to evict, starting in a randomly chosen segment
+        // and stealing from the other segments if it has no victim.
         //
-        for (int retry = 0; retry < _bufferCount * 2;) {
-            final int clock = _clock.get();
-            assert clock < _bufferCount;
-            if (!_clock.compareAndSet(clock, (clock + 1) % _bufferCount)) {
+        for (int steal = 0; steal < _segmentCount; steal++) {
+            final Buffer buffer = evictFromSegment((home + steal) % _segmentCount);
+            if (buffer != null) {
+                return buffer;
+            }
+        }
+        throw new IllegalStateException("No available Buffers");
+    }
+
+    /**
+     * Advance the clock hand of one segment to find a buffer to evict.
+     *
+     * @param segment
+     *            the segment
+     * @return Buffer An available buffer with a writer claim, or
+     *         <code>null</code> if two revolutions of the segment's clock hand
+     *         found none.
+     * @throws PersistitException
+     */
+    private Buffer evictFromSegment(final int segment) throws PersistitException {
+        final int slot = segment * CLOCK_STRIDE;
+        final int start = segmentStart(segment);
+        final int end = segmentEnd(segment);
+        final int size = end - start;
+        for (int retry = 0; retry < size * 2;) {
+            final int clock = _clocks.get(slot);
+            assert clock >= start && clock < end;
+            if (!_clocks.compareAndSet(slot, clock, clock + 1 == end ? start : clock + 1)) {
                 continue;
             }
             final Buffer buffer = _buffers[clock];
-            if (buffer.isTouched()) {
-                buffer.clearTouched();
-            } else {
+            //
+            // After a full revolution without finding a victim, fall back to
+            // the plain CLOCK rule so that a policy cannot starve allocation.
+            //
+            final boolean skip = retry < size ? _replacementPolicy.skip(buffer) : ReplacementPolicy
+                    .skipTouched(buffer);
+            if (!skip) {
                 //
                 // Note: need to verify that there are no claims - including
                 // those of the current thread.
@@ -1028,11 +1265,26 @@ public class BufferPool {
                         // marked invalid. Can't prune it before writing it in
                         // this context
                         try {
-                            buffer.writePage();
+                            try {
+                                buffer.writePage();
+                            } catch (final InUseException e) {
+                                //
+                                // Another thread is closing or truncating the
+                                // temporary volume this page belongs to and
+                                // will discard it; choose another victim.
+                                //
+                                if (!buffer.isTemporary()) {
+                                    throw e;
+                                }
+                                retry++;
+                                continue;
+                            }
                             if (detach(buffer)) {
+                                _replacementPolicy.pageEvicted(buffer);
+                                notePrefetchWaste(buffer);
                                 buffer.clearValid();
-                                _forcedWriteCounter.incrementAndGet();
-                                _evictCounter.incrementAndGet();
+                                _forcedWriteCounter.increment();
+                                _evictCounter.increment();
                                 _persistit.getIOMeter().chargeEvictPageFromPool(buffer.getVolume(),
                                         buffer.getPageAddress(), buffer.getBufferSize(), buffer.getIndex());
                             }
@@ -1045,8 +1297,10 @@ public class BufferPool {
                         }
                     } else {
                         if (buffer.isValid() && detach(buffer)) {
+                            _replacementPolicy.pageEvicted(buffer);
+                            notePrefetchWaste(buffer);
                             buffer.clearValid();
-                            _evictCounter.incrementAndGet();
+                            _evictCounter.increment();
                             _persistit.getIOMeter().chargeEvictPageFromPool(buffer.getVolume(),
                                     buffer.getPageAddress(), buffer.getBufferSize(), buffer.getIndex());
                         }
@@ -1060,7 +1314,7 @@ public class BufferPool {
             }
             retry++;
         }
-        throw new IllegalStateException("No available Buffers");
+        return null;
     }
 
     enum Result {
@@ -1134,7 +1388,6 @@ public class BufferPool {
     int selectDirtyBuffers(final int[] priorities, final BufferHolder[] holders) throws PersistitException {
         Debug.suspend();
         int count = 0;
-        final int clock = _clock.get();
 
         final long checkpointTimestamp = _persistit.getCurrentCheckpoint().getTimestamp();
         final long currentTimestamp = _persistit.getCurrentTimestamp();
@@ -1143,50 +1396,62 @@ public class BufferPool {
         final long flushTimestamp = _flushTimestamp.get();
 
         boolean flushed = true;
-        for (int index = clock; index < clock + _bufferCount; index++) {
-            final Buffer buffer = _buffers[index % _bufferCount];
-            long timestamp = buffer.getTimestamp();
-            /*
-             * The following is subtle timing dance. If the buffer claim is
-             * acquired here then no other thread can modify its timestamp or
-             * dirty flag until it is released, and the timestamp reflects the
-             * true sequence at which the buffer became dirty. However, if the
-             * buffer is in use by another thread, then the timestamp reflects
-             * either (a) the timestamp at which the buffer became dirty if is
-             * is dirty, or (b) the the timestamp at which the thread holding
-             * the claim acquired it.
-             */
-            if (!buffer.claim(false, 0)) {
+        /*
+         * Scan each segment starting from its own clock hand.
+         */
+        for (int segment = 0; segment < _segmentCount; segment++) {
+            final int start = segmentStart(segment);
+            final int end = segmentEnd(segment);
+            int index = clock(segment);
+            for (int visited = start; visited < end; visited++) {
+                final Buffer buffer = _buffers[index];
+                if (++index == end) {
+                    index = start;
+                }
+                long timestamp = buffer.getTimestamp();
                 /*
-                 * Without a claim, we are still guaranteed that the buffer will
-                 * never receive a dirty timestamp less than its current
-                 * timestamp.
+                 * The following is subtle timing dance. If the buffer claim
+                 * is acquired here then no other thread can modify its
+                 * timestamp or dirty flag until it is released, and the
+                 * timestamp reflects the true sequence at which the buffer
+                 * became dirty. However, if the buffer is in use by another
+                 * thread, then the timestamp reflects either (a) the
+                 * timestamp at which the buffer became dirty if is is dirty,
+                 * or (b) the the timestamp at which the thread holding the
+                 * claim acquired it.
                  */
-                if (timestamp < earliestDirtyTimestamp) {
-                    earliestDirtyTimestamp = timestamp;
-                }
-                if (timestamp < flushTimestamp) {
-                    flushed = false;
-                }
-            } else {
-                try {
-                    if (buffer.isDirty()) {
-                        final int priority = writePriority(buffer, clock, checkpointTimestamp, currentTimestamp);
-                        if (priority > 0) {
-                            count = addSelectedBufferByPriority(buffer, priority, priorities, holders, count);
-                            if (!buffer.isTemporary()) {
-                                timestamp = buffer.getTimestamp();
-                                if (timestamp < earliestDirtyTimestamp) {
-                                    earliestDirtyTimestamp = timestamp;
-                                }
-                                if (timestamp <= flushTimestamp) {
-                                    flushed = false;
+                if (!buffer.claim(false, 0)) {
+                    /*
+                     * Without a claim, we are still guaranteed that the
+                     * buffer will never receive a dirty timestamp less than
+                     * its current timestamp.
+                     */
+                    if (timestamp < earliestDirtyTimestamp) {
+                        earliestDirtyTimestamp = timestamp;
+                    }
+                    if (timestamp < flushTimestamp) {
+                        flushed = false;
+                    }
+                } else {
+                    try {
+                        if (buffer.isDirty()) {
+                            final int priority = writePriority(buffer, checkpointTimestamp, currentTimestamp);
+                            if (priority > 0) {
+                                count = addSelectedBufferByPriority(buffer, priority, priorities, holders, count);
+                                if (!buffer.isTemporary()) {
+                                    timestamp = buffer.getTimestamp();
+                                    if (timestamp < earliestDirtyTimestamp) {
+                                        earliestDirtyTimestamp = timestamp;
+                                    }
+                                    if (timestamp <= flushTimestamp) {
+                                        flushed = false;
+                                    }
                                 }
                             }
                         }
+                    } finally {
+                        buffer.release();
                     }
-                } finally {
-                    buffer.release();
                 }
             }
         }
@@ -1237,7 +1502,7 @@ public class BufferPool {
      *
      * @return priority
      */
-    int writePriority(final Buffer buffer, final int clock, final long checkpointTimestamp, final long currentTimestamp) {
+    int writePriority(final Buffer buffer, final long checkpointTimestamp, final long currentTimestamp) {
         final int status = buffer.getStatus();
         if ((status & Buffer.VALID_MASK) == 0 || (status & Buffer.DIRTY_MASK) == 0) {
             // ineligible
@@ -1247,7 +1512,12 @@ public class BufferPool {
         // compute "distance" between this buffer and the clock. A larger
         // distance results in lower priority.
         //
-        int distance = (buffer.getIndex() - _clock.get() + _bufferCount) % _bufferCount;
+        // Each segment's clock hand sweeps its own segment, so all hands
+        // together advance roughly _segmentCount buffers per step.
+        //
+        final int segment = buffer.getIndex() / _segmentSize;
+        final int size = segmentEnd(segment) - segmentStart(segment);
+        int distance = ((buffer.getIndex() - clock(segment) + size) % size) * _segmentCount;
         int age = 0;
         //
         // If this buffer has been touched, then it won't be evicted for at
@@ -1456,7 +1726,7 @@ public class BufferPool {
             int total = 0;
             exchange.clear().append(_bufferSize).append(timestamp).append(Key.BEFORE);
             final Value value = exchange.getValue();
-            final int clockValueBefore = _clock.get();
+            final int[] clocksBefore = clocks();
             for (int index = 0; index < _buffers.length; index++) {
                 final Buffer buffer = _buffers[index];
                 long page1 = -1, page2 = -1;
@@ -1481,13 +1751,13 @@ public class BufferPool {
                     }
                 }
             }
-            final int clockValueAfter = _clock.get();
+            final int[] clocksAfter = clocks();
             exchange.cut();
             value.clear().setStreamMode(true);
             value.put(_bufferCount);
             value.put(total);
-            value.put(clockValueBefore);
-            value.put(clockValueAfter);
+            value.put(clocksBefore);
+            value.put(clocksAfter);
             value.put(System.currentTimeMillis());
             exchange.store();
             int count = 0;
@@ -1526,8 +1796,8 @@ public class BufferPool {
             value.setStreamMode(true);
             /* int bufferCount = */value.getInt();
             total = value.getInt();
-            /* int clockValueBefore = */value.getInt();
-            /* int clockValueAfter = */value.getInt();
+            /* int[] clocksBefore = */value.get();
+            /* int[] clocksAfter = */value.get();
             final long systemTime = value.getLong();
 
             _persistit.getLogBase().bufferInventoryLoad.log(systemTime);
@@ -244,4 +244,32 @@ class BufferPoolMXBeanImpl implements BufferPoolMXBean {
         return recent().getEarliestDirtyTimestamp();
     }
 
+    /**
+     * @return The name of the policy used to select buffers for eviction
+     */
+    @Override
+    @Description("The name of the policy used to select buffers for eviction")
+    public String getReplacementPolicy() {
+        return recent().getReplacementPolicy();
+    }
+
+    /**
+     * @return The count of pages read into this pool that had been recently
+     *         evicted
+     */
+    @Override
+    @Description("Count of pages read into this pool that had been recently evicted")
+    public long getGhostHitCount() {
+        return recent().getGhostHitCount();
+    }
+
+    /**
+     * @return The count of probationary pages in this pool
+     */
+    @Override
+    @Description("The count of probationary pages in this pool")
+    public int getProbationaryPageCount() {
+        return recent().getProbationaryPageCount();
+    }
+
 }
@@ -0,0 +1,491 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static com.persistit.Buffer.DEPTH_MASK;
+import static com.persistit.Buffer.DEPTH_SHIFT;
+import static com.persistit.Buffer.KEYBLOCK_LENGTH;
+import static com.persistit.Buffer.PAGE_TYPE_DATA;
+import static com.persistit.Buffer.PAGE_TYPE_INDEX_MAX;
+import static com.persistit.Buffer.PAGE_TYPE_INDEX_MIN;
+import static com.persistit.Buffer.TAILBLOCK_FACTOR;
+import static com.persistit.Buffer.TAILBLOCK_HDR_SIZE_DATA;
+import static com.persistit.Buffer.TAILBLOCK_HDR_SIZE_INDEX;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.persistit.ValueHelper.RawValueWriter;
+import com.persistit.exception.InUseException;
+import com.persistit.exception.PersistitException;
+
+/**
+ * <p>
+ * Builds the content of an empty {@link Tree} from key/value pairs supplied in
+ * strictly increasing key order. Rather than inserting each record through
+ * {@link Exchange#store()}, which splits pages as they fill and writes every
+ * modified page first to the journal and later again to the volume, a
+ * <code>BulkLoader</code> fills each data and index page completely, from left
+ * to right, and writes it exactly once directly to the volume file.
+ * </p>
+ * <p>
+ * Pages are allocated from the end of the volume with
+ * {@link VolumeStorage#allocNewPage()} and written with
+ * {@link VolumeStorage#writePage(ByteBuffer, long)}, bypassing the journal.
+ * None of them is reachable until {@link #finish()} forces the volume file,
+ * replaces the root of the empty tree with the root of the newly built tree
+ * and then performs a checkpoint. A crash before that checkpoint completes
+ * leaves the tree empty; the pages written so far are simply lost.
+ * </p>
+ * <p>
+ * A <code>BulkLoader</code> cannot be constructed while the journal is in
+ * <code>appendOnly</code> mode, which {@link BackupTask} sets so that it can
+ * copy the volume files while they do not change. If a backup sets that mode
+ * during a load, the remaining pages are written through the journal like any
+ * other modified page.
+ * </p>
+ * <p>
+ * Records are stored outside of any transaction, exactly as they would be by an
+ * <code>Exchange</code> on which no transaction is active. Values too large to
+ * fit in a data page are stored as long records in the usual way and therefore
+ * do go through the journal.
+ * </p>
+ * <p>
+ * The tree must be empty when the <code>BulkLoader</code> is constructed and
+ * must still be empty when {@link #finish()} is called; otherwise the pages
+ * built so far are discarded and <code>finish</code> throws an
+ * <code>IllegalStateException</code>. A <code>BulkLoader</code> is not
+ * thread-safe and holds writer claims on up to one page per tree level until
+ * it is finished.
+ * </p>
+ */
+public class BulkLoader {
+
+    private final Persistit _persistit;
+    private final Exchange _exchange;
+    private final Volume _volume;
+    private final Tree _tree;
+    private final BufferPool _pool;
+    private final List<Level> _levels = new ArrayList<Level>();
+    private final Value _pointerValue;
+    private final RawValueWriter _valueWriter = new RawValueWriter();
+    private final RawValueWriter _pointerWriter = new RawValueWriter();
+
+    private long _recordCount;
+    private long _pageCount;
+    private boolean _finished;
+
+    /**
+     * One level of the tree under construction. Each level holds back the most
+     * recently added record until the following key is known: a page that is
+     * not the last one on its level must end with an edge key equal to the
+     * first key of its right sibling, just as {@link Buffer#split} leaves it,
+     * so a record is only added to the current page if there is still room for
+     * the edge key that may have to follow it.
+     */
+    private class Level {
+        final int _type;
+        final Key _pendingKey = new Key(_persistit);
+        final Value _pendingValue = new Value(_persistit);
+        long _pendingPointer;
+        boolean _pending;
+        long _leftmostPage;
+        Buffer _buffer;
+
+        Level(final int type) {
+            _type = type;
+        }
+
+        boolean isIndexLevel() {
+            return _type != PAGE_TYPE_DATA;
+        }
+    }
+
+    /**
+     * Construct a <code>BulkLoader</code> that loads the tree on which the
+     * supplied <code>Exchange</code> is positioned. The <code>Exchange</code>
+     * is used to store long records and should not otherwise be used until the
+     * load is finished.
+     *
+     * @param exchange
+     *            an <code>Exchange</code> on an empty tree
+     * @throws IllegalStateException
+     *             if the tree is not empty
+     * @throws InUseException
+     *             if the journal is in <code>appendOnly</code> mode, for
+     *             example during a backup
+     * @throws PersistitException
+     */
+    public BulkLoader(final Exchange exchange) throws PersistitException {
+        _exchange = exchange;
+        _persistit = exchange.getPersistitInstance();
+        _volume = exchange.getVolume();
+        _tree = exchange.getTree();
+        _pool = _volume.getStructure().getPool();
+        _pointerValue = new Value(_persistit);
+        _pointerWriter.init(_pointerValue);
+        if (!isEmpty(_tree)) {
+            throw new IllegalStateException(_tree + " is not empty");
+        }
+        if (_persistit.getJournalManager().isAppendOnly()) {
+            throw new InUseException("Volume files are append-only, for example during a backup");
+        }
+    }
+
+    /**
+     * @return the <code>Tree</code> being loaded
+     */
+    public Tree getTree() {
+        return _tree;
+    }
+
+    /**
+     * @return the number of records appended so far
+     */
+    public long getRecordCount() {
+        return _recordCount;
+    }
+
+    /**
+     * @return the number of data and index pages written or being filled so
+     *         far
+     */
+    public long getPageCount() {
+        return _pageCount;
+    }
+
+    /**
+     * @param key
+     *            a key
+     * @return <code>true</code> if the key sorts after every key appended so
+     *         far and may therefore be passed to {@link #append(Key, Value)}
+     */
+    public boolean canAppend(final Key key) {
+        return _levels.isEmpty() || key.compareTo(_levels.get(0)._pendingKey) > 0;
+    }
+
+    /**
+     * Append a record. The key must sort strictly after the key of the
+     * previously appended record.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value; if it is too long to be stored in a data page it
+     *            is stored as a long record
+     * @throws IllegalArgumentException
+     *             if the key is out of order
+     * @throws PersistitException
+     */
+    public void append(final Key key, final Value value) throws PersistitException {
+        if (_finished) {
+            throw new IllegalStateException("BulkLoader for " + _tree + " is already finished");
+        }
+        if (!canAppend(key)) {
+            throw new IllegalArgumentException("Key " + key + " does not follow " + _levels.get(0)._pendingKey);
+        }
+        final Level level = _levels.isEmpty() ? newLevel(0) : _levels.get(0);
+        if (level._pending) {
+            place(0, key);
+        }
+        if (value.getEncodedSize() > _exchange.maxValueSize(key.getEncodedSize())) {
+            _exchange.getLongRecordHelper().storeLongRecord(value, false);
+            try {
+                level._pendingValue.putEncodedBytes(value.getEncodedBytes(), 0, value.getEncodedSize());
+            } finally {
+                value.changeLongRecordMode(false);
+            }
+        } else {
+            level._pendingValue.putEncodedBytes(value.getEncodedBytes(), 0, value.getEncodedSize());
+        }
+        key.copyTo(level._pendingKey);
+        level._pending = true;
+        _recordCount++;
+    }
+
+    /**
+     * Write the last page of each level, force the volume file and install the
+     * new tree structure in place of the empty tree. Finally, perform a
+     * checkpoint so that the updated directory tree is durable. Does nothing
+     * if no records were appended.
+     *
+     * @throws IllegalStateException
+     *             if records were stored in the tree by some other means while
+     *             this load was in progress
+     * @throws PersistitException
+     */
+    public void finish() throws PersistitException {
+        if (_finished) {
+            return;
+        }
+        _finished = true;
+        if (_levels.isEmpty()) {
+            return;
+        }
+        try {
+            for (int index = 0; index < _levels.size(); index++) {
+                final Level level = _levels.get(index);
+                if (level._pending) {
+                    place(index, Key.RIGHT_GUARD_KEY);
+                }
+                if (!putEdge(level, Key.RIGHT_GUARD_KEY)) {
+                    throw new IllegalStateException("No room for right guard key in " + level._buffer);
+                }
+                writePage(level._buffer);
+                level._buffer = release(level._buffer);
+            }
+        } finally {
+            for (final Level level : _levels) {
+                level._buffer = release(level._buffer);
+            }
+        }
+        if (!_volume.isTemporary()) {
+            _volume.getStorage().force();
+        }
+
+        final Level top = _levels.get(_levels.size() - 1);
+        final long oldRootPage;
+        if (!_tree.claim(true)) {
+            throw new InUseException("Unable to acquire writer claim on " + _tree);
+        }
+        try {
+            if (!isEmpty(_tree)) {
+                discard();
+                throw new IllegalStateException(_tree + " was modified during bulk load");
+            }
+            oldRootPage = _tree.getRootPageAddr();
+            _tree.changeRootPageAddr(top._leftmostPage, _levels.size() - _tree.getDepth());
+            _tree.bumpGeneration();
+            _tree.bumpChangeCount();
+            _volume.getStructure().updateDirectoryTree(_tree);
+        } finally {
+            _tree.release();
+        }
+        _volume.getStructure().deallocateGarbageChain(oldRootPage, 0);
+        if (!_volume.isTemporary()) {
+            _persistit.checkpoint();
+        }
+    }
+
+    /**
+     * Add the pending record of the specified level now that the key that
+     * follows it is known. If the record, together with an edge key for the
+     * following key, does not fit in the current page then the record's key
+     * becomes the edge key of the current page, the record is added to a new
+     * right sibling and an index record for the new page is passed to the
+     * parent level.
+     */
+    private void place(final int index, final Key nextKey) throws PersistitException {
+        final Level level = _levels.get(index);
+        final Key key = level._pendingKey;
+        final ValueHelper valueWriter = pendingWriter(level);
+        level._pending = false;
+
+        Buffer buffer = level._buffer;
+        int foundAt = buffer.findKey(key);
+        if (fits(buffer, key, valueWriter, foundAt, nextKey)
+                && buffer.putValue(key, valueWriter, foundAt, false) != -1) {
+            return;
+        }
+        if (!putEdge(level, key)) {
+            throw new IllegalStateException("No room for edge key " + key + " in " + buffer);
+        }
+        final Buffer next = allocPage(level._type);
+        buffer.setRightSibling(next.getPageAddress());
+        writePage(buffer);
+        release(buffer);
+        level._buffer = buffer = next;
+        foundAt = buffer.findKey(key);
+        if (buffer.putValue(key, pendingWriter(level), foundAt, false) == -1) {
+            throw new IllegalStateException("Record does not fit in an empty page: " + key);
+        }
+        postToParent(index + 1, key, next.getPageAddress());
+    }
+
+    /**
+     * Hold back an index record pointing to a newly started page on the parent
+     * level, creating that level first if necessary.
+     */
+    private void postToParent(final int index, final Key key, final long page) throws PersistitException {
+        final Level level;
+        if (index == _levels.size()) {
+            level = newLevel(index);
+            _pointerValue.setPointerValue(_levels.get(index - 1)._leftmostPage);
+            level._buffer.putValue(Key.LEFT_GUARD_KEY, _pointerWriter);
+        } else {
+            level = _levels.get(index);
+            if (level._pending) {
+                place(index, key);
+            }
+        }
+        key.copyTo(level._pendingKey);
+        level._pendingPointer = page;
+        level._pending = true;
+    }
+
+    /**
+     * Add an edge key, which carries no value and, in an index page, a pointer
+     * of -1, to the end of the current page of a level.
+     */
+    private boolean putEdge(final Level level, final Key key) throws PersistitException {
+        final ValueHelper edgeWriter;
+        if (level.isIndexLevel()) {
+            _pointerValue.setPointerValue(-1);
+            edgeWriter = _pointerWriter;
+        } else {
+            edgeWriter = ValueHelper.EMPTY_VALUE_WRITER;
+        }
+        final Buffer buffer = level._buffer;
+        return buffer.putValue(key, edgeWriter, buffer.findKey(key), false) != -1;
+    }
+
+    private ValueHelper pendingWriter(final Level level) {
+        if (level.isIndexLevel()) {
+            _pointerValue.setPointerValue(level._pendingPointer);
+            return _pointerWriter;
+        } else {
+            _valueWriter.init(level._pendingValue);
+            return _valueWriter;
+        }
+    }
+
+    /**
+     * Determine whether a record will fit in the page while still leaving room
+     * for the edge key that would follow it if the next record were to start a
+     * new page.
+     */
+    private boolean fits(final Buffer buffer, final Key key, final ValueHelper valueWriter, final int foundAt,
+            final Key nextKey) {
+        final boolean index = buffer.isIndexPage();
+        final int tailHeaderSize = index ? TAILBLOCK_HDR_SIZE_INDEX : TAILBLOCK_HDR_SIZE_DATA;
+        final int length = index ? 0 : valueWriter.requiredLength(buffer.getBytes(), 0, -1);
+        final int ebc = (foundAt & DEPTH_MASK) >>> DEPTH_SHIFT;
+        final int required = KEYBLOCK_LENGTH + round(key.getEncodedSize() - ebc - 1 + length + tailHeaderSize);
+        final int nextEbc = key.firstUniqueByteIndex(nextKey);
+        final int edge = KEYBLOCK_LENGTH + round(nextKey.getEncodedSize() - nextEbc - 1 + tailHeaderSize);
+        return buffer.getKeyCount() + 2 <= _pool.getMaxKeys() && buffer.getAvailableSize() >= required + edge;
+    }
+
+    private Level newLevel(final int index) throws PersistitException {
+        final int type = index == 0 ? PAGE_TYPE_DATA : PAGE_TYPE_INDEX_MIN + index - 1;
+        if (type > PAGE_TYPE_INDEX_MAX) {
+            throw new IllegalStateException("Tree " + _tree + " would exceed the maximum depth");
+        }
+        final Level level = new Level(type);
+        level._buffer = allocPage(type);
+        level._leftmostPage = level._buffer.getPageAddress();
+        _levels.add(level);
+        if (index == 0) {
+            level._buffer.putValue(Key.LEFT_GUARD_KEY, ValueHelper.EMPTY_VALUE_WRITER);
+        }
+        return level;
+    }
+
+    /**
+     * Allocate a new page at the end of the volume. Pages are never taken from
+     * the garbage chain: a recycled page may have a more recent image in the
+     * journal than the one this loader writes to the volume.
+     */
+    private Buffer allocPage(final int type) throws PersistitException {
+        final long page = _volume.getStorage().allocNewPage();
+        final Buffer buffer = _pool.get(_volume, page, true, false);
+        buffer.init(type);
+        _pageCount++;
+        return buffer;
+    }
+
+    /**
+     * Write a completed page directly to the volume file. The buffer remains
+     * valid and clean in the buffer pool. While the journal is in
+     * <code>appendOnly</code> mode the volume file must not change, so the
+     * buffer is instead marked dirty and reaches the volume through the
+     * journal.
+     */
+    private void writePage(final Buffer buffer) throws PersistitException {
+        buffer.clearSlack();
+        final JournalManager journalManager = _persistit.getJournalManager();
+        if (!journalManager.beginDirectVolumeWrite()) {
+            buffer.setDirtyAtTimestamp(_persistit.getTimestampAllocator().updateTimestamp());
+            return;
+        }
+        try {
+            buffer.save();
+            final ByteBuffer bb = buffer.getByteBuffer();
+            bb.limit(buffer.getBufferSize()).position(0);
+            _volume.getStorage().writePage(bb, buffer.getPageAddress());
+        } finally {
+            journalManager.endDirectVolumeWrite();
+        }
+        _volume.getStatistics().bumpWriteCounter();
+        _pool.bumpWriteCounter();
+    }
+
+    /**
+     * @param tree
+     *            a tree
+     * @return <code>true</code> if the tree consists of a single data page
+     *         containing nothing but the left and right guard keys, so that it
+     *         can be loaded by a <code>BulkLoader</code>
+     * @throws PersistitException
+     */
+    static boolean isEmpty(final Tree tree) throws PersistitException {
+        if (tree.getDepth() != 1) {
+            return false;
+        }
+        final Volume volume = tree.getVolume();
+        final Buffer buffer = volume.getStructure().getPool().get(volume, tree.getRootPageAddr(), false, true);
+        try {
+            return buffer.isDataPage() && buffer.getKeyCount() == 2;
+        } finally {
+            buffer.releaseTouched();
+        }
+    }
+
+    /**
+     * @param tree
+     *            a tree
+     * @return <code>true</code> if a <code>BulkLoader</code> can currently be
+     *         constructed for the tree: it is empty and the journal is not in
+     *         <code>appendOnly</code> mode
+     * @throws PersistitException
+     */
+    static boolean canLoad(final Tree tree) throws PersistitException {
+        return !tree.getPersistit().getJournalManager().isAppendOnly() && isEmpty(tree);
+    }
+
+    /**
+     * Return every page written by this loader to the garbage chain. Each
+     * level is a complete chain of right siblings ending in zero.
+     */
+    private void discard() throws PersistitException {
+        for (final Level level : _levels) {
+            _volume.getStructure().deallocateGarbageChain(level._leftmostPage, 0);
+        }
+    }
+
+    private static Buffer release(final Buffer buffer) {
+        if (buffer != null) {
+            buffer.releaseTouched();
+        }
+        return null;
+    }
+
+    private static int round(final int size) {
+        return (size + TAILBLOCK_FACTOR - 1) & -TAILBLOCK_FACTOR;
+    }
+}
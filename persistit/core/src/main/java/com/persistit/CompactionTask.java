@@ -0,0 +1,289 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import com.persistit.CLI.Arg;
+import com.persistit.CLI.Cmd;
+import com.persistit.exception.PersistitException;
+import com.persistit.util.Util;
+
+/**
+ * <p>
+ * Task that joins adjacent, underfilled data pages of selected trees while the
+ * database remains in use. Large {@link Exchange#removeKeyRange(Key, Key)}
+ * operations and long runs of deletes can leave a tree with many sparsely
+ * filled pages; compaction restores the fill factor without a save and
+ * reload.
+ * </p>
+ * <p>
+ * The task walks the data pages of each tree from left to right. When a page
+ * and its right sibling together use no more than the target fill percentage
+ * of one page, the two are joined by the same code that joins pages after a
+ * key range removal, provided the database's default
+ * {@link com.persistit.policy.JoinPolicy} accepts the combined page. The join
+ * removes no records; it is abandoned if a concurrent update has moved the
+ * page boundary. An optional
+ * delay after each join throttles the work. The fill factor of each tree is
+ * reported before and after compaction. A compaction started with the
+ * <code>compact</code> command, for example through
+ * {@link com.persistit.mxbeans.ManagementMXBean#launch(String)}, reports its
+ * progress through {@link Management#queryTaskStatus(long, boolean, boolean)}.
+ * </p>
+ */
+public class CompactionTask extends Task {
+
+    /**
+     * Default target fill percentage for joined pages
+     */
+    public final static int DEFAULT_FILL_PERCENT = 90;
+
+    private TreeSelector _treeSelector;
+    private int _fillPercent = DEFAULT_FILL_PERCENT;
+    private long _delay;
+    private Tree _currentTree;
+    private volatile long _pagesVisited;
+    private volatile long _totalPages;
+    private volatile long _joinCount;
+    private double _fillFactorBefore;
+    private double _fillFactorAfter;
+
+    @Cmd("compact")
+    static Task setupTask(@Arg("trees|string|Tree selector: Volumes/Trees to compact") final String treeSelectorString,
+            @Arg("_flag|r|Use regex expression") final boolean regex,
+            @Arg("fill|int:90:10:100|Target fill percentage for joined pages") final int fill,
+            @Arg("delay|long:0:0:60000|Milliseconds to pause after each join") final long delay,
+            @Arg("_flag|v|Verbose results") final boolean verbose) throws Exception {
+        final CompactionTask task = new CompactionTask();
+        task._treeSelector = TreeSelector.parseSelector(treeSelectorString, regex, '\\');
+        task._fillPercent = fill;
+        task._delay = delay;
+        task.setMessageLogVerbosity(verbose ? LOG_VERBOSE : LOG_NORMAL);
+        return task;
+    }
+
+    /**
+     * Package-private constructor for use in a {@link Task}.
+     */
+    CompactionTask() {
+    }
+
+    public CompactionTask(final Persistit persistit) {
+        super(persistit);
+    }
+
+    @Override
+    protected void runTask() throws Exception {
+        long joins = 0;
+        for (final Tree tree : _persistit.getSelectedTrees(_treeSelector)) {
+            if (tree == tree.getVolume().getDirectoryTree()) {
+                continue;
+            }
+            try {
+                joins += compactTree(tree);
+            } catch (final PersistitException pe) {
+                postMessage(pe.toString(), LOG_NORMAL);
+            }
+        }
+        postMessage(String.format("Joined %,d pages", joins), LOG_NORMAL);
+        endMessage(LOG_NORMAL);
+    }
+
+    /**
+     * Joins underfilled adjacent data pages of the supplied {@link Tree}.
+     * Afterwards {@link #getFillFactorBefore()} and
+     * {@link #getFillFactorAfter()} report the fill factor of the tree's data
+     * pages before and after compaction.
+     *
+     * @param tree
+     *            The tree to compact
+     * @return the number of pages removed by joining
+     * @throws PersistitException
+     */
+    public long compactTree(final Tree tree) throws PersistitException {
+        final Volume volume = tree.getVolume();
+        final BufferPool pool = volume.getStructure().getPool();
+        final Exchange exchange = new Exchange(tree);
+        exchange.ignoreTransactions();
+        final Key key1 = new Key(_persistit);
+        final Key key2 = new Key(_persistit);
+
+        _currentTree = tree;
+        _pagesVisited = 0;
+        _joinCount = 0;
+        final long[] fill = new long[3];
+        measureFill(exchange, fill);
+        _totalPages = fill[0];
+        _fillFactorBefore = fillFactor(fill);
+
+        final long joinLimit = (pool.getBufferSize() - Buffer.DATA_PAGE_OVERHEAD) * (long) _fillPercent / 100;
+        long page = leftmostDataPage(exchange);
+        while (page != 0) {
+            poll();
+            final long rightSibling;
+            final int leftSize;
+            Buffer buffer = pool.get(volume, page, false, true);
+            try {
+                if (!buffer.isDataPage()) {
+                    break;
+                }
+                rightSibling = buffer.getRightSibling();
+                leftSize = buffer.getBufferSize() - buffer.getAvailableSize() - Buffer.DATA_PAGE_OVERHEAD;
+                final int lastRecord = buffer.getKeyBlockEnd() - 2 * Buffer.KEYBLOCK_LENGTH;
+                if (lastRecord >= buffer.getKeyBlockStart()) {
+                    buffer.keyAt(lastRecord, key1);
+                    key1.nudgeDeeper();
+                } else {
+                    key1.clear();
+                }
+            } finally {
+                buffer.release();
+            }
+            if (rightSibling == 0) {
+                break;
+            }
+            final int rightSize;
+            buffer = pool.get(volume, rightSibling, false, true);
+            try {
+                if (!buffer.isDataPage()) {
+                    break;
+                }
+                rightSize = buffer.getBufferSize() - buffer.getAvailableSize() - Buffer.DATA_PAGE_OVERHEAD;
+                buffer.keyAt(buffer.getKeyBlockStart(), key2);
+                key2.nudgeDeeper();
+            } finally {
+                buffer.release();
+            }
+            _pagesVisited++;
+            if (key1.getEncodedSize() > 0 && leftSize + rightSize <= joinLimit && exchange.joinPages(key1, key2)) {
+                /*
+                 * Stay on the same page: it may also absorb its new right
+                 * sibling.
+                 */
+                _joinCount++;
+                if (_delay > 0) {
+                    Util.sleep(_delay);
+                }
+            } else {
+                page = rightSibling;
+            }
+        }
+
+        measureFill(exchange, fill);
+        _fillFactorAfter = fillFactor(fill);
+        postMessage(String.format("Tree %s:%s joined %,d pages - fill factor before %.1f%% after %.1f%%",
+                volume.getName(), tree.getName(), _joinCount, _fillFactorBefore * 100, _fillFactorAfter * 100),
+                LOG_NORMAL);
+        _currentTree = null;
+        return _joinCount;
+    }
+
+    private long leftmostDataPage(final Exchange exchange) throws PersistitException {
+        exchange.clear().append(Key.BEFORE);
+        final Buffer copy = exchange.fetchBufferCopy(0);
+        return copy == null ? 0 : copy.getPageAddress();
+    }
+
+    /**
+     * Walks the data pages of the exchange's tree, one page at a time, to
+     * count the pages, the bytes used and the bytes available for records.
+     */
+    private void measureFill(final Exchange exchange, final long[] fill) throws PersistitException {
+        final Volume volume = exchange.getVolume();
+        final BufferPool pool = volume.getStructure().getPool();
+        fill[0] = fill[1] = fill[2] = 0;
+        long page = leftmostDataPage(exchange);
+        while (page != 0) {
+            poll();
+            final Buffer buffer = pool.get(volume, page, false, true);
+            try {
+                if (!buffer.isDataPage()) {
+                    break;
+                }
+                fill[0]++;
+                fill[1] += buffer.getBufferSize() - buffer.getAvailableSize() - Buffer.DATA_PAGE_OVERHEAD;
+                fill[2] += buffer.getBufferSize() - Buffer.DATA_PAGE_OVERHEAD;
+                page = buffer.getRightSibling();
+            } finally {
+                buffer.release();
+            }
+        }
+    }
+
+    private static double fillFactor(final long[] fill) {
+        return fill[2] == 0 ? 0 : ((double) fill[1]) / ((double) fill[2]);
+    }
+
+    /**
+     * @return the target fill percentage: adjacent pages are joined when
+     *         together they use no more than this percentage of one page
+     */
+    public int getFillPercent() {
+        return _fillPercent;
+    }
+
+    /**
+     * @param fillPercent
+     *            the target fill percentage, from 10 to 100
+     */
+    public void setFillPercent(final int fillPercent) {
+        Util.rangeCheck(fillPercent, 10, 100);
+        _fillPercent = fillPercent;
+    }
+
+    /**
+     * @return the delay in milliseconds after each join
+     */
+    public long getDelay() {
+        return _delay;
+    }
+
+    /**
+     * @param delay
+     *            the delay in milliseconds after each join, used to limit
+     *            the load compaction places on the system
+     */
+    public void setDelay(final long delay) {
+        Util.rangeCheck(delay, 0, Long.MAX_VALUE);
+        _delay = delay;
+    }
+
+    /**
+     * @return the fill factor of the data pages of the most recently compacted
+     *         tree, before compaction
+     */
+    public double getFillFactorBefore() {
+        return _fillFactorBefore;
+    }
+
+    /**
+     * @return the fill factor of the data pages of the most recently compacted
+     *         tree, after compaction
+     */
+    public double getFillFactorAfter() {
+        return _fillFactorAfter;
+    }
+
+    @Override
+    public String getStatus() {
+        final Tree tree = _currentTree;
+        if (tree == null) {
+            return null;
+        }
+        return String.format("%,d/%,d pages joined %,d (%s:%s)", _pagesVisited, _totalPages, _joinCount, tree
+                .getVolume().getName(), tree.getName());
+    }
+}
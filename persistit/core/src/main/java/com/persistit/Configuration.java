@@ -141,6 +141,22 @@ public class Configuration {
      * specified memory allocation, including overhead for FastIndex elements.
      */
     public final static String BUFFER_MEM_PROPERTY_NAME = "buffer.memory.";
+    /**
+     * Property name prefix for specifying the replacement policy of a buffer
+     * pool. The full property name should be one of "1024", "2048", "4096",
+     * "8192" or "16384" appended to this string, e.g., "buffer.policy.8192".
+     * The value is either "CLOCK" (the default) or "2Q".
+     */
+    public final static String BUFFER_POLICY_PROPERTY_NAME = "buffer.policy.";
+    /**
+     * Property name prefix for specifying the number of independently clocked
+     * segments into which a buffer pool is divided. The full property name
+     * should be one of "1024", "2048", "4096", "8192" or "16384" appended to
+     * this string, e.g., "buffer.segments.8192". The default value of zero
+     * causes Persistit to choose a count based on the number of available
+     * processors.
+     */
+    public final static String BUFFER_SEGMENTS_PROPERTY_NAME = "buffer.segments.";
     /**
      * Property name prefix for specifying Volumes. The full property name
      * should be a unique ordinal number appended to this string, e.g.,
@@ -307,6 +323,30 @@ public class Configuration {
      */
     public final static String JOIN_POLICY_PROPERTY_NAME = "joinpolicy";
 
+    /**
+     * Property name to specify the default number of data pages read ahead of
+     * a sequential traversal.
+     */
+    public final static String READ_AHEAD_PROPERTY_NAME = "readahead";
+
+    /**
+     * Property name to specify the number of volumes to which the
+     * JOURNAL_COPIER writes pages concurrently.
+     */
+    public final static String COPIER_THREADS_PROPERTY_NAME = "copierthreads";
+
+    /**
+     * Property name to specify the maximum rate, in KBytes per second, at
+     * which the JOURNAL_COPIER writes pages to volumes.
+     */
+    public final static String COPIER_BANDWIDTH_PROPERTY_NAME = "copierbandwidth";
+
+    /**
+     * Property name to specify the number of threads used to apply
+     * transactions during recovery.
+     */
+    public final static String RECOVERY_THREADS_PROPERTY_NAME = "recoverythreads";
+
     private final static SplitPolicy DEFAULT_SPLIT_POLICY = SplitPolicy.PACK_BIAS;
     private final static JoinPolicy DEFAULT_JOIN_POLICY = JoinPolicy.EVEN_BIAS;
     private final static CommitPolicy DEFAULT_TRANSACTION_COMMIT_POLICY = CommitPolicy.SOFT;
@@ -379,6 +419,8 @@ public class Configuration {
         private long maximumMemory;
         private long reservedMemory;
         private float fraction;
+        private String replacementPolicy = ReplacementPolicy.DEFAULT_POLICY_NAME;
+        private int segmentCount;
 
         private void reset() {
             minimumCount = 0;
@@ -504,6 +546,67 @@ public class Configuration {
             this.fraction = fraction;
         }
 
+        /**
+         * @return the name of the replacement policy
+         */
+        public String getReplacementPolicy() {
+            return replacementPolicy;
+        }
+
+        /**
+         * <p>
+         * Set the policy the buffer pool uses to choose a buffer to evict when
+         * a page that is not in the pool is needed. Valid names are:
+         * <dl>
+         * <dt>CLOCK</dt>
+         * <dd>The CLOCK second-chance algorithm (the default).</dd>
+         * <dt>2Q</dt>
+         * <dd>A scan-resistant variant of CLOCK based on the 2Q algorithm.
+         * Pages read only once, for example by a long traversal, are evicted
+         * before pages that have been re-read after eviction, so that a large
+         * scan does not flush frequently used index pages from the pool.</dd>
+         * </dl>
+         * </p>
+         * 
+         * @param replacementPolicy
+         *            the name of the replacement policy, ignoring case
+         * @throws IllegalArgumentException
+         *             if the name is not valid
+         */
+        public void setReplacementPolicy(final String replacementPolicy) {
+            this.replacementPolicy = ReplacementPolicy.canonicalName(replacementPolicy);
+        }
+
+        /**
+         * @return the number of independently clocked segments, or zero if
+         *         the number is chosen automatically
+         */
+        public int getSegmentCount() {
+            return segmentCount;
+        }
+
+        /**
+         * <p>
+         * Set the number of segments into which the buffer pool is divided.
+         * Each segment has its own clock hand. A search for a buffer to evict
+         * starts in a randomly chosen segment and moves on to the others only
+         * if that segment has no buffer available. Dividing a large pool
+         * reduces contention between threads that miss at the same time.
+         * </p>
+         * <p>
+         * The default value of zero causes Persistit to use one segment per
+         * available processor, subject to each segment having at least 256
+         * buffers.
+         * </p>
+         * 
+         * @param segmentCount
+         *            the number of segments, or zero to choose automatically
+         */
+        public void setSegmentCount(final int segmentCount) {
+            Util.rangeCheck(segmentCount, 0, Integer.MAX_VALUE);
+            this.segmentCount = segmentCount;
+        }
+
         private final static String SIMPLE_COUNT_FORMAT = "count=%d";
         private final static String MIN_MAX_COUNT_FORMAT = "minCount=%d,maxCount=%d";
         private final static String MIN_MAX_MEMORY_FORMAT = "minMem=%s,maxMem=%s,reserved=%s,fraction=%s";
@@ -716,6 +819,10 @@ public class Configuration {
     private boolean appendOnly;
     private boolean bufferInventoryEnabled;
     private boolean bufferPreloadEnabled;
+    private int readAheadPages;
+    private int copierThreads = JournalManager.DEFAULT_COPIER_THREADS;
+    private long copierBandwidth = IOMeter.DEFAULT_COPIER_BANDWIDTH_KBYTES_PER_SEC;
+    private int recoveryThreads = RecoveryManager.DEFAULT_RECOVERY_THREADS;
     private boolean ignoreMissingVolumes;
     private String tmpVolDir;
     private int tmpVolPageSize;
@@ -817,6 +924,11 @@ public class Configuration {
         setSysVolume(getProperty(SYSTEM_VOLUME_PROPERTY_NAME, DEFAULT_SYSTEM_VOLUME_NAME));
         setBufferInventoryEnabled(getBooleanProperty(BUFFER_INVENTORY_PROPERTY_NAME, false));
         setBufferPreloadEnabled(getBooleanProperty(BUFFER_PRELOAD_PROPERTY_NAME, false));
+        setReadAheadPages(getIntegerProperty(READ_AHEAD_PROPERTY_NAME, 0));
+        setCopierThreads(getIntegerProperty(COPIER_THREADS_PROPERTY_NAME, JournalManager.DEFAULT_COPIER_THREADS));
+        setCopierBandwidth(getLongProperty(COPIER_BANDWIDTH_PROPERTY_NAME,
+                IOMeter.DEFAULT_COPIER_BANDWIDTH_KBYTES_PER_SEC));
+        setRecoveryThreads(getIntegerProperty(RECOVERY_THREADS_PROPERTY_NAME, RecoveryManager.DEFAULT_RECOVERY_THREADS));
         setUseOldVSpec(getBooleanProperty(USE_OLD_VSPEC, false));
 
         loadPropertiesBufferSpecifications();
@@ -829,9 +941,12 @@ public class Configuration {
 
             final String countPropertyName = BUFFERS_PROPERTY_NAME + size;
             final String memPropertyName = BUFFER_MEM_PROPERTY_NAME + size;
+            final String policyPropertyName = BUFFER_POLICY_PROPERTY_NAME + size;
+            final String segmentsPropertyName = BUFFER_SEGMENTS_PROPERTY_NAME + size;
 
             final String countSpec = getProperty(countPropertyName);
             final String memSpec = getProperty(memPropertyName);
+            final String policySpec = getProperty(policyPropertyName);
             int count = 0;
             final BufferPoolConfiguration bpc = bufferPoolMap.get(size);
 
@@ -850,6 +965,8 @@ public class Configuration {
             } else if (count == 0) {
                 bpc.reset();
             }
+            bpc.setReplacementPolicy(policySpec == null ? ReplacementPolicy.DEFAULT_POLICY_NAME : policySpec);
+            bpc.setSegmentCount(getIntegerProperty(segmentsPropertyName, 0));
         }
     }
 
@@ -2037,6 +2154,139 @@ public class Configuration {
         this.bufferPreloadEnabled = bufferPreloadEnabled;
     }
 
+    /**
+     * Return the value defined by {@link #setReadAheadPages(int)}
+     * 
+     * @return the default number of data pages read ahead of a sequential
+     *         traversal
+     */
+    public int getReadAheadPages() {
+        return readAheadPages;
+    }
+
+    /**
+     * <p>
+     * Set the default number of data pages Persistit reads ahead of an
+     * {@link Exchange} that traverses a tree sequentially. When an
+     * <code>Exchange</code> moves from one data page to its right sibling twice
+     * in succession, Persistit looks up the addresses of the following pages
+     * in the index page above them and reads those not already in the buffer
+     * pool on a background thread. Zero disables read-ahead. The value may be
+     * overridden for an individual {@link Tree} or <code>Exchange</code>.
+     * </p>
+     * <p>
+     * Default value is 0<br />
+     * Property name is {@value #READ_AHEAD_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param readAheadPages
+     *            the number of pages, between 0 and 256
+     * @see Tree#setReadAheadPages(int)
+     * @see Exchange#setReadAheadPages(int)
+     */
+    public void setReadAheadPages(final int readAheadPages) {
+        this.readAheadPages = Util.rangeCheck(readAheadPages, 0, ReadAheadManager.MAXIMUM_READ_AHEAD_PAGES);
+    }
+
+    /**
+     * Return the value defined by {@link #setCopierThreads(int)}
+     * 
+     * @return the number of volumes to which pages are copied concurrently
+     */
+    public int getCopierThreads() {
+        return copierThreads;
+    }
+
+    /**
+     * <p>
+     * Set the maximum number of volumes to which the JOURNAL_COPIER thread
+     * writes pages concurrently. Each cycle of the copier reads a batch of
+     * page images from the journal, sorts them by volume and page address,
+     * and writes each run of consecutive pages with a single operation. When
+     * the batch contains pages of more than one volume, up to this many
+     * threads write to different volumes at the same time, which helps when
+     * the volumes reside on different devices.
+     * </p>
+     * <p>
+     * Default value is 1<br />
+     * Property name is {@value #COPIER_THREADS_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param copierThreads
+     *            the number of threads, between 1 and 64
+     */
+    public void setCopierThreads(final int copierThreads) {
+        this.copierThreads = Util.rangeCheck(copierThreads, JournalManager.MINIMUM_COPIER_THREADS,
+                JournalManager.MAXIMUM_COPIER_THREADS);
+    }
+
+    /**
+     * Return the value defined by {@link #setCopierBandwidth(long)}
+     * 
+     * @return the maximum copying rate in KBytes per second, or 0 if
+     *         unlimited
+     */
+    public long getCopierBandwidth() {
+        return copierBandwidth;
+    }
+
+    /**
+     * <p>
+     * Set the maximum rate, in KBytes per second, at which the JOURNAL_COPIER
+     * writes pages to volume files, so that copying does not starve
+     * foreground reads of I/O bandwidth. The limit does not apply while
+     * copying is urgent, that is, once the journal has grown to the point
+     * where application threads are being throttled, or while
+     * {@link Persistit#copyBackPages()} is in progress. Zero means there is no
+     * limit. The value can be changed at runtime through
+     * {@link com.persistit.mxbeans.IOMeterMXBean#setCopierBandwidth(long)}.
+     * </p>
+     * <p>
+     * Default value is 0<br />
+     * Property name is {@value #COPIER_BANDWIDTH_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param copierBandwidth
+     *            the maximum rate in KBytes per second
+     */
+    public void setCopierBandwidth(final long copierBandwidth) {
+        this.copierBandwidth = Util.rangeCheck(copierBandwidth, IOMeter.MINIMUM_COPIER_BANDWIDTH_KBYTES_PER_SEC,
+                IOMeter.MAXIMUM_COPIER_BANDWIDTH_KBYTES_PER_SEC);
+    }
+
+    /**
+     * Return the value defined by {@link #setRecoveryThreads(int)}
+     * 
+     * @return the number of threads used to apply recovered transactions
+     */
+    public int getRecoveryThreads() {
+        return recoveryThreads;
+    }
+
+    /**
+     * <p>
+     * Set the number of threads used to apply committed transactions from the
+     * journal during recovery after an unclean shutdown. With more than one
+     * thread, transactions that each update a single tree are applied
+     * concurrently, with all transactions on any one tree applied by the same
+     * thread in commit order. Transactions that update several trees, remove
+     * a tree or update a directory tree are applied one at a time after all
+     * earlier transactions. Progress can be observed through
+     * {@link com.persistit.mxbeans.RecoveryManagerMXBean}.
+     * </p>
+     * <p>
+     * Default value is 1<br />
+     * Property name is {@value #RECOVERY_THREADS_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param recoveryThreads
+     *            the number of threads, between 1 and 64
+     */
+    public void setRecoveryThreads(final int recoveryThreads) {
+        this.recoveryThreads = Util.rangeCheck(recoveryThreads, RecoveryManager.MINIMUM_RECOVERY_THREADS,
+                RecoveryManager.MAXIMUM_RECOVERY_THREADS);
+    }
+
     /**
      * Return the value defined by {@link #setIgnoreMissingVolumes(boolean)}
      * 
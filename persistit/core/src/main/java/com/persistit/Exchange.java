@@ -294,6 +294,13 @@ public class Exchange implements ReadOnlyExchange {
   private boolean _storeCausedSplit;
   private int _keysVisitedDuringTraverse;
 
+  private int _readAheadPages = -1;
+  private long _readAheadLastPage;
+  private int _readAheadRun;
+  private long _readAheadIndexPage;
+  private long _readAheadIssuedPage;
+  private int _readAheadIssuedAhead;
+
   private Object _appCache;
 
   private ReentrantResourceHolder _treeHolder;
@@ -445,6 +452,7 @@ public class Exchange implements ReadOnlyExchange {
       _isDirectoryExchange = tree == _volume.getDirectoryTree();
       initCache();
     }
+    _readAheadPages = -1;
     _splitPolicy = _persistit.getDefaultSplitPolicy();
     _joinPolicy = _persistit.getDefaultJoinPolicy();
   }
@@ -474,6 +482,7 @@ public class Exchange implements ReadOnlyExchange {
     exchange._value.copyTo(_value);
     _splitPolicy = exchange._splitPolicy;
     _joinPolicy = exchange._joinPolicy;
+    _readAheadPages = exchange._readAheadPages;
   }
 
   void removeState(final boolean secure) {
@@ -486,6 +495,8 @@ public class Exchange implements ReadOnlyExchange {
     _transaction = null;
     _ignoreTransactions = false;
     _ignoreMVCCFetch = false;
+    _readAheadPages = -1;
+    resetReadAhead();
     _splitPolicy = _persistit.getDefaultSplitPolicy();
     _joinPolicy = _persistit.getDefaultJoinPolicy();
     _treeHolder.verifyReleased();
@@ -501,6 +512,7 @@ public class Exchange implements ReadOnlyExchange {
         _levelCache[level].invalidate();
       else _levelCache[level] = new LevelCache(level);
     }
+    resetReadAhead();
   }
 
   private void checkLevelCache() throws PersistitException {
@@ -521,6 +533,7 @@ public class Exchange implements ReadOnlyExchange {
         final LevelCache lc = _levelCache[index];
         lc.invalidate();
       }
+      resetReadAhead();
     }
   }
 
@@ -2184,6 +2197,7 @@ public class Exchange implements ReadOnlyExchange {
             if (rightSiblingPage > 0) {
               final Buffer rightSibling = _pool.get(_volume, rightSiblingPage, false, true,
                 _timeoutMillis);
+              final long fromPage = buffer.getPageAddress();
               buffer.releaseTouched();
               //
               // Reset foundAtNext to point to the first key block
@@ -2191,6 +2205,7 @@ public class Exchange implements ReadOnlyExchange {
               //
               buffer = rightSibling;
               checkPageType(buffer, PAGE_TYPE_DATA, false);
+              readAhead(fromPage, rightSiblingPage);
               foundAt = buffer.traverse(_key, dir, buffer.toKeyBlock(0));
               matches = !buffer.isAfterRightEdge(foundAt);
             } else {
@@ -3156,6 +3171,170 @@ public class Exchange implements ReadOnlyExchange {
     }
   }
 
+  /**
+   * Fetches the values associated with each of the supplied keys into the
+   * corresponding elements of <code>values</code>. This is equivalent to
+   * calling {@link #fetch(Value)} once for each key, except that the keys are
+   * visited in key order and a data page is searched from the root only when
+   * a key lies beyond the page that held the previous key. While successive
+   * keys lie on the same page the claim on that page is held and reused.
+   * Neither the <code>Exchange</code>'s {@link Key} nor its {@link Value} is
+   * changed.
+   *
+   * @param keys
+   *            the keys to fetch; need not be sorted
+   * @param values
+   *            the <code>Value</code>s into which the database values should
+   *            be fetched; <code>values[i]</code> receives the value of
+   *            <code>keys[i]</code>
+   * @return the number of keys that had a value
+   * @throws PersistitException
+   */
+  public int fetch(final Key[] keys, final Value[] values) throws PersistitException {
+    return fetch(keys, values, null);
+  }
+
+  /**
+   * Fetches the values associated with each of the supplied keys selected by
+   * a {@link KeyFilter} into the corresponding elements of
+   * <code>values</code>. See {@link #fetch(Key[], Value[])}. The value
+   * corresponding to a key that is not selected by the filter is cleared
+   * without searching the tree.
+   *
+   * @param keys
+   *            the keys to fetch; need not be sorted
+   * @param values
+   *            the <code>Value</code>s into which the database values should
+   *            be fetched; <code>values[i]</code> receives the value of
+   *            <code>keys[i]</code>
+   * @param filter
+   *            the <code>KeyFilter</code>, or <code>null</code> to fetch
+   *            every key
+   * @return the number of keys that had a value
+   * @throws PersistitException
+   */
+  public int fetch(final Key[] keys, final Value[] values, final KeyFilter filter) throws PersistitException {
+    assertCorrectThread(true);
+    _persistit.checkClosed();
+    checkBatch(keys, values);
+
+    final int[] order = sortedOrder(keys);
+    int count = 0;
+    Buffer buffer = null;
+    try {
+      for (final int index : order) {
+        final Key key = keys[index];
+        final Value value = values[index];
+        if (filter != null && !filter.selected(key)) {
+          value.clear();
+          continue;
+        }
+        int foundAt;
+        if (buffer == null) {
+          foundAt = search(key, false);
+          buffer = _levelCache[0]._buffer;
+        } else {
+          foundAt = buffer.findKey(key);
+          if (buffer.isBeforeLeftEdge(foundAt) || buffer.isAfterRightEdge(foundAt)) {
+            /*
+             * The key is beyond this page: the level cache can only
+             * offer this page again, so descend from the root.
+             */
+            buffer.releaseTouched();
+            buffer = null;
+            foundAt = searchTree(key, 0, false);
+            buffer = _levelCache[0]._buffer;
+          }
+        }
+        if (fetchFromBufferInternal(buffer, value, foundAt, Integer.MAX_VALUE) && value.isDefined()) {
+          count++;
+        }
+        _volume.getStatistics().bumpFetchCounter();
+        _tree.getStatistics().bumpFetchCounter();
+      }
+    } finally {
+      if (buffer != null) {
+        buffer.releaseTouched();
+      }
+      _treeHolder.verifyReleased();
+    }
+    return count;
+  }
+
+  /**
+   * Inserts or replaces the value associated with each of the supplied keys.
+   * This is equivalent to calling {@link #store()} once for each key and
+   * value, except that the keys are stored in key order. Successive keys
+   * therefore usually fall on the data page found by the previous store,
+   * which is then located through the level cache rather than by a search
+   * from the root, and a run of keys appended to the end of a tree is split
+   * using the sequential insert policy. Neither the <code>Exchange</code>'s
+   * {@link Key} nor its {@link Value} is changed.
+   *
+   * @param keys
+   *            the keys to store; need not be sorted
+   * @param values
+   *            the values to store; <code>values[i]</code> is stored under
+   *            <code>keys[i]</code>
+   * @return This <code>Exchange</code> to permit method call chaining
+   * @throws PersistitException
+   */
+  public Exchange store(final Key[] keys, final Value[] values) throws PersistitException {
+    checkBatch(keys, values);
+    for (final int index : sortedOrder(keys)) {
+      store(keys[index], values[index]);
+    }
+    return this;
+  }
+
+  private void checkBatch(final Key[] keys, final Value[] values) throws PersistitException {
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException("Found " + keys.length + " keys but " + values.length + " values");
+    }
+    for (final Key key : keys) {
+      key.testValidForStoreAndFetch(_volume.getPageSize());
+    }
+  }
+
+  /**
+   * @return the indexes of <code>keys</code> in ascending key order
+   */
+  private static int[] sortedOrder(final Key[] keys) {
+    final int[] order = new int[keys.length];
+    boolean sorted = true;
+    for (int index = 0; index < keys.length; index++) {
+      order[index] = index;
+      if (index > 0 && sorted && keys[index - 1].compareTo(keys[index]) > 0) {
+        sorted = false;
+      }
+    }
+    if (!sorted) {
+      mergeSort(keys, order, order.clone(), 0, keys.length);
+    }
+    return order;
+  }
+
+  /**
+   * Sort <code>order[from..to)</code> by the keys it indexes. On entry
+   * <code>scratch</code> holds the same indexes as <code>order</code>.
+   */
+  private static void mergeSort(final Key[] keys, final int[] order, final int[] scratch, final int from,
+    final int to) {
+    if (to - from < 2) {
+      return;
+    }
+    final int middle = (from + to) >>> 1;
+    mergeSort(keys, scratch, order, from, middle);
+    mergeSort(keys, scratch, order, middle, to);
+    for (int i = from, left = from, right = middle; i < to; i++) {
+      if (right == to || left < middle && keys[scratch[left]].compareTo(keys[scratch[right]]) <= 0) {
+        order[i] = scratch[left++];
+      } else {
+        order[i] = scratch[right++];
+      }
+    }
+  }
+
   boolean isLongRecord(final Value value) {
     return value.isDefined() && Buffer.isLongRecord(value.getEncodedBytes(), 0, value.getEncodedSize());
   }
@@ -3476,6 +3655,32 @@ public class Exchange implements ReadOnlyExchange {
    */
   boolean raw_removeKeyRangeInternal(final Key key1, final Key key2, final boolean fetchFirst,
     final boolean removeOnlyAntiValue) throws PersistitException {
+    return raw_removeKeyRangeInternal(key1, key2, fetchFirst, removeOnlyAntiValue, false);
+  }
+
+  /**
+   * Joins the data page containing <code>key1</code> with its right sibling
+   * without removing any records. Nothing is changed unless, once the pages
+   * are claimed, <code>key1</code> falls after the last record of the left
+   * page, the first key of the right page is the one <code>key2</code> was
+   * derived from and the current {@link JoinPolicy} accepts the combined
+   * page. Used by {@link CompactionTask}.
+   *
+   * @param key1
+   *            Key that is greater than the last record of the left page
+   * @param key2
+   *            The first key of the right page, modified by
+   *            {@link Key#nudgeDeeper()} so that the index entry for the
+   *            right page falls within the range
+   * @return <code>true</code> if the pages were joined
+   * @throws PersistitException
+   */
+  boolean joinPages(final Key key1, final Key key2) throws PersistitException {
+    return raw_removeKeyRangeInternal(key1, key2, false, false, true);
+  }
+
+  private boolean raw_removeKeyRangeInternal(final Key key1, final Key key2, final boolean fetchFirst,
+    final boolean removeOnlyAntiValue, final boolean joinOnly) throws PersistitException {
     /*
      * _spareKey1 and _spareKey2 are mutated within the method and are then
      * wrong in the event of a retry loop.
@@ -3497,9 +3702,9 @@ public class Exchange implements ReadOnlyExchange {
     boolean result = false;
 
     boolean deallocationRequired = true; // assume until proven false
-    boolean tryQuickDelete = true;
+    boolean tryQuickDelete = !joinOnly;
 
-    if (!_ignoreTransactions) {
+    if (!_ignoreTransactions && !joinOnly) {
       _transaction.remove(this, key1, key2);
     }
 
@@ -3671,6 +3876,12 @@ public class Exchange implements ReadOnlyExchange {
             result = false;
             break;
           }
+          if (joinOnly
+            && (!isPageBoundary(lc._leftBuffer, lc._leftFoundAt, lc._rightBuffer, lc._rightFoundAt) || !lc._leftBuffer
+              .canJoin(lc._rightBuffer, _joinPolicy))) {
+            result = false;
+            break;
+          }
 
           if (fetchFirst) {
             removeFetchFirst(lc._leftBuffer, lc._leftFoundAt, lc._rightBuffer, lc._rightFoundAt);
@@ -3691,6 +3902,13 @@ public class Exchange implements ReadOnlyExchange {
             int foundAt2 = lc._rightFoundAt;
             foundAt1 &= P_MASK;
             foundAt2 &= P_MASK;
+            if (joinOnly && level == 0) {
+              /*
+               * Keep the first record of the right page: it lies between
+               * the first key and key2.
+               */
+              foundAt2 = buffer2.getKeyBlockStart();
+            }
 
             boolean needsReindex = false;
             buffer1.writePageOnCheckpoint(timestamp);
@@ -3980,6 +4198,16 @@ public class Exchange implements ReadOnlyExchange {
     return buffer2.isPrimordialAntiValue(Buffer.KEY_BLOCK_START);
   }
 
+  private boolean isPageBoundary(final Buffer buffer1, final int foundAt1, final Buffer buffer2, final int foundAt2) {
+    if (buffer1 == buffer2 || buffer1.getRightSibling() != buffer2.getPageAddress()) {
+      return false;
+    }
+    if (buffer1.getKeyBlockEnd() != (foundAt1 & P_MASK) + KEYBLOCK_LENGTH) {
+      return false;
+    }
+    return (foundAt2 & EXACT_MASK) == 0 && (foundAt2 & P_MASK) == buffer2.getKeyBlockStart() + KEYBLOCK_LENGTH;
+  }
+
   void prune() throws PersistitException {
     prune(_key);
   }
@@ -4345,6 +4573,140 @@ public class Exchange implements ReadOnlyExchange {
     _timeoutMillis = Util.rangeCheck(timeout, 0, Long.MAX_VALUE);
   }
 
+  /**
+   * @return The number of data pages read ahead of a sequential traversal by
+   *         this <code>Exchange</code>. This is the value set by
+   *         {@link #setReadAheadPages(int)} or, if none was set, the value set
+   *         on the <code>Tree</code> or, if none was set there, the
+   *         {@link Persistit#getDefaultReadAheadPages() default}.
+   */
+  public int getReadAheadPages() {
+    if (_readAheadPages >= 0) {
+      return _readAheadPages;
+    }
+    final int treePages = _tree.getReadAheadPages();
+    if (treePages >= 0) {
+      return treePages;
+    }
+    return _persistit.getDefaultReadAheadPages();
+  }
+
+  /**
+   * <p>
+   * Set the number of data pages read ahead of a sequential traversal. When
+   * the {@link #traverse} methods follow the chain of data pages from left to
+   * right through two or more consecutive pages, this <code>Exchange</code>
+   * requests that a background thread read up to <code>pages</code> pages
+   * beyond the current page into the buffer pool so that the traversal does
+   * not wait for each page to be read from disk. Read-ahead is advisory: it
+   * has no effect on the result of any operation.
+   * </p>
+   * <p>
+   * The setting lasts until this <code>Exchange</code> is returned to the pool
+   * or initialized for a different <code>Tree</code>.
+   * </p>
+   *
+   * @param pages
+   *            The number of pages, between 0 and 256, or -1 to apply the
+   *            value set on the <code>Tree</code>. Zero disables read-ahead.
+   * @see Tree#setReadAheadPages(int)
+   */
+  public void setReadAheadPages(final int pages) {
+    assertCorrectThread(true);
+    _readAheadPages = Util.rangeCheck(pages, -1, ReadAheadManager.MAXIMUM_READ_AHEAD_PAGES);
+  }
+
+  private void resetReadAhead() {
+    _readAheadLastPage = 0;
+    _readAheadRun = 0;
+    _readAheadIndexPage = 0;
+    _readAheadIssuedPage = 0;
+    _readAheadIssuedAhead = 0;
+  }
+
+  /**
+   * Called when a traversal moves from a data page to its right sibling. Once
+   * two consecutive moves have been seen, look up the addresses of the
+   * following data pages in the level-1 index page and offer them to the
+   * {@link ReadAheadManager}. A new batch is requested only after the
+   * traversal has consumed half of the previous one. Any failure simply
+   * abandons the read-ahead.
+   *
+   * @param fromPage
+   *            the data page the traversal is leaving
+   * @param toPage
+   *            the right sibling the traversal is entering
+   */
+  private void readAhead(final long fromPage, final long toPage) {
+    final int pages = getReadAheadPages();
+    if (pages == 0 || _cacheDepth < 2) {
+      return;
+    }
+    if (fromPage == _readAheadLastPage) {
+      _readAheadRun++;
+    } else {
+      _readAheadRun = 1;
+      _readAheadIssuedPage = 0;
+      _readAheadIssuedAhead = 0;
+    }
+    _readAheadLastPage = toPage;
+    if (_readAheadIssuedAhead > 0) {
+      _readAheadIssuedAhead--;
+    }
+    if (_readAheadRun < 2 || _readAheadIssuedAhead > pages / 2) {
+      return;
+    }
+    final ReadAheadManager manager = _persistit.getReadAheadManager();
+    if (manager == null) {
+      return;
+    }
+    try {
+      long indexPage = _readAheadIndexPage != 0 ? _readAheadIndexPage : _levelCache[1]._page;
+      final long startPage = _readAheadIssuedPage != 0 ? _readAheadIssuedPage : toPage;
+      int ahead = _readAheadIssuedPage != 0 ? _readAheadIssuedAhead : 0;
+      boolean found = false;
+      //
+      // The pages may be listed in this index page or its right sibling
+      //
+      for (int step = 0; step < 2 && indexPage > 0 && ahead < pages; step++) {
+        //
+        // Zero timeout: the traversal already holds a claim on a data page,
+        // so do not wait for a parent page another thread has claimed.
+        //
+        final Buffer buffer = _pool.get(_volume, indexPage, false, true, 0);
+        try {
+          if (buffer.getPageType() != PAGE_TYPE_DATA + 1) {
+            break;
+          }
+          for (int p = buffer.toKeyBlock(0); p != -1 && ahead < pages; p = buffer.nextKeyBlock(p)) {
+            final long page = buffer.getPointer(p);
+            if (page <= 0) {
+              break;
+            }
+            if (found) {
+              manager.offer(_volume, page);
+              _readAheadIssuedPage = page;
+              ahead++;
+            } else if (page == startPage) {
+              found = true;
+              _readAheadIndexPage = indexPage;
+            }
+          }
+          indexPage = buffer.getRightSibling();
+        } finally {
+          buffer.release();
+        }
+      }
+      if (found) {
+        _readAheadIssuedAhead = ahead;
+      } else {
+        resetReadAhead();
+      }
+    } catch (final PersistitException e) {
+      resetReadAhead();
+    }
+  }
+
   /**
    * Returns a copy of either the data page or a page on the index path to the
    * data page containing the current key. This method looks up the current
@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.persistit.exception.PersistitInterruptedException;
 import com.persistit.mxbeans.IOMeterMXBean;
 import com.persistit.util.ArgParser;
 import com.persistit.util.Util;
@@ -63,6 +64,14 @@ class IOMeter implements IOMeterMXBean {
     private final static int MINIMUM_QUIESCENT_IO_THRESHOLD_KBYTES_PER_SEC = 0;
     private final static int MAXIMUM_QUIESCENT_IO_THRESHOLD_KBYTES_PER_SEC = 1000000;
 
+    final static long DEFAULT_COPIER_BANDWIDTH_KBYTES_PER_SEC = 0;
+    final static long MINIMUM_COPIER_BANDWIDTH_KBYTES_PER_SEC = 0;
+    final static long MAXIMUM_COPIER_BANDWIDTH_KBYTES_PER_SEC = 100000000;
+    /**
+     * Interval of unused copier bandwidth that may be consumed in a burst
+     */
+    private final static long COPIER_BURST = SECOND / 10;
+
     private final static int READ_PAGE_FROM_VOLUME = 1;
     private final static int READ_PAGE_FROM_JOURNAL = 2;
     private final static int COPY_PAGE_FROM_JOURNAL = 3;
@@ -73,11 +82,25 @@ class IOMeter implements IOMeterMXBean {
     private final static int EVICT_PAGE_FROM_POOL = 8;
     private final static int FLUSH_JOURNAL = 9;
     private final static int GET_PAGE = 10;
+    private final static int PREFETCH_PAGE = 11;
+    private final static int PREFETCH_HIT = 12;
+    private final static int PREFETCH_WASTE = 13;
 
-    private final static int ITEM_COUNT = 11;
+    private final static int ITEM_COUNT = 14;
 
     private long _quiescentIOthreshold = DEFAULT_QUIESCENT_IO_THRESHOLD_KBYTES_PER_SEC;
 
+    private volatile long _copierBandwidth = DEFAULT_COPIER_BANDWIDTH_KBYTES_PER_SEC;
+
+    private final Object _copierThrottleLock = new Object();
+
+    /**
+     * Time, in System.nanoTime() units, at which all bytes copied so far
+     * will have been written at the copier bandwidth. Guarded by
+     * _copierThrottleLock.
+     */
+    private long _copierReadyTime;
+
     private final AtomicReference<DataOutputStream> _logStream = new AtomicReference<DataOutputStream>();
 
     private String _logFileName;
@@ -175,6 +198,62 @@ class IOMeter implements IOMeterMXBean {
                 MAXIMUM_QUIESCENT_IO_THRESHOLD_KBYTES_PER_SEC);
     }
 
+    /**
+     * @return the copierBandwidth
+     * @see #setCopierBandwidth(long)
+     */
+    @Override
+    public long getCopierBandwidth() {
+        return _copierBandwidth;
+    }
+
+    /**
+     * Limit the rate, in KBytes per second, at which the JOURNAL_COPIER writes
+     * pages to volume files so that copying does not starve foreground reads
+     * of I/O bandwidth. The limit is lifted while copying is urgent, i.e.,
+     * when the journal has grown to the point where application threads are
+     * throttled, or when copy-fast mode is enabled. Zero means there is no
+     * limit.
+     * 
+     * @param copierBandwidth
+     *            the copierBandwidth to set
+     */
+    @Override
+    public void setCopierBandwidth(final long copierBandwidth) {
+        _copierBandwidth = Util.rangeCheck(copierBandwidth, MINIMUM_COPIER_BANDWIDTH_KBYTES_PER_SEC,
+                MAXIMUM_COPIER_BANDWIDTH_KBYTES_PER_SEC);
+    }
+
+    /**
+     * Called by the JOURNAL_COPIER before it writes <code>size</code> bytes
+     * to a volume file. Delays the calling thread as needed to keep the rate
+     * of copying within the copier bandwidth, allowing a short burst after
+     * an idle period.
+     * 
+     * @param size
+     *            number of bytes about to be written
+     * @param urgency
+     *            the urgency of copying, from
+     *            {@link JournalManager#urgency()}
+     * @throws PersistitInterruptedException
+     */
+    void throttleCopy(final int size, final int urgency) throws PersistitInterruptedException {
+        final long bandwidth = _copierBandwidth;
+        if (bandwidth == 0 || urgency >= JournalManager.URGENT) {
+            return;
+        }
+        final long delay;
+        synchronized (_copierThrottleLock) {
+            final long now = System.nanoTime();
+            final long start = Math.max(_copierReadyTime, now - COPIER_BURST);
+            _copierReadyTime = start + size * SECOND / (bandwidth * KILO);
+            delay = _copierReadyTime - now;
+        }
+        if (delay >= Util.NS_PER_MS) {
+            Util.sleep(delay / Util.NS_PER_MS);
+        }
+    }
+
     /**
      * @return the ioRate
      */
@@ -357,6 +436,24 @@ class IOMeter implements IOMeterMXBean {
         log(GET_PAGE, volume, pageAddress, size, 0, bufferIndex);
     }
 
+    public void chargePrefetchPage(final Volume volume, final long pageAddress, final int size,
+            final int bufferIndex) {
+        log(PREFETCH_PAGE, volume, pageAddress, size, 0, bufferIndex);
+        charge(size, PREFETCH_PAGE);
+    }
+
+    public void chargePrefetchHit(final Volume volume, final long pageAddress, final int size,
+            final int bufferIndex) {
+        log(PREFETCH_HIT, volume, pageAddress, size, 0, bufferIndex);
+        charge(size, PREFETCH_HIT);
+    }
+
+    public void chargePrefetchWaste(final Volume volume, final long pageAddress, final int size,
+            final int bufferIndex) {
+        log(PREFETCH_WASTE, volume, pageAddress, size, 0, bufferIndex);
+        charge(size, PREFETCH_WASTE);
+    }
+
     @Override
     public long totalOperations(final String opName) {
         return totalOperations(op(opName));
@@ -420,7 +517,11 @@ class IOMeter implements IOMeterMXBean {
                 break;
             }
             for (int item = 0; item < ITEM_COUNT; item++) {
-                if (item != COPY_PAGE_TO_VOLUME) {
+                //
+                // Prefetch reads are already charged as volume reads, and
+                // prefetch hits and waste are not I/O operations
+                //
+                if (item != COPY_PAGE_TO_VOLUME && item < PREFETCH_PAGE) {
                     charge += _counters[item][bucket].sum();
                 }
             }
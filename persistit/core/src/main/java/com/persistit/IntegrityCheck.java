@@ -18,6 +18,7 @@ package com.persistit;
 
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Locale;
 
 import com.persistit.Buffer.VerifyVisitor;
 import com.persistit.CLI.Arg;
@@ -89,6 +90,7 @@ public class IntegrityCheck extends Task {
         private long _dataPageCount = 0;
         private long _indexBytesInUse = 0;
         private long _dataBytesInUse = 0;
+        private long _dataBytesAvailable = 0;
         private long _longRecordPageCount = 0;
         private long _longRecordBytesInUse = 0;
         private long _indexHoleCount = 0;
@@ -109,6 +111,7 @@ public class IntegrityCheck extends Task {
             _dataPageCount = counters._dataPageCount;
             _indexBytesInUse = counters._indexBytesInUse;
             _dataBytesInUse = counters._dataBytesInUse;
+            _dataBytesAvailable = counters._dataBytesAvailable;
             _longRecordPageCount = counters._longRecordPageCount;
             _longRecordBytesInUse = counters._longRecordBytesInUse;
             _indexHoleCount = counters._indexHoleCount;
@@ -126,6 +129,7 @@ public class IntegrityCheck extends Task {
             _dataPageCount = counters._dataPageCount - _dataPageCount;
             _indexBytesInUse = counters._indexBytesInUse - _indexBytesInUse;
             _dataBytesInUse = counters._dataBytesInUse - _dataBytesInUse;
+            _dataBytesAvailable = counters._dataBytesAvailable - _dataBytesAvailable;
             _longRecordPageCount = counters._longRecordPageCount - _longRecordPageCount;
             _longRecordBytesInUse = counters._longRecordBytesInUse - _longRecordBytesInUse;
             _indexHoleCount = counters._indexHoleCount - _indexHoleCount;
@@ -140,21 +144,27 @@ public class IntegrityCheck extends Task {
 
         @Override
         public String toString() {
-            return String.format("Index pages/bytes: %,d / %,d Data pages/bytes: %,d / %,d"
+            return String.format("Index pages/bytes: %,d / %,d Data pages/bytes/fill: %,d / %,d / %.1f%%"
                     + " LongRec pages/bytes: %,d / %,d  MVV pages/records/bytes/antivalues: "
                     + "%,d / %,d / %,d / %,d  Holes %,d Pages pruned %,d", _indexPageCount, _indexBytesInUse,
-                    _dataPageCount, _dataBytesInUse, _longRecordPageCount, _longRecordBytesInUse, _mvvPageCount,
-                    _mvvCount, _mvvOverhead, _mvvAntiValues, _indexHoleCount, _prunedPageCount);
+                    _dataPageCount, _dataBytesInUse, fillFactor() * 100, _longRecordPageCount,
+                    _longRecordBytesInUse, _mvvPageCount, _mvvCount, _mvvOverhead, _mvvAntiValues, _indexHoleCount,
+                    _prunedPageCount);
+        }
+
+        private double fillFactor() {
+            return _dataBytesAvailable == 0 ? 0 : ((double) _dataBytesInUse) / ((double) _dataBytesAvailable);
         }
 
         private String toCSV() {
-            return String.format("%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d", _indexPageCount, _indexBytesInUse,
-                    _dataPageCount, _dataBytesInUse, _longRecordPageCount, _longRecordBytesInUse, _mvvPageCount,
-                    _mvvCount, _mvvOverhead, _mvvAntiValues, _indexHoleCount, _prunedPageCount);
+            return String.format(Locale.ROOT, "%d,%d,%d,%d,%.4f,%d,%d,%d,%d,%d,%d,%d,%d", _indexPageCount,
+                    _indexBytesInUse, _dataPageCount, _dataBytesInUse, fillFactor(), _longRecordPageCount,
+                    _longRecordBytesInUse, _mvvPageCount, _mvvCount, _mvvOverhead, _mvvAntiValues, _indexHoleCount,
+                    _prunedPageCount);
         }
 
         private final static String CSV_HEADERS = "IndexPages,IndexBytes,"
-                + "DataPages,DataBytes,LongRecordPages,LongRecordBytes,MvvPages,"
+                + "DataPages,DataBytes,DataFillFactor,LongRecordPages,LongRecordBytes,MvvPages,"
                 + "MvvRecords,MvvOverhead,MvvAntiValues,IndexHoles,PrunedPages";
 
     }
@@ -517,6 +527,18 @@ public class IntegrityCheck extends Task {
         return _counters._dataBytesInUse;
     }
 
+    /**
+     * Returns the fill factor of the data pages traversed during the integrity
+     * checking process: the bytes in use divided by the bytes the pages could
+     * hold, excluding page structure overhead. Compare
+     * {@link CompactionTask}, which joins underfilled data pages.
+     * 
+     * @return The fill factor, from 0.0 to 1.0
+     */
+    public double getDataFillFactor() {
+        return _counters.fillFactor();
+    }
+
     /**
      * Returns the total count of bytes in use (not page structure overhead) in
      * long record pages traversed during the integrity checking process.
@@ -949,6 +971,7 @@ public class IntegrityCheck extends Task {
                 if (buffer.isDataPage()) {
                     _counters._dataPageCount++;
                     _counters._dataBytesInUse += (buffer.getBufferSize() - buffer.getAvailableSize() - Buffer.DATA_PAGE_OVERHEAD);
+                    _counters._dataBytesAvailable += (buffer.getBufferSize() - Buffer.DATA_PAGE_OVERHEAD);
 
                     for (int p = Buffer.KEY_BLOCK_START;; p += Buffer.KEYBLOCK_LENGTH) {
                         p = buffer.nextLongRecord(_value, p);
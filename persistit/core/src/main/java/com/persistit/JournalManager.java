@@ -33,14 +33,26 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -89,6 +101,11 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     private final static int TOO_MANY_ERROR_THRESHOLD = 10;
     private final static long KILO = 1024;
 
+    /**
+     * Time an idle thread helping the JOURNAL_COPIER is retained
+     */
+    private final static long COPIER_THREAD_KEEP_ALIVE_MS = 30000;
+
     /**
      * REGEX expression that recognizes the name of a journal file.
      */
@@ -96,11 +113,11 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private long _journalCreatedTime;
 
-    private final Map<PageNode, PageNode> _pageMap = new HashMap<PageNode, PageNode>();
+    private final PageMap _pageMap = new PageMap();
 
     private final RangeRemovingArrayList<PageNode> _pageList = new RangeRemovingArrayList<PageNode>();
 
-    private final Map<PageNode, PageNode> _branchMap = new HashMap<PageNode, PageNode>();
+    private final PageMap _branchMap = new PageMap();
 
     private final Map<Volume, Integer> _volumeToHandleMap = new HashMap<Volume, Integer>();
 
@@ -123,6 +140,27 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private long _writeBufferAddress = Long.MAX_VALUE;
 
+    /**
+     * Write buffer detached by {@link #flushDetached()} whose contents are
+     * being, or have yet to be, written to the journal file at
+     * _pendingWriteAddress. Retained until a subsequent flush so that
+     * {@link #readFully(ByteBuffer, long)} can find records in it.
+     */
+    private ByteBuffer _pendingWriteBuffer;
+
+    private long _pendingWriteAddress;
+
+    /**
+     * Empty buffer exchanged for _writeBuffer by {@link #flushDetached()}
+     */
+    private ByteBuffer _spareWriteBuffer;
+
+    /**
+     * Serializes writes to journal files. When both are needed, the monitor on
+     * this JournalManager must be acquired first.
+     */
+    private final ReentrantLock _writeLock = new ReentrantLock();
+
     private JournalFlusher _flusher;
 
     private JournalCopier _copier;
@@ -137,6 +175,13 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private final AtomicBoolean _appendOnly = new AtomicBoolean();
 
+    /**
+     * Held shared while a page is written straight to a volume file, bypassing
+     * the journal, and exclusively to change {@link #_appendOnly}, so that the
+     * flag cannot be set part way through such a write.
+     */
+    private final ReentrantReadWriteLock _appendOnlyLock = new ReentrantReadWriteLock();
+
     private final AtomicBoolean _ignoreMissingVolume = new AtomicBoolean();
 
     private String _journalFilePath;
@@ -176,6 +221,16 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private volatile long _writePageCount = 0;
 
+    private final AtomicLong _compressedPageCount = new AtomicLong();
+
+    private final AtomicLong _pageCompressionInputBytes = new AtomicLong();
+
+    private final AtomicLong _pageCompressionOutputBytes = new AtomicLong();
+
+    private final AtomicLong _pageCompressionTime = new AtomicLong();
+
+    private final AtomicLong _pageExpansionTime = new AtomicLong();
+
     private volatile long _readPageCount = 0;
 
     private volatile long _copiedPageCount = 0;
@@ -223,6 +278,14 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private volatile int _urgentFileCountThreshold = DEFAULT_URGENT_FILE_COUNT_THRESHOLD;
 
+    private volatile int _copierThreads = DEFAULT_COPIER_THREADS;
+
+    /**
+     * Threads that help the JOURNAL_COPIER write pages to several volumes
+     * concurrently. Created when first needed.
+     */
+    private ExecutorService _copierExecutor;
+
     private volatile long _throttleSleepInterval;
 
     /**
@@ -284,7 +347,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             /*
              * Populate page list in journal address order.
              */
-            for (final PageNode root : _pageMap.values()) {
+            for (final PageNode root : _pageMap) {
                 for (PageNode pn = root; pn != null; pn = pn.getPrevious()) {
                     _pageList.add(pn);
                 }
@@ -363,6 +426,22 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         return _pageList.size();
     }
 
+    /**
+     * @return the smallest timestamp of any page image in the page map, or
+     *         <code>Long.MAX_VALUE</code> if the map is empty. Every page that
+     *         may yet be copied back to a volume file carries a timestamp at
+     *         least this large.
+     */
+    synchronized long getEarliestPageMapTimestamp() {
+        long earliest = Long.MAX_VALUE;
+        for (final PageNode pageNode : _pageMap) {
+            if (pageNode.getTimestamp() < earliest) {
+                earliest = pageNode.getTimestamp();
+            }
+        }
+        return earliest;
+    }
+
     @Override
     public synchronized long getBaseAddress() {
         return _baseAddress;
@@ -395,7 +474,35 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     @Override
     public void setAppendOnly(final boolean appendOnly) {
-        _appendOnly.set(appendOnly);
+        _appendOnlyLock.writeLock().lock();
+        try {
+            _appendOnly.set(appendOnly);
+        } finally {
+            _appendOnlyLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Begin writing pages directly to a volume file, as {@link BulkLoader}
+     * does. Unless the <code>appendOnly</code> flag is set, this method
+     * prevents it from being set until {@link #endDirectVolumeWrite()} is
+     * called.
+     * 
+     * @return <code>true</code> if the caller may write to the volume file and
+     *         must then call {@link #endDirectVolumeWrite()};
+     *         <code>false</code> if the <code>appendOnly</code> flag is set
+     */
+    boolean beginDirectVolumeWrite() {
+        _appendOnlyLock.readLock().lock();
+        if (_appendOnly.get()) {
+            _appendOnlyLock.readLock().unlock();
+            return false;
+        }
+        return true;
+    }
+
+    void endDirectVolumeWrite() {
+        _appendOnlyLock.readLock().unlock();
     }
 
     @Override
@@ -529,6 +636,27 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         return _slowIoAlertThreshold;
     }
 
+    @Override
+    public long getCompressedPageCount() {
+        return _compressedPageCount.get();
+    }
+
+    @Override
+    public double getPageCompressionRatio() {
+        final long input = _pageCompressionInputBytes.get();
+        return input == 0 ? 1.0 : (double) _pageCompressionOutputBytes.get() / input;
+    }
+
+    @Override
+    public long getPageCompressionTime() {
+        return _pageCompressionTime.get() / NS_PER_MS;
+    }
+
+    @Override
+    public long getPageExpansionTime() {
+        return _pageExpansionTime.get() / NS_PER_MS;
+    }
+
     @Override
     public long getTotalCompletedCommits() {
         return _totalCommits.get();
@@ -550,6 +678,16 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         _slowIoAlertThreshold = slowIoAlertThreshold;
     }
 
+    @Override
+    public int getCopierThreads() {
+        return _copierThreads;
+    }
+
+    @Override
+    public void setCopierThreads(final int threads) {
+        _copierThreads = Util.rangeCheck(threads, MINIMUM_COPIER_THREADS, MAXIMUM_COPIER_THREADS);
+    }
+
     @Override
     public int getUrgentFileCountThreshold() {
         return _urgentFileCountThreshold;
@@ -726,6 +864,21 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                 bb.position(position);
                 return;
             }
+            final ByteBuffer pending = _pendingWriteBuffer;
+            if (pending != null && address >= _pendingWriteAddress
+                    && address + length <= _pendingWriteAddress + pending.limit()) {
+                //
+                // The bytes may not yet have been written by flushDetached.
+                // Read them from a duplicate so as not to disturb its
+                // position.
+                //
+                final ByteBuffer source = pending.duplicate();
+                source.limit((int) (address - _pendingWriteAddress) + length);
+                source.position((int) (address - _pendingWriteAddress));
+                bb.put(source);
+                bb.position(position);
+                return;
+            }
         }
 
         final FileChannel fc = getFileChannel(address);
@@ -781,7 +934,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         synchronized (this) {
             final Integer volumeHandle = _volumeToHandleMap.get(volume);
             if (volumeHandle != null) {
-                pnLookup = _pageMap.get(new PageNode(volumeHandle, pageAddress, -1, -1));
+                pnLookup = _pageMap.get(volumeHandle, pageAddress);
             }
         }
 
@@ -818,13 +971,14 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         final int payloadSize = JournalRecord.getLength(bb) - PA.OVERHEAD;
         final int leftSize = PA.getLeftSize(bb);
         final int bufferSize = PA.getBufferSize(bb);
+        final boolean compressed = PA.isCompressed(bb);
         final long pageAddress = PA.getPageAddress(bb);
 
         if (type != PA.TYPE) {
             throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this) + " is not a PAGE record");
         }
 
-        if (leftSize < 0 || payloadSize < leftSize || payloadSize > bufferSize) {
+        if (!validPageSizes(payloadSize, leftSize, bufferSize, compressed)) {
             throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
                     + " invalid sizes: recordSize= " + payloadSize + " leftSize=" + leftSize + " bufferSize="
                     + bufferSize);
@@ -835,16 +989,56 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                     + " mismatched page address: expected/actual=" + pn.getPageAddress() + "/" + pageAddress);
         }
 
-        bb.limit(at + payloadSize).position(at);
-        readFully(bb, pn.getJournalAddress() + PA.OVERHEAD);
+        final int imageSize;
+        if (compressed) {
+            imageSize = readCompressedPageImage(bb, at, pn.getJournalAddress(), payloadSize, leftSize, bufferSize);
+        } else {
+            bb.limit(at + payloadSize).position(at);
+            readFully(bb, pn.getJournalAddress() + PA.OVERHEAD);
+            imageSize = payloadSize;
+        }
 
-        final int rightSize = payloadSize - leftSize;
+        final int rightSize = imageSize - leftSize;
         System.arraycopy(bb.array(), leftSize + at, bb.array(), bufferSize - rightSize + at, rightSize);
         Arrays.fill(bb.array(), leftSize + at, bufferSize - rightSize + at, (byte) 0);
         bb.limit(bb.capacity()).position(at).limit(at + bufferSize);
         return pageAddress;
     }
 
+    /**
+     * Validate the sizes recorded in a PA record header.
+     */
+    static boolean validPageSizes(final int payloadSize, final int leftSize, final int bufferSize,
+            final boolean compressed) {
+        if (leftSize < 0 || payloadSize < 0 || payloadSize > bufferSize) {
+            return false;
+        }
+        return compressed ? leftSize <= bufferSize : leftSize <= payloadSize;
+    }
+
+    /**
+     * Read the compressed page image of a PA record and expand it into the
+     * supplied ByteBuffer at offset <code>at</code>.
+     *
+     * @return the size of the expanded image, which is to be interpreted as a
+     *         left part of <code>leftSize</code> bytes followed by the right
+     *         part
+     */
+    private int readCompressedPageImage(final ByteBuffer bb, final int at, final long address, final int payloadSize,
+            final int leftSize, final int bufferSize) throws PersistitIOException, CorruptJournalException {
+        final PageCompressor compressor = PageCompressor.get();
+        final byte[] source = compressor.getScratch();
+        readFully(ByteBuffer.wrap(source, 0, payloadSize), address + PA.OVERHEAD);
+        final long start = System.nanoTime();
+        final int imageSize = compressor.expand(source, 0, payloadSize, bb, at, bufferSize);
+        _pageExpansionTime.addAndGet(System.nanoTime() - start);
+        if (imageSize < leftSize) {
+            throw new CorruptJournalException("Compressed page image at " + address + " expands to " + imageSize
+                    + " bytes, less than leftSize=" + leftSize);
+        }
+        return imageSize;
+    }
+
     /**
      * Method used by diagnostic tools to attempt to read a page from journal
      *
@@ -866,10 +1060,11 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         final int payloadSize = JournalRecord.getLength(bb) - PA.OVERHEAD;
         final int leftSize = PA.getLeftSize(bb);
         final int bufferSize = PA.getBufferSize(bb);
+        final boolean compressed = PA.isCompressed(bb);
         final long pageAddress = PA.getPageAddress(bb);
         final int volumeHandle = PA.getVolumeHandle(bb);
 
-        if (type != PA.TYPE || leftSize < 0 || payloadSize < leftSize || payloadSize > bufferSize) {
+        if (type != PA.TYPE || !validPageSizes(payloadSize, leftSize, bufferSize, compressed)) {
             return null;
         }
 
@@ -877,11 +1072,17 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         final Buffer buffer = new Buffer(bufferSize, -1, pool, _persistit);
         buffer.setPageAddressAndVolume(pageAddress, volumeForHandle(volumeHandle));
         bb = buffer.getByteBuffer();
-        bb.limit(payloadSize).position(0);
-        readFully(bb, address + PA.OVERHEAD);
+        final int imageSize;
+        if (compressed) {
+            imageSize = readCompressedPageImage(bb, 0, address, payloadSize, leftSize, bufferSize);
+        } else {
+            bb.limit(payloadSize).position(0);
+            readFully(bb, address + PA.OVERHEAD);
+            imageSize = payloadSize;
+        }
 
         if (leftSize > 0) {
-            final int rightSize = payloadSize - leftSize;
+            final int rightSize = imageSize - leftSize;
             System.arraycopy(bb.array(), leftSize, bb.array(), bufferSize - rightSize, rightSize);
             Arrays.fill(bb.array(), leftSize, bufferSize - rightSize, (byte) 0);
         }
@@ -949,14 +1150,14 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     synchronized void writePageMap() throws PersistitException {
         int count = 0;
-        for (final PageNode lastPageNode : _pageMap.values()) {
+        for (final PageNode lastPageNode : _pageMap) {
             PageNode pageNode = lastPageNode;
             while (pageNode != null) {
                 count++;
                 pageNode = pageNode.getPrevious();
             }
         }
-        for (final PageNode lastPageNode : _branchMap.values()) {
+        for (final PageNode lastPageNode : _branchMap) {
             PageNode pageNode = lastPageNode;
             while (pageNode != null) {
                 count++;
@@ -971,7 +1172,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         JournalRecord.putTimestamp(_writeBuffer, epochalTimestamp());
         advance(PM.OVERHEAD);
         int offset = 0;
-        for (final PageNode lastPageNode : _pageMap.values()) {
+        for (final PageNode lastPageNode : _pageMap) {
             PageNode pageNode = lastPageNode;
             while (pageNode != null) {
                 PM.putEntry(_writeBuffer, offset / PM.ENTRY_SIZE, pageNode.getTimestamp(),
@@ -989,7 +1190,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                 pageNode = pageNode.getPrevious();
             }
         }
-        for (final PageNode lastPageNode : _branchMap.values()) {
+        for (final PageNode lastPageNode : _branchMap) {
             PageNode pageNode = lastPageNode;
             while (pageNode != null) {
                 PM.putEntry(_writeBuffer, offset / PM.ENTRY_SIZE, pageNode.getTimestamp(),
@@ -1073,8 +1274,37 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     void writePageToJournal(final Buffer buffer) throws PersistitException {
 
-        final Volume volume;
-        final int recordSize;
+        final Volume volume = buffer.getVolume();
+        final int leftSize;
+        final int rightSize;
+        if (buffer.isDataPage() || buffer.isIndexPage() || buffer.isGarbagePage()) {
+            leftSize = buffer.getKeyBlockEnd();
+            rightSize = buffer.getBufferSize() - buffer.getAlloc();
+        } else {
+            leftSize = 0;
+            rightSize = buffer.getBufferSize();
+        }
+        //
+        // Compress before acquiring the monitor so that other threads can
+        // write journal records meanwhile.
+        //
+        byte[] compressed = null;
+        int compressedSize = -1;
+        if (volume.isJournalCompressed()) {
+            final PageCompressor compressor = PageCompressor.get();
+            final long start = System.nanoTime();
+            compressedSize = compressor.compress(buffer.getBytes(), leftSize, rightSize, buffer.getBufferSize());
+            _pageCompressionTime.addAndGet(System.nanoTime() - start);
+            _pageCompressionInputBytes.addAndGet(leftSize + rightSize);
+            if (compressedSize >= 0) {
+                compressed = compressor.getScratch();
+                _pageCompressionOutputBytes.addAndGet(compressedSize);
+                _compressedPageCount.incrementAndGet();
+            } else {
+                _pageCompressionOutputBytes.addAndGet(leftSize + rightSize);
+            }
+        }
+        final int recordSize = PA.OVERHEAD + (compressed != null ? compressedSize : leftSize + rightSize);
 
         synchronized (this) {
 
@@ -1082,19 +1312,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                 _persistit.getLogBase().lateWrite.log(_lastValidCheckpoint, buffer);
             }
 
-            volume = buffer.getVolume();
             final int handle = handleForVolume(volume);
-            int leftSize;
-            int rightSize;
-            if (buffer.isDataPage() || buffer.isIndexPage() || buffer.isGarbagePage()) {
-                leftSize = buffer.getKeyBlockEnd();
-                rightSize = buffer.getBufferSize() - buffer.getAlloc();
-            } else {
-                leftSize = 0;
-                rightSize = buffer.getBufferSize();
-            }
-
-            recordSize = PA.OVERHEAD + leftSize + rightSize;
 
             prepareWriteBuffer(recordSize);
             Debug.$assert1.t(_writeBuffer.remaining() >= recordSize);
@@ -1107,11 +1325,13 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             PA.putType(_writeBuffer);
             JournalRecord.putTimestamp(_writeBuffer, buffer.isTemporary() ? -1 : buffer.getTimestamp());
             PA.putLeftSize(_writeBuffer, leftSize);
-            PA.putBufferSize(_writeBuffer, buffer.getBufferSize());
+            PA.putBufferSize(_writeBuffer, buffer.getBufferSize(), compressed != null);
             PA.putPageAddress(_writeBuffer, buffer.getPageAddress());
             advance(PA.OVERHEAD);
 
-            if (leftSize > 0) {
+            if (compressed != null) {
+                _writeBuffer.put(compressed, 0, compressedSize);
+            } else if (leftSize > 0) {
                 _writeBuffer.put(buffer.getBytes(), 0, leftSize);
                 _writeBuffer.put(buffer.getBytes(), buffer.getBufferSize() - rightSize, rightSize);
             } else {
@@ -1122,7 +1342,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
             final PageNode pageNode = new PageNode(handle, buffer.getPageAddress(), address, buffer.getTimestamp());
             _pageList.add(pageNode);
-            PageNode oldPageNode = _pageMap.put(pageNode, pageNode);
+            PageNode oldPageNode = _pageMap.put(pageNode);
 
             if (oldPageNode != null) {
                 assert oldPageNode.getTimestamp() <= pageNode.getTimestamp();
@@ -1311,6 +1531,8 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             _persistit.waitForIOTaskStop(flusher);
         }
 
+        shutdownCopierExecutor();
+
         synchronized (this) {
             try {
                 closeAllChannels();
@@ -1324,6 +1546,8 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                 _pageMap.clear();
                 _pageList.clear();
                 _writeBuffer = null;
+                _pendingWriteBuffer = null;
+                _spareWriteBuffer = null;
             }
         }
     }
@@ -1350,6 +1574,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     void crash() throws IOException {
         IOTaskRunnable.crash(_flusher);
         IOTaskRunnable.crash(_copier);
+        shutdownCopierExecutor();
         //
         // Even when simulating a crash do this to release
         // channels and therefore allow disk space to be returned to
@@ -1365,6 +1590,22 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      */
     synchronized long flush() throws PersistitException {
         _persistit.checkFatal();
+        _writeLock.lock();
+        try {
+            if (!writePending()) {
+                return _pendingWriteAddress + _pendingWriteBuffer.position();
+            }
+            return flushWriteBuffer();
+        } finally {
+            _writeLock.unlock();
+        }
+    }
+
+    /**
+     * Write the contents of _writeBuffer. Caller holds both the monitor and
+     * _writeLock.
+     */
+    private long flushWriteBuffer() throws PersistitException {
         final long address = _writeBufferAddress;
         if (address != Long.MAX_VALUE && _writeBuffer != null) {
 
@@ -1439,6 +1680,139 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         return Long.MAX_VALUE;
     }
 
+    /**
+     * <p>
+     * Flushes the write buffer without holding the monitor on this
+     * JournalManager while the bytes are written. The full write buffer is
+     * exchanged for an empty spare, after which threads appending journal
+     * records (in particular committing transactions) proceed while the
+     * JOURNAL_FLUSHER waits for the write to complete. Records written during
+     * the I/O operation accumulate to be written by the next flush, so each
+     * write covers every record appended since the last one began.
+     * </p>
+     * <p>
+     * If the write does not complete, the unwritten bytes are retained and
+     * written by the next flush before any later bytes.
+     * </p>
+     *
+     * @return the journal address following the last byte written, or
+     *         Long.MAX_VALUE if there was nothing to write
+     * @throws PersistitException
+     */
+    private long flushDetached() throws PersistitException {
+        final ByteBuffer buffer;
+        final long address;
+        final FileChannel channel;
+        synchronized (this) {
+            _persistit.checkFatal();
+            _writeLock.lock();
+            boolean detached = false;
+            try {
+                if (!writePending()) {
+                    return _pendingWriteAddress + _pendingWriteBuffer.position();
+                }
+                if (_writeBufferAddress == Long.MAX_VALUE || _writeBuffer == null || _writeBuffer.position() == 0) {
+                    return Long.MAX_VALUE;
+                }
+                assert _writeBufferAddress + _writeBuffer.position() == _currentAddress : String.format(
+                        "writeBufferAddress=%,d position=%,d currentAddress=%,d", _writeBufferAddress,
+                        _writeBuffer.position(), _currentAddress);
+
+                address = _writeBufferAddress;
+                channel = getFileChannel(address);
+                buffer = _writeBuffer;
+                buffer.flip();
+                _pendingWriteBuffer = buffer;
+                _pendingWriteAddress = address;
+                _writeBuffer = _spareWriteBuffer != null ? _spareWriteBuffer : ByteBuffer.allocate(_writeBufferSize);
+                _spareWriteBuffer = null;
+                _writeBuffer.clear();
+                _writeBufferAddress += buffer.remaining();
+                final long remaining = _blockSize - (_writeBufferAddress % _blockSize);
+                if (remaining < _writeBuffer.limit()) {
+                    _writeBuffer.limit((int) remaining);
+                }
+                detached = true;
+            } finally {
+                if (!detached) {
+                    _writeLock.unlock();
+                }
+            }
+        }
+        try {
+            writeBuffer(channel, buffer, address);
+        } finally {
+            _writeLock.unlock();
+        }
+        retirePending(buffer);
+        return address + buffer.position();
+    }
+
+    /**
+     * Once a buffer detached by {@link #flushDetached()} has been completely
+     * written, stop serving reads from it so that subsequent reads of those
+     * bytes come from the journal file.
+     */
+    private synchronized void retirePending(final ByteBuffer buffer) throws PersistitException {
+        if (_pendingWriteBuffer == buffer && _writeLock.tryLock()) {
+            try {
+                if (_pendingWriteBuffer == buffer && !buffer.hasRemaining()) {
+                    writePending();
+                }
+            } finally {
+                _writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Write any bytes remaining in the buffer detached by
+     * {@link #flushDetached()}, and once all have been written, keep the
+     * buffer as the spare. Caller holds both the monitor and _writeLock.
+     *
+     * @return <code>true</code> if no unwritten bytes remain
+     * @throws PersistitException
+     */
+    private boolean writePending() throws PersistitException {
+        final ByteBuffer pending = _pendingWriteBuffer;
+        if (pending == null) {
+            return true;
+        }
+        if (pending.hasRemaining()) {
+            final long address = _pendingWriteAddress + pending.position();
+            writeBuffer(getFileChannel(address), pending, address);
+            if (pending.hasRemaining()) {
+                return false;
+            }
+        }
+        if (pending.capacity() == _writeBufferSize) {
+            _spareWriteBuffer = pending;
+        }
+        _pendingWriteBuffer = null;
+        return true;
+    }
+
+    /**
+     * Write the remaining bytes of a detached buffer to the journal file.
+     * Caller holds _writeLock.
+     */
+    private void writeBuffer(final FileChannel channel, final ByteBuffer buffer, final long address)
+            throws PersistitException {
+        try {
+            final long size = channel.size();
+            if (size < addressToOffset(address)) {
+                throw new CorruptJournalException(String.format(
+                        "Journal file %s size %,d does not match current address %,d", addressToFile(address), size,
+                        address));
+            }
+            final int position = buffer.position();
+            channel.write(buffer, addressToOffset(address));
+            _persistit.getIOMeter().chargeFlushJournal(buffer.position() - position, address);
+        } catch (final IOException e) {
+            throw new PersistitIOException("Writing to file " + addressToFile(address), e);
+        }
+    }
+
     /**
      * Force all data written to the journal file to disk.
      */
@@ -1446,7 +1820,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     public void force() throws PersistitException {
         long address = Long.MAX_VALUE;
         try {
-            address = flush();
+            address = flushDetached();
             if (address != Long.MAX_VALUE) {
                 final FileChannel channel = getFileChannel(address);
                 channel.force(false);
@@ -1693,7 +2067,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         // Remove all but the most recent PageNode version before the
         // checkpoint.
         //
-        for (final PageNode pageNode : _pageMap.values()) {
+        for (final PageNode pageNode : _pageMap) {
             for (PageNode pn = pageNode; pn != null; pn = pn.getPrevious()) {
                 if (pn.getTimestamp() < recoveryTimestamp) {
                     pn.removeHistory();
@@ -1706,7 +2080,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         // than the checkpoint. Generally all such entries are removed after
         // the first checkpoint that has been established after recovery.
         //
-        for (final Iterator<PageNode> iterator = _branchMap.values().iterator(); iterator.hasNext();) {
+        for (final Iterator<PageNode> iterator = _branchMap.iterator(); iterator.hasNext();) {
             final PageNode pageNode = iterator.next();
             if (pageNode.getTimestamp() < recoveryTimestamp) {
                 iterator.remove();
@@ -2088,6 +2462,12 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     public static class TransactionMapItem implements Comparable<TransactionMapItem> {
 
+        /**
+         * Value of {@link #getTreeHandle()} for a transaction that updates
+         * more than one tree or removes a tree
+         */
+        final static int MIXED_TREE_HANDLE = -1;
+
         private final long _startAddress;
 
         private final long _startTimestamp;
@@ -2096,6 +2476,8 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
         private long _lastRecordAddress;
 
+        private int _treeHandle;
+
         TransactionMapItem(final long startTimestamp, final long address) {
             _startTimestamp = startTimestamp;
             _commitTimestamp = 0;
@@ -2108,6 +2490,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             _startTimestamp = item._startTimestamp;
             _commitTimestamp = item._commitTimestamp;
             _lastRecordAddress = item._lastRecordAddress;
+            _treeHandle = item._treeHandle;
         }
 
         public long getStartAddress() {
@@ -2134,6 +2517,21 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             _lastRecordAddress = address;
         }
 
+        /**
+         * Used by {@link RecoveryManager} to decide which transactions may be
+         * applied concurrently.
+         * 
+         * @return handle of the only tree updated by this transaction, 0 if
+         *         not known, or {@link #MIXED_TREE_HANDLE}
+         */
+        int getTreeHandle() {
+            return _treeHandle;
+        }
+
+        void setTreeHandle(final int treeHandle) {
+            _treeHandle = treeHandle;
+        }
+
         public boolean isCommitted() {
             return _commitTimestamp > 0;
         }
@@ -2456,14 +2854,20 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     void readForCopy(final List<PageNode> list, final ByteBuffer bb) throws PersistitException {
-        Collections.sort(list, PageNode.READ_COMPARATOR);
+        //
+        // Assign each page a region of bb in the order in which writeForCopy
+        // will write them, so that consecutive pages of a volume occupy
+        // adjacent regions and can be written by a single operation. Pages
+        // that do not fit are left for a later cycle.
+        //
+        Collections.sort(list, PageNode.WRITE_COMPARATOR);
         bb.clear();
 
         Volume volume = null;
         int handle = -1;
+        int offset = 0;
 
         for (final Iterator<PageNode> iterator = list.iterator(); iterator.hasNext();) {
-
             final PageNode pageNode = iterator.next();
             if (pageNode.isInvalid()) {
                 iterator.remove();
@@ -2474,9 +2878,12 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                 handle = -1;
                 try {
                     volume = volumeForHandle(pageNode.getVolumeHandle());
-                    handle = volume.getHandle();
+                    if (volume != null) {
+                        handle = pageNode.getVolumeHandle();
+                    }
                 } catch (final VolumeNotFoundException vnfe) {
                     // Deal with this in writeForCopy
+                    volume = null;
                     continue;
                 }
             }
@@ -2484,15 +2891,41 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                 // Deal with this in writeForCopy
                 continue;
             }
+            final int pageSize = volume.getPageSize();
+            if (offset + pageSize > bb.capacity()) {
+                iterator.remove();
+                continue;
+            }
+            pageNode.setOffset(offset);
+            offset += pageSize;
+        }
+        //
+        // Read the pages in journal address order.
+        //
+        final PageNode[] readOrder = list.toArray(new PageNode[list.size()]);
+        Arrays.sort(readOrder, PageNode.READ_COMPARATOR);
+        final Set<PageNode> superseded = Collections.newSetFromMap(new IdentityHashMap<PageNode, Boolean>());
+        volume = null;
+        handle = -1;
+
+        for (final PageNode pageNode : readOrder) {
+            final int at = pageNode.getOffset();
+            if (at < 0) {
+                continue;
+            }
+            if (pageNode.getVolumeHandle() != handle) {
+                volume = volumeForHandle(pageNode.getVolumeHandle());
+                handle = pageNode.getVolumeHandle();
+            }
 
-            final int at = bb.position();
             final long pageAddress;
             try {
                 final PageNode stablePageNode = new PageNode(pageNode);
                 if (pageNode.isInvalid()) {
-                    iterator.remove();
+                    superseded.add(pageNode);
                     continue;
                 }
+                bb.limit(bb.capacity()).position(at);
                 pageAddress = readPageBufferFromJournal(stablePageNode, bb);
                 _persistit.getIOMeter().chargeCopyPageFromJournal(volume, pageAddress, volume.getPageSize(),
                         stablePageNode.getJournalAddress(), urgency());
@@ -2505,15 +2938,33 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             }
 
             Debug.$assert0.t(pageAddress == pageNode.getPageAddress());
-            pageNode.setOffset(at);
 
             if (bb.limit() - at != volume.getStructure().getPageSize()) {
                 throw new CorruptJournalException(pageNode.toStringPageAddress(this) + " bufferSize " + bb.limit()
                         + " does not match " + volume + " bufferSize " + volume.getPageSize() + " at "
                         + pageNode.toStringJournalAddress(this));
             }
+        }
+        if (!superseded.isEmpty()) {
+            for (final Iterator<PageNode> iterator = list.iterator(); iterator.hasNext();) {
+                if (superseded.contains(iterator.next())) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
 
-            bb.position(bb.limit());
+    /**
+     * Pages of one volume to be written by {@link #writeForCopy}, in page
+     * address order
+     */
+    private static class VolumeCopy {
+        final Volume _volume;
+        final List<PageNode> _pageNodes = new ArrayList<PageNode>();
+        int _written;
+
+        VolumeCopy(final Volume volume) {
+            _volume = volume;
         }
     }
 
@@ -2521,7 +2972,8 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         Collections.sort(list, PageNode.WRITE_COMPARATOR);
         Volume volume = null;
         int handle = -1;
-        final Set<Volume> volumes = new HashSet<Volume>();
+        VolumeCopy copy = null;
+        final List<VolumeCopy> copies = new ArrayList<VolumeCopy>();
 
         for (final Iterator<PageNode> iterator = list.iterator(); iterator.hasNext();) {
             final PageNode pageNode = iterator.next();
@@ -2553,37 +3005,165 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                     }
                 }
             }
-            if (volume == null || volume.isClosed()) {
+            if (volume == null || volume.isClosed() || pageNode.getOffset() < 0) {
                 // Remove from the List so that below we won't remove it from
                 // from the pageMap.
                 iterator.remove();
                 continue;
             }
+            if (copy == null || copy._volume != volume) {
+                copy = new VolumeCopy(volume);
+                copies.add(copy);
+            }
+            copy._pageNodes.add(pageNode);
+        }
 
-            final long pageAddress = pageNode.getPageAddress();
-            volume.getStorage().extend(pageAddress);
-            final int pageSize = volume.getPageSize();
-            final int at = pageNode.getOffset();
-            bb.limit(bb.capacity()).position(at).limit(at + pageSize);
+        final int threads = Math.min(_copierThreads, copies.size());
+        try {
+            if (threads <= 1) {
+                for (final VolumeCopy vc : copies) {
+                    writeVolumeCopy(vc, bb);
+                }
+            } else {
+                writeVolumeCopies(copies, bb, threads);
+            }
+        } finally {
+            for (final VolumeCopy vc : copies) {
+                _copiedPageCount += vc._written;
+            }
+        }
+
+        for (final VolumeCopy vc : copies) {
+            vc._volume.getStorage().force();
+        }
+    }
+
+    /**
+     * Write the pages of several volumes concurrently. The JOURNAL_COPIER
+     * thread and <code>threads - 1</code> helper threads each repeatedly take
+     * the next unwritten volume from the list. Returns only after every
+     * thread has finished, since all of them read from <code>bb</code>.
+     */
+    private void writeVolumeCopies(final List<VolumeCopy> copies, final ByteBuffer bb, final int threads)
+            throws PersistitException {
+        final AtomicInteger next = new AtomicInteger();
+        final Callable<Void> writer = new Callable<Void>() {
+            @Override
+            public Void call() throws PersistitException {
+                for (int index = next.getAndIncrement(); index < copies.size(); index = next.getAndIncrement()) {
+                    writeVolumeCopy(copies.get(index), bb);
+                }
+                return null;
+            }
+        };
+        final ExecutorService executor = copierExecutor();
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int count = 1; count < threads; count++) {
+            futures.add(executor.submit(writer));
+        }
+        PersistitException exception = null;
+        try {
+            writer.call();
+        } catch (final PersistitException e) {
+            exception = e;
+        } catch (final Exception e) {
+            exception = new PersistitException(e);
+        }
+        boolean interrupted = false;
+        for (final Future<Void> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                } catch (final ExecutionException e) {
+                    if (exception == null) {
+                        final Throwable cause = e.getCause();
+                        exception = cause instanceof PersistitException ? (PersistitException) cause
+                                : new PersistitException(cause);
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Write the pages of one volume from their images in <code>bb</code>,
+     * coalescing each run of consecutive pages whose images are adjacent in
+     * <code>bb</code> into a single write. Each write is first admitted by
+     * {@link IOMeter#throttleCopy(int, int)}.
+     */
+    private void writeVolumeCopy(final VolumeCopy copy, final ByteBuffer bb) throws PersistitException {
+        final Volume volume = copy._volume;
+        final int pageSize = volume.getPageSize();
+        final List<PageNode> pageNodes = copy._pageNodes;
+        final ByteBuffer buffer = bb.duplicate();
+        int from = 0;
+        while (from < pageNodes.size()) {
+            final PageNode first = pageNodes.get(from);
+            final long pageAddress = first.getPageAddress();
+            final int at = first.getOffset();
+            int to = from + 1;
+            while (to < pageNodes.size() && pageNodes.get(to).getPageAddress() == pageAddress + (to - from)
+                    && pageNodes.get(to).getOffset() == at + (to - from) * pageSize) {
+                to++;
+            }
+            final int count = to - from;
+            final int urgency = urgency();
+            volume.getStorage().extend(pageAddress + count - 1);
+            buffer.limit(buffer.capacity()).position(at).limit(at + count * pageSize);
+            _persistit.getIOMeter().throttleCopy(count * pageSize, urgency);
 
             try {
-                volume.getStorage().writePage(bb, pageAddress);
-                volumes.add(volume);
+                volume.getStorage().writePage(buffer, pageAddress);
             } catch (final PersistitException ioe) {
-                _persistit.getLogBase().copyException.log(ioe, volume, pageNode.getPageAddress(),
-                        pageNode.getJournalAddress());
+                _persistit.getLogBase().copyException.log(ioe, volume, pageAddress, first.getJournalAddress());
                 throw ioe;
             }
 
-            _copiedPageCount++;
-            _persistit.getIOMeter().chargeCopyPageToVolume(volume, pageAddress, volume.getPageSize(),
-                    pageNode.getJournalAddress(), urgency());
+            for (int index = from; index < to; index++) {
+                final PageNode pageNode = pageNodes.get(index);
+                _persistit.getIOMeter().chargeCopyPageToVolume(volume, pageNode.getPageAddress(), pageSize,
+                        pageNode.getJournalAddress(), urgency);
+            }
+            copy._written += count;
+            from = to;
         }
+    }
 
-        for (final Volume vol : volumes) {
-            vol.getStorage().force();
+    private synchronized ExecutorService copierExecutor() {
+        if (_copierExecutor == null) {
+            final AtomicInteger counter = new AtomicInteger();
+            _copierExecutor = new ThreadPoolExecutor(0, MAXIMUM_COPIER_THREADS, COPIER_THREAD_KEEP_ALIVE_MS,
+                    TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(final Runnable runnable) {
+                            final Thread thread = new Thread(runnable, "JOURNAL_COPIER_" + counter.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
         }
+        return _copierExecutor;
+    }
 
+    private void shutdownCopierExecutor() {
+        final ExecutorService executor;
+        synchronized (this) {
+            executor = _copierExecutor;
+            _copierExecutor = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
 
     private void cleanupForCopy(final List<PageNode> list) throws PersistitException {
@@ -2598,11 +3178,11 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
         synchronized (this) {
             for (final PageNode copiedPageNode : list) {
-                PageNode pageNode = _pageMap.get(copiedPageNode);
+                PageNode pageNode = _pageMap.get(copiedPageNode.getVolumeHandle(), copiedPageNode.getPageAddress());
                 if (pageNode.getJournalAddress() == copiedPageNode.getJournalAddress()) {
                     pageNode.removeHistory();
                     pageNode.invalidate();
-                    final PageNode pn = _pageMap.remove(pageNode);
+                    final PageNode pn = _pageMap.remove(pageNode.getVolumeHandle(), pageNode.getPageAddress());
                     assert pn == copiedPageNode;
                 } else {
                     PageNode previous = pageNode.getPrevious();
@@ -2631,7 +3211,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             // required for recovery
             //
 
-            for (final PageNode pageNode : _pageMap.values()) {
+            for (final PageNode pageNode : _pageMap) {
                 //
                 // If there are multiple versions, we need to keep
                 // the most recent one that has been checkpointed.
@@ -2739,7 +3319,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     synchronized void truncate(final Volume volume, final long timestamp) {
-        for (final PageNode lastPageNode : _pageMap.values()) {
+        for (final PageNode lastPageNode : _pageMap) {
             PageNode pageNode = lastPageNode;
             while (pageNode != null) {
                 if (volume.getHandle() == pageNode.getVolumeHandle() && pageNode.getTimestamp() < timestamp) {
@@ -2983,7 +3563,9 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      * @param handleToVolumeMap
      */
     void unitTestInjectPageMap(final Map<PageNode, PageNode> pageMap) {
-        _pageMap.putAll(pageMap);
+        for (final PageNode pageNode : pageMap.values()) {
+            _pageMap.put(pageNode);
+        }
     }
 
     void unitTestInjectTransactionMap(final Map<Long, TransactionMapItem> transactionMap) {
@@ -2998,7 +3580,15 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         return _currentAddress % _blockSize;
     }
 
-    long getWriteBufferAddress() {
+    /**
+     * @return the journal address of the first byte not yet written to a
+     *         journal file
+     */
+    synchronized long getWriteBufferAddress() {
+        final ByteBuffer pending = _pendingWriteBuffer;
+        if (pending != null && pending.hasRemaining()) {
+            return _pendingWriteAddress + pending.position();
+        }
         return _writeBufferAddress;
     }
 
@@ -3031,7 +3621,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     public PageNode queryPageNode(final int volumeHandle, final long pageAddress) {
-        final PageNode pn = _pageMap.get(new PageNode(volumeHandle, pageAddress, -1, -1));
+        final PageNode pn = _pageMap.get(volumeHandle, pageAddress);
         if (pn != null) {
             return new PageNode(pn);
         } else {
@@ -3040,7 +3630,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     public PageNode queryBranchNode(final int volumeHandle, final long pageAddress) {
-        final PageNode pn = _branchMap.get(new PageNode(volumeHandle, pageAddress, -1, -1));
+        final PageNode pn = _branchMap.get(volumeHandle, pageAddress);
         if (pn != null) {
             return new PageNode(pn);
         } else {
@@ -185,9 +185,16 @@ import com.persistit.util.Util;
  * </tr>
  * <tr valign="top">
  * <td>+32</td>
+ * <td>bufferSize (int) - the low 16 bits hold the page size; bit 16 is set if
+ * the page image is compressed</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+36</td>
  * <td>bytes: the first leftSize bytes will go into the page at offset 0 the
  * remaining bytes will go to the end of the page; the middle of the page will
- * be cleared</td>
+ * be cleared. If the image is compressed these bytes are a DEFLATE (zlib)
+ * stream which expands to the leftSize bytes followed by the remaining
+ * bytes.</td>
  * </tr>
  * </table>
  * </td>
@@ -816,6 +823,14 @@ public class JournalRecord {
 
         public final static int OVERHEAD = 36;
 
+        /**
+         * Flag stored above the 16-bit buffer size to indicate that the page
+         * image is compressed
+         */
+        private final static int COMPRESSED_FLAG = 1 << 16;
+
+        private final static int BUFFER_SIZE_MASK = COMPRESSED_FLAG - 1;
+
         public static void putType(final ByteBuffer bb) {
             putType(bb, TYPE);
         }
@@ -845,13 +860,21 @@ public class JournalRecord {
         }
 
         public static int getBufferSize(final ByteBuffer bb) {
-            return getInt(bb, 32);
+            return getInt(bb, 32) & BUFFER_SIZE_MASK;
         }
 
         public static void putBufferSize(final ByteBuffer bb, final int bufferSize) {
             putInt(bb, 32, (char) bufferSize);
         }
 
+        public static boolean isCompressed(final ByteBuffer bb) {
+            return (getInt(bb, 32) & COMPRESSED_FLAG) != 0;
+        }
+
+        public static void putBufferSize(final ByteBuffer bb, final int bufferSize, final boolean compressed) {
+            putInt(bb, 32, (char) bufferSize | (compressed ? COMPRESSED_FLAG : 0));
+        }
+
     }
 
     /**
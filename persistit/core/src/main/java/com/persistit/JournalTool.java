@@ -56,6 +56,7 @@ import com.persistit.exception.PersistitException;
 import com.persistit.exception.PersistitIOException;
 import com.persistit.mxbeans.JournalManagerMXBean;
 import com.persistit.util.ArgParser;
+import com.persistit.util.Util;
 
 /**
  * @author Peter Beaman
@@ -841,11 +842,28 @@ class JournalTool {
                 return;
             }
             start(address, timestamp, "PA", recordSize);
-            final int type = JournalRecord.getByte(_readBuffer, PA.OVERHEAD + Buffer.TYPE_OFFSET);
+            final int type;
+            final long rightSibling;
+            final boolean compressed = PA.isCompressed(_readBuffer);
+            if (compressed) {
+                //
+                // The page header is at the start of the left part, so
+                // expand the image to read it.
+                //
+                final PageCompressor compressor = PageCompressor.get();
+                final byte[] image = compressor.getScratch();
+                compressor.expand(_readBuffer.array(), _readBuffer.arrayOffset() + _readBuffer.position()
+                        + PA.OVERHEAD, recordSize - PA.OVERHEAD, image, 0, PA.getBufferSize(_readBuffer));
+                type = Util.getByte(image, Buffer.TYPE_OFFSET);
+                rightSibling = pageAddress == 0 ? 0 : Util.getLong(image, Buffer.RIGHT_SIBLING_OFFSET);
+            } else {
+                type = JournalRecord.getByte(_readBuffer, PA.OVERHEAD + Buffer.TYPE_OFFSET);
+                rightSibling = pageAddress == 0 ? 0 : JournalRecord.getLong(_readBuffer, PA.OVERHEAD
+                        + Buffer.RIGHT_SIBLING_OFFSET);
+            }
             final String typeString = Buffer.getPageTypeName(pageAddress, type);
-            final long rightSibling = pageAddress == 0 ? 0 : JournalRecord.getLong(_readBuffer, PA.OVERHEAD
-                    + Buffer.RIGHT_SIBLING_OFFSET);
-            appendf(" page %5d:%,12d type %10s right %,12d", volumeHandle, pageAddress, typeString, rightSibling);
+            appendf(" page %5d:%,12d type %10s right %,12d%s", volumeHandle, pageAddress, typeString, rightSibling,
+                    compressed ? " compressed" : "");
             flush();
         }
 
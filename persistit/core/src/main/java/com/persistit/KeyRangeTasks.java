@@ -0,0 +1,152 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.persistit.exception.PersistitException;
+import com.persistit.exception.PersistitInterruptedException;
+
+/**
+ * Helpers shared by {@link StreamSaver}, {@link StreamLoader} and
+ * {@link TreeBuilder}, which divide trees into key ranges and process the
+ * ranges on several threads.
+ */
+final class KeyRangeTasks {
+
+    private KeyRangeTasks() {
+    }
+
+    /**
+     * Run tasks on a pool of daemon threads, or on the calling thread if at
+     * most one thread is allowed, and wait for all of them to complete. If a
+     * task fails, the tasks that have not started are cancelled.
+     *
+     * @param tasks
+     *            the tasks
+     * @param maxThreads
+     *            the maximum number of threads
+     * @param threadName
+     *            prefix of the names of the threads, which are numbered from 1
+     * @return the results of the tasks, in the order of the tasks
+     * @throws Exception
+     *             the exception thrown by the first failed task, in the order
+     *             of the tasks
+     */
+    static <T> List<T> run(final List<? extends Callable<T>> tasks, final int maxThreads, final String threadName)
+            throws Exception {
+        final List<T> results = new ArrayList<T>(tasks.size());
+        final int threads = Math.min(maxThreads, tasks.size());
+        if (threads <= 1) {
+            for (final Callable<T> task : tasks) {
+                results.add(task.call());
+            }
+            return results;
+        }
+        final AtomicInteger counter = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, threadName + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            final List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+            for (final Callable<T> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            for (final Future<T> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (final InterruptedException e) {
+                    throw new PersistitInterruptedException(e);
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new PersistitException(cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Run tasks as {@link #run(List, int, String)} does, for tasks that only
+     * throw <code>PersistitException</code> or <code>IOException</code>.
+     * Any other checked exception is wrapped in a
+     * <code>PersistitException</code>.
+     */
+    static <T> List<T> runIO(final List<? extends Callable<T>> tasks, final int maxThreads, final String threadName)
+            throws PersistitException, IOException {
+        try {
+            return run(tasks, maxThreads, threadName);
+        } catch (final PersistitException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw e;
+        } catch (final RuntimeException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new PersistitException(e);
+        }
+    }
+
+    /**
+     * Compare the first <code>size</code> bytes of an encoded key with another
+     * encoded key in the collation order of {@link Key#compareTo(Object)}.
+     *
+     * @return a negative number, zero or a positive number if the first key
+     *         is less than, equal to or greater than the second
+     */
+    static int compare(final byte[] bytes, final int size, final byte[] other) {
+        final int length = Math.min(size, other.length);
+        for (int i = 0; i < length; i++) {
+            final int b1 = bytes[i] & 0xFF;
+            final int b2 = other[i] & 0xFF;
+            if (b1 != b2) {
+                return b1 - b2;
+            }
+        }
+        return size - other.length;
+    }
+
+    /**
+     * Compare two encoded keys in the collation order of
+     * {@link Key#compareTo(Object)}.
+     */
+    static int compare(final byte[] bytes, final byte[] other) {
+        return compare(bytes, bytes.length, other);
+    }
+}
@@ -943,6 +943,9 @@ public interface Management extends Remote, ManagementMXBean {
         int readerClaimedPageCount;
         int writerClaimedPageCount;
         long earliestDirtyTimestamp;
+        String replacementPolicy;
+        long ghostHitCount;
+        int probationaryPageCount;
 
         public BufferPoolInfo() {
 
@@ -950,12 +953,14 @@ public interface Management extends Remote, ManagementMXBean {
 
         @ConstructorProperties({ "bufferSize", "bufferCount", "missCount", "hitCount", "newCount", "evictCount",
                 "writeCount", "forcedWriteCount", "forcedCheckpointWriteCount", "validPageCount", "dirtyPageCount",
-                "readerClaimedPageCount", "writerClaimedPageCount", "earliestDirtyTimestamp" })
+                "readerClaimedPageCount", "writerClaimedPageCount", "earliestDirtyTimestamp", "replacementPolicy",
+                "ghostHitCount", "probationaryPageCount" })
         public BufferPoolInfo(final int bufferSize, final int bufferCount, final long missCount, final long hitCount,
                 final long newCount, final long writeCount, final long evictCount, final long forcedWriteCount,
                 final long forcedCheckpointWriteCount, final long readCounter, final int validPageCount,
                 final int dirtyPageCount, final int readerClaimedPageCount, final int writerClaimedPageCount,
-                final long earliestDirtyTimestamp) {
+                final long earliestDirtyTimestamp, final String replacementPolicy, final long ghostHitCount,
+                final int probationaryPageCount) {
             super();
             this.bufferSize = bufferSize;
             this.bufferCount = bufferCount;
@@ -971,6 +976,9 @@ public interface Management extends Remote, ManagementMXBean {
             this.readerClaimedPageCount = readerClaimedPageCount;
             this.writerClaimedPageCount = writerClaimedPageCount;
             this.earliestDirtyTimestamp = earliestDirtyTimestamp;
+            this.replacementPolicy = replacementPolicy;
+            this.ghostHitCount = ghostHitCount;
+            this.probationaryPageCount = probationaryPageCount;
         }
 
         /**
@@ -1124,6 +1132,39 @@ public interface Management extends Remote, ManagementMXBean {
         public long getEarliestDirtyTimestamp() {
             return earliestDirtyTimestamp;
         }
+
+        /**
+         * Return the name of the policy used to select buffers for eviction
+         * from this pool.
+         * 
+         * @return The replacement policy name
+         */
+        public String getReplacementPolicy() {
+            return replacementPolicy;
+        }
+
+        /**
+         * Return the count of pages read into this pool that the replacement
+         * policy recognized as having been recently evicted. A high value
+         * relative to the miss count indicates the pool is too small for the
+         * working set.
+         * 
+         * @return The ghost hit count
+         */
+        public long getGhostHitCount() {
+            return ghostHitCount;
+        }
+
+        /**
+         * Return the count of buffers holding pages the replacement policy
+         * considers probationary, i.e., pages loaded once and not yet proven
+         * to be re-referenced.
+         * 
+         * @return The probationary page count
+         */
+        public int getProbationaryPageCount() {
+            return probationaryPageCount;
+        }
     }
 
     /**
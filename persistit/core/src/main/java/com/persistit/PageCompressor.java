@@ -0,0 +1,184 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.persistit.exception.CorruptJournalException;
+
+/**
+ * Compresses and expands the page images carried by PA journal records. A page
+ * image consists of the left (key block) part of the page followed by the right
+ * (tail block) part; the free space between them is never written. The two
+ * parts are compressed together as one DEFLATE stream at
+ * {@link Deflater#BEST_SPEED}, which removes most of the redundancy in keys and
+ * values at a small fraction of the cost of the disk I/O it saves.
+ * <p />
+ * Each thread keeps its own {@link Deflater}, {@link Inflater} and scratch
+ * array so that neither compression nor expansion allocates memory or
+ * requires synchronization.
+ */
+class PageCompressor {
+
+    private final static ThreadLocal<PageCompressor> COMPRESSORS = new ThreadLocal<PageCompressor>() {
+        @Override
+        protected PageCompressor initialValue() {
+            return new PageCompressor();
+        }
+    };
+
+    private final Deflater _deflater = new Deflater(Deflater.BEST_SPEED);
+
+    private final Inflater _inflater = new Inflater();
+
+    private final byte[] _scratch = new byte[Buffer.MAX_BUFFER_SIZE];
+
+    private final byte[] _overflow = new byte[1];
+
+    /**
+     * @return the PageCompressor belonging to the current thread
+     */
+    static PageCompressor get() {
+        return COMPRESSORS.get();
+    }
+
+    /**
+     * @return array large enough to hold any page image, used by
+     *         {@link #compress} for its result and available to callers as a
+     *         staging area for compressed bytes that are to be expanded
+     */
+    byte[] getScratch() {
+        return _scratch;
+    }
+
+    /**
+     * Compress a page image into the scratch array.
+     *
+     * @param page
+     *            the page
+     * @param leftSize
+     *            size of the left part, which starts at offset 0
+     * @param rightSize
+     *            size of the right part, which ends at <code>bufferSize</code>
+     * @param bufferSize
+     *            size of the page
+     * @return the number of compressed bytes in the scratch array, or -1 if
+     *         the compressed image would not be smaller than the original
+     */
+    int compress(final byte[] page, final int leftSize, final int rightSize, final int bufferSize) {
+        final int limit = leftSize + rightSize - 1;
+        int size = 0;
+        _deflater.reset();
+        if (leftSize > 0) {
+            _deflater.setInput(page, 0, leftSize);
+            while (!_deflater.needsInput()) {
+                size += _deflater.deflate(_scratch, size, limit - size);
+                if (size >= limit) {
+                    return -1;
+                }
+            }
+        }
+        _deflater.setInput(page, bufferSize - rightSize, rightSize);
+        _deflater.finish();
+        while (!_deflater.finished()) {
+            size += _deflater.deflate(_scratch, size, limit - size);
+            if (size >= limit) {
+                return -1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Expand a compressed page image into a heap ByteBuffer. The position and
+     * limit of the ByteBuffer are not changed.
+     *
+     * @param source
+     *            array containing the compressed image
+     * @param from
+     *            offset of the compressed image
+     * @param length
+     *            length of the compressed image
+     * @param target
+     *            ByteBuffer to receive the page image
+     * @param at
+     *            index within <code>target</code> at which to write the
+     *            expanded image
+     * @param maximumSize
+     *            maximum permissible size of the expanded image
+     * @return the size of the expanded image
+     * @throws CorruptJournalException
+     *             if the compressed image is invalid or expands to more than
+     *             <code>maximumSize</code> bytes
+     */
+    int expand(final byte[] source, final int from, final int length, final ByteBuffer target, final int at,
+            final int maximumSize) throws CorruptJournalException {
+        return expand(source, from, length, target.array(), target.arrayOffset() + at, maximumSize);
+    }
+
+    /**
+     * Expand a compressed page image.
+     *
+     * @param source
+     *            array containing the compressed image
+     * @param from
+     *            offset of the compressed image
+     * @param length
+     *            length of the compressed image
+     * @param target
+     *            array to receive the page image
+     * @param to
+     *            offset within <code>target</code> at which to write the
+     *            expanded image
+     * @param maximumSize
+     *            maximum permissible size of the expanded image
+     * @return the size of the expanded image
+     * @throws CorruptJournalException
+     *             if the compressed image is invalid or expands to more than
+     *             <code>maximumSize</code> bytes
+     */
+    int expand(final byte[] source, final int from, final int length, final byte[] target, final int to,
+            final int maximumSize) throws CorruptJournalException {
+        _inflater.reset();
+        _inflater.setInput(source, from, length);
+        int size = 0;
+        try {
+            while (!_inflater.finished()) {
+                final int count;
+                if (size < maximumSize) {
+                    count = _inflater.inflate(target, to + size, maximumSize - size);
+                } else {
+                    count = _inflater.inflate(_overflow, 0, _overflow.length);
+                    if (count > 0) {
+                        throw new CorruptJournalException("Compressed page image expands to more than "
+                                + maximumSize + " bytes");
+                    }
+                }
+                size += count;
+                if (count == 0 && !_inflater.finished() && (_inflater.needsInput() || _inflater.needsDictionary())) {
+                    throw new CorruptJournalException("Compressed page image is truncated");
+                }
+            }
+        } catch (final DataFormatException e) {
+            throw new CorruptJournalException("Invalid compressed page image: " + e);
+        }
+        return size;
+    }
+}
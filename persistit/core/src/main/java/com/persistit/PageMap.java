@@ -0,0 +1,308 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.persistit.JournalManager.PageNode;
+
+/**
+ * <p>
+ * Map from a page, identified by volume handle and page address, to the most
+ * recent {@link PageNode} recorded in the journal for that page. Earlier
+ * versions of the page are reached through {@link PageNode#getPrevious()}.
+ * Used by {@link JournalManager} and {@link RecoveryManager} to hold the page
+ * map and branch map, each of which may hold tens of millions of entries.
+ * </p>
+ * <p>
+ * The map is an open-addressing hash table with linear probing. Because a
+ * PageNode carries its own volume handle and page address, the table consists
+ * of just an array of PageNode references and a parallel array holding the
+ * hash code of each entry. An entry therefore costs two array slots and no
+ * entry or key object is allocated, either to add an entry or to look one up.
+ * A probe compares the primitive hash code before it dereferences a PageNode
+ * to compare its key, so a lookup normally touches only the PageNode it
+ * finds. Removed entries are marked with a tombstone so that an entry may be
+ * removed while iterating; tombstones are discarded when the table is next
+ * rehashed.
+ * </p>
+ * <p>
+ * This class is not thread-safe. Iteration order is unspecified and an
+ * iterator does not detect concurrent modification.
+ * </p>
+ */
+class PageMap implements Iterable<PageNode> {
+
+    final static int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    private final static int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Maximum fraction of slots holding either an entry or a tombstone
+     */
+    private final static float LOAD_FACTOR = 0.75f;
+
+    private final static PageNode TOMBSTONE = new PageNode(-1, -1);
+
+    private int[] _hashes;
+
+    private PageNode[] _pageNodes;
+
+    private int _mask;
+
+    private int _threshold;
+
+    private int _size;
+
+    private int _tombstones;
+
+    PageMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize
+     *            number of entries the map should hold without rehashing
+     */
+    PageMap(final int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return the number of pages in the map
+     */
+    int size() {
+        return _size;
+    }
+
+    boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /**
+     * Remove all entries and release the memory held by the table.
+     */
+    void clear() {
+        allocate(capacityFor(DEFAULT_INITIAL_CAPACITY));
+    }
+
+    /**
+     * @param volumeHandle
+     *            the volume handle
+     * @param pageAddress
+     *            the page address
+     * @return the most recent PageNode for the page, or <code>null</code> if
+     *         there is none
+     */
+    PageNode get(final int volumeHandle, final long pageAddress) {
+        final int index = indexOf(volumeHandle, pageAddress);
+        return index < 0 ? null : _pageNodes[index];
+    }
+
+    /**
+     * Add or replace the entry for the page identified by the supplied
+     * PageNode's volume handle and page address.
+     *
+     * @param pageNode
+     *            the PageNode
+     * @return the PageNode previously mapped for the page, or
+     *         <code>null</code> if there was none
+     */
+    PageNode put(final PageNode pageNode) {
+        final int volumeHandle = pageNode.getVolumeHandle();
+        final long pageAddress = pageNode.getPageAddress();
+        final int hash = hash(volumeHandle, pageAddress);
+        int index = hash & _mask;
+        int free = -1;
+        for (;;) {
+            final PageNode current = _pageNodes[index];
+            if (current == null) {
+                break;
+            }
+            if (current == TOMBSTONE) {
+                if (free < 0) {
+                    free = index;
+                }
+            } else if (_hashes[index] == hash && matches(current, volumeHandle, pageAddress)) {
+                _pageNodes[index] = pageNode;
+                return current;
+            }
+            index = (index + 1) & _mask;
+        }
+        if (free >= 0) {
+            index = free;
+            _tombstones--;
+        } else if (_size + _tombstones + 1 > _threshold) {
+            rehash(capacityFor(_size + 1));
+            index = freeSlot(hash);
+        }
+        _hashes[index] = hash;
+        _pageNodes[index] = pageNode;
+        _size++;
+        return null;
+    }
+
+    /**
+     * Remove the entry for a page.
+     *
+     * @param volumeHandle
+     *            the volume handle
+     * @param pageAddress
+     *            the page address
+     * @return the PageNode that was mapped for the page, or <code>null</code>
+     *         if there was none
+     */
+    PageNode remove(final int volumeHandle, final long pageAddress) {
+        final int index = indexOf(volumeHandle, pageAddress);
+        if (index < 0) {
+            return null;
+        }
+        final PageNode removed = _pageNodes[index];
+        removeAt(index);
+        return removed;
+    }
+
+    /**
+     * @return an Iterator over the most recent PageNode of each page in the
+     *         map. The Iterator supports {@link Iterator#remove()}.
+     */
+    @Override
+    public Iterator<PageNode> iterator() {
+        return new Iterator<PageNode>() {
+            int _next = following(-1);
+            int _last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return _next < _pageNodes.length;
+            }
+
+            @Override
+            public PageNode next() {
+                if (_next >= _pageNodes.length) {
+                    throw new NoSuchElementException();
+                }
+                _last = _next;
+                _next = following(_next);
+                return _pageNodes[_last];
+            }
+
+            @Override
+            public void remove() {
+                if (_last < 0 || _pageNodes[_last] == TOMBSTONE) {
+                    throw new IllegalStateException();
+                }
+                removeAt(_last);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "PageMap(size=" + _size + ",capacity=" + _pageNodes.length + ")";
+    }
+
+    /**
+     * @return index of the first slot after <code>index</code> holding an
+     *         entry, or the table length if there is none
+     */
+    private int following(final int index) {
+        int next = index + 1;
+        while (next < _pageNodes.length && (_pageNodes[next] == null || _pageNodes[next] == TOMBSTONE)) {
+            next++;
+        }
+        return next;
+    }
+
+    private int indexOf(final int volumeHandle, final long pageAddress) {
+        final int hash = hash(volumeHandle, pageAddress);
+        int index = hash & _mask;
+        for (;;) {
+            final PageNode current = _pageNodes[index];
+            if (current == null) {
+                return -1;
+            }
+            if (_hashes[index] == hash && current != TOMBSTONE && matches(current, volumeHandle, pageAddress)) {
+                return index;
+            }
+            index = (index + 1) & _mask;
+        }
+    }
+
+    private int freeSlot(final int hash) {
+        int index = hash & _mask;
+        while (_pageNodes[index] != null) {
+            index = (index + 1) & _mask;
+        }
+        return index;
+    }
+
+    private void removeAt(final int index) {
+        _pageNodes[index] = TOMBSTONE;
+        _size--;
+        _tombstones++;
+    }
+
+    private void allocate(final int capacity) {
+        _hashes = new int[capacity];
+        _pageNodes = new PageNode[capacity];
+        _mask = capacity - 1;
+        _threshold = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+        _size = 0;
+        _tombstones = 0;
+    }
+
+    private void rehash(final int capacity) {
+        final int[] hashes = _hashes;
+        final PageNode[] pageNodes = _pageNodes;
+        final int size = _size;
+        allocate(capacity);
+        for (int i = 0; i < pageNodes.length; i++) {
+            final PageNode pageNode = pageNodes[i];
+            if (pageNode != null && pageNode != TOMBSTONE) {
+                final int index = freeSlot(hashes[i]);
+                _hashes[index] = hashes[i];
+                _pageNodes[index] = pageNode;
+            }
+        }
+        _size = size;
+    }
+
+    private static boolean matches(final PageNode pageNode, final int volumeHandle, final long pageAddress) {
+        return pageNode.getPageAddress() == pageAddress && pageNode.getVolumeHandle() == volumeHandle;
+    }
+
+    /**
+     * @return the smallest power-of-two capacity that holds <code>size</code>
+     *         entries at no more than half the load factor, so that a table
+     *         rehashed to this capacity has room to grow
+     */
+    private static int capacityFor(final int size) {
+        final long minimum = (long) Math.ceil(Math.max(size, 1) / LOAD_FACTOR) * 2;
+        if (minimum >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(Integer.highestOneBit((int) minimum - 1) << 1, 16);
+    }
+
+    private static int hash(final int volumeHandle, final long pageAddress) {
+        long h = (pageAddress ^ ((long) volumeHandle << 40)) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 31;
+        return (int) (h ^ (h >>> 32));
+    }
+}
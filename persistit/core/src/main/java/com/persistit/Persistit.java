@@ -77,7 +77,11 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -135,6 +139,11 @@ public class Persistit {
    * Maximum number of Exchanges that will be held in an internal pool.
    */
   public final static int MAX_POOLED_EXCHANGES = 10000;
+  /**
+   * Maximum number of Transaction contexts of closed {@link Session}s that
+   * will be held in an internal pool.
+   */
+  public final static int MAX_POOLED_TRANSACTIONS = 1000;
 
   private final static int TRANSACTION_INDEX_SIZE = 256;
 
@@ -237,7 +246,11 @@ public class Persistit {
     }
   };
 
-  private final Map<SessionId, Transaction> _transactionSessionMap = new HashMap<SessionId, Transaction>();
+  private final ConcurrentMap<SessionId, Transaction> _transactionSessionMap = new ConcurrentHashMap<SessionId, Transaction>();
+
+  private final ConcurrentLinkedQueue<Transaction> _transactionPool = new ConcurrentLinkedQueue<Transaction>();
+
+  private final AtomicInteger _transactionPoolSize = new AtomicInteger();
 
   private ManagementImpl _management;
 
@@ -251,14 +264,14 @@ public class Persistit {
 
   private final CleanupManager _cleanupManager = new CleanupManager(this);
 
+  private final ReadAheadManager _readAheadManager = new ReadAheadManager(this);
+
   private final IOMeter _ioMeter = new IOMeter();
 
   private final AlertMonitor _alertMonitor = new AlertMonitor();
 
   private final TransactionIndex _transactionIndex = new TransactionIndex(_timestampAllocator, TRANSACTION_INDEX_SIZE);
 
-  private final Map<SessionId, List<Exchange>> _exchangePoolMap = new WeakHashMap<SessionId, List<Exchange>>();
-
   private final Map<ObjectName, Object> _mxbeans = new TreeMap<ObjectName, Object>();
 
   private final List<AlertMonitorMXBean> _alertMonitors = Collections
@@ -270,12 +283,20 @@ public class Persistit {
 
   private final WeakHashMap<SessionId, CLI> _cliSessionMap = new WeakHashMap<SessionId, CLI>();
 
+  /**
+   * Sessions whose exchange pools may hold Exchanges of this instance, see
+   * {@link #drainExchangePools()}.
+   */
+  private final WeakHashMap<SessionId, Boolean> _exchangePoolSessions = new WeakHashMap<SessionId, Boolean>();
+
   private boolean _readRetryEnabled;
 
   private volatile SplitPolicy _defaultSplitPolicy = DEFAULT_SPLIT_POLICY;
 
   private volatile JoinPolicy _defaultJoinPolicy = DEFAULT_JOIN_POLICY;
 
+  private volatile int _defaultReadAheadPages;
+
   private volatile List<FatalErrorException> _fatalErrors = new ArrayList<FatalErrorException>();
 
   private volatile CommitPolicy _defaultCommitPolicy = DEFAULT_TRANSACTION_COMMIT_POLICY;
@@ -452,6 +473,7 @@ public class Persistit {
       _journalManager.pruneObsoleteTransactions();
       startCheckpointManager();
       startCleanupManager();
+      startReadAheadManager();
       _initialized.set(true);
     } finally {
       if (!isInitialized()) {
@@ -604,6 +626,7 @@ public class Persistit {
 
   private void initializeRecovery() throws PersistitException {
     final String journalPath = _configuration.getJournalPath();
+    _recoveryManager.setRecoveryThreads(_configuration.getRecoveryThreads());
     _recoveryManager.init(journalPath);
     _recoveryManager.buildRecoveryPlan();
   }
@@ -615,6 +638,8 @@ public class Persistit {
     _journalManager.init(_recoveryManager, journalPath, journalSize);
     _journalManager.setAppendOnly(_configuration.isAppendOnly());
     _journalManager.setIgnoreMissingVolumes(_configuration.isIgnoreMissingVolumes());
+    _journalManager.setCopierThreads(_configuration.getCopierThreads());
+    _ioMeter.setCopierBandwidth(_configuration.getCopierBandwidth());
   }
 
   private void initializeBufferPools() {
@@ -623,7 +648,8 @@ public class Persistit {
       if (poolSize > 0) {
         final int bufferSize = config.getBufferSize();
         _logBase.allocateBuffers.log(poolSize, bufferSize);
-        final BufferPool pool = new BufferPool(poolSize, bufferSize, this);
+        final BufferPool pool = new BufferPool(poolSize, bufferSize, config.getReplacementPolicy(),
+                config.getSegmentCount(), this);
         _bufferPoolTable.put(bufferSize, pool);
         if (_configuration.isJmxEnabled()) {
           registerBufferPoolMXBean(bufferSize);
@@ -673,6 +699,7 @@ public class Persistit {
     }
     _defaultSplitPolicy = _configuration.getSplitPolicy();
     _defaultJoinPolicy = _configuration.getJoinPolicy();
+    _defaultReadAheadPages = _configuration.getReadAheadPages();
     _defaultCommitPolicy = _configuration.getCommitPolicy();
     _enableBufferInventory.set(_configuration.isBufferInventoryEnabled());
   }
@@ -689,6 +716,10 @@ public class Persistit {
     _cleanupManager.start();
   }
 
+  void startReadAheadManager() {
+    _readAheadManager.start();
+  }
+
   void startTransactionIndexPollTask() {
     _transactionIndex.start(this);
   }
@@ -852,23 +883,24 @@ public class Persistit {
     throws PersistitException {
     if (volume == null)
       throw new VolumeNotFoundException();
-    List<Exchange> stack;
-    final SessionId sessionId = getSessionId();
-
-    synchronized (_exchangePoolMap) {
-      stack = _exchangePoolMap.get(sessionId);
-      if (stack == null) {
-        stack = new ArrayList<Exchange>();
-        _exchangePoolMap.put(sessionId, stack);
+    final List<Exchange> stack = getSessionId().getExchangePool(true);
+    Exchange exchange = null;
+    synchronized (stack) {
+      while (exchange == null && !stack.isEmpty()) {
+        final Exchange pooled = stack.remove(stack.size() - 1);
+        /*
+         * A SessionId may have been used with another Persistit instance
+         */
+        if (pooled.getPersistitInstance() == this) {
+          exchange = pooled;
+        }
       }
     }
-    if (stack.isEmpty()) {
+    if (exchange == null) {
       return new Exchange(this, volume, treeName, create);
-    } else {
-      final Exchange exchange = stack.remove(stack.size() - 1);
-      exchange.init(volume, treeName, create);
-      return exchange;
     }
+    exchange.init(volume, treeName, create);
+    return exchange;
   }
 
   /**
@@ -976,18 +1008,44 @@ public class Persistit {
     if (exchange == null) {
       return;
     }
-    List<Exchange> stack;
     final SessionId sessionId = getSessionId();
-    synchronized (_exchangePoolMap) {
-      stack = _exchangePoolMap.get(sessionId);
-      if (stack == null) {
-        throw new IllegalStateException("Release not preceded by get");
-      }
+    final List<Exchange> stack = sessionId.getExchangePool(false);
+    if (stack == null) {
+      throw new IllegalStateException("Release not preceded by get");
+    }
+    if (_closed.get()) {
+      return;
     }
-    if (stack.size() < MAX_POOLED_EXCHANGES) {
+    synchronized (stack) {
+      if (stack.size() >= MAX_POOLED_EXCHANGES) {
+        return;
+      }
       exchange.removeState(secure);
       stack.add(exchange);
     }
+    if (!sessionId.isExchangePoolRegistrar(this)) {
+      synchronized (_exchangePoolSessions) {
+        _exchangePoolSessions.put(sessionId, Boolean.TRUE);
+      }
+      sessionId.setExchangePoolRegistrar(this);
+    }
+  }
+
+  /**
+   * Remove this instance's Exchanges from the pools of all sessions. The
+   * pools belong to SessionIds that are held by other threads, and would
+   * otherwise keep this instance reachable for as long as those threads
+   * live.
+   */
+  private void drainExchangePools() {
+    final List<SessionId> sessionIds;
+    synchronized (_exchangePoolSessions) {
+      sessionIds = new ArrayList<SessionId>(_exchangePoolSessions.keySet());
+      _exchangePoolSessions.clear();
+    }
+    for (final SessionId sessionId : sessionIds) {
+      sessionId.drainExchangePool(this);
+    }
   }
 
   /**
@@ -1342,6 +1400,28 @@ public class Persistit {
     return _defaultJoinPolicy;
   }
 
+  /**
+   * @return The number of data pages read ahead of a sequential traversal by
+   *         an {@link Exchange} for which neither the <code>Exchange</code>
+   *         nor its {@link Tree} specifies a value.
+   */
+  public int getDefaultReadAheadPages() {
+    return _defaultReadAheadPages;
+  }
+
+  /**
+   * Replace the default number of data pages read ahead of a sequential
+   * traversal.
+   * 
+   * @param pages
+   *            The number of pages, between 0 and 256. Zero disables
+   *            read-ahead.
+   * @see Configuration#setReadAheadPages(int)
+   */
+  public void setDefaultReadAheadPages(final int pages) {
+    _defaultReadAheadPages = Util.rangeCheck(pages, 0, ReadAheadManager.MAXIMUM_READ_AHEAD_PAGES);
+  }
+
   /**
    * Replace the current default {@link SplitPolicy}.
    * 
@@ -1648,6 +1728,8 @@ public class Persistit {
       recordBufferPoolInventory();
       _cleanupManager.close(flush);
       waitForIOTaskStop(_cleanupManager);
+      _readAheadManager.close();
+      waitForIOTaskStop(_readAheadManager);
 
       getTransaction().close();
       cleanup();
@@ -1701,16 +1783,10 @@ public class Persistit {
   }
 
   private void closeZombieTransactions(final boolean removeAllSessions) {
-    final Set<SessionId> sessionIds;
-    synchronized (_transactionSessionMap) {
-      sessionIds = new HashSet<SessionId>(_transactionSessionMap.keySet());
-    }
+    final Set<SessionId> sessionIds = new HashSet<SessionId>(_transactionSessionMap.keySet());
     for (final SessionId sessionId : sessionIds) {
       if (!sessionId.isAlive() || removeAllSessions) {
-        Transaction transaction = null;
-        synchronized (_transactionSessionMap) {
-          transaction = _transactionSessionMap.remove(sessionId);
-        }
+        final Transaction transaction = _transactionSessionMap.remove(sessionId);
         if (transaction != null) {
           try {
             transaction.close();
@@ -1726,10 +1802,7 @@ public class Persistit {
     final long expires = System.currentTimeMillis() + timeout;
     boolean remaining = false;
     do {
-      final Map<SessionId, Transaction> copy;
-      synchronized (_transactionSessionMap) {
-        copy = new HashMap<SessionId, Transaction>(_transactionSessionMap);
-      }
+      final Map<SessionId, Transaction> copy = new HashMap<SessionId, Transaction>(_transactionSessionMap);
       for (final Entry<SessionId, Transaction> entry : copy.entrySet()) {
         final SessionId sessionId = entry.getKey();
         final Transaction txn = entry.getValue();
@@ -1780,6 +1853,7 @@ public class Persistit {
     }
     _transactionIndex.crash();
     _cleanupManager.crash();
+    _readAheadManager.crash();
     _checkpointManager.crash();
     _closed.set(true);
     releaseAllResources();
@@ -1846,14 +1920,12 @@ public class Persistit {
       _initialized.set(false);
       _sessionIdThreadLocal.remove();
       _cleanupManager.clear();
+      _readAheadManager.clear();
       _configuration = null;
     }
-    synchronized (_exchangePoolMap) {
-      _exchangePoolMap.clear();
-    }
-    synchronized (_transactionSessionMap) {
-      _transactionSessionMap.clear();
-    }
+    _transactionSessionMap.clear();
+    _transactionPool.clear();
+    drainExchangePools();
     synchronized (_cliSessionMap) {
       _cliSessionMap.clear();
     }
@@ -1896,10 +1968,7 @@ public class Persistit {
   }
 
   void flushTransactions(final long checkpointTimestamp) throws PersistitException {
-    final List<Transaction> transactions;
-    synchronized (_transactionSessionMap) {
-      transactions = new ArrayList<Transaction>(_transactionSessionMap.values());
-    }
+    final List<Transaction> transactions = new ArrayList<Transaction>(_transactionSessionMap.values());
 
     for (final Transaction transaction : transactions) {
       transaction.flushOnCheckpoint(checkpointTimestamp);
@@ -2023,10 +2092,7 @@ public class Persistit {
   void closeSession() throws PersistitException {
     final SessionId sessionId = _sessionIdThreadLocal.get();
     if (sessionId != null) {
-      final Transaction txn;
-      synchronized (_transactionSessionMap) {
-        txn = _transactionSessionMap.remove(sessionId);
-      }
+      final Transaction txn = _transactionSessionMap.remove(sessionId);
       if (txn != null) {
         txn.close();
       }
@@ -2034,6 +2100,60 @@ public class Persistit {
     _sessionIdThreadLocal.set(null);
   }
 
+  /**
+   * <p>
+   * Open a new {@link Session} and bind it to the current thread. The
+   * <code>Session</code> supplies the {@link Exchange}s and the
+   * {@link Transaction} used by the thread until the <code>Session</code> is
+   * closed.
+   * </p>
+   * <p>
+   * Unlike the implicit session created for each thread by
+   * {@link #getSessionId()}, the resources of an explicit session are released
+   * as soon as it is closed rather than when {@link #cleanup()} notices that
+   * its thread has ended. This makes explicit sessions suitable for
+   * applications that service each request on a new, short-lived thread, such
+   * as a virtual thread.
+   * </p>
+   * 
+   * @return the new <code>Session</code>
+   */
+  public Session openSession() {
+    final Session session = new Session(this, new SessionId(true));
+    setSessionId(session.getSessionId());
+    return session;
+  }
+
+  /**
+   * Release the resources of a {@link Session}: roll back its transaction if
+   * it is still active, discard its pooled {@link Exchange}s and unbind it
+   * from the current thread if bound.
+   * 
+   * @param sessionId
+   *            The <code>SessionId</code> of the <code>Session</code>
+   * @throws PersistitException
+   */
+  void closeSession(final SessionId sessionId) throws PersistitException {
+    try {
+      final Transaction txn = _transactionSessionMap.remove(sessionId);
+      if (txn != null) {
+        txn.close();
+        if (txn.recycle()) {
+          if (_transactionPoolSize.incrementAndGet() <= MAX_POOLED_TRANSACTIONS) {
+            _transactionPool.offer(txn);
+          } else {
+            _transactionPoolSize.decrementAndGet();
+          }
+        }
+      }
+    } finally {
+      sessionId.close();
+      if (_sessionIdThreadLocal.get() == sessionId) {
+        _sessionIdThreadLocal.remove();
+      }
+    }
+  }
+
   /**
    * Get the <code>Transaction</code> object for the current thread. The
    * <code>Transaction</code> object lasts for the life of the thread. See
@@ -2044,14 +2164,21 @@ public class Persistit {
    */
   public Transaction getTransaction() {
     final SessionId sessionId = getSessionId();
-    synchronized (_transactionSessionMap) {
-      Transaction txn = _transactionSessionMap.get(sessionId);
-      if (txn == null) {
+    Transaction txn = _transactionSessionMap.get(sessionId);
+    if (txn == null) {
+      txn = _transactionPool.poll();
+      if (txn != null) {
+        _transactionPoolSize.decrementAndGet();
+        txn.reassign(sessionId);
+      } else {
         txn = new Transaction(this, sessionId);
-        _transactionSessionMap.put(sessionId, txn);
       }
-      return txn;
+      final Transaction existing = _transactionSessionMap.putIfAbsent(sessionId, txn);
+      if (existing != null) {
+        txn = existing;
+      }
     }
+    return txn;
   }
 
   /**
@@ -2242,6 +2369,10 @@ public class Persistit {
     return _cleanupManager;
   }
 
+  ReadAheadManager getReadAheadManager() {
+    return _readAheadManager;
+  }
+
   IOMeter getIOMeter() {
     return _ioMeter;
   }
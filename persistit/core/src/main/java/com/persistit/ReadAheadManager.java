@@ -0,0 +1,186 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.persistit.exception.PersistitException;
+
+/**
+ * Background thread that reads pages into the buffer pool ahead of a
+ * sequential traversal. An {@link Exchange} that detects it is walking the
+ * right-sibling chain of a tree's data pages offers the addresses of the next
+ * few pages, found in the index page above them, to this manager. The manager
+ * reads each page that is not already in the buffer pool so that when the
+ * traversal reaches it the page is found without waiting for I/O.
+ * <p />
+ * Requests are advisory. If the queue is full a request is refused, and a page
+ * that is already in the pool is not read again. Pages read by this manager
+ * are charged to the "PF" {@link IOMeter} operation. A prefetched page later
+ * used by an <code>Exchange</code> is charged to "PH"; one evicted before it
+ * is used is charged to "PW".
+ */
+class ReadAheadManager extends IOTaskRunnable {
+
+    final static long DEFAULT_POLL_INTERVAL_MS = 1_000;
+
+    final static int DEFAULT_QUEUE_SIZE = 4_096;
+
+    /**
+     * Maximum number of pages an Exchange may request ahead of its position
+     */
+    final static int MAXIMUM_READ_AHEAD_PAGES = 256;
+
+    private final static int WORKLIST_LENGTH = 256;
+
+    private final BlockingQueue<PageRequest> _queue = new ArrayBlockingQueue<>(DEFAULT_QUEUE_SIZE);
+
+    private final AtomicBoolean _closed = new AtomicBoolean();
+
+    private final AtomicLong _accepted = new AtomicLong();
+
+    private final AtomicLong _refused = new AtomicLong();
+
+    private final AtomicLong _performed = new AtomicLong();
+
+    private final AtomicLong _errors = new AtomicLong();
+
+    private static class PageRequest implements Comparable<PageRequest> {
+        final Volume _volume;
+        final long _page;
+
+        PageRequest(final Volume volume, final long page) {
+            _volume = volume;
+            _page = page;
+        }
+
+        @Override
+        public int compareTo(final PageRequest other) {
+            if (_volume != other._volume) {
+                return _volume.getId() < other._volume.getId() ? -1 : 1;
+            }
+            return _page < other._page ? -1 : _page > other._page ? 1 : 0;
+        }
+
+        @Override
+        public String toString() {
+            return _volume.getName() + ":" + _page;
+        }
+    }
+
+    ReadAheadManager(final Persistit persistit) {
+        super(persistit);
+    }
+
+    public void start() {
+        _closed.set(false);
+        start("READ_AHEAD", DEFAULT_POLL_INTERVAL_MS);
+    }
+
+    public void close() {
+        _closed.set(true);
+    }
+
+    @Override
+    protected void runTask() throws Exception {
+        poll();
+    }
+
+    @Override
+    protected boolean shouldStop() {
+        return _closed.get();
+    }
+
+    /**
+     * Request that a page be read into the buffer pool.
+     *
+     * @param volume
+     *            the volume containing the page
+     * @param page
+     *            the page address
+     * @return <code>true</code> if the request was queued
+     */
+    boolean offer(final Volume volume, final long page) {
+        if (_closed.get()) {
+            return false;
+        }
+        final boolean accepted = _queue.offer(new PageRequest(volume, page));
+        if (accepted) {
+            _accepted.incrementAndGet();
+            kick();
+        } else {
+            _refused.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    long getAcceptedCount() {
+        return _accepted.get();
+    }
+
+    long getRefusedCount() {
+        return _refused.get();
+    }
+
+    long getPerformedCount() {
+        return _performed.get();
+    }
+
+    long getErrorCount() {
+        return _errors.get();
+    }
+
+    int getEnqueuedCount() {
+        return _queue.size();
+    }
+
+    void poll() {
+        final List<PageRequest> workList = new ArrayList<>(WORKLIST_LENGTH);
+        while (!_closed.get() && _queue.drainTo(workList, WORKLIST_LENGTH) > 0) {
+            //
+            // Read in page address order so that pages requested by several
+            // Exchanges are read sequentially
+            //
+            Collections.sort(workList);
+            for (final PageRequest request : workList) {
+                if (_closed.get()) {
+                    break;
+                }
+                try {
+                    if (!request._volume.isClosed()) {
+                        request._volume.getPool().prefetch(request._volume, request._page);
+                        _performed.incrementAndGet();
+                    }
+                } catch (final PersistitException e) {
+                    lastException(e);
+                    _errors.incrementAndGet();
+                }
+            }
+            workList.clear();
+        }
+    }
+
+    synchronized void clear() {
+        _queue.clear();
+    }
+}
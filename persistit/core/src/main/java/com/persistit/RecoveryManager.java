@@ -40,6 +40,9 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.persistit.CheckpointManager.Checkpoint;
 import com.persistit.JournalManager.PageNode;
@@ -135,6 +138,15 @@ import com.persistit.util.Util;
  * are already present in the recovered B-Trees.
  * </p>
  * <p>
+ * When more than one recovery thread is configured, each committed transaction
+ * that updates exactly one tree, other than a directory tree, is applied by a
+ * worker thread. Every transaction on a given tree is assigned to the same
+ * worker, which applies them in commit timestamp order, so the transactions on
+ * each tree are still applied in their original serial order. Any other
+ * transaction is applied by the recovery thread itself after all preceding
+ * transactions have been applied by the workers.
+ * </p>
+ * <p>
  * This class is not threadsafe; it is intended to be called only during the
  * single-threaded recovery process.
  * </p>
@@ -162,9 +174,9 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
 
     private final Map<Long, TransactionMapItem> _abortedTransactionMap = new HashMap<Long, TransactionMapItem>();
 
-    private final Map<PageNode, PageNode> _pageMap = new HashMap<PageNode, PageNode>();
+    private final PageMap _pageMap = new PageMap();
 
-    private final Map<PageNode, PageNode> _branchMap = new HashMap<PageNode, PageNode>();
+    private final PageMap _branchMap = new PageMap();
 
     private final Map<Volume, Integer> _volumeToHandleMap = new HashMap<Volume, Integer>();
 
@@ -184,11 +196,21 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
 
     private volatile int _uncommittedTransactionCount;
 
-    private volatile int _appliedTransactionCount;
+    private final AtomicInteger _appliedTransactionCount = new AtomicInteger();
+
+    private final AtomicInteger _abortedTransactionCount = new AtomicInteger();
+
+    private final AtomicInteger _errorCount = new AtomicInteger();
+
+    private volatile int _recoveryThreads = DEFAULT_RECOVERY_THREADS;
+
+    private volatile int _transactionsToApply;
 
-    private volatile int _abortedTransactionCount;
+    private volatile long _applyStartTime;
 
-    private volatile int _errorCount;
+    private volatile long _applyEndTime;
+
+    private final Object _longRecordLock = new Object();
 
     private volatile boolean _recoveryDisabledForTestMode;
 
@@ -460,7 +482,7 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
         info.blockSize = _blockSize;
         info.pageMapSize = _pageMap.size();
         info.baseAddress = _baseAddress;
-        info.appliedTransactions = _appliedTransactionCount;
+        info.appliedTransactions = _appliedTransactionCount.get();
         info.committedTransactions = getCommittedCount();
         info.uncommittedTransactions = getUncommittedCount();
     }
@@ -499,12 +521,63 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
 
     @Override
     public int getAppliedTransactionCount() {
-        return _appliedTransactionCount;
+        return _appliedTransactionCount.get();
     }
 
     @Override
     public int getErrorCount() {
-        return _errorCount;
+        return _errorCount.get();
+    }
+
+    @Override
+    public int getRecoveryThreads() {
+        return _recoveryThreads;
+    }
+
+    /**
+     * Set the number of threads used to apply recovered transactions. Must be
+     * called before {@link #applyAllRecoveredTransactions}.
+     * 
+     * @param recoveryThreads
+     *            the number of threads
+     */
+    public void setRecoveryThreads(final int recoveryThreads) {
+        _recoveryThreads = Util.rangeCheck(recoveryThreads, MINIMUM_RECOVERY_THREADS, MAXIMUM_RECOVERY_THREADS);
+    }
+
+    @Override
+    public int getRemainingTransactionCount() {
+        return Math.max(0, _transactionsToApply - _appliedTransactionCount.get() - _abortedTransactionCount.get());
+    }
+
+    @Override
+    public long getAppliedRecordCount() {
+        return _player.getAppliedUpdates();
+    }
+
+    @Override
+    public long getRecordsPerSecond() {
+        final long elapsed = applyElapsedTime();
+        return elapsed == 0 ? 0 : getAppliedRecordCount() * Util.NS_PER_S / elapsed;
+    }
+
+    @Override
+    public long getEstimatedRemainingTime() {
+        final long elapsed = applyElapsedTime();
+        final long done = _appliedTransactionCount.get() + _abortedTransactionCount.get();
+        if (elapsed == 0 || done == 0) {
+            return 0;
+        }
+        return getRemainingTransactionCount() * (elapsed / Util.NS_PER_MS) / done;
+    }
+
+    private long applyElapsedTime() {
+        final long start = _applyStartTime;
+        if (start == 0) {
+            return 0;
+        }
+        final long end = _applyEndTime;
+        return (end == 0 ? System.nanoTime() : end) - start;
     }
 
     public Checkpoint getLastValidCheckpoint() {
@@ -596,11 +669,11 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
      * 
      * @param pageMap
      */
-    void collectRecoveredPages(final Map<PageNode, PageNode> pageMap, final Map<PageNode, PageNode> branchMap) {
+    void collectRecoveredPages(final PageMap pageMap, final PageMap branchMap) {
         if (_lastValidCheckpoint != null) {
             final long lastValidTimestamp = _lastValidCheckpoint.getTimestamp();
 
-            for (final PageNode lastPageNode : _pageMap.values()) {
+            for (final PageNode lastPageNode : _pageMap) {
                 boolean branched = false;
                 PageNode previous = null;
                 for (PageNode pageNode = lastPageNode; pageNode != null; pageNode = pageNode.getPrevious()) {
@@ -609,11 +682,11 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                         if (branched) {
                             previous.setPrevious(null);
                         }
-                        pageMap.put(pageNode, pageNode);
+                        pageMap.put(pageNode);
                         break;
                     } else {
                         if (!branched) {
-                            branchMap.put(pageNode, pageNode);
+                            branchMap.put(pageNode);
                             branched = true;
                         }
                         previous = pageNode;
@@ -878,26 +951,8 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             _readBuffer.position((int) (address - _readBufferAddress));
         } else {
             try {
-                final FileChannel fc = getFileChannel(address);
-                _readBuffer.clear();
-
-                int maxSize = _readBuffer.capacity();
-                final long remainingInBlock = addressUp(address) - address;
-                if (remainingInBlock < maxSize) {
-                    maxSize = (int) remainingInBlock;
-                }
-
-                _readBuffer.limit(maxSize);
-                int offset = 0;
-                while (_readBuffer.remaining() > 0) {
-                    final int readSize = fc.read(_readBuffer, offset + address % _blockSize);
-                    if (readSize < 0) {
-                        break;
-                    }
-                    offset += readSize;
-                }
+                fill(_readBuffer, address);
                 _readBufferAddress = address;
-                _readBuffer.flip();
                 if (_readBuffer.remaining() < size) {
                     throw new CorruptJournalException("End of file at " + addressToString(address));
                 }
@@ -907,6 +962,33 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
         }
     }
 
+    /**
+     * Fill the supplied buffer with bytes of the journal starting at
+     * <code>address</code>, up to the buffer's capacity or the end of the
+     * journal file containing <code>address</code>, and flip it.
+     */
+    private void fill(final ByteBuffer buffer, final long address) throws IOException, PersistitIOException {
+        final FileChannel fc = getFileChannel(address);
+        buffer.clear();
+
+        int maxSize = buffer.capacity();
+        final long remainingInBlock = addressUp(address) - address;
+        if (remainingInBlock < maxSize) {
+            maxSize = (int) remainingInBlock;
+        }
+
+        buffer.limit(maxSize);
+        int offset = 0;
+        while (buffer.remaining() > 0) {
+            final int readSize = fc.read(buffer, offset + address % _blockSize);
+            if (readSize < 0) {
+                break;
+            }
+            offset += readSize;
+        }
+        buffer.flip();
+    }
+
     /**
      * Attempts to read and apply the record at _currentAddress. If it finds
      * valid record contained in the current journal file, it advances the
@@ -1084,9 +1166,8 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             }
 
             final PageNode pageNode = new PageNode(volumeHandle, pageAddress, address, timestamp);
-            final PageNode oldPageNode = _pageMap.get(pageNode);
+            final PageNode oldPageNode = _pageMap.put(pageNode);
             pageNode.setPrevious(oldPageNode);
-            _pageMap.put(pageNode, pageNode);
             _persistit.getLogBase().recoveryRecord.log("PA", pageNode.toStringJournalAddress(this),
                     pageNode.toStringPageAddress(this), timestamp);
         }
@@ -1158,17 +1239,17 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             // journals are recovered.
             //
             if (timestamp != 0 && timestamp < pageTimestamp) {
-                lastPageNode = _branchMap.get(pageNode);
+                lastPageNode = _branchMap.get(volumeHandle, pageAddress);
                 if (lastPageNode == null || journalAddress > lastPageNode.getJournalAddress()) {
                     pageNode.setPrevious(lastPageNode);
-                    _branchMap.put(pageNode, pageNode);
+                    _branchMap.put(pageNode);
                     linked = true;
                 }
             } else {
-                lastPageNode = _pageMap.get(pageNode);
+                lastPageNode = _pageMap.get(volumeHandle, pageAddress);
                 if (lastPageNode == null || journalAddress > lastPageNode.getJournalAddress()) {
                     pageNode.setPrevious(lastPageNode);
-                    _pageMap.put(pageNode, pageNode);
+                    _pageMap.put(pageNode);
                     linked = true;
                 }
             }
@@ -1351,7 +1432,7 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
         long lastRequiredJournalAddress = startingAddress;
 
         PageNode lastRequiredPageNode = null;
-        for (final PageNode pageNode : _pageMap.values()) {
+        for (final PageNode pageNode : _pageMap) {
             for (PageNode pn = pageNode; pn != null; pn = pn.getPrevious()) {
                 if (pn.getJournalAddress() < lastRequiredJournalAddress) {
                     break;
@@ -1367,7 +1448,8 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             type = getType(_readBuffer);
             validate(type, file, startingAddress, PA.TYPE, "Invalid record type %3$,d at %1$s:%2$d");
             recordSize = getLength(_readBuffer);
-            validate(recordSize, file, startingAddress, PA.OVERHEAD + Buffer.HEADER_SIZE, PA.OVERHEAD
+            final int minimumSize = PA.isCompressed(_readBuffer) ? PA.OVERHEAD + 1 : PA.OVERHEAD + Buffer.HEADER_SIZE;
+            validate(recordSize, file, startingAddress, minimumSize, PA.OVERHEAD
                     + Buffer.MAX_BUFFER_SIZE, "PA record size %3$,d not in valid range "
                     + "[%4$,d:%5$,d] at %1$s:%2$,d");
             final long pageAddress = PA.getPageAddress(_readBuffer);
@@ -1467,6 +1549,7 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                             + addressToString(address, startTimestamp));
                 }
                 item = new TransactionMapItem(startTimestamp, address);
+                item.setTreeHandle(scanTreeHandle(recordSize));
                 _recoveredTransactionMap.put(key, item);
 
             } else {
@@ -1484,6 +1567,9 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                             + " does not match previous record " + item);
                 }
                 item.setLastRecordAddress(address);
+                if (item.getTreeHandle() != scanTreeHandle(recordSize)) {
+                    item.setTreeHandle(TransactionMapItem.MIXED_TREE_HANDLE);
+                }
             }
             item.setCommitTimestamp(commitTimestamp);
             _persistit.getTimestampAllocator().updateTimestamp(commitTimestamp);
@@ -1491,6 +1577,54 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
 
     }
 
+    /**
+     * Examine the updates in the TX record in <code>_readBuffer</code>. The
+     * records are validated later, when the transaction is applied.
+     * 
+     * @param recordSize
+     *            length of the TX record
+     * @return the handle of the only tree updated by the record, 0 if it
+     *         contains no updates, or
+     *         {@link TransactionMapItem#MIXED_TREE_HANDLE} if it updates
+     *         more than one tree or removes a tree
+     */
+    private int scanTreeHandle(final int recordSize) {
+        final int start = _readBuffer.position();
+        final int end = start + recordSize;
+        int treeHandle = 0;
+        try {
+            for (int position = start + TX.OVERHEAD; position < end;) {
+                _readBuffer.position(position);
+                final int innerSize = getLength(_readBuffer);
+                final int handle;
+                switch (getType(_readBuffer)) {
+                case SR.TYPE:
+                    handle = SR.getTreeHandle(_readBuffer);
+                    break;
+                case DR.TYPE:
+                    handle = DR.getTreeHandle(_readBuffer);
+                    break;
+                case D0.TYPE:
+                    handle = D0.getTreeHandle(_readBuffer);
+                    break;
+                case D1.TYPE:
+                    handle = D1.getTreeHandle(_readBuffer);
+                    break;
+                default:
+                    return TransactionMapItem.MIXED_TREE_HANDLE;
+                }
+                if (innerSize <= 0 || handle <= 0 || treeHandle != 0 && handle != treeHandle) {
+                    return TransactionMapItem.MIXED_TREE_HANDLE;
+                }
+                treeHandle = handle;
+                position += innerSize;
+            }
+        } finally {
+            _readBuffer.position(start);
+        }
+        return treeHandle;
+    }
+
     // ---------------------------- Phase 3 ------------------------------------
 
     public void applyAllRecoveredTransactions(final TransactionPlayerListener commitListener,
@@ -1520,37 +1654,265 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             assert last.getCommitTimestamp() <= _persistit.getTimestampAllocator().getCurrentTimestamp();
         }
 
-        for (final TransactionMapItem item : sorted) {
-            final TransactionPlayerListener listener = item.isCommitted() ? commitListener : rollbackListener;
-            try {
-                if (!started) {
-                    commitListener.startRecovery(item.getStartAddress(), item.getCommitTimestamp());
-                    started = true;
+        _transactionsToApply = sorted.size();
+        _applyStartTime = System.nanoTime();
+        _applyEndTime = 0;
+        final RecoveryWorkers workers = _recoveryThreads > 1 ? new RecoveryWorkers(_recoveryThreads, commitListener)
+                : null;
+        try {
+            for (final TransactionMapItem item : sorted) {
+                if (started && workers != null && item.isCommitted() && workers.offer(item)) {
+                    continue;
                 }
-
-                _player.applyTransaction(item, listener);
-                if (item.isCommitted()) {
-                    _appliedTransactionCount++;
-                } else {
-                    _abortedTransactionCount++;
+                if (workers != null) {
+                    workers.drain();
                 }
+                final TransactionPlayerListener listener = item.isCommitted() ? commitListener : rollbackListener;
+                try {
+                    if (!started) {
+                        commitListener.startRecovery(item.getStartAddress(), item.getCommitTimestamp());
+                        started = true;
+                    }
 
-                if ((_appliedTransactionCount + _abortedTransactionCount) % APPLY_TRANSACTION_LOG_COUNT == 0) {
-                    _persistit.getLogBase().recoveryProgress.log(_appliedTransactionCount, _abortedTransactionCount,
-                            _recoveredTransactionMap.size() - _appliedTransactionCount - _abortedTransactionCount);
+                    _player.applyTransaction(item, listener);
+                    transactionApplied(item);
+                } catch (final TestException te) {
+                    // Exception thrown by a unit test to interrupt recovery
+                    _persistit.getLogBase().recoveryException.log(te, item);
+                    throw te;
+                } catch (final Exception pe) {
+                    _persistit.getLogBase().recoveryException.log(pe, item);
+                    _errorCount.incrementAndGet();
                 }
-            } catch (final TestException te) {
-                // Exception thrown by a unit test to interrupt recovery
-                _persistit.getLogBase().recoveryException.log(te, item);
-                throw te;
-            } catch (final Exception pe) {
-                _persistit.getLogBase().recoveryException.log(pe, item);
-                _errorCount++;
             }
+            if (workers != null) {
+                workers.drain();
+            }
+        } finally {
+            if (workers != null) {
+                workers.stop();
+            }
+            _applyEndTime = System.nanoTime();
         }
         _branchMap.clear();
     }
 
+    private void transactionApplied(final TransactionMapItem item) {
+        final int applied;
+        final int aborted;
+        if (item.isCommitted()) {
+            applied = _appliedTransactionCount.incrementAndGet();
+            aborted = _abortedTransactionCount.get();
+        } else {
+            applied = _appliedTransactionCount.get();
+            aborted = _abortedTransactionCount.incrementAndGet();
+        }
+        if ((applied + aborted) % APPLY_TRANSACTION_LOG_COUNT == 0) {
+            _persistit.getLogBase().recoveryProgress.log(applied, aborted, _transactionsToApply - applied - aborted,
+                    getRecordsPerSecond(), getEstimatedRemainingTime() / Util.MS_PER_S);
+        }
+    }
+
+    /**
+     * Pool of threads that apply committed transactions, each of which
+     * updates a single tree, on behalf of
+     * {@link RecoveryManager#applyAllRecoveredTransactions}. Each tree is
+     * assigned to one worker on first use; a worker applies the transactions
+     * assigned to it in the order it receives them.
+     */
+    private class RecoveryWorkers {
+
+        private final RecoveryWorker[] _workers;
+
+        private final Map<Integer, RecoveryWorker> _assignments = new HashMap<Integer, RecoveryWorker>();
+
+        private int _nextWorker;
+
+        private int _pending;
+
+        private TestException _testException;
+
+        RecoveryWorkers(final int threads, final TransactionPlayerListener listener) {
+            _workers = new RecoveryWorker[threads];
+            for (int index = 0; index < threads; index++) {
+                _workers[index] = new RecoveryWorker(this, listener, index);
+                _workers[index].start();
+            }
+        }
+
+        /**
+         * Queue a committed transaction to the worker that owns its tree.
+         * 
+         * @return <code>true</code> if the transaction was queued, or
+         *         <code>false</code> if the caller must apply it after calling
+         *         {@link #drain()}
+         */
+        boolean offer(final TransactionMapItem item) {
+            final Integer treeHandle = Integer.valueOf(item.getTreeHandle());
+            if (treeHandle.intValue() <= 0) {
+                return false;
+            }
+            RecoveryWorker worker = _assignments.get(treeHandle);
+            if (worker == null) {
+                final TreeDescriptor td = _handleToTreeMap.get(treeHandle);
+                if (td == null || VolumeStructure.DIRECTORY_TREE_NAME.equals(td.getTreeName())) {
+                    return false;
+                }
+                worker = _workers[_nextWorker++ % _workers.length];
+                _assignments.put(treeHandle, worker);
+            }
+            synchronized (this) {
+                _pending++;
+            }
+            worker._queue.add(item);
+            return true;
+        }
+
+        /**
+         * Wait until every queued transaction has been applied.
+         * 
+         * @throws TestException
+         *             if a worker was stopped by a unit test
+         */
+        synchronized void drain() throws TestException {
+            boolean interrupted = false;
+            while (_pending > 0) {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (_testException != null) {
+                throw _testException;
+            }
+        }
+
+        synchronized boolean isStopped() {
+            return _testException != null;
+        }
+
+        synchronized void done(final TestException testException) {
+            if (testException != null && _testException == null) {
+                _testException = testException;
+            }
+            if (--_pending == 0) {
+                notifyAll();
+            }
+        }
+
+        void stop() {
+            for (final RecoveryWorker worker : _workers) {
+                worker._queue.add(STOP_WORKER);
+            }
+            for (final RecoveryWorker worker : _workers) {
+                try {
+                    worker.join();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private final static TransactionMapItem STOP_WORKER = new TransactionMapItem(0, 0);
+
+    private class RecoveryWorker extends Thread {
+
+        private final BlockingQueue<TransactionMapItem> _queue = new LinkedBlockingQueue<TransactionMapItem>();
+
+        private final RecoveryWorkers _owner;
+
+        private final TransactionPlayerListener _listener;
+
+        private final TransactionPlayer _workerPlayer = new TransactionPlayer(new RecoveryWorkerPlayerSupport(),
+                _player);
+
+        RecoveryWorker(final RecoveryWorkers owner, final TransactionPlayerListener listener, final int index) {
+            super("RECOVERY_WORKER_" + index);
+            setDaemon(true);
+            _owner = owner;
+            _listener = listener;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (TransactionMapItem item = _queue.take(); item != STOP_WORKER; item = _queue.take()) {
+                    TestException testException = null;
+                    if (!_owner.isStopped()) {
+                        try {
+                            _workerPlayer.applyTransaction(item, _listener);
+                            transactionApplied(item);
+                        } catch (final TestException te) {
+                            _persistit.getLogBase().recoveryException.log(te, item);
+                            testException = te;
+                        } catch (final Exception pe) {
+                            _persistit.getLogBase().recoveryException.log(pe, item);
+                            _errorCount.incrementAndGet();
+                        }
+                    }
+                    _owner.done(testException);
+                }
+            } catch (final InterruptedException e) {
+                // stop
+            }
+        }
+    }
+
+    /**
+     * TransactionPlayerSupport for a {@link RecoveryWorker}. Each worker reads
+     * TX records into its own buffer. Long records are assembled one at a time
+     * through the shared read buffer, which the recovery thread does not use
+     * while workers are busy.
+     */
+    private class RecoveryWorkerPlayerSupport implements TransactionPlayerSupport {
+
+        private final ByteBuffer _buffer = ByteBuffer.allocate(_readBufferSize);
+
+        private long _bufferAddress = -1;
+
+        @Override
+        public void read(final long address, final int size) throws PersistitIOException {
+            if (_bufferAddress >= 0 && address >= _bufferAddress && size + address - _bufferAddress <= _buffer.limit()) {
+                _buffer.position((int) (address - _bufferAddress));
+            } else {
+                try {
+                    _bufferAddress = -1;
+                    fill(_buffer, address);
+                    _bufferAddress = address;
+                    if (_buffer.remaining() < size) {
+                        throw new CorruptJournalException("End of file at " + addressToString(address));
+                    }
+                } catch (final IOException e) {
+                    throw new PersistitIOException("Reading from " + addressToString(address), e);
+                }
+            }
+        }
+
+        @Override
+        public ByteBuffer getReadBuffer() {
+            return _buffer;
+        }
+
+        @Override
+        public void convertToLongRecord(final Value value, final int treeHandle, final long address,
+                final long commitTimestamp) throws PersistitException {
+            synchronized (_longRecordLock) {
+                RecoveryManager.this.convertToLongRecord(value, treeHandle, address, commitTimestamp);
+            }
+        }
+
+        @Override
+        public Persistit getPersistit() {
+            return _persistit;
+        }
+    }
+
     /**
      * Assembles a long record into the provided Value object. This method
      * relies on finding the PAGE_TYPE_LONG_RECORD pages in the journal.
@@ -1609,10 +1971,9 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             // Look for the latest version of the page which precedes the
             // record's timestamp.
             //
-            final PageNode key = new PageNode(volumeHandle, page, -1, -1);
-            PageNode pn = lastPageNodeBefore(_branchMap.get(key), timestamp);
+            PageNode pn = lastPageNodeBefore(_branchMap.get(volumeHandle, page), timestamp);
             if (pn == null) {
-                pn = lastPageNodeBefore(_pageMap.get(key), timestamp);
+                pn = lastPageNodeBefore(_pageMap.get(volumeHandle, page), timestamp);
             }
 
             if (pn == null) {
@@ -1627,6 +1988,7 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             final int payloadSize = recordSize - PA.OVERHEAD;
             final int leftSize = PA.getLeftSize(_readBuffer);
             final int bufferSize = PA.getBufferSize(_readBuffer);
+            final boolean compressed = PA.isCompressed(_readBuffer);
             final long pageAddress = PA.getPageAddress(_readBuffer);
             //
             // Verify that this is the valid and appropriate PA record
@@ -1636,7 +1998,7 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                         + " is not a PAGE record");
             }
 
-            if (leftSize < 0 || payloadSize < leftSize || payloadSize > bufferSize) {
+            if (!JournalManager.validPageSizes(payloadSize, leftSize, bufferSize, compressed)) {
                 throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
                         + " invalid sizes: recordSize= " + payloadSize + " leftSize=" + leftSize + " bufferSize="
                         + bufferSize);
@@ -1651,7 +2013,29 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             // Verify that this is a PAGE_TYPE_LONG_RECORD
             //
             read(_currentAddress, recordSize);
-            final int pageType = JournalRecord.getByte(_readBuffer, PA.OVERHEAD + Buffer.TYPE_OFFSET);
+            //
+            // Long record pages are written without a gap, so the image is
+            // the entire payload or, if compressed, its expansion.
+            //
+            final byte[] image;
+            final int imageOffset;
+            final int imageSize;
+            if (compressed) {
+                final PageCompressor compressor = PageCompressor.get();
+                image = compressor.getScratch();
+                imageOffset = 0;
+                imageSize = compressor.expand(_readBuffer.array(), _readBuffer.arrayOffset()
+                        + _readBuffer.position() + PA.OVERHEAD, payloadSize, image, 0, bufferSize);
+            } else {
+                image = _readBuffer.array();
+                imageOffset = _readBuffer.arrayOffset() + _readBuffer.position() + PA.OVERHEAD;
+                imageSize = payloadSize;
+            }
+            if (imageSize < Buffer.HEADER_SIZE) {
+                throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                        + " page image too short: " + imageSize);
+            }
+            final int pageType = Util.getByte(image, imageOffset + Buffer.TYPE_OFFSET);
 
             if (pageType != Buffer.PAGE_TYPE_LONG_RECORD) {
                 throw new CorruptJournalException("Long record chain contains invalid page type " + pageType
@@ -1659,15 +2043,14 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                         + addressToString(from, timestamp));
             }
 
-            final int segmentSize = Math.min(remainingSize, payloadSize - Buffer.HEADER_SIZE);
+            final int segmentSize = Math.min(remainingSize, imageSize - Buffer.HEADER_SIZE);
 
-            System.arraycopy(_readBuffer.array(), _readBuffer.position() + PA.OVERHEAD + Buffer.HEADER_SIZE,
-                    value.getEncodedBytes(), offset, segmentSize);
+            System.arraycopy(image, imageOffset + Buffer.HEADER_SIZE, value.getEncodedBytes(), offset, segmentSize);
             offset += segmentSize;
             remainingSize -= segmentSize;
 
             // Next page in chain
-            page = JournalRecord.getLong(_readBuffer, PA.OVERHEAD + Buffer.RIGHT_SIBLING_OFFSET);
+            page = Util.getLong(image, imageOffset + Buffer.RIGHT_SIBLING_OFFSET);
 
             if (count > Buffer.MAX_LONG_RECORD_CHAIN) {
                 throw new CorruptJournalException("Long record chain has more than " + Buffer.MAX_LONG_RECORD_CHAIN
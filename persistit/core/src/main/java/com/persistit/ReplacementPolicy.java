@@ -0,0 +1,319 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Policy used by a {@link BufferPool} to decide which buffer to evict when a
+ * page not already in the pool is needed. The pool owns the clock hand and
+ * performs the mechanics of eviction (claiming, writing dirty pages, detaching
+ * from the hash table); the policy decides whether the buffer under the clock
+ * hand should be passed over, and is notified when a buffer is assigned to a
+ * new page and when a valid page is evicted.
+ * </p>
+ * <p>
+ * Two policies are available:
+ * <dl>
+ * <dt>{@value #CLOCK_NAME}</dt>
+ * <dd>The classic CLOCK algorithm: a buffer touched since the clock hand last
+ * passed it is given a second chance. This is the default.</dd>
+ * <dt>{@value #TWO_QUEUE_NAME}</dt>
+ * <dd>A scan-resistant CLOCK variant of the 2Q algorithm. Newly loaded pages
+ * are <i>probationary</i>. Once probationary pages exceed a fixed fraction of
+ * the pool they are evicted as soon as the clock hand reaches them, regardless
+ * of whether they were touched, and protected pages are passed over. The
+ * identity of each evicted probationary page is remembered in a "ghost" table.
+ * A page that is loaded again while still remembered in the ghost table becomes
+ * <i>protected</i>. Once probationary pages fall below their share of the pool,
+ * all pages are evicted by the ordinary CLOCK second-chance rule. A long
+ * sequential scan therefore cycles through the probationary fraction of the
+ * pool instead of flushing the hot index pages.</dd>
+ * </dl>
+ * </p>
+ *
+ * @see Configuration.BufferPoolConfiguration#setReplacementPolicy(String)
+ */
+abstract class ReplacementPolicy {
+
+    final static String CLOCK_NAME = "CLOCK";
+
+    final static String TWO_QUEUE_NAME = "2Q";
+
+    final static String DEFAULT_POLICY_NAME = CLOCK_NAME;
+
+    private final static String[] POLICY_NAMES = { CLOCK_NAME, TWO_QUEUE_NAME };
+
+    /**
+     * Return the canonical name of the policy having the supplied name,
+     * ignoring case.
+     *
+     * @param name
+     *            the policy name
+     * @return the canonical policy name
+     * @throws IllegalArgumentException
+     *             if there is no such policy
+     */
+    static String canonicalName(final String name) {
+        for (final String policyName : POLICY_NAMES) {
+            if (policyName.equalsIgnoreCase(name)) {
+                return policyName;
+            }
+        }
+        throw new IllegalArgumentException("No such ReplacementPolicy " + name);
+    }
+
+    /**
+     * Construct a new policy instance for a buffer pool.
+     *
+     * @param name
+     *            the policy name
+     * @param bufferCount
+     *            the number of buffers in the pool
+     * @return the new policy
+     */
+    static ReplacementPolicy create(final String name, final int bufferCount) {
+        final String canonical = canonicalName(name);
+        if (TWO_QUEUE_NAME.equals(canonical)) {
+            return new TwoQueue(bufferCount);
+        } else {
+            return new Clock();
+        }
+    }
+
+    /**
+     * @return the name of this policy
+     */
+    abstract String getName();
+
+    /**
+     * Determine whether the clock hand should pass over the supplied buffer
+     * rather than attempting to evict it. May change the state of the buffer,
+     * for example by clearing its touched bit.
+     *
+     * @param buffer
+     *            the buffer under the clock hand
+     * @return <code>true</code> to pass over the buffer
+     */
+    abstract boolean skip(Buffer buffer);
+
+    /**
+     * The CLOCK second-chance rule: pass over a buffer that has been touched
+     * since the clock hand last reached it, clearing its touched bit.
+     *
+     * @param buffer
+     *            the buffer under the clock hand
+     * @return <code>true</code> to pass over the buffer
+     */
+    static boolean skipTouched(final Buffer buffer) {
+        if (buffer.isTouched()) {
+            buffer.clearTouched();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Called when a buffer has been assigned to a new page. The caller holds a
+     * writer claim on the buffer, and the buffer's volume and page address are
+     * already set.
+     *
+     * @param buffer
+     *            the buffer
+     */
+    void pageAssigned(final Buffer buffer) {
+    }
+
+    /**
+     * Called when a valid page is about to be evicted from the buffer. The
+     * caller holds a writer claim on the buffer, and the buffer's volume and
+     * page address still identify the evicted page.
+     *
+     * @param buffer
+     *            the buffer
+     */
+    void pageEvicted(final Buffer buffer) {
+    }
+
+    /**
+     * @return count of pages loaded that were found in the ghost table
+     */
+    long getGhostHitCount() {
+        return 0;
+    }
+
+    /**
+     * @return count of buffers currently holding probationary pages
+     */
+    int getProbationaryPageCount() {
+        return 0;
+    }
+
+    void resetCounters() {
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    /**
+     * The CLOCK algorithm
+     */
+    static class Clock extends ReplacementPolicy {
+
+        @Override
+        String getName() {
+            return CLOCK_NAME;
+        }
+
+        @Override
+        boolean skip(final Buffer buffer) {
+            return skipTouched(buffer);
+        }
+    }
+
+    /**
+     * Scan-resistant CLOCK variant of 2Q
+     */
+    static class TwoQueue extends ReplacementPolicy {
+
+        /**
+         * Fraction of the pool that may be held by probationary pages before
+         * they are evicted on sight. Corresponds to K<sub>in</sub> in the 2Q
+         * paper.
+         */
+        private final static float PROBATIONARY_RATIO = 0.25f;
+
+        /**
+         * Ratio of ghost table slots to buffers. Corresponds to K<sub>out</sub>
+         * in the 2Q paper.
+         */
+        private final static int GHOST_MULTIPLE = 1;
+
+        private final static byte PROBATIONARY = 0;
+
+        private final static byte PROTECTED = 1;
+
+        private final static long EMPTY = 0;
+
+        /**
+         * State of each buffer, indexed by pool index. Written only while the
+         * buffer is claimed as writer.
+         */
+        private final byte[] _states;
+
+        private final int _probationaryLimit;
+
+        private final AtomicInteger _probationaryCount;
+
+        /**
+         * Direct-mapped table of page identities recently evicted while
+         * probationary. A newly evicted page overwrites whatever page
+         * previously occupied the same slot, which approximates the FIFO order
+         * of the A1out queue without a lock.
+         */
+        private final AtomicLongArray _ghosts;
+
+        private final AtomicLong _ghostHitCounter = new AtomicLong();
+
+        TwoQueue(final int bufferCount) {
+            _states = new byte[bufferCount];
+            _probationaryLimit = Math.max(1, (int) (bufferCount * PROBATIONARY_RATIO));
+            _probationaryCount = new AtomicInteger(bufferCount);
+            _ghosts = new AtomicLongArray(bufferCount * GHOST_MULTIPLE);
+        }
+
+        @Override
+        String getName() {
+            return TWO_QUEUE_NAME;
+        }
+
+        @Override
+        boolean skip(final Buffer buffer) {
+            if (_probationaryCount.get() > _probationaryLimit) {
+                return _states[buffer.getIndex()] != PROBATIONARY;
+            }
+            return skipTouched(buffer);
+        }
+
+        @Override
+        void pageAssigned(final Buffer buffer) {
+            final long id = pageId(buffer);
+            final int slot = slot(id);
+            final byte state;
+            if (_ghosts.get(slot) == id && _ghosts.compareAndSet(slot, id, EMPTY)) {
+                _ghostHitCounter.incrementAndGet();
+                state = PROTECTED;
+            } else {
+                state = PROBATIONARY;
+            }
+            final int index = buffer.getIndex();
+            final byte previous = _states[index];
+            if (previous != state) {
+                _states[index] = state;
+                _probationaryCount.addAndGet(state == PROBATIONARY ? 1 : -1);
+            }
+        }
+
+        @Override
+        void pageEvicted(final Buffer buffer) {
+            if (_states[buffer.getIndex()] == PROBATIONARY) {
+                final long id = pageId(buffer);
+                _ghosts.set(slot(id), id);
+            }
+        }
+
+        @Override
+        long getGhostHitCount() {
+            return _ghostHitCounter.get();
+        }
+
+        @Override
+        int getProbationaryPageCount() {
+            return _probationaryCount.get();
+        }
+
+        @Override
+        void resetCounters() {
+            _ghostHitCounter.set(0);
+        }
+
+        private int slot(final long id) {
+            return (int) ((id >>> 1) % _ghosts.length());
+        }
+
+        /**
+         * Compute a non-zero identity for the page held by a buffer. Distinct
+         * pages may on rare occasions compute the same identity; the only
+         * consequence is that a page is protected one eviction sooner than it
+         * otherwise would be.
+         */
+        private static long pageId(final Buffer buffer) {
+            final Volume volume = buffer.getVolume();
+            long id = buffer.getPageAddress() * 0x9E3779B97F4A7C15L;
+            if (volume != null) {
+                id ^= volume.getId();
+            }
+            id &= Long.MAX_VALUE;
+            return id == EMPTY ? 1 : id;
+        }
+    }
+}
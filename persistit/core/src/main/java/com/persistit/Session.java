@@ -0,0 +1,176 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import com.persistit.exception.PersistitException;
+
+/**
+ * <p>
+ * An explicit session context, created by {@link Persistit#openSession()}. A
+ * <code>Session</code> owns a {@link Transaction} and a pool of
+ * {@link Exchange}s. While it is open it is bound to the thread that opened it
+ * or last called {@link #attach()}, so that methods such as
+ * {@link Persistit#getTransaction()} and the {@link Accumulator} methods that
+ * locate the current transaction use this session.
+ * </p>
+ * <p>
+ * Sessions are intended for applications that service each request on a
+ * new, short-lived thread, for example a virtual thread:
+ *
+ * <pre>
+ * <code>
+ * try (Session session = persistit.openSession()) {
+ *     final Exchange exchange = session.getExchange("vol", "tree", true);
+ *     final Transaction txn = session.getTransaction();
+ *     txn.begin();
+ *     try {
+ *         exchange.getValue().put(value);
+ *         exchange.clear().append(key).store();
+ *         txn.commit();
+ *     } finally {
+ *         txn.end();
+ *     }
+ * }
+ * </code>
+ * </pre>
+ *
+ * Closing the session rolls back a transaction left active, discards the
+ * pooled <code>Exchange</code>s and unbinds the session from the current
+ * thread, so no per-thread state survives the request. The exchange pool is
+ * held by the session itself and is not synchronized: a <code>Session</code>
+ * must be used by only one thread at a time.
+ * </p>
+ */
+public class Session implements AutoCloseable {
+
+    private final Persistit _persistit;
+
+    private final SessionId _sessionId;
+
+    Session(final Persistit persistit, final SessionId sessionId) {
+        _persistit = persistit;
+        _sessionId = sessionId;
+    }
+
+    /**
+     * @return the <code>SessionId</code> identifying this session
+     */
+    public SessionId getSessionId() {
+        return _sessionId;
+    }
+
+    /**
+     * @return <code>true</code> if this session has not been closed
+     */
+    public boolean isOpen() {
+        return !_sessionId.isClosed();
+    }
+
+    /**
+     * Bind this session to the current thread. A session opened on one thread
+     * may be continued on another, provided that only one thread uses it at a
+     * time.
+     */
+    public void attach() {
+        checkOpen();
+        _persistit.setSessionId(_sessionId);
+    }
+
+    /**
+     * Get an <code>Exchange</code> from this session's pool, or create one.
+     * See {@link Persistit#getExchange(String, String, boolean)}.
+     *
+     * @param volumeName
+     *            The volume name
+     * @param treeName
+     *            The tree name
+     * @param create
+     *            <code>true</code> to create a new Tree if one by the
+     *            specified name does not already exist.
+     * @return the <code>Exchange</code>
+     * @throws PersistitException
+     */
+    public Exchange getExchange(final String volumeName, final String treeName, final boolean create)
+            throws PersistitException {
+        attach();
+        return _persistit.getExchange(volumeName, treeName, create);
+    }
+
+    /**
+     * Get an <code>Exchange</code> from this session's pool, or create one.
+     * See {@link Persistit#getExchange(Volume, String, boolean)}.
+     *
+     * @param volume
+     *            The Volume
+     * @param treeName
+     *            The tree name
+     * @param create
+     *            <code>true</code> to create a new Tree if one by the
+     *            specified name does not already exist.
+     * @return the <code>Exchange</code>
+     * @throws PersistitException
+     */
+    public Exchange getExchange(final Volume volume, final String treeName, final boolean create)
+            throws PersistitException {
+        attach();
+        return _persistit.getExchange(volume, treeName, create);
+    }
+
+    /**
+     * Return an <code>Exchange</code> to this session's pool. See
+     * {@link Persistit#releaseExchange(Exchange)}.
+     *
+     * @param exchange
+     *            The <code>Exchange</code> to release
+     */
+    public void releaseExchange(final Exchange exchange) {
+        attach();
+        _persistit.releaseExchange(exchange);
+    }
+
+    /**
+     * @return this session's <code>Transaction</code>
+     */
+    public Transaction getTransaction() {
+        attach();
+        return _persistit.getTransaction();
+    }
+
+    /**
+     * Close this session, rolling back its transaction if it is still active.
+     * Closing a session that is already closed has no effect.
+     *
+     * @throws PersistitException
+     */
+    @Override
+    public void close() throws PersistitException {
+        if (!_sessionId.isClosed()) {
+            _persistit.closeSession(_sessionId);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Session" + _sessionId;
+    }
+
+    private void checkOpen() {
+        if (_sessionId.isClosed()) {
+            throw new IllegalStateException("Session is closed: " + this);
+        }
+    }
+}
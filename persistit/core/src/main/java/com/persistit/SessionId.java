@@ -16,6 +16,10 @@
 
 package com.persistit;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -44,6 +48,13 @@ import java.util.concurrent.atomic.AtomicReference;
  * created during the lifetime of a <code>Persistit</code> instance and to
  * manage them appropriately.
  * </p>
+ * <p>
+ * A SessionId created by {@link Persistit#openSession()} belongs to an
+ * explicit {@link Session}. Such a SessionId remains alive until the
+ * <code>Session</code> is closed, even if the thread that last used it has
+ * ended, so that a session can outlive the short-lived (for example virtual)
+ * threads that service it.
+ * </p>
  * 
  * @author peter
  * 
@@ -56,7 +67,35 @@ public class SessionId {
 
     private final AtomicReference<Thread> _owner = new AtomicReference<Thread>();
 
+    private final boolean _explicit;
+
+    private volatile boolean _closed;
+
+    /**
+     * Exchanges released to the pool by {@link Persistit#releaseExchange}. A
+     * session is used by only one thread at a time, so the pool's monitor is
+     * only contended when {@link Persistit#close()} drains it.
+     */
+    private final List<Exchange> _exchangePool = new ArrayList<Exchange>();
+
+    /**
+     * The Persistit instance that most recently registered this session as
+     * holding its Exchanges, so that it can drain the pool when closed.
+     */
+    private WeakReference<Persistit> _exchangePoolRegistrar;
+
+    /**
+     * Set by the first {@link Persistit#getExchange} on this session.
+     * {@link Persistit#releaseExchange} is not permitted before then.
+     */
+    private boolean _exchangePoolCreated;
+
     public SessionId() {
+        this(false);
+    }
+
+    SessionId(final boolean explicit) {
+        _explicit = explicit;
         assign();
     }
 
@@ -77,6 +116,9 @@ public class SessionId {
      * @return Status of the associated {@link Thread}.
      */
     public boolean isAlive() {
+        if (_explicit) {
+            return !_closed;
+        }
         return _owner.get().isAlive();
     }
 
@@ -89,6 +131,67 @@ public class SessionId {
         _owner.set(Thread.currentThread());
     }
 
+    void close() {
+        _closed = true;
+        synchronized (_exchangePool) {
+            _exchangePool.clear();
+        }
+    }
+
+    boolean isClosed() {
+        return _closed;
+    }
+
+    /**
+     * @param create
+     *            <code>true</code> to create the pool if this session has not
+     *            used it yet
+     * @return the pool of released Exchanges, or <code>null</code> if
+     *         <code>create</code> is <code>false</code> and no Exchange has
+     *         been got on this session
+     */
+    List<Exchange> getExchangePool(final boolean create) {
+        if (create) {
+            _exchangePoolCreated = true;
+        }
+        return _exchangePoolCreated ? _exchangePool : null;
+    }
+
+    /**
+     * @param persistit
+     *            a Persistit instance
+     * @return <code>true</code> if <code>persistit</code> is the instance
+     *         that most recently registered this session's pool
+     */
+    boolean isExchangePoolRegistrar(final Persistit persistit) {
+        final WeakReference<Persistit> ref = _exchangePoolRegistrar;
+        return ref != null && ref.get() == persistit;
+    }
+
+    void setExchangePoolRegistrar(final Persistit persistit) {
+        _exchangePoolRegistrar = new WeakReference<Persistit>(persistit);
+    }
+
+    /**
+     * Remove the Exchanges of a closed Persistit instance from the pool, so
+     * that threads which outlive it do not keep it reachable.
+     * 
+     * @param persistit
+     *            the closed instance
+     */
+    void drainExchangePool(final Persistit persistit) {
+        synchronized (_exchangePool) {
+            for (final Iterator<Exchange> iter = _exchangePool.iterator(); iter.hasNext();) {
+                if (iter.next().getPersistitInstance() == persistit) {
+                    iter.remove();
+                }
+            }
+        }
+        if (isExchangePoolRegistrar(persistit)) {
+            _exchangePoolRegistrar = null;
+        }
+    }
+
     boolean interrupt() {
         final Thread t = _owner.get();
         if (t != null && t != Thread.currentThread()) {
@@ -72,6 +72,12 @@ abstract class SharedResource {
      */
     final static int TEMPORARY_MASK = 0x00400000;
 
+    /**
+     * Status field mask indicating a resource (a Buffer) was read by the
+     * read-ahead thread and has not yet been used.
+     */
+    final static int PREFETCHED_MASK = 0x00800000;
+
     /**
      * Status field mask indicating a resource has been touched. Used by
      * clock-based page replacement algorithm.
@@ -375,6 +381,22 @@ abstract class SharedResource {
         return _sync.testBitsInState(TOUCHED_MASK);
     }
 
+    void setPrefetched() {
+        _sync.setBitsInState(PREFETCHED_MASK);
+    }
+
+    /**
+     * @return <code>true</code> if the prefetched bit was set and this call
+     *         cleared it
+     */
+    boolean clearPrefetched() {
+        return _sync.testBitsInState(PREFETCHED_MASK) && _sync.clearBitsInState(PREFETCHED_MASK);
+    }
+
+    boolean isPrefetched() {
+        return _sync.testBitsInState(PREFETCHED_MASK);
+    }
+
     public long getGeneration() {
         return _generation.get();
     }
@@ -462,6 +484,9 @@ abstract class SharedResource {
             if ((state & TEMPORARY_MASK) != 0) {
                 sb.append("t");
             }
+            if ((state & PREFETCHED_MASK) != 0) {
+                sb.append("p");
+            }
             if ((state & WRITER_MASK) != 0) {
                 sb.append("w");
             }
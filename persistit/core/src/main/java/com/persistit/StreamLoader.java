@@ -18,9 +18,15 @@ package com.persistit;
 
 import java.io.BufferedInputStream;
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import com.persistit.CLI.Arg;
 import com.persistit.CLI.Cmd;
@@ -32,6 +38,15 @@ import com.persistit.util.Util;
 /**
  * Loads Persistit records from a file or other stream in a format generated by
  * a {@link StreamSaver}.
+ * <p>
+ * When the stream holds a MANIFEST record written by
+ * {@link StreamSaver#saveSegments(TreeSelector, String)}, the segment files it
+ * lists are loaded after the stream itself, using up to
+ * {@link #getLoadThreads()} threads. Each segment is checked against the
+ * manifest: it must begin with the matching SEGMENT record, end with a
+ * COMPLETION record and hold the number of data records the manifest states.
+ * Segment files are looked up in the directory holding the manifest.
+ * </p>
  * 
  * @version 1.0
  */
@@ -41,7 +56,19 @@ public class StreamLoader extends Task {
      * Default for BufferedInputStream buffer size.
      */
     public final static int DEFAULT_BUFFER_SIZE = 65536;
+    /**
+     * Maximum number of threads used to load segment files.
+     */
+    public final static int MAXIMUM_LOAD_THREADS = 256;
+    /**
+     * Serializes lookup and creation of volumes by handlers loading segments
+     * concurrently.
+     */
+    private final static Object VOLUME_LOCK = new Object();
+
     protected String _filePath;
+    protected File _directory;
+    protected int _loadThreads = 1;
     protected DataInputStream _dis;
 
     protected Key _key = new Key((Persistit) null);
@@ -56,6 +83,7 @@ public class StreamLoader extends Task {
     protected TreeSelector _treeSelector;
     protected boolean _createMissingVolumes;
     protected boolean _createMissingTrees;
+    protected boolean _bulkLoad;
     protected ImportHandler _handler;
 
     @Cmd("load")
@@ -64,13 +92,18 @@ public class StreamLoader extends Task {
             @Arg("_flag|r|Use regular expressions in tree selector") final boolean regex,
             @Arg("_flag|n|Don't create missing Volumes (Default is to create them)") final boolean dontCreateVolumes,
             @Arg("_flag|t|Don't create missing Trees (Default is to create them)") final boolean dontCreateTrees,
-            @Arg("_flag|v|verbose") final boolean verbose) throws Exception {
+            @Arg("_flag|b|Bulk load empty trees from key-ordered input") final boolean bulkLoad,
+            @Arg("_flag|v|verbose") final boolean verbose,
+            @Arg("threads|int:1:1:256|Number of threads loading segment files") final int threads)
+            throws Exception {
 
         final StreamLoader task = new StreamLoader();
         task._filePath = file;
         task._treeSelector = TreeSelector.parseSelector(treeSelectorString, regex, '\\');
         task._createMissingVolumes = !dontCreateVolumes;
         task._createMissingTrees = !dontCreateTrees;
+        task._bulkLoad = bulkLoad;
+        task._loadThreads = threads;
         task.setMessageLogVerbosity(verbose ? LOG_VERBOSE : LOG_NORMAL);
         return task;
     }
@@ -89,23 +122,123 @@ public class StreamLoader extends Task {
 
     public StreamLoader(final Persistit persistit, final File file) throws IOException {
         this(persistit, new DataInputStream(new BufferedInputStream(new FileInputStream(file))));
+        _directory = file.getAbsoluteFile().getParentFile();
     }
 
     public StreamLoader(final Persistit persistit, final String fileName) throws IOException {
-        this(persistit, new DataInputStream(new BufferedInputStream(new FileInputStream(fileName))));
+        this(persistit, new File(fileName));
     }
 
     public void close() throws IOException {
         _dis.close();
     }
 
+    /**
+     * @return whether trees that are empty when loading begins are built with
+     *         a {@link BulkLoader}
+     */
+    public boolean isBulkLoad() {
+        return _bulkLoad;
+    }
+
+    /**
+     * Control whether trees that are empty when loading begins are built with
+     * a {@link BulkLoader} rather than by storing each record. This is much
+     * faster when the stream was produced by a {@link StreamSaver}, which
+     * writes the records of each tree in key order. Should the records of a
+     * tree turn out not to be in key order, the pages built so far are
+     * installed and the remaining records are stored normally. While the
+     * journal is in <code>appendOnly</code> mode, for example during a backup,
+     * every record is stored normally. Applies to
+     * subsequent calls to {@link #load()} and
+     * {@link #load(TreeSelector, boolean, boolean)}.
+     * 
+     * @param bulkLoad
+     */
+    public void setBulkLoad(final boolean bulkLoad) {
+        _bulkLoad = bulkLoad;
+    }
+
+    /**
+     * @return Number of threads used to load the segment files listed in a
+     *         MANIFEST record
+     */
+    public int getLoadThreads() {
+        return _loadThreads;
+    }
+
+    /**
+     * Sets the number of threads used to load the segment files listed in a
+     * MANIFEST record. Segments of different trees, and different key ranges
+     * of one tree, are then loaded concurrently. Trees divided into more than
+     * one segment are never bulk loaded.
+     * 
+     * @param threads
+     *            Number of threads, between 1 and
+     *            {@value #MAXIMUM_LOAD_THREADS}
+     */
+    public void setLoadThreads(final int threads) {
+        _loadThreads = Util.rangeCheck(threads, 1, MAXIMUM_LOAD_THREADS);
+    }
+
+    /**
+     * @return Directory in which the segment files named by a MANIFEST record
+     *         are found, or <code>null</code> for the current working
+     *         directory
+     */
+    public File getDirectory() {
+        return _directory;
+    }
+
+    /**
+     * @param directory
+     *            Directory in which the segment files named by a MANIFEST
+     *            record are found
+     */
+    public void setDirectory(final File directory) {
+        _directory = directory;
+    }
+
     public void load() throws IOException, PersistitException {
         load(new TreeSelector(), true, true);
     }
 
+    /**
+     * Reads the stream, and every segment file listed in its MANIFEST record
+     * if it has one, without loading any records. Each segment is checked
+     * against the manifest, and every stream must end with a COMPLETION
+     * record.
+     * 
+     * @return the number of data records in the stream and its segment files
+     * @throws CorruptImportStreamException
+     *             if a stream is incomplete or a segment does not match the
+     *             manifest
+     * @throws IOException
+     * @throws PersistitException
+     */
+    public long verify() throws IOException, PersistitException {
+        final ImportHandler handler = new VerifyHandler(_persistit);
+        try {
+            while (next(handler)) {
+            }
+        } finally {
+            close();
+        }
+        if (!handler._completed) {
+            throw new CorruptImportStreamException("Stream ends without a COMPLETION record after reading "
+                    + _dataRecordCount + " data records" + " and " + _otherRecordCount + " other records");
+        }
+        long count = _dataRecordCount;
+        if (handler._manifest != null) {
+            count += loadSegments(handler, true);
+        }
+        return count;
+    }
+
     public void load(final TreeSelector treeSelector, final boolean createMissingVolumes,
             final boolean createMissingTrees) throws IOException, PersistitException {
         _handler = new ImportHandler(_persistit, treeSelector, createMissingVolumes, createMissingTrees);
+        _handler._bulkLoad = _bulkLoad;
         load(_handler);
         close();
     }
@@ -113,6 +246,10 @@ public class StreamLoader extends Task {
     public void load(final ImportHandler handler) throws IOException, PersistitException {
         while (next(handler)) {
         }
+        handler.finishBulkLoad();
+        if (handler._manifest != null) {
+            loadSegments(handler, false);
+        }
         postMessage(String.format("DONE - processed %,d data records and %,d other records", _dataRecordCount,
                 _otherRecordCount), Task.LOG_NORMAL);
     }
@@ -222,6 +359,33 @@ public class StreamLoader extends Task {
             _otherRecordCount++;
             break;
         }
+        case StreamSaver.RECORD_TYPE_SEGMENT: {
+            handler.handleSegmentRecord(StreamSaver.Segment.read(_dis));
+            _otherRecordCount++;
+            break;
+        }
+        case StreamSaver.RECORD_TYPE_MANIFEST: {
+            final long exportId = _dis.readLong();
+            final int count = _dis.readInt();
+            _otherRecordCount++;
+            final List<StreamSaver.Segment> segments = new ArrayList<StreamSaver.Segment>(count);
+            for (int index = 0; index < count; index++) {
+                final int segmentType = _dis.readChar();
+                if (segmentType != StreamSaver.RECORD_TYPE_SEGMENT) {
+                    throw new CorruptImportStreamException("Invalid record type " + segmentType
+                            + " in MANIFEST at segment " + index);
+                }
+                final StreamSaver.Segment segment = StreamSaver.Segment.read(_dis);
+                if (segment.getExportId() != exportId || segment.getIndex() != index) {
+                    throw new CorruptImportStreamException("Mismatched " + segment + " in MANIFEST at segment "
+                            + index);
+                }
+                segments.add(segment);
+                _otherRecordCount++;
+            }
+            handler.handleManifestRecord(exportId, segments);
+            break;
+        }
         default: {
             throw new CorruptImportStreamException("Invalid record type " + recordType + " ("
                     + Util.bytesToHex(new byte[] { (byte) (recordType >>> 8), (byte) recordType }) + " after reading "
@@ -231,6 +395,75 @@ public class StreamLoader extends Task {
         return true;
     }
 
+    /**
+     * Load or verify each segment listed in the manifest read by the supplied
+     * handler, using up to {@link #getLoadThreads()} threads.
+     * 
+     * @return the total number of data records in the segments
+     */
+    private long loadSegments(final ImportHandler handler, final boolean verifyOnly) throws IOException,
+            PersistitException {
+        final List<StreamSaver.Segment> manifest = handler._manifest;
+        final Map<String, Integer> segmentsPerTree = new HashMap<String, Integer>();
+        for (final StreamSaver.Segment segment : manifest) {
+            final String name = segment.getVolumeName() + ":" + segment.getTreeName();
+            final Integer count = segmentsPerTree.get(name);
+            segmentsPerTree.put(name, count == null ? 1 : count + 1);
+        }
+        final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>(manifest.size());
+        for (final StreamSaver.Segment segment : manifest) {
+            final ImportHandler segmentHandler;
+            if (verifyOnly) {
+                segmentHandler = new VerifyHandler(_persistit);
+            } else {
+                segmentHandler = new ImportHandler(_persistit, handler._treeSelector, handler._createMissingVolumes,
+                        handler._createMissingTrees);
+                segmentHandler._bulkLoad = handler._bulkLoad
+                        && segmentsPerTree.get(segment.getVolumeName() + ":" + segment.getTreeName()) == 1;
+            }
+            tasks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() throws IOException, PersistitException {
+                    return loadSegment(segment, segmentHandler);
+                }
+            });
+        }
+        long count = 0;
+        for (final Integer segmentCount : KeyRangeTasks.runIO(tasks, _loadThreads, "STREAM_LOADER_")) {
+            count += segmentCount;
+        }
+        return count;
+    }
+
+    private int loadSegment(final StreamSaver.Segment segment, final ImportHandler handler) throws IOException,
+            PersistitException {
+        final File file = new File(_directory, segment.getFileName());
+        if (!file.exists()) {
+            throw new CorruptImportStreamException("Missing file " + file + " for " + segment);
+        }
+        final StreamLoader loader = new StreamLoader(_persistit, file);
+        loader.setMessageLogVerbosity(LOG_NORMAL);
+        try {
+            loader.load(handler);
+        } catch (final EOFException e) {
+            throw new CorruptImportStreamException("File " + file + " for " + segment + " is truncated");
+        } finally {
+            loader.close();
+        }
+        if (handler._segment == null || !handler._segment.isSameSegment(segment)) {
+            throw new CorruptImportStreamException("File " + file + " does not hold " + segment);
+        }
+        if (!handler._completed) {
+            throw new CorruptImportStreamException("File " + file + " for " + segment
+                    + " ends without a COMPLETION record");
+        }
+        if (loader._dataRecordCount != segment.getDataRecordCount()) {
+            throw new CorruptImportStreamException("File " + file + " for " + segment + " holds "
+                    + loader._dataRecordCount + " data records");
+        }
+        return loader._dataRecordCount;
+    }
+
     /**
      * Handler for various record types in stream being loaded.
      * 
@@ -249,6 +482,11 @@ public class StreamLoader extends Task {
         protected boolean _createMissingTrees;
         protected String _volumeName = null;
         protected String _treeName = null;
+        protected boolean _bulkLoad;
+        protected BulkLoader _bulkLoader;
+        protected StreamSaver.Segment _segment;
+        protected List<StreamSaver.Segment> _manifest;
+        protected boolean _completed;
 
         protected ImportHandler(final Persistit persistit) {
             this(persistit, new TreeSelector(), true, true);
@@ -272,6 +510,13 @@ public class StreamLoader extends Task {
                 if (_exchange == null) {
                     _exchange = _persistit.getExchange(_volume, _tree.getName(), false);
                 }
+                if (_bulkLoader != null) {
+                    if (_bulkLoader.canAppend(key)) {
+                        _bulkLoader.append(key, value);
+                        return;
+                    }
+                    finishBulkLoad();
+                }
                 key.copyTo(_exchange.getKey());
                 _exchange.setSplitPolicy(SplitPolicy.PACK_BIAS);
                 // Using this package-private method avoids copying
@@ -283,9 +528,24 @@ public class StreamLoader extends Task {
         protected void handleKeyFilterRecord(final String keyFilterString) throws PersistitException {
         }
 
+        /**
+         * Install the records accumulated by the current {@link BulkLoader},
+         * if there is one.
+         * 
+         * @throws PersistitException
+         */
+        protected void finishBulkLoad() throws PersistitException {
+            final BulkLoader bulkLoader = _bulkLoader;
+            _bulkLoader = null;
+            if (bulkLoader != null) {
+                bulkLoader.finish();
+            }
+        }
+
         protected void handleVolumeIdRecord(final long volumeId, final long initialPages, final long extensionPages,
                 final long maximumPages, final int bufferSize, final String path, final String name)
                 throws PersistitException {
+            finishBulkLoad();
             final Exchange oldExchange = _exchange;
             _exchange = null;
             _volume = null;
@@ -295,14 +555,16 @@ public class StreamLoader extends Task {
                 return;
             }
 
-            _volume = _persistit.getVolume(name);
-            if (_volume != null) {
-                _volume.verifyId(volumeId);
-            } else if (_createMissingVolumes) {
-                _volume = new Volume(new VolumeSpecification(path, name, bufferSize, initialPages, maximumPages,
-                        extensionPages, false, true, false));
-                _volume.setId(volumeId);
-                _volume.open(_persistit);
+            synchronized (VOLUME_LOCK) {
+                _volume = _persistit.getVolume(name);
+                if (_volume != null) {
+                    _volume.verifyId(volumeId);
+                } else if (_createMissingVolumes) {
+                    _volume = new Volume(new VolumeSpecification(path, name, bufferSize, initialPages,
+                            maximumPages, extensionPages, false, true, false));
+                    _volume.setId(volumeId);
+                    _volume.open(_persistit);
+                }
             }
             if (oldExchange != null && oldExchange.getVolume().equals(_volume)) {
                 _exchange = oldExchange;
@@ -310,6 +572,7 @@ public class StreamLoader extends Task {
         }
 
         protected void handleTreeIdRecord(final String treeName) throws PersistitException {
+            finishBulkLoad();
             final Exchange oldExchange = _exchange;
             _exchange = null;
             _tree = null;
@@ -329,6 +592,12 @@ public class StreamLoader extends Task {
             }
             _keyFilter = _treeSelector.keyFilter(_volume.getName(), treeName);
 
+            if (_bulkLoad && _tree != null && BulkLoader.canLoad(_tree)) {
+                if (_exchange == null) {
+                    _exchange = _persistit.getExchange(_volume, _tree.getName(), false);
+                }
+                _bulkLoader = new BulkLoader(_exchange);
+            }
         }
 
         protected void handleTimeStampRecord(final long timeStamp) throws PersistitException {
@@ -350,19 +619,56 @@ public class StreamLoader extends Task {
         }
 
         protected void handleEndRecord() throws PersistitException {
+            finishBulkLoad();
         }
 
         protected void handleExceptionRecord(final String exceptionString) throws PersistitException {
         }
 
         protected void handleCompletionRecord() throws PersistitException {
+            finishBulkLoad();
+            _completed = true;
+        }
+
+        protected void handleSegmentRecord(final StreamSaver.Segment segment) throws PersistitException {
+            _segment = segment;
+        }
+
+        protected void handleManifestRecord(final long exportId, final List<StreamSaver.Segment> segments)
+                throws PersistitException {
+            _manifest = segments;
         }
 
     }
 
+    /**
+     * Handler that reads the stream structure without loading any records.
+     */
+    private static class VerifyHandler extends ImportHandler {
+
+        private VerifyHandler(final Persistit persistit) {
+            super(persistit);
+        }
+
+        @Override
+        protected void handleDataRecord(final Key key, final Value value) throws PersistitException {
+        }
+
+        @Override
+        protected void handleVolumeIdRecord(final long volumeId, final long initialPages, final long extensionPages,
+                final long maximumPages, final int bufferSize, final String path, final String name)
+                throws PersistitException {
+        }
+
+        @Override
+        protected void handleTreeIdRecord(final String treeName) throws PersistitException {
+        }
+    }
+
     @Override
     public void runTask() throws Exception {
         _dis = new DataInputStream(new BufferedInputStream(new FileInputStream(_filePath), DEFAULT_BUFFER_SIZE));
+        _directory = new File(_filePath).getAbsoluteFile().getParentFile();
         load(_treeSelector, _createMissingVolumes, _createMissingTrees);
     }
 
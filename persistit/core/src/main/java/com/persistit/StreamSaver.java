@@ -17,12 +17,15 @@
 package com.persistit;
 
 import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import com.persistit.CLI.Arg;
 import com.persistit.CLI.Cmd;
@@ -34,6 +37,15 @@ import com.persistit.util.Util;
  * Saves Persistit records to a DataOutputStream in the format expected by a
  * {@link StreamLoader} instance.
  * </p>
+ * <p>
+ * The {@link #saveSegments(TreeSelector, String)} method exports the selected
+ * trees on several threads at once. Each tree, or each key range of a large
+ * tree, is written to its own segment file, which is a complete save stream
+ * beginning with a SEGMENT record. The stream supplied to this
+ * <code>StreamSaver</code> then receives only a MANIFEST record listing every
+ * segment and the number of data records it holds. A {@link StreamLoader}
+ * reading such a manifest verifies and loads the segments in parallel.
+ * </p>
  * 
  * @version 1.0
  */
@@ -95,6 +107,14 @@ public class StreamSaver extends Task {
      * Record type marker for COMPLETION records
      */
     public final static int RECORD_TYPE_COMPLETION = ('Z' << 8) + 'Z';
+    /**
+     * Record type marker for SEGMENT records
+     */
+    public final static int RECORD_TYPE_SEGMENT = ('S' << 8) + 'G';
+    /**
+     * Record type marker for MANIFEST records
+     */
+    public final static int RECORD_TYPE_MANIFEST = ('M' << 8) + 'F';
     /**
      * Default count of records to written with elided keys.
      */
@@ -104,6 +124,11 @@ public class StreamSaver extends Task {
      * constructors.
      */
     public final static int DEFAULT_BUFFER_SIZE = 65536;
+    /**
+     * Maximum number of threads used by
+     * {@link #saveSegments(TreeSelector, String)}.
+     */
+    public final static int MAXIMUM_SAVE_THREADS = 256;
 
     protected String _filePath;
     protected DataOutputStream _dos;
@@ -118,6 +143,157 @@ public class StreamSaver extends Task {
     protected Exception _lastException;
     protected int _recordCount;
     protected TreeSelector _treeSelector;
+    protected int _saveThreads = 1;
+    protected int _segmentsPerTree;
+
+    /**
+     * Describes one segment of a multi-file export. The same information is
+     * written at the start of the segment file and, together with the number
+     * of data records the segment contains, in the MANIFEST.
+     */
+    public static class Segment {
+        private final long _exportId;
+        private final int _index;
+        private final String _fileName;
+        private final String _volumeName;
+        private final String _treeName;
+        private final byte[] _fromKey;
+        private final byte[] _toKey;
+        private long _dataRecordCount = -1;
+
+        Segment(final long exportId, final int index, final String fileName, final String volumeName,
+                final String treeName, final byte[] fromKey, final byte[] toKey) {
+            _exportId = exportId;
+            _index = index;
+            _fileName = fileName;
+            _volumeName = volumeName;
+            _treeName = treeName;
+            _fromKey = fromKey;
+            _toKey = toKey;
+        }
+
+        /**
+         * @return identifier shared by the manifest and all segments of one
+         *         export
+         */
+        public long getExportId() {
+            return _exportId;
+        }
+
+        /**
+         * @return position of this segment in the manifest
+         */
+        public int getIndex() {
+            return _index;
+        }
+
+        /**
+         * @return name of the segment file, relative to the directory holding
+         *         the manifest
+         */
+        public String getFileName() {
+            return _fileName;
+        }
+
+        public String getVolumeName() {
+            return _volumeName;
+        }
+
+        public String getTreeName() {
+            return _treeName;
+        }
+
+        /**
+         * @return encoded bytes of the first key of the range covered by this
+         *         segment (inclusive), or <code>null</code> if the range
+         *         starts at the beginning of the tree
+         */
+        public byte[] getFromKey() {
+            return _fromKey;
+        }
+
+        /**
+         * @return encoded bytes of the key that ends the range covered by this
+         *         segment (exclusive), or <code>null</code> if the range ends
+         *         at the end of the tree
+         */
+        public byte[] getToKey() {
+            return _toKey;
+        }
+
+        /**
+         * @return number of DATA records in the segment file, or -1 in the
+         *         SEGMENT record at the start of the segment file itself
+         */
+        public long getDataRecordCount() {
+            return _dataRecordCount;
+        }
+
+        void setDataRecordCount(final long count) {
+            _dataRecordCount = count;
+        }
+
+        /**
+         * @param segment
+         *            another segment
+         * @return <code>true</code> if the supplied <code>Segment</code>
+         *         describes the same segment of the same export
+         */
+        public boolean isSameSegment(final Segment segment) {
+            return segment._exportId == _exportId && segment._index == _index
+                    && segment._volumeName.equals(_volumeName) && segment._treeName.equals(_treeName);
+        }
+
+        void write(final DataOutputStream dos) throws IOException {
+            dos.writeChar(RECORD_TYPE_SEGMENT);
+            dos.writeLong(_exportId);
+            dos.writeInt(_index);
+            dos.writeUTF(_fileName);
+            dos.writeUTF(_volumeName);
+            dos.writeUTF(_treeName);
+            writeBytes(dos, _fromKey);
+            writeBytes(dos, _toKey);
+            dos.writeLong(_dataRecordCount);
+        }
+
+        static Segment read(final DataInputStream dis) throws IOException {
+            final long exportId = dis.readLong();
+            final int index = dis.readInt();
+            final String fileName = dis.readUTF();
+            final String volumeName = dis.readUTF();
+            final String treeName = dis.readUTF();
+            final byte[] fromKey = readBytes(dis);
+            final byte[] toKey = readBytes(dis);
+            final Segment segment = new Segment(exportId, index, fileName, volumeName, treeName, fromKey, toKey);
+            segment._dataRecordCount = dis.readLong();
+            return segment;
+        }
+
+        private static void writeBytes(final DataOutputStream dos, final byte[] bytes) throws IOException {
+            if (bytes == null) {
+                dos.writeShort(-1);
+            } else {
+                dos.writeShort(bytes.length);
+                dos.write(bytes);
+            }
+        }
+
+        private static byte[] readBytes(final DataInputStream dis) throws IOException {
+            final int length = dis.readShort();
+            if (length < 0) {
+                return null;
+            }
+            final byte[] bytes = new byte[length];
+            dis.readFully(bytes);
+            return bytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Segment %d of %s/%s in %s (%,d records)", _index, _volumeName, _treeName,
+                    _fileName, _dataRecordCount);
+        }
+    }
 
     /**
      * Package-private constructor used by {@link ManagementImpl} to instantiate
@@ -159,10 +335,13 @@ public class StreamSaver extends Task {
     static StreamSaver createTask(@Arg("file|string:|Save to file") final String file,
             @Arg("trees|string:*|Tree selector - specify Volumes/Trees/Keys to save") final String treeSelectorString,
             @Arg("_flag|v|verbose") final boolean verbose,
-            @Arg("_flag|r|Use regular expressions in tree selector") final boolean regex) throws Exception {
+            @Arg("_flag|r|Use regular expressions in tree selector") final boolean regex,
+            @Arg("threads|int:1:1:256|Number of threads; more than one writes a manifest and segment files") final int threads)
+            throws Exception {
         final StreamSaver task = new StreamSaver();
         task._filePath = file;
         task._treeSelector = TreeSelector.parseSelector(treeSelectorString, regex, '\\');
+        task._saveThreads = threads;
         task.setMessageLogVerbosity(verbose ? LOG_VERBOSE : LOG_NORMAL);
         return task;
     }
@@ -232,6 +411,50 @@ public class StreamSaver extends Task {
         _cycleCount = count;
     }
 
+    /**
+     * @return Number of threads used by
+     *         {@link #saveSegments(TreeSelector, String)}
+     */
+    public int getSaveThreads() {
+        return _saveThreads;
+    }
+
+    /**
+     * Sets the number of threads used by
+     * {@link #saveSegments(TreeSelector, String)} to write segment files
+     * concurrently.
+     * 
+     * @param threads
+     *            Number of threads, between 1 and
+     *            {@value #MAXIMUM_SAVE_THREADS}
+     */
+    public void setSaveThreads(final int threads) {
+        _saveThreads = Util.rangeCheck(threads, 1, MAXIMUM_SAVE_THREADS);
+    }
+
+    /**
+     * @return Maximum number of key ranges, each in its own segment, into which
+     *         {@link #saveSegments(TreeSelector, String)} divides one tree.
+     *         Unless set explicitly this is the number of save threads.
+     */
+    public int getSegmentsPerTree() {
+        return _segmentsPerTree > 0 ? _segmentsPerTree : _saveThreads;
+    }
+
+    /**
+     * Sets the maximum number of key ranges into which
+     * {@link #saveSegments(TreeSelector, String)} divides one tree. Range
+     * boundaries are chosen from a {@link KeyHistogram} of the tree's lowest
+     * index level so that the ranges hold similar numbers of data pages. A
+     * tree that fits in a single data page is never divided.
+     * 
+     * @param segments
+     *            Number of ranges per tree
+     */
+    public void setSegmentsPerTree(final int segments) {
+        _segmentsPerTree = Util.rangeCheck(segments, 1, Integer.MAX_VALUE);
+    }
+
     /**
      * Closes this StreamSaver and the underlying DataOutputStream. If the save
      * operation ran to completion without error, this method writes a
@@ -444,6 +667,30 @@ public class StreamSaver extends Task {
      * @throws IOException
      */
     public void save(final Exchange exchange, final KeyFilter filter) throws PersistitException, IOException {
+        save(exchange, filter, null, null);
+    }
+
+    /**
+     * Save the key/value pairs in a range of the <code>Tree</code> associated
+     * with the supplied <code>Exchange</code>, subject to selection by the
+     * supplied <code>KeyFilter</code>. If the <code>filter</code> is
+     * <code>null</code> then save all records in the range.
+     * 
+     * @param exchange
+     *            The <code>Exchange</code>
+     * @param filter
+     *            The <code>KeyFilter</code>
+     * @param from
+     *            The first key of the range (inclusive), or <code>null</code>
+     *            to start at the beginning of the tree
+     * @param to
+     *            The key ending the range (exclusive), or <code>null</code> to
+     *            continue to the end of the tree
+     * @throws PersistitException
+     * @throws IOException
+     */
+    public void save(final Exchange exchange, final KeyFilter filter, final Key from, final Key to)
+            throws PersistitException, IOException {
         postMessage("Saving Tree " + exchange.getTree().getName() + " in volume " + exchange.getVolume().getPath()
                 + (filter == null ? "" : " using KeyFilter: " + filter.toString()), LOG_VERBOSE);
 
@@ -454,9 +701,19 @@ public class StreamSaver extends Task {
             _dos.writeUTF(filter.toString());
         }
         final Key key = exchange.getKey();
-        key.clear().append(Key.BEFORE);
-        while (exchange.traverse(Key.GT, filter, Integer.MAX_VALUE) & !_stop) {
+        Key.Direction direction = Key.GT;
+        if (from == null) {
+            key.clear().append(Key.BEFORE);
+        } else {
+            from.copyTo(key);
+            direction = Key.GTEQ;
+        }
+        while (exchange.traverse(direction, filter, Integer.MAX_VALUE) & !_stop) {
+            if (to != null && key.compareTo(to) >= 0) {
+                break;
+            }
             writeData(exchange);
+            direction = Key.GT;
         }
         writeRecordCount(_dataRecordCount, _otherRecordCount);
         _dos.writeChar(RECORD_TYPE_END);
@@ -573,10 +830,164 @@ public class StreamSaver extends Task {
         }
     }
 
+    /**
+     * <p>
+     * Saves the selected trees into separate segment files, using up to
+     * {@link #getSaveThreads()} threads, and writes a MANIFEST record
+     * describing them to this <code>StreamSaver</code>'s stream. Trees are
+     * divided into as many as {@link #getSegmentsPerTree()} key ranges.
+     * </p>
+     * <p>
+     * Segment files are named by appending a six-digit segment number to
+     * <code>segmentPath</code>, for example <code>backup.sav.000003</code>.
+     * The manifest refers to them by name only, so they must be kept in the
+     * same directory as the file holding the manifest.
+     * </p>
+     * 
+     * @param treeSelector
+     *            The <code>TreeSelector</code>s to select volumes, trees, and
+     *            KeyFilters within trees.
+     * @param segmentPath
+     *            Path name prefix for the segment files
+     * @return The segments, in manifest order
+     * @throws PersistitException
+     * @throws IOException
+     */
+    public List<Segment> saveSegments(final TreeSelector treeSelector, final String segmentPath)
+            throws PersistitException, IOException {
+        final long exportId = System.currentTimeMillis();
+        final List<Segment> segments = new ArrayList<Segment>();
+        final List<SegmentTask> tasks = new ArrayList<SegmentTask>();
+        for (final Tree selected : _persistit.getSelectedTrees(treeSelector)) {
+            final List<Tree> trees = new ArrayList<Tree>();
+            if (selected.getVolume().getDirectoryTree() == selected) {
+                for (final String treeName : selected.getVolume().getTreeNames()) {
+                    trees.add(selected.getVolume().getTree(treeName, false));
+                }
+            } else {
+                trees.add(selected);
+            }
+            for (final Tree tree : trees) {
+                final KeyFilter filter = selected == tree ? treeSelector.keyFilter(tree.getVolume().getName(),
+                        tree.getName()) : null;
+                byte[] from = null;
+                for (final byte[] to : splitKeys(tree, filter)) {
+                    tasks.add(newSegmentTask(exportId, segments, segmentPath, tree, filter, from, to));
+                    from = to;
+                }
+                tasks.add(newSegmentTask(exportId, segments, segmentPath, tree, filter, from, null));
+            }
+        }
+        KeyRangeTasks.runIO(tasks, _saveThreads, "STREAM_SAVER_");
+
+        writeTimestamp();
+        _dos.writeChar(RECORD_TYPE_MANIFEST);
+        _dos.writeLong(exportId);
+        _dos.writeInt(segments.size());
+        _otherRecordCount++;
+        for (final Segment segment : segments) {
+            segment.write(_dos);
+            _otherRecordCount++;
+        }
+        return segments;
+    }
+
+    private SegmentTask newSegmentTask(final long exportId, final List<Segment> segments, final String segmentPath,
+            final Tree tree, final KeyFilter filter, final byte[] from, final byte[] to) {
+        final File file = new File(String.format("%s.%06d", segmentPath, segments.size()));
+        final Segment segment = new Segment(exportId, segments.size(), file.getName(), tree.getVolume().getName(),
+                tree.getName(), from, to);
+        segments.add(segment);
+        return new SegmentTask(segment, file, tree, filter);
+    }
+
+    /**
+     * Choose keys that divide a tree into ranges holding similar numbers of
+     * data pages, using a histogram of the first index level.
+     */
+    private List<byte[]> splitKeys(final Tree tree, final KeyFilter filter) throws PersistitException {
+        final List<byte[]> keys = new ArrayList<byte[]>();
+        final int segments = getSegmentsPerTree();
+        if (segments <= 1 || tree.getDepth() < 2) {
+            return keys;
+        }
+        final Exchange exchange = new Exchange(tree);
+        final KeyHistogram histogram = exchange.computeHistogram(null, null, segments * 4, 0, null, 1);
+        final List<KeyHistogram.KeyCount> samples = histogram.getSamples();
+        final Key key = new Key(_persistit);
+        for (int range = 1; range < segments && !samples.isEmpty(); range++) {
+            final byte[] bytes = samples.get(range * samples.size() / segments).getBytes();
+            if (keys.isEmpty() || KeyRangeTasks.compare(bytes, keys.get(keys.size() - 1)) > 0) {
+                System.arraycopy(bytes, 0, key.getEncodedBytes(), 0, bytes.length);
+                key.setEncodedSize(bytes.length);
+                if (!key.isLeftEdge()) {
+                    keys.add(bytes);
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Writes one segment file using a separate <code>StreamSaver</code>. A
+     * failure to read the tree is recorded in the segment file, which then
+     * lacks its COMPLETION record, and in this <code>StreamSaver</code> so
+     * that the manifest lacks one as well.
+     */
+    private class SegmentTask implements Callable<Void> {
+        private final Segment _segment;
+        private final File _file;
+        private final Tree _tree;
+        private final KeyFilter _filter;
+
+        SegmentTask(final Segment segment, final File file, final Tree tree, final KeyFilter filter) {
+            _segment = segment;
+            _file = file;
+            _tree = tree;
+            _filter = filter;
+        }
+
+        @Override
+        public Void call() throws PersistitException, IOException {
+            final StreamSaver saver = new StreamSaver(_persistit, _file);
+            saver.setCycleCount(_cycleCount);
+            try {
+                _segment.write(saver._dos);
+                saver._otherRecordCount++;
+                saver.writeComment("Tree " + _tree.getName() + " in " + _tree.getVolume().getPath());
+                saver.save(new Exchange(_tree), _filter, toKey(_segment.getFromKey()), toKey(_segment.getToKey()));
+            } catch (final PersistitException exception) {
+                saver._lastException = exception;
+                saver.writeException(exception);
+                synchronized (StreamSaver.this) {
+                    _lastException = exception;
+                }
+            } finally {
+                saver.close();
+            }
+            _segment.setDataRecordCount(saver._dataRecordCount);
+            return null;
+        }
+
+        private Key toKey(final byte[] bytes) {
+            if (bytes == null) {
+                return null;
+            }
+            final Key key = new Key(_persistit);
+            System.arraycopy(bytes, 0, key.getEncodedBytes(), 0, bytes.length);
+            key.setEncodedSize(bytes.length);
+            return key;
+        }
+    }
+
     @Override
     protected void runTask() throws PersistitException, IOException {
         _dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(_filePath), DEFAULT_BUFFER_SIZE));
-        saveTrees(_treeSelector);
+        if (_saveThreads > 1) {
+            saveSegments(_treeSelector, _filePath);
+        } else {
+            saveTrees(_treeSelector);
+        }
         close();
     }
 
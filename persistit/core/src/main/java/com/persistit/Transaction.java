@@ -26,6 +26,8 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.persistit.Accumulator.Delta;
 import com.persistit.CleanupManager.CleanupAction;
@@ -414,10 +416,10 @@ public class Transaction {
 
     final static int TRANSACTION_BUFFER_SIZE = 65536;
 
-    private static long _idCounter = 100000000;
+    private final static AtomicLong _idCounter = new AtomicLong(100000000);
 
     private final Persistit _persistit;
-    private final SessionId _sessionId;
+    private volatile SessionId _sessionId;
     private final long _id;
 
     private volatile int _nestedDepth;
@@ -435,6 +437,14 @@ public class Transaction {
 
     private final ByteBuffer _buffer = ByteBuffer.allocate(TRANSACTION_BUFFER_SIZE);
 
+    /**
+     * Guards _buffer, which the CHECKPOINT_WRITER may flush while the owning
+     * thread is writing to it. A ReentrantLock rather than a monitor so that a
+     * virtual thread does not pin its carrier thread while the buffer is
+     * written to the journal.
+     */
+    private final ReentrantLock _bufferLock = new ReentrantLock();
+
     private long _previousJournalAddress;
 
     private int _step;
@@ -503,8 +513,40 @@ public class Transaction {
         _id = id;
     }
 
-    private static synchronized long nextId() {
-        return ++_idCounter;
+    private static long nextId() {
+        return _idCounter.incrementAndGet();
+    }
+
+    /**
+     * Prepare this context, which has been closed, to be pooled for reuse by
+     * another session. Writes any records remaining in the transaction buffer
+     * to the journal.
+     * 
+     * @return <code>true</code> if the context is idle and may be reused
+     * @throws PersistitException
+     */
+    boolean recycle() throws PersistitException {
+        if (_nestedDepth != 0) {
+            return false;
+        }
+        flushTransactionBuffer(false);
+        return true;
+    }
+
+    /**
+     * Assign this recycled context to a new session.
+     * 
+     * @param sessionId
+     *            the new session's SessionId
+     */
+    void reassign(final SessionId sessionId) {
+        _sessionId = sessionId;
+        _threadName = null;
+        _step = 0;
+        _commitCount = 0;
+        _rollbackCount = 0;
+        _rollbacksSinceLastCommit = 0;
+        _defaultCommitPolicy = CommitPolicy.SOFT;
     }
 
     /**
@@ -1160,98 +1202,133 @@ public class Transaction {
         }
     }
 
-    synchronized private void prepare(final int recordSize) throws PersistitException {
-        if (recordSize > _buffer.remaining()) {
-            flushTransactionBuffer(true);
-        }
-        if (recordSize > _buffer.remaining()) {
-            throw new IllegalStateException("Record size " + recordSize + " is too long for Transaction buffer in "
-                    + this);
+    private void prepare(final int recordSize) throws PersistitException {
+        _bufferLock.lock();
+        try {
+            if (recordSize > _buffer.remaining()) {
+                flushTransactionBuffer(true);
+            }
+            if (recordSize > _buffer.remaining()) {
+                throw new IllegalStateException("Record size " + recordSize + " is too long for Transaction buffer in "
+                        + this);
+            }
+        } finally {
+            _bufferLock.unlock();
         }
     }
 
-    synchronized boolean flushTransactionBuffer(final boolean chain) throws PersistitException {
-        boolean didWrite = false;
-        if (_buffer.position() > 0 || _previousJournalAddress != 0) {
-            final long previousJournalAddress = _persistit.getJournalManager().writeTransactionToJournal(_buffer,
-                    _startTimestamp, _commitTimestamp, _previousJournalAddress);
-            _buffer.clear();
-            didWrite = true;
-            if (chain) {
-                _previousJournalAddress = previousJournalAddress;
-            } else {
-                _previousJournalAddress = 0;
+    boolean flushTransactionBuffer(final boolean chain) throws PersistitException {
+        _bufferLock.lock();
+        try {
+            boolean didWrite = false;
+            if (_buffer.position() > 0 || _previousJournalAddress != 0) {
+                final long previousJournalAddress = _persistit.getJournalManager().writeTransactionToJournal(_buffer,
+                        _startTimestamp, _commitTimestamp, _previousJournalAddress);
+                _buffer.clear();
+                didWrite = true;
+                if (chain) {
+                    _previousJournalAddress = previousJournalAddress;
+                } else {
+                    _previousJournalAddress = 0;
+                }
             }
+            return didWrite;
+        } finally {
+            _bufferLock.unlock();
         }
-        return didWrite;
     }
 
-    synchronized void flushOnCheckpoint(final long timestamp) throws PersistitException {
-        if (_startTimestamp > 0 && _startTimestamp < timestamp && _commitTimestamp == 0 && _buffer.position() > 0) {
-            sequence(COMMIT_FLUSH_B);
+    void flushOnCheckpoint(final long timestamp) throws PersistitException {
+        _bufferLock.lock();
+        try {
+            if (_startTimestamp > 0 && _startTimestamp < timestamp && _commitTimestamp == 0 && _buffer.position() > 0) {
+                sequence(COMMIT_FLUSH_B);
 
-            _previousJournalAddress = _persistit.getJournalManager().writeTransactionToJournal(_buffer,
-                    _startTimestamp, 0, _previousJournalAddress);
-            _buffer.clear();
+                _previousJournalAddress = _persistit.getJournalManager().writeTransactionToJournal(_buffer,
+                        _startTimestamp, 0, _previousJournalAddress);
+                _buffer.clear();
+            }
+        } finally {
+            _bufferLock.unlock();
         }
     }
 
-    synchronized void writeStoreRecordToJournal(final int treeHandle, final Key key, final Value value)
+    void writeStoreRecordToJournal(final int treeHandle, final Key key, final Value value)
             throws PersistitException {
-        final int recordSize = SR.OVERHEAD + key.getEncodedSize() + value.getEncodedSize();
-        prepare(recordSize);
-        SR.putLength(_buffer, recordSize);
-        SR.putType(_buffer);
-        SR.putTreeHandle(_buffer, treeHandle);
-        SR.putKeySize(_buffer, (short) key.getEncodedSize());
-        _buffer.position(_buffer.position() + SR.OVERHEAD);
-        _buffer.put(key.getEncodedBytes(), 0, key.getEncodedSize());
-        _buffer.put(value.getEncodedBytes(), 0, value.getEncodedSize());
+        _bufferLock.lock();
+        try {
+            final int recordSize = SR.OVERHEAD + key.getEncodedSize() + value.getEncodedSize();
+            prepare(recordSize);
+            SR.putLength(_buffer, recordSize);
+            SR.putType(_buffer);
+            SR.putTreeHandle(_buffer, treeHandle);
+            SR.putKeySize(_buffer, (short) key.getEncodedSize());
+            _buffer.position(_buffer.position() + SR.OVERHEAD);
+            _buffer.put(key.getEncodedBytes(), 0, key.getEncodedSize());
+            _buffer.put(value.getEncodedBytes(), 0, value.getEncodedSize());
+        } finally {
+            _bufferLock.unlock();
+        }
     }
 
-    synchronized void writeDeleteRecordToJournal(final int treeHandle, final Key key1, final Key key2)
+    void writeDeleteRecordToJournal(final int treeHandle, final Key key1, final Key key2)
             throws PersistitException {
-        final int elisionCount = key2.firstUniqueByteIndex(key1);
-        final int recordSize = DR.OVERHEAD + key1.getEncodedSize() + key2.getEncodedSize() - elisionCount;
-        prepare(recordSize);
-
-        DR.putLength(_buffer, recordSize);
-        DR.putType(_buffer);
-        DR.putTreeHandle(_buffer, treeHandle);
-        DR.putKey1Size(_buffer, key1.getEncodedSize());
-        DR.putKey2Elision(_buffer, elisionCount);
-        _buffer.position(_buffer.position() + DR.OVERHEAD);
-        _buffer.put(key1.getEncodedBytes(), 0, key1.getEncodedSize());
-        _buffer.put(key2.getEncodedBytes(), elisionCount, key2.getEncodedSize() - elisionCount);
+        _bufferLock.lock();
+        try {
+            final int elisionCount = key2.firstUniqueByteIndex(key1);
+            final int recordSize = DR.OVERHEAD + key1.getEncodedSize() + key2.getEncodedSize() - elisionCount;
+            prepare(recordSize);
+
+            DR.putLength(_buffer, recordSize);
+            DR.putType(_buffer);
+            DR.putTreeHandle(_buffer, treeHandle);
+            DR.putKey1Size(_buffer, key1.getEncodedSize());
+            DR.putKey2Elision(_buffer, elisionCount);
+            _buffer.position(_buffer.position() + DR.OVERHEAD);
+            _buffer.put(key1.getEncodedBytes(), 0, key1.getEncodedSize());
+            _buffer.put(key2.getEncodedBytes(), elisionCount, key2.getEncodedSize() - elisionCount);
+        } finally {
+            _bufferLock.unlock();
+        }
     }
 
-    synchronized void writeDeleteTreeToJournal(final int treeHandle) throws PersistitException {
-        prepare(DT.OVERHEAD);
-        JournalRecord.putLength(_buffer, DT.OVERHEAD);
-        DT.putType(_buffer);
-        DT.putTreeHandle(_buffer, treeHandle);
-        _buffer.position(_buffer.position() + DT.OVERHEAD);
+    void writeDeleteTreeToJournal(final int treeHandle) throws PersistitException {
+        _bufferLock.lock();
+        try {
+            prepare(DT.OVERHEAD);
+            JournalRecord.putLength(_buffer, DT.OVERHEAD);
+            DT.putType(_buffer);
+            DT.putTreeHandle(_buffer, treeHandle);
+            _buffer.position(_buffer.position() + DT.OVERHEAD);
+        } finally {
+            _bufferLock.unlock();
+        }
     }
 
-    synchronized void writeDeltaToJournal(final Delta delta) throws PersistitException {
-        final int treeHandle = treeHandle(delta.getAccumulator().getTree());
-        if (delta.getValue() == 1) {
-            prepare(D0.OVERHEAD);
-            JournalRecord.putLength(_buffer, D0.OVERHEAD);
-            D0.putType(_buffer);
-            D0.putTreeHandle(_buffer, treeHandle);
-            D0.putAccumulatorTypeOrdinal(_buffer, delta.getAccumulator().getType().ordinal());
-            D0.putIndex(_buffer, delta.getAccumulator().getIndex());
-            _buffer.position(_buffer.position() + D0.OVERHEAD);
-        } else {
-            prepare(D1.OVERHEAD);
-            JournalRecord.putLength(_buffer, D1.OVERHEAD);
-            D1.putType(_buffer);
-            D1.putTreeHandle(_buffer, treeHandle);
-            D1.putIndex(_buffer, delta.getAccumulator().getIndex());
-            D1.putAccumulatorTypeOrdinal(_buffer, delta.getAccumulator().getType().ordinal());
-            D1.putValue(_buffer, delta.getValue());
-            _buffer.position(_buffer.position() + D1.OVERHEAD);
+    void writeDeltaToJournal(final Delta delta) throws PersistitException {
+        _bufferLock.lock();
+        try {
+            final int treeHandle = treeHandle(delta.getAccumulator().getTree());
+            if (delta.getValue() == 1) {
+                prepare(D0.OVERHEAD);
+                JournalRecord.putLength(_buffer, D0.OVERHEAD);
+                D0.putType(_buffer);
+                D0.putTreeHandle(_buffer, treeHandle);
+                D0.putAccumulatorTypeOrdinal(_buffer, delta.getAccumulator().getType().ordinal());
+                D0.putIndex(_buffer, delta.getAccumulator().getIndex());
+                _buffer.position(_buffer.position() + D0.OVERHEAD);
+            } else {
+                prepare(D1.OVERHEAD);
+                JournalRecord.putLength(_buffer, D1.OVERHEAD);
+                D1.putType(_buffer);
+                D1.putTreeHandle(_buffer, treeHandle);
+                D1.putIndex(_buffer, delta.getAccumulator().getIndex());
+                D1.putAccumulatorTypeOrdinal(_buffer, delta.getAccumulator().getType().ordinal());
+                D1.putValue(_buffer, delta.getValue());
+                _buffer.position(_buffer.position() + D1.OVERHEAD);
+            }
+        } finally {
+            _bufferLock.unlock();
         }
     }
 
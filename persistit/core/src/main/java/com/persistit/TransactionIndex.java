@@ -84,6 +84,11 @@ class TransactionIndex implements TransactionIndexMXBean {
      * Maximum length of path in deadlock detector before deadlock is assumed.
      */
     final static int CYCLE_LIMIT = 10;
+    /**
+     * Number of times {@link #getStatus(long)} searches a bucket without
+     * locking before it locks the bucket.
+     */
+    final static int OPTIMISTIC_FIND_ATTEMPTS = 16;
     /**
      * Initial size of arrays in ActiveTransactionCaches.
      */
@@ -133,6 +138,13 @@ class TransactionIndex implements TransactionIndexMXBean {
      * race by another thread attempting also to update.
      */
     private final ReentrantLock _atCacheLock = new ReentrantLock();
+    /**
+     * Lock held while allocating a start timestamp and adding the new
+     * TransactionStatus to its bucket, so that statuses are added in timestamp
+     * order. A ReentrantLock rather than a monitor so that a virtual thread
+     * waiting for it does not pin its carrier thread.
+     */
+    private final ReentrantLock _registrationLock = new ReentrantLock();
     /**
      * Reference to the more recently updated of two ActiveTransactionCache
      * instances.
@@ -547,7 +559,8 @@ class TransactionIndex implements TransactionIndexMXBean {
         Debug.suspend();
         final TransactionStatus status;
         final TransactionIndexBucket bucket;
-        synchronized (this) {
+        _registrationLock.lock();
+        try {
             final long ts;
             if (forCheckpoint) {
                 ts = _timestampAllocator.allocateCheckpointTimestamp();
@@ -564,6 +577,8 @@ class TransactionIndex implements TransactionIndexMXBean {
             } finally {
                 bucket.unlock();
             }
+        } finally {
+            _registrationLock.unlock();
         }
 
         try {
@@ -722,37 +737,37 @@ class TransactionIndex implements TransactionIndexMXBean {
         }
 
         /*
-         * There were members on at least one of the lists. Need to lock the
-         * bucket so we can traverse the lists.
+         * There were members on at least one of the lists. Try to traverse
+         * them without locking: the result is valid if no change to the lists
+         * began or ended during the traversal. After a failed attempt yield
+         * rather than spin so that a thread preempted in the middle of a
+         * change can finish it.
          */
-        bucket.lock();
-        try {
-            /*
-             * > A transaction with a start timestamp less than or equal to the
-             * floor is committed unless it is found on either the aborted or
-             * longRunning lists.
-             */
-            if (tsv >= bucket.getFloor()) {
-                for (TransactionStatus s = bucket.getCurrent(); s != null; s = s.getNext()) {
-                    if (s.getTs() == tsv) {
-                        return s;
+        for (int attempt = 0; attempt < OPTIMISTIC_FIND_ATTEMPTS; attempt++) {
+            final int sequence = bucket.getChangeSequence();
+            if ((sequence & 1) == 0) {
+                final TransactionStatus status = bucket.find(tsv, TransactionIndexBucket.FIND_STEP_LIMIT);
+                if (bucket.getChangeSequence() == sequence) {
+                    if (status != TransactionIndexBucket.INCOMPLETE) {
+                        return status;
                     }
+                    /*
+                     * The lists are too long to search optimistically.
+                     */
+                    break;
                 }
             }
-            for (TransactionStatus s = bucket.getAborted(); s != null; s = s.getNext()) {
-                if (s.getTs() == tsv) {
-                    return s;
-                }
-            }
-            for (TransactionStatus s = bucket.getLongRunning(); s != null; s = s.getNext()) {
-                if (s.getTs() == tsv) {
-                    return s;
-                }
-            }
+            Thread.yield();
+        }
+        /*
+         * Lock the bucket so we can traverse the lists.
+         */
+        bucket.lock();
+        try {
+            return bucket.find(tsv, Integer.MAX_VALUE);
         } finally {
             bucket.unlock();
         }
-        return null;
     }
 
     /**
@@ -956,7 +971,8 @@ class TransactionIndex implements TransactionIndexMXBean {
     void injectAbortedTransaction(final long ts) throws InterruptedException {
         final TransactionStatus status;
         final TransactionIndexBucket bucket;
-        synchronized (this) {
+        _registrationLock.lock();
+        try {
             final int index = hashIndex(ts);
             bucket = _hashTable[index];
             bucket.lock();
@@ -967,6 +983,8 @@ class TransactionIndex implements TransactionIndexMXBean {
             } finally {
                 bucket.unlock();
             }
+        } finally {
+            _registrationLock.unlock();
         }
     }
 
@@ -62,11 +62,32 @@ import com.persistit.exception.RetryException;
  * <code>TransactionStatus</code> for a committed transaction (the usual case)
  * is simply moved to the free list once the floor is raised.
  * </p>
+ * <p>
+ * All changes to the lists and the floor are made while holding the bucket's
+ * lock. Lookups by {@link #find(long, int)} do not lock. Instead every change
+ * that relinks a list or moves the floor is bracketed by {@link #beginChange()}
+ * and {@link #endChange()}, which advance a sequence number that is odd while
+ * a change is in progress. A reader records the sequence number, searches the
+ * lists, and accepts the result only if the sequence number is even and
+ * unchanged afterward.
+ * </p>
  * 
  * @author peter
  * 
  */
 class TransactionIndexBucket {
+    /**
+     * Result of {@link #find(long, int)} when the search was abandoned after
+     * visiting the maximum number of list members, as can happen when it races
+     * with changes to the lists.
+     */
+    final static TransactionStatus INCOMPLETE = new TransactionStatus((TransactionIndexBucket) null);
+    /**
+     * Maximum number of list members visited by a call to
+     * {@link #find(long, int)} made without holding the lock
+     */
+    final static int FIND_STEP_LIMIT = 1000;
+
     /**
      * The owner of the hash table that contains this bucket
      */
@@ -145,10 +166,25 @@ class TransactionIndexBucket {
      */
     long _activeTransactionFloor;
     /**
-     * Lock used to prevent multi-threaded access to the lists in this
-     * structure. Fair to prevent barging.
+     * Lock used to prevent multi-threaded changes to the lists in this
+     * structure. Readers normally use {@link #find(long, int)} without
+     * locking, so the lock is contended only by threads registering,
+     * completing and cleaning up transactions. It is not fair: a fair lock hands off to the
+     * longest waiting thread even when the releasing thread could proceed,
+     * forming convoys at high transaction rates.
      */
-    ReentrantLock _lock = new ReentrantLock(true);
+    ReentrantLock _lock = new ReentrantLock();
+    /**
+     * Incremented at the start and end of every change to the structure of
+     * the current, aborted or longRunning lists or to the floor; odd while a
+     * change is in progress.
+     */
+    volatile int _changeSequence;
+    /**
+     * Nesting depth of {@link #beginChange()} calls by the thread holding the
+     * lock
+     */
+    int _changeDepth;
     /**
      * Singly-linked list of Delta objects available for reuse
      */
@@ -171,6 +207,81 @@ class TransactionIndexBucket {
         _lock.unlock();
     }
 
+    /**
+     * Mark the start of a change to the lists or floor. Calls may nest; only
+     * the outermost call advances the change sequence.
+     */
+    void beginChange() {
+        assert _lock.isHeldByCurrentThread();
+        if (_changeDepth++ == 0) {
+            _changeSequence++;
+        }
+    }
+
+    /**
+     * Mark the end of a change started by {@link #beginChange()}.
+     */
+    void endChange() {
+        assert _lock.isHeldByCurrentThread() && _changeDepth > 0;
+        if (--_changeDepth == 0) {
+            _changeSequence++;
+        }
+    }
+
+    int getChangeSequence() {
+        return _changeSequence;
+    }
+
+    /**
+     * Search the current, aborted and longRunning lists for the
+     * <code>TransactionStatus</code> having the supplied start timestamp. This
+     * method may be called without holding the lock, in which case the result
+     * is valid only if {@link #getChangeSequence()} returned the same even
+     * value before and after the call.
+     * 
+     * @param tsv
+     *            the start timestamp
+     * @param stepLimit
+     *            maximum number of list members to visit
+     * @return the <code>TransactionStatus</code>, <code>null</code> if there
+     *         is none, or {@link #INCOMPLETE} if the search was abandoned
+     */
+    TransactionStatus find(final long tsv, final int stepLimit) {
+        int steps = 0;
+        /*
+         * A transaction with a start timestamp less than the floor is
+         * committed unless it is found on either the aborted or longRunning
+         * lists.
+         */
+        if (tsv >= _floor) {
+            for (TransactionStatus s = _current; s != null; s = s.getNext()) {
+                if (s.getTs() == tsv) {
+                    return s;
+                }
+                if (++steps > stepLimit) {
+                    return INCOMPLETE;
+                }
+            }
+        }
+        for (TransactionStatus s = _aborted; s != null; s = s.getNext()) {
+            if (s.getTs() == tsv) {
+                return s;
+            }
+            if (++steps > stepLimit) {
+                return INCOMPLETE;
+            }
+        }
+        for (TransactionStatus s = _longRunning; s != null; s = s.getNext()) {
+            if (s.getTs() == tsv) {
+                return s;
+            }
+            if (++steps > stepLimit) {
+                return INCOMPLETE;
+            }
+        }
+        return null;
+    }
+
     TransactionStatus allocateTransactionStatus() throws InterruptedException {
         assert _lock.isHeldByCurrentThread();
         final TransactionStatus status = _free;
@@ -190,19 +301,23 @@ class TransactionIndexBucket {
 
     void addCurrent(final TransactionStatus status) {
         assert _lock.isHeldByCurrentThread();
+        beginChange();
         status.setNext(_current);
         if (status.getTs() < _floor) {
             _floor = status.getTs();
         }
         _current = status;
         _currentCount++;
+        endChange();
     }
 
     void addAborted(final TransactionStatus status) {
         assert _lock.isHeldByCurrentThread();
+        beginChange();
         status.setNext(_aborted);
         _aborted = status;
         _abortedCount++;
+        endChange();
     }
 
     int getIndex() {
@@ -255,6 +370,15 @@ class TransactionIndexBucket {
 
     void notifyCompleted(final TransactionStatus status, final long timestamp) {
         assert _lock.isHeldByCurrentThread();
+        beginChange();
+        try {
+            notifyCompletedHelper(status, timestamp);
+        } finally {
+            endChange();
+        }
+    }
+
+    private void notifyCompletedHelper(final TransactionStatus status, final long timestamp) {
         final long ts = status.getTs();
         if (ts >= getFloor()) {
             for (TransactionStatus s = getCurrent(); s != null; s = s.getNext()) {
@@ -323,6 +447,15 @@ class TransactionIndexBucket {
      */
     void reduce() {
         assert _lock.isHeldByCurrentThread();
+        beginChange();
+        try {
+            reduceHelper();
+        } finally {
+            endChange();
+        }
+    }
+
+    private void reduceHelper() {
         final boolean hasMoved = hasFloorMoved();
         _activeTransactionFloor = _transactionIndex.getActiveTransactionFloor();
         boolean more = true;
@@ -440,6 +573,15 @@ class TransactionIndexBucket {
      */
     void cleanup(final long activeTransactionFloor) {
         assert _lock.isHeldByCurrentThread();
+        beginChange();
+        try {
+            cleanupHelper(activeTransactionFloor);
+        } finally {
+            endChange();
+        }
+    }
+
+    private void cleanupHelper(final long activeTransactionFloor) {
         TransactionStatus previous;
 
         /*
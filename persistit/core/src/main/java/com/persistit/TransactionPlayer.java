@@ -44,9 +44,9 @@ import com.persistit.exception.VolumeNotFoundException;
 
 class TransactionPlayer {
 
-    private final AtomicLong appliedUpdates = new AtomicLong();
-    private final AtomicLong ignoredUpdates = new AtomicLong();
-    private final AtomicLong failedUpdates = new AtomicLong();
+    private final AtomicLong appliedUpdates;
+    private final AtomicLong ignoredUpdates;
+    private final AtomicLong failedUpdates;
 
     interface TransactionPlayerListener {
 
@@ -77,6 +77,21 @@ class TransactionPlayer {
 
     TransactionPlayer(final TransactionPlayerSupport support) {
         _support = support;
+        appliedUpdates = new AtomicLong();
+        ignoredUpdates = new AtomicLong();
+        failedUpdates = new AtomicLong();
+    }
+
+    /**
+     * Construct a TransactionPlayer that reads through a different
+     * TransactionPlayerSupport but accumulates its update counts in those of
+     * <code>player</code>. Used to apply transactions on several threads.
+     */
+    TransactionPlayer(final TransactionPlayerSupport support, final TransactionPlayer player) {
+        _support = support;
+        appliedUpdates = player.appliedUpdates;
+        ignoredUpdates = player.ignoredUpdates;
+        failedUpdates = player.failedUpdates;
     }
 
     void applyTransaction(final TransactionMapItem item, final TransactionPlayerListener listener)
@@ -89,6 +89,7 @@ public class Tree extends SharedResource {
     private final Volume _volume;
     private final AtomicReference<Object> _appCache = new AtomicReference<Object>();
     private final AtomicInteger _handle = new AtomicInteger();
+    private volatile int _readAheadPages = -1;
 
     private final TimelyResource<TreeVersion> _timelyResource;
 
@@ -241,6 +242,31 @@ public class Tree extends SharedResource {
         return version._rootPageAddr;
     }
 
+    /**
+     * @return The number of data pages read ahead of a sequential traversal of
+     *         this <code>Tree</code>, or -1 if the
+     *         {@link Persistit#getDefaultReadAheadPages() default} applies.
+     */
+    public int getReadAheadPages() {
+        return _readAheadPages;
+    }
+
+    /**
+     * Set the number of data pages read ahead of an {@link Exchange} that
+     * traverses this <code>Tree</code> sequentially. The setting is not
+     * stored in the volume and lasts only as long as this <code>Tree</code>
+     * instance.
+     * 
+     * @param pages
+     *            The number of pages, between 0 and 256, or -1 to apply the
+     *            {@link Persistit#getDefaultReadAheadPages() default}. Zero
+     *            disables read-ahead.
+     * @see Exchange#setReadAheadPages(int)
+     */
+    public void setReadAheadPages(final int pages) {
+        _readAheadPages = Util.rangeCheck(pages, -1, ReadAheadManager.MAXIMUM_READ_AHEAD_PAGES);
+    }
+
     /**
      * @return the number of levels of the <code>Tree</code>.
      */
@@ -23,7 +23,9 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -34,9 +36,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.persistit.exception.DuplicateKeyException;
+import com.persistit.exception.InUseException;
 import com.persistit.exception.PersistitException;
 import com.persistit.util.Util;
 
@@ -139,6 +143,41 @@ import com.persistit.util.Util;
  * sequence in which trees are populated within the {@link #merge()} method
  * </ul>
  * </p>
+ * <h3>Concurrency</h3>
+ * <p>
+ * The <code>store</code> methods may be called by several threads at once.
+ * Each thread fills a sort volume of its own and writes it to a sort file
+ * when it is full, so that threads neither contend on one sort tree nor wait
+ * for one another's sort files to be written. The buffer pool allowance set
+ * by the <code>bufferPoolFraction</code> constructor argument is shared among
+ * the sort volumes that are open at the same time. The {@link #merge()} method
+ * must not be called until every thread has finished storing records.
+ * </p>
+ * <p>
+ * By default {@link #merge()} builds the destination trees one after another
+ * on the calling thread. If {@link #setMergeThreads(int)} is set to a larger
+ * value, the key space of each destination tree is divided into that many
+ * ranges and the ranges of all trees are merged concurrently on a pool of
+ * threads. Each range is merged by its own k-way merge over the sort files.
+ * In that case the customization methods called during the merge may be
+ * called by several threads at once and must be thread-safe, and trees are
+ * no longer built in the sequence defined by {@link #getTreeComparator()}.
+ * </p>
+ * <h3>Bulk loading</h3>
+ * <p>
+ * A destination tree that is empty when {@link #merge()} starts is built by a
+ * {@link BulkLoader}: the merged records fill data and index pages completely,
+ * from left to right, and each page is written once directly to the volume
+ * instead of being inserted with {@link Exchange#store()}. A
+ * <code>BulkLoader</code> builds a whole tree, so such a tree is merged as a
+ * single key range by one thread; with several merge threads, empty trees are
+ * built concurrently with each other and with the key ranges of trees that
+ * already hold records. Should {@link #beforeMergeKey(Exchange)} change a key
+ * so that it no longer follows the previous one, the pages built so far are
+ * installed and the remaining records are stored normally. The customization
+ * methods must not store records in a destination tree that is being bulk
+ * loaded. Bulk loading can be disabled with {@link #setBulkLoad(boolean)}.
+ * </p>
  * 
  * @author peter
  * 
@@ -148,6 +187,19 @@ public class TreeBuilder {
     private final static long REPORT_REPORT_MULTIPLE = 1000000;
     private final static String SDF = "yyyyMMddHHmm";
     private final static int STREAM_SIZE = 1024 * 1024;
+    private final static int MINIMUM_STREAM_SIZE = 65536;
+    /**
+     * Number of records written to a sort file between restart points: records
+     * whose keys are written without elision and from which a merge of a key
+     * range may start reading.
+     */
+    private final static int RESTART_INTERVAL = 4096;
+    /**
+     * Lower bound on the size of a sort volume when the buffer pool allowance
+     * is shared by many concurrently open sort volumes.
+     */
+    private final static int MINIMUM_SORT_VOLUME_PAGES = 64;
+    private final static int MAXIMUM_MERGE_THREADS = 1024;
 
     private final String _name;
     private final long _uniqueId;
@@ -158,21 +210,24 @@ public class TreeBuilder {
     private final AtomicLong _sortedKeyCount = new AtomicLong();
     private final AtomicLong _mergedKeyCount = new AtomicLong();
     private volatile long _reportKeyCountMultiple = REPORT_REPORT_MULTIPLE;
-    private Volume _sortVolume;
-    private File _sortFile;
+    private volatile int _mergeThreads = 1;
+    private volatile boolean _bulkLoad = true;
 
     private final List<Tree> _allTrees = new ArrayList<Tree>();
-    private final Map<String, Tree> _sortTreeMap = new HashMap<String, Tree>();
 
     private int _sortFileIndex;
     private final List<Node> _sortNodes = new ArrayList<Node>();
+    /**
+     * Sort volumes currently being filled, guarded by this
+     */
+    private final List<SortVolume> _sortVolumes = new ArrayList<SortVolume>();
+    /**
+     * Count of sort volumes that are open, including any that are being
+     * written to sort files; modified only while synchronized on this
+     */
+    private volatile int _openSortVolumeCount;
 
-    private final ThreadLocal<Map<Tree, Exchange>> _sortExchangeMapThreadLocal = new ThreadLocal<Map<Tree, Exchange>>() {
-        @Override
-        public Map<Tree, Exchange> initialValue() {
-            return new HashMap<Tree, Exchange>();
-        }
-    };
+    private final ThreadLocal<SortVolume> _sortVolumeThreadLocal = new ThreadLocal<SortVolume>();
 
     private final Comparator<Tree> _defaultTreeComparator = new Comparator<Tree>() {
         /**
@@ -189,7 +244,9 @@ public class TreeBuilder {
             if (a == b) {
                 return 0;
             }
-            return _allTrees.indexOf(a) - _allTrees.indexOf(b);
+            synchronized (TreeBuilder.this) {
+                return _allTrees.indexOf(a) - _allTrees.indexOf(b);
+            }
         }
 
         @Override
@@ -198,18 +255,128 @@ public class TreeBuilder {
         }
     };
 
-    private class Node implements Comparable<Node> {
+    /**
+     * A temporary volume holding the sort trees filled by one thread.
+     */
+    private class SortVolume {
+        private final Volume _volume;
+        private final Node _node;
+        private final Map<Tree, Exchange> _exchangeMap = new HashMap<Tree, Exchange>();
+        private volatile boolean _finished;
+
+        private SortVolume(final Volume volume, final Node node) {
+            _volume = volume;
+            _node = node;
+        }
 
-        private Tree _tree;
-        private Key _key;
-        private Value _value;
-        private Node _duplicate;
-        private final int _precedence;
+        private Exchange getExchange(final Tree tree) throws PersistitException {
+            Exchange ex = _exchangeMap.get(tree);
+            if (ex == null) {
+                final String tempTreeName = "_" + _persistit.getJournalManager().handleForTree(tree);
+                ex = _persistit.getExchange(_volume, tempTreeName, true);
+                _exchangeMap.put(tree, ex);
+                synchronized (TreeBuilder.this) {
+                    if (!_allTrees.contains(tree)) {
+                        _allTrees.add(tree);
+                    }
+                }
+            }
+            return ex;
+        }
+
+        private boolean isFull() {
+            final int limit = Math.max(MINIMUM_SORT_VOLUME_PAGES, _pageLimit / Math.max(1, _openSortVolumeCount));
+            return _volume.getNextAvailablePage() > limit;
+        }
+    }
+
+    /**
+     * A position in a sort file from which its records can be read without
+     * reference to the records that precede it.
+     */
+    private static class RestartPoint {
+        private final byte[] _key;
+        private final long _offset;
+
+        private RestartPoint(final Key key, final long offset) {
+            _key = new byte[key.getEncodedSize()];
+            System.arraycopy(key.getEncodedBytes(), 0, _key, 0, _key.length);
+            _offset = offset;
+        }
+    }
+
+    /**
+     * A sort file, written from one sort volume. For each destination tree it
+     * records the restart points of that tree's records, the first of which is
+     * the start of the tree's records.
+     */
+    private class Node {
 
         private final File _file;
+        private final int _precedence;
+        private final Map<Tree, List<RestartPoint>> _restartPoints = new HashMap<Tree, List<RestartPoint>>();
+
+        private Node(final File file, final int index) {
+            _file = file;
+            _precedence = index;
+        }
+
+        private File getFile() {
+            return _file;
+        }
+
+        private void addRestartPoint(final Tree tree, final Key key, final long offset) {
+            List<RestartPoint> list = _restartPoints.get(tree);
+            if (list == null) {
+                list = new ArrayList<RestartPoint>();
+                _restartPoints.put(tree, list);
+            }
+            list.add(new RestartPoint(key, offset));
+        }
+
+        /**
+         * @return a Cursor that reads the records of the specified tree having
+         *         keys in the range [lo, hi), or <code>null</code> if this file
+         *         cannot contain any. A <code>null</code> bound is unbounded.
+         */
+        private Cursor cursor(final Tree tree, final byte[] lo, final byte[] hi, final int bufferSize) {
+            final List<RestartPoint> list = _restartPoints.get(tree);
+            if (list == null || hi != null && KeyRangeTasks.compare(list.get(0)._key, hi) >= 0) {
+                return null;
+            }
+            RestartPoint start = list.get(0);
+            if (lo != null) {
+                for (final RestartPoint point : list) {
+                    if (KeyRangeTasks.compare(point._key, lo) > 0) {
+                        break;
+                    }
+                    start = point;
+                }
+            }
+            return new Cursor(this, tree, start._offset, lo, hi, bufferSize);
+        }
+    }
+
+    /**
+     * Reads the records of one destination tree within a key range from a sort
+     * file. Cursors are ordered by their current keys during a merge.
+     */
+    private class Cursor implements Comparable<Cursor> {
+
+        private final Node _node;
+        private final Tree _tree;
+        private final long _offset;
+        private final byte[] _lo;
+        private final byte[] _hi;
+        private final int _bufferSize;
+
+        private Key _key;
+        private Value _value;
+        private Cursor _duplicate;
         private StreamLoader _loader;
         private Handler _handler;
         private boolean _next;
+        private boolean _end;
 
         private class Handler extends StreamLoader.ImportHandler {
 
@@ -219,92 +386,278 @@ public class TreeBuilder {
 
             @Override
             protected void handleDataRecord(final Key key, final Value value) throws PersistitException {
-                Node.this._tree = super._tree;
                 _key = key;
                 _value = value;
                 _next = true;
             }
-        }
 
-        private File getFile() {
-            return _file;
+            /*
+             * Records of the tree end where those of the next tree, or the
+             * file, begin.
+             */
+            @Override
+            protected void handleVolumeIdRecord(final long volumeId, final long initialPages,
+                    final long extensionPages, final long maximumPages, final int bufferSize, final String path,
+                    final String name) throws PersistitException {
+                _end = true;
+            }
+
+            @Override
+            protected void handleTreeIdRecord(final String treeName) throws PersistitException {
+                _end = true;
+            }
+
+            @Override
+            protected void handleCompletionRecord() throws PersistitException {
+                _end = true;
+            }
         }
 
-        private Node(final File file, final int index) {
-            _file = file;
-            _precedence = index;
+        private Cursor(final Node node, final Tree tree, final long offset, final byte[] lo, final byte[] hi,
+                final int bufferSize) {
+            _node = node;
+            _tree = tree;
+            _offset = offset;
+            _lo = lo;
+            _hi = hi;
+            _bufferSize = bufferSize;
         }
 
         @Override
-        public int compareTo(final Node node) {
-            if (_tree == null) {
-                return node._tree == null ? 0 : 1;
-            }
-            if (node._tree == null) {
-                return -1;
-            }
-            if (_tree != node._tree) {
-                return _allTrees.indexOf(_tree) - _allTrees.indexOf(node._tree);
-            } else
-                return _key.compareTo(node._key);
+        public int compareTo(final Cursor cursor) {
+            return _key.compareTo(cursor._key);
         }
 
         @Override
         public String toString() {
-            Node n = this;
+            Cursor c = this;
             final StringBuilder sb = new StringBuilder();
-            while (n != null) {
+            while (c != null) {
                 if (sb.length() > 0) {
                     sb.append(",");
                 }
-                if (n._tree == null) {
-                    sb.append("<end>");
-                } else {
-                    sb.append("<" + (n._tree.getName() + n._key + "=" + n._value) + ">");
-                }
-                n = n._duplicate;
+                sb.append("<" + c._key + "=" + c._value + ">");
+                c = c._duplicate;
             }
             return sb.toString();
         }
 
-        private void createStreamLoader() throws Exception {
-            _loader = new StreamLoader(_persistit, new DataInputStream(new BufferedInputStream(new FileInputStream(
-                    _file), STREAM_SIZE)));
+        /**
+         * Open the sort file at the restart point and skip to the first record
+         * in range.
+         */
+        private boolean first() throws Exception {
+            final FileInputStream stream = new FileInputStream(_node.getFile());
+            try {
+                stream.getChannel().position(_offset);
+            } catch (final IOException e) {
+                stream.close();
+                throw e;
+            }
+            _loader = new StreamLoader(_persistit, new DataInputStream(new BufferedInputStream(stream, _bufferSize)));
             _handler = new Handler(_persistit);
+            while (next()) {
+                if (_lo == null || KeyRangeTasks.compare(_key.getEncodedBytes(), _key.getEncodedSize(), _lo) >= 0) {
+                    return true;
+                }
+            }
+            return false;
         }
 
         private boolean next() throws Exception {
             _next = false;
-            while (_loader.next(_handler) && !_next)
+            while (!_end && _loader.next(_handler) && !_next)
                 ;
+            if (_next && _hi != null
+                    && KeyRangeTasks.compare(_key.getEncodedBytes(), _key.getEncodedSize(), _hi) >= 0) {
+                _next = false;
+            }
             if (!_next) {
-                _loader.close();
+                close();
             }
             return _next;
         }
 
+        private void close() throws IOException {
+            if (_loader != null) {
+                _loader.close();
+                _loader = null;
+            }
+        }
+    }
+
+    /**
+     * Merges the records of one destination tree within a key range, or of a
+     * whole empty tree into a {@link BulkLoader}.
+     */
+    private class MergeTask implements Callable<Void> {
+
+        private final Tree _tree;
+        private final boolean _bulkLoad;
+        private final List<Cursor> _cursors = new ArrayList<Cursor>();
+
+        private MergeTask(final Tree tree, final List<Node> nodes, final byte[] lo, final byte[] hi,
+                final int bufferSize, final boolean bulkLoad) {
+            _tree = tree;
+            _bulkLoad = bulkLoad;
+            for (final Node node : nodes) {
+                final Cursor cursor = node.cursor(tree, lo, hi, bufferSize);
+                if (cursor != null) {
+                    _cursors.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public Void call() throws Exception {
+            BulkLoader loader = null;
+            boolean completed = false;
+            try {
+                final SortedMap<Cursor, Cursor> sorted = new TreeMap<Cursor, Cursor>();
+                for (final Cursor cursor : _cursors) {
+                    if (cursor.first()) {
+                        insertCursor(sorted, cursor);
+                    }
+                }
+                if (_bulkLoad && BulkLoader.canLoad(_tree)) {
+                    try {
+                        loader = new BulkLoader(new Exchange(_tree));
+                    } catch (final InUseException e) {
+                        // a backup started - store the records instead
+                    }
+                }
+                final Exchange ex = new Exchange(_tree);
+                while (!sorted.isEmpty()) {
+                    Cursor cursor = sorted.firstKey();
+                    cursor = sorted.remove(cursor);
+                    cursor._key.copyTo(ex.getKey());
+                    cursor._value.copyTo(ex.getValue());
+
+                    if (beforeMergeKey(ex)) {
+                        boolean stored = true;
+                        if (loader != null && loader.canAppend(ex.getKey())) {
+                            loader.append(ex.getKey(), ex.getValue());
+                        } else {
+                            if (loader != null) {
+                                /*
+                                 * Out of order: install what has been built and
+                                 * store the remaining records normally.
+                                 */
+                                loader.finish();
+                                loader = null;
+                            }
+                            ex.fetchAndStore();
+                            if (ex.getValue().isDefined()) {
+                                if (!duplicateKeyDetected(ex.getTree(), ex.getKey(), ex.getValue(), cursor._value)) {
+                                    ex.store();
+                                    stored = false;
+                                }
+                            }
+                        }
+                        if (stored) {
+                            afterMergeKey(ex);
+                            final long count = _mergedKeyCount.incrementAndGet();
+                            if ((count % _reportKeyCountMultiple) == 0) {
+                                reportMerged(count);
+                            }
+                        }
+                    }
+                    while (cursor != null) {
+                        final Cursor next = cursor._duplicate;
+                        cursor._duplicate = null;
+                        if (cursor.next()) {
+                            insertCursor(sorted, cursor);
+                        }
+                        cursor = next;
+                    }
+                }
+                if (loader != null) {
+                    loader.finish();
+                }
+                completed = true;
+            } finally {
+                for (final Cursor cursor : _cursors) {
+                    cursor.close();
+                }
+                if (loader != null && !completed) {
+                    /*
+                     * Install the records merged so far and release the
+                     * loader's pages, as storing them would have left them
+                     * in the tree. Keep the original failure.
+                     */
+                    try {
+                        loader.finish();
+                    } catch (final Exception e) {
+                        // ignore
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Counts the bytes written to a sort file so that restart points can be
+     * recorded by offset.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long _count;
+
+        private CountingOutputStream(final OutputStream stream) {
+            super(stream);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            _count++;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            out.write(bytes, offset, length);
+            _count += length;
+        }
+
+        private long getCount() {
+            return _count;
+        }
     }
 
     private class SortStreamSaver extends StreamSaver {
 
-        Tree _sortTree = null;
+        private final Node _node;
+        private final CountingOutputStream _counter;
+        private Tree _destinationTree;
+        private int _sinceRestart;
 
-        SortStreamSaver(final Persistit persistit, final DataOutputStream stream) {
-            super(persistit, stream);
+        SortStreamSaver(final Persistit persistit, final Node node, final CountingOutputStream counter) {
+            super(persistit, new DataOutputStream(counter));
+            _node = node;
+            _counter = counter;
+        }
+
+        private void setDestinationTree(final Tree tree) {
+            _destinationTree = tree;
         }
 
         @Override
         protected void writeData(final Exchange exchange) throws IOException {
-            if (exchange.getTree() != _sortTree) {
-                final Tree source = _sortTreeMap.get(exchange.getTree().getName());
-                if (_lastVolume != source.getVolume()) {
-                    writeVolumeInfo(source.getVolume());
-                    _lastVolume = source.getVolume();
-                }
-                if (_lastTree != source) {
-                    writeTreeInfo(source);
-                    _lastTree = source;
-                }
+            final Tree source = _destinationTree;
+            boolean restart = ++_sinceRestart >= RESTART_INTERVAL;
+            if (_lastVolume != source.getVolume()) {
+                writeVolumeInfo(source.getVolume());
+                _lastVolume = source.getVolume();
+            }
+            if (_lastTree != source) {
+                writeTreeInfo(source);
+                _lastTree = source;
+                restart = true;
+            }
+            if (restart) {
+                _lastKey.clear();
+                _node.addRestartPoint(source, exchange.getKey(), _counter.getCount());
+                _sinceRestart = 0;
             }
             writeData(exchange.getKey(), exchange.getValue());
             _recordCount++;
@@ -363,6 +716,44 @@ public class TreeBuilder {
         return _reportKeyCountMultiple;
     }
 
+    /**
+     * Set the number of threads used by {@link #merge()}. With the default
+     * value of 1 the destination trees are built one after another on the
+     * thread that calls <code>merge</code>. See the class description for the
+     * consequences of a larger value.
+     * 
+     * @param threads
+     */
+    public final void setMergeThreads(final int threads) {
+        _mergeThreads = Util.rangeCheck(threads, 1, MAXIMUM_MERGE_THREADS);
+    }
+
+    /**
+     * @return Number of threads used by {@link #merge()}
+     */
+    public final int getMergeThreads() {
+        return _mergeThreads;
+    }
+
+    /**
+     * Control whether {@link #merge()} builds destination trees that are empty
+     * when it starts with a {@link BulkLoader}. See the class description. The
+     * default is <code>true</code>.
+     * 
+     * @param bulkLoad
+     */
+    public final void setBulkLoad(final boolean bulkLoad) {
+        _bulkLoad = bulkLoad;
+    }
+
+    /**
+     * @return whether {@link #merge()} builds empty destination trees with a
+     *         {@link BulkLoader}
+     */
+    public final boolean isBulkLoad() {
+        return _bulkLoad;
+    }
+
     /**
      * @return Count of sort trees that have been created while sorting keys
      */
@@ -493,20 +884,15 @@ public class TreeBuilder {
      * @throws Exception
      */
     public final void store(final Tree tree, final Key key, final Value value) throws Exception {
-        final Map<Tree, Exchange> map = _sortExchangeMapThreadLocal.get();
-        Exchange ex = map.get(tree);
-        if (ex == null || ex.getTree().getVolume().getNextAvailablePage() > _pageLimit) {
-            final Volume newSortVolume = getSortVolume();
-            final String tempTreeName = "_" + _persistit.getJournalManager().handleForTree(tree);
-            ex = _persistit.getExchange(newSortVolume, tempTreeName, true);
-            map.put(tree, ex);
-            synchronized (this) {
-                if (!_allTrees.contains(tree)) {
-                    _allTrees.add(tree);
-                    _sortTreeMap.put(tempTreeName, tree);
-                }
+        SortVolume sortVolume = _sortVolumeThreadLocal.get();
+        if (sortVolume == null || sortVolume._finished || sortVolume.isFull()) {
+            if (sortVolume != null) {
+                finishSortVolume(sortVolume);
             }
+            sortVolume = newSortVolume();
+            _sortVolumeThreadLocal.set(sortVolume);
         }
+        final Exchange ex = sortVolume.getExchange(tree);
         key.copyTo(ex.getKey());
         value.copyTo(ex.getValue());
 
@@ -526,101 +912,129 @@ public class TreeBuilder {
         }
     }
 
-    private void insertNode(final Map<Node, Node> sorted, final Node node) throws Exception {
-        final Node other = sorted.put(node, node);
+    private void insertCursor(final Map<Cursor, Cursor> sorted, final Cursor cursor) throws Exception {
+        final Cursor other = sorted.put(cursor, cursor);
         if (other != null) {
             final boolean reverse;
-            if (node._precedence < other._precedence) {
-                reverse = duplicateKeyDetected(node._tree, node._key, node._value, other._value);
+            if (cursor._node._precedence < other._node._precedence) {
+                reverse = duplicateKeyDetected(cursor._tree, cursor._key, cursor._value, other._value);
             } else {
-                reverse = !duplicateKeyDetected(node._tree, node._key, other._value, node._value);
+                reverse = !duplicateKeyDetected(cursor._tree, cursor._key, other._value, cursor._value);
             }
             if (reverse) {
-                sorted.put(node, other);
-                final Node p = other._duplicate;
-                other._duplicate = node;
-                node._duplicate = p;
+                sorted.put(cursor, other);
+                final Cursor p = other._duplicate;
+                other._duplicate = cursor;
+                cursor._duplicate = p;
             } else {
-                node._duplicate = other;
+                cursor._duplicate = other;
             }
         }
     }
 
     /**
+     * <p>
      * Merge the record previously stored in sort volumes into their destination
      * <code>Tree</code>s.
+     * </p>
+     * <p>
+     * This method must not be called until all threads have finished storing
+     * records. If the number of merge threads is greater than 1, the
+     * customization methods called while merging may be called concurrently.
+     * </p>
      * 
      * @throws Exception
      */
-    public synchronized void merge() throws Exception {
-        finishSortVolume();
+    public void merge() throws Exception {
+        final List<SortVolume> sortVolumes;
+        synchronized (this) {
+            sortVolumes = new ArrayList<SortVolume>(_sortVolumes);
+        }
+        for (final SortVolume sortVolume : sortVolumes) {
+            finishSortVolume(sortVolume);
+        }
+        if ((_sortedKeyCount.get() % _reportKeyCountMultiple) != 0) {
+            reportSorted(_sortedKeyCount.get());
+        }
+        KeyRangeTasks.run(mergeTasks(), _mergeThreads, _name + "_MERGE_");
         if ((_mergedKeyCount.get() % _reportKeyCountMultiple) != 0) {
-            reportSorted(_mergedKeyCount.get());
+            reportMerged(_mergedKeyCount.get());
         }
-        Tree currentTree = null;
-        Exchange ex = null;
-        final SortedMap<Node, Node> sorted = new TreeMap<Node, Node>();
+        reset();
+    }
 
-        for (final Node node : _sortNodes) {
-            node.createStreamLoader();
-            if (node.next()) {
-                insertNode(sorted, node);
-            }
+    /**
+     * Divide the key space of each destination tree into as many ranges as
+     * there are merge threads, choosing the boundaries from the keys of the
+     * restart points in all sort files.
+     */
+    private List<MergeTask> mergeTasks() throws PersistitException {
+        final List<Tree> trees = getTrees();
+        Collections.sort(trees, getTreeComparator());
+        final List<Node> nodes;
+        synchronized (this) {
+            nodes = new ArrayList<Node>(_sortNodes);
         }
-
-        for (;;) {
-            if (sorted.isEmpty()) {
-                break;
-            }
-            Node node = sorted.firstKey();
-            node = sorted.remove(node);
-            if (node._tree != currentTree) {
-                ex = new Exchange(node._tree);
-                currentTree = node._tree;
-            }
-            node._key.copyTo(ex.getKey());
-            node._value.copyTo(ex.getValue());
-
-            if (beforeMergeKey(ex)) {
-                ex.fetchAndStore();
-                boolean stored = true;
-                if (ex.getValue().isDefined()) {
-                    if (!duplicateKeyDetected(ex.getTree(), ex.getKey(), ex.getValue(), node._value)) {
-                        ex.store();
-                        stored = false;
-                    }
+        final int partitions = _mergeThreads;
+        final int bufferSize = Math.max(MINIMUM_STREAM_SIZE, STREAM_SIZE / partitions);
+        final List<MergeTask> tasks = new ArrayList<MergeTask>();
+        for (final Tree tree : trees) {
+            if (_bulkLoad && BulkLoader.canLoad(tree)) {
+                if (hasRestartPoints(nodes, tree)) {
+                    tasks.add(new MergeTask(tree, nodes, null, null, bufferSize, true));
                 }
-                if (stored) {
-                    afterMergeKey(ex);
-                    if ((_mergedKeyCount.incrementAndGet() % _reportKeyCountMultiple) == 0) {
-                        reportMerged(_mergedKeyCount.get());
+                continue;
+            }
+            final List<byte[]> keys = new ArrayList<byte[]>();
+            for (final Node node : nodes) {
+                final List<RestartPoint> list = node._restartPoints.get(tree);
+                if (list != null) {
+                    for (final RestartPoint point : list) {
+                        keys.add(point._key);
                     }
                 }
             }
-            while (node != null) {
-                final Node next = node._duplicate;
-                node._duplicate = null;
-                if (node.next()) {
-                    insertNode(sorted, node);
+            if (keys.isEmpty()) {
+                continue;
+            }
+            Collections.sort(keys, new Comparator<byte[]>() {
+                @Override
+                public int compare(final byte[] a, final byte[] b) {
+                    return KeyRangeTasks.compare(a, b);
+                }
+            });
+            byte[] lo = null;
+            for (int partition = 1; partition < partitions; partition++) {
+                final byte[] hi = keys.get((int) ((long) partition * keys.size() / partitions));
+                if (KeyRangeTasks.compare(hi, keys.get(0)) > 0 && (lo == null || KeyRangeTasks.compare(hi, lo) > 0)) {
+                    tasks.add(new MergeTask(tree, nodes, lo, hi, bufferSize, false));
+                    lo = hi;
                 }
-                node = next;
             }
+            tasks.add(new MergeTask(tree, nodes, lo, null, bufferSize, false));
         }
-        if ((_mergedKeyCount.get() % _reportKeyCountMultiple) != 0) {
-            reportMerged(_mergedKeyCount.get());
+        return tasks;
+    }
+
+    private static boolean hasRestartPoints(final List<Node> nodes, final Tree tree) {
+        for (final Node node : nodes) {
+            if (node._restartPoints.containsKey(tree)) {
+                return true;
+            }
         }
-        reset();
+        return false;
     }
 
     private synchronized void reset() throws Exception {
         Exception exception = null;
-        try {
-            if (_sortVolume != null) {
-                _sortVolume.close();
-            }
-        } catch (final PersistitException e) {
-            if (exception == null) {
-                exception = e;
+        for (final SortVolume sortVolume : _sortVolumes) {
+            try {
+                sortVolume._finished = true;
+                sortVolume._volume.close();
+            } catch (final PersistitException e) {
+                if (exception == null) {
+                    exception = e;
+                }
             }
         }
 
@@ -637,9 +1051,10 @@ public class TreeBuilder {
         }
         _allTrees.clear();
         _sortNodes.clear();
-        _sortVolume = null;
+        _sortVolumes.clear();
+        _openSortVolumeCount = 0;
         _sortFileIndex = 0;
-        _sortExchangeMapThreadLocal.get().clear();
+        _sortVolumeThreadLocal.remove();
         if (exception != null) {
             throw exception;
         }
@@ -651,60 +1066,75 @@ public class TreeBuilder {
         reset();
     }
 
-    private synchronized Volume getSortVolume() throws Exception {
-        if (_sortVolume != null && _sortVolume.getNextAvailablePage() > _pageLimit) {
-            finishSortVolume();
-        }
-        if (_sortVolume == null) {
-            final File directory;
-            if (_directories.isEmpty()) {
-                String directoryName = _persistit.getConfiguration().getTmpVolDir();
-                if (directoryName == null) {
-                    directoryName = System.getProperty("java.io.tmpdir");
-                }
-                directory = new File(directoryName);
-                if (!directory.exists()) {
-                    directory.mkdirs();
-                }
-                _directories.add(directory);
-            } else {
-                directory = _directories.get(_sortFileIndex % _directories.size());
+    private synchronized SortVolume newSortVolume() throws Exception {
+        final File directory;
+        if (_directories.isEmpty()) {
+            String directoryName = _persistit.getConfiguration().getTmpVolDir();
+            if (directoryName == null) {
+                directoryName = System.getProperty("java.io.tmpdir");
+            }
+            directory = new File(directoryName);
+            if (!directory.exists()) {
+                directory.mkdirs();
             }
-            _sortVolume = Volume.createTemporaryVolume(_persistit, _pageSize, directory);
-            _sortFile = new File(directory, String.format("%s_%d.%06d", _name, _uniqueId, _sortFileIndex));
-            final Node node = new Node(_sortFile, _sortFileIndex);
-            _sortNodes.add(node);
-            _sortFileIndex++;
+            _directories.add(directory);
+        } else {
+            directory = _directories.get(_sortFileIndex % _directories.size());
         }
-        return _sortVolume;
+        final Volume volume = Volume.createTemporaryVolume(_persistit, _pageSize, directory);
+        final File file = new File(directory, String.format("%s_%d.%06d", _name, _uniqueId, _sortFileIndex));
+        final Node node = new Node(file, _sortFileIndex);
+        final SortVolume sortVolume = new SortVolume(volume, node);
+        _sortNodes.add(node);
+        _sortVolumes.add(sortVolume);
+        _openSortVolumeCount++;
+        _sortFileIndex++;
+        return sortVolume;
     }
 
-    private void finishSortVolume() throws Exception {
-        if (_sortVolume != null) {
-            beforeSortVolumeClosed(_sortVolume, _sortFile);
-            saveSortVolume(_sortVolume, _sortFile);
-            afterSortVolumeClose(_sortVolume, _sortFile);
-            _sortVolume.close();
-            _sortVolume = null;
+    /**
+     * Write a sort volume to its sort file and close it. This is done without
+     * holding a lock so that several threads can write sort files at once.
+     */
+    private void finishSortVolume(final SortVolume sortVolume) throws Exception {
+        synchronized (this) {
+            if (sortVolume._finished) {
+                return;
+            }
+            sortVolume._finished = true;
+            _sortVolumes.remove(sortVolume);
+        }
+        try {
+            final Volume volume = sortVolume._volume;
+            final File file = sortVolume._node.getFile();
+            beforeSortVolumeClosed(volume, file);
+            saveSortVolume(volume, sortVolume._node);
+            afterSortVolumeClose(volume, file);
+            volume.close();
+        } finally {
+            synchronized (this) {
+                _openSortVolumeCount--;
+            }
         }
     }
 
-    private void saveSortVolume(final Volume volume, final File file) throws Exception {
-        final DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file),
-                STREAM_SIZE));
-        final List<Tree> sorted = new ArrayList<Tree>(_allTrees);
+    private void saveSortVolume(final Volume volume, final Node node) throws Exception {
+        final CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(
+                node.getFile()), STREAM_SIZE));
+        final List<Tree> sorted = getTrees();
         Collections.sort(sorted, getTreeComparator());
-        final StreamSaver saver = new SortStreamSaver(_persistit, dos);
+        final SortStreamSaver saver = new SortStreamSaver(_persistit, node, counter);
         for (final Tree tree : sorted) {
             final String sortTreeName = "_" + tree.getHandle();
             final Tree sortTree = volume.getTree(sortTreeName, false);
             if (sortTree != null) {
                 final Exchange exchange = new Exchange(sortTree);
+                saver.setDestinationTree(tree);
                 saver.save(exchange, null);
             }
         }
-        file.deleteOnExit();
-        dos.close();
+        node.getFile().deleteOnExit();
+        saver.close();
     }
 
     /**
@@ -845,8 +1275,9 @@ public class TreeBuilder {
     }
 
     void unitTestNextSortFile() throws Exception {
-        finishSortVolume();
-        _sortExchangeMapThreadLocal.get().clear();
-        _sortVolume = null;
+        final SortVolume sortVolume = _sortVolumeThreadLocal.get();
+        if (sortVolume != null) {
+            finishSortVolume(sortVolume);
+        }
     }
 }
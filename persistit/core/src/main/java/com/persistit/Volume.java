@@ -147,6 +147,15 @@ public class Volume {
         return s;
     }
 
+    /**
+     * @return <code>true</code> if page images of this volume are to be
+     *         compressed when written to the journal
+     */
+    boolean isJournalCompressed() {
+        final VolumeSpecification s = _specification;
+        return s != null && s.isCompressJournal();
+    }
+
     VolumeStorage getStorage() {
         final VolumeStorage s = _storage;
         checkNull(s, "VolumeStorage");
@@ -40,6 +40,7 @@ public class VolumeSpecification {
     private final static String ATTR_CREATE = "create";
     private final static String ATTR_READONLY = "readOnly";
     private final static String ATTR_CREATEONLY = "createOnly";
+    private final static String ATTR_COMPRESS_JOURNAL = "compressJournal";
     private final static String ATTR_PAGE_SIZE = "pageSize";
 
     private final static String ATTR_INITIAL_SIZE = "initialSize";
@@ -56,6 +57,7 @@ public class VolumeSpecification {
     private boolean create = false;
     private boolean createOnly = false;
     private boolean aliased = false;
+    private boolean compressJournal = false;
 
     private int pageSize = -1;
     private int version = -1;
@@ -141,6 +143,12 @@ public class VolumeSpecification {
      * <dd>Creates the volume, or throw a {@link VolumeAlreadyExistsException}
      * if it already exists.</dd>
      * 
+     * <dt><code>compressJournal</code></dt>
+     * <dd>Compress the images of this volume's pages written to the journal.
+     * Pages are compressed only when doing so makes them smaller; journals
+     * containing compressed pages can be read only by a version of Persistit
+     * that supports compression.</dd>
+     * 
      * <dt><code>temporary</code></dt>
      * <dd>Creates the a new, empty volume regardless of whether an existing
      * volume file already exists.</dd>
@@ -185,6 +193,8 @@ public class VolumeSpecification {
                     create = true;
                 } else if (ATTR_CREATEONLY.equals(attr)) {
                     createOnly = true;
+                } else if (ATTR_COMPRESS_JOURNAL.equals(attr)) {
+                    compressJournal = true;
                 } else if (ATTR_NAME.equals(attr) || ATTR_ALIAS.equals(attr)) {
                     final String valueString = innerTokenizer.nextToken().trim();
                     if (valueString != null && !valueString.isEmpty()) {
@@ -354,6 +364,14 @@ public class VolumeSpecification {
         this.createOnly = createOnly;
     }
 
+    public boolean isCompressJournal() {
+        return compressJournal;
+    }
+
+    public void setCompressJournal(final boolean compressJournal) {
+        this.compressJournal = compressJournal;
+    }
+
     public int getPageSize() {
         return pageSize;
     }
@@ -443,6 +461,9 @@ public class VolumeSpecification {
         } else if (create) {
             sb.append(',').append(ATTR_CREATE);
         }
+        if (compressJournal) {
+            sb.append(',').append(ATTR_COMPRESS_JOURNAL);
+        }
         return sb.toString();
     }
 
@@ -16,7 +16,7 @@
 
 package com.persistit;
 
-import java.util.concurrent.atomic.AtomicLong;
+import com.persistit.util.StripedCounter;
 
 /**
  * Repository of counters for operations on a {@link Volume}
@@ -34,13 +34,13 @@ class VolumeStatistics {
     private volatile long _createTime;
     private volatile long _lastGlobalTimestamp;
 
-    private final AtomicLong _readCounter = new AtomicLong();
-    private final AtomicLong _writeCounter = new AtomicLong();
-    private final AtomicLong _getCounter = new AtomicLong();
-    private final AtomicLong _fetchCounter = new AtomicLong();
-    private final AtomicLong _traverseCounter = new AtomicLong();
-    private final AtomicLong _storeCounter = new AtomicLong();
-    private final AtomicLong _removeCounter = new AtomicLong();
+    private final StripedCounter _readCounter = new StripedCounter();
+    private final StripedCounter _writeCounter = new StripedCounter();
+    private final StripedCounter _getCounter = new StripedCounter();
+    private final StripedCounter _fetchCounter = new StripedCounter();
+    private final StripedCounter _traverseCounter = new StripedCounter();
+    private final StripedCounter _storeCounter = new StripedCounter();
+    private final StripedCounter _removeCounter = new StripedCounter();
 
     /**
      * @return the count of physical disk read requests performed on this
@@ -154,43 +154,43 @@ class VolumeStatistics {
         _lastExtensionTime = 0;
         _nextAvailablePage = 0;
         _createTime = 0;
-        _readCounter.set(0);
-        _writeCounter.set(0);
-        _getCounter.set(0);
-        _fetchCounter.set(0);
-        _traverseCounter.set(0);
-        _storeCounter.set(0);
-        _readCounter.set(0);
+        _readCounter.reset();
+        _writeCounter.reset();
+        _getCounter.reset();
+        _fetchCounter.reset();
+        _traverseCounter.reset();
+        _storeCounter.reset();
+        _removeCounter.reset();
     }
 
     void bumpReadCounter() {
-        _readCounter.incrementAndGet();
+        _readCounter.increment();
         _lastReadTime = System.currentTimeMillis();
     }
 
     void bumpWriteCounter() {
-        _writeCounter.incrementAndGet();
+        _writeCounter.increment();
         _lastWriteTime = System.currentTimeMillis();
     }
 
     void bumpGetCounter() {
-        _getCounter.incrementAndGet();
+        _getCounter.increment();
     }
 
     void bumpFetchCounter() {
-        _fetchCounter.incrementAndGet();
+        _fetchCounter.increment();
     }
 
     void bumpTraverseCounter() {
-        _traverseCounter.incrementAndGet();
+        _traverseCounter.increment();
     }
 
     void bumpStoreCounter() {
-        _storeCounter.incrementAndGet();
+        _storeCounter.increment();
     }
 
     void bumpRemoveCounter() {
-        _removeCounter.incrementAndGet();
+        _removeCounter.increment();
     }
 
     long getNextAvailablePage() {
@@ -154,6 +154,17 @@ abstract class VolumeStorage extends SharedResource {
 
     abstract void writePage(final Buffer buffer) throws PersistitException;
 
+    /**
+     * Write the remaining bytes of a ByteBuffer to the volume file, starting at
+     * the specified page. The ByteBuffer may hold the images of several
+     * consecutive pages, in which case all are written in one operation.
+     * 
+     * @param bb
+     *            the page image(s)
+     * @param page
+     *            address of the first page
+     * @throws PersistitException
+     */
     abstract void writePage(final ByteBuffer bb, final long page) throws PersistitException;
 
     abstract long allocNewPage() throws PersistitException;
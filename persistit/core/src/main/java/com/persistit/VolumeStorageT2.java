@@ -325,8 +325,10 @@ class VolumeStorageT2 extends VolumeStorage {
             throw new InUseException("Unable to acquire claim on " + this);
         }
         try {
-            if (page < 0 || page >= _nextAvailablePage) {
-                throw new InvalidPageAddressException("Page " + page + " out of bounds [0-" + _nextAvailablePage + "]");
+            final long lastPage = page + (bb.remaining() - 1) / pageSize;
+            if (page < 0 || lastPage >= _nextAvailablePage) {
+                throw new InvalidPageAddressException("Page " + lastPage + " out of bounds [0-" + _nextAvailablePage
+                        + "]");
             }
 
             try {
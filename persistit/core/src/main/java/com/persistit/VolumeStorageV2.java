@@ -497,8 +497,10 @@ class VolumeStorageV2 extends VolumeStorage {
     @Override
     void writePage(final ByteBuffer bb, final long page) throws PersistitIOException, InvalidPageAddressException,
             ReadOnlyVolumeException, VolumeClosedException {
-        if (page < 0 || page >= _nextAvailablePage) {
-            throw new InvalidPageAddressException("Page " + page + " out of bounds [0-" + _nextAvailablePage + "]");
+        final long lastPage = page + (bb.remaining() - 1) / _volume.getStructure().getPageSize();
+        if (page < 0 || lastPage >= _nextAvailablePage) {
+            throw new InvalidPageAddressException("Page " + lastPage + " out of bounds [0-" + _nextAvailablePage
+                    + "]");
         }
 
         if (isReadOnly()) {
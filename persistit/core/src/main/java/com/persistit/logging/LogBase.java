@@ -98,7 +98,7 @@ public class LogBase {
     @Message("INFO|Recovery plan: will recover %,d pages and %,d committed transactions; will discard %,d uncommitted transactions")
     public final LogItem recoveryPlan = PersistitLogMessage.empty();
 
-    @Message("INFO|Recovery progress: %,d committed transactions applied, %,d uncommitted transactions rolled back, %,d remaining ")
+    @Message("INFO|Recovery progress: %,d committed transactions applied, %,d uncommitted transactions rolled back, %,d remaining, %,d records/sec, %,d seconds to go")
     public final LogItem recoveryProgress = PersistitLogMessage.empty();
 
     @Message("WARNING|Recovery exception %s at transaction %s")
@@ -149,4 +149,28 @@ public interface BufferPoolMXBean {
     @Description("Earliest timestamp of any dirty page in this BufferPool.")
     public long getEarliestDirtyTimestamp();
 
+    /**
+     * @return The name of the policy used to select buffers for eviction
+     */
+    @Description("The name of the policy used to select buffers for eviction from this BufferPool.")
+    public String getReplacementPolicy();
+
+    /**
+     * Get the count of pages read into this <code>BufferPool</code> that the
+     * replacement policy recognized as having been recently evicted.
+     * 
+     * @return The ghost hit count
+     */
+    @Description("The number of pages read into this BufferPool that had been recently evicted.")
+    public long getGhostHitCount();
+
+    /**
+     * Get the count of buffers holding pages the replacement policy considers
+     * probationary.
+     * 
+     * @return The count of probationary pages
+     */
+    @Description("The count of probationary pages in this BufferPool.")
+    public int getProbationaryPageCount();
+
 }
@@ -56,14 +56,22 @@ public interface IOMeterMXBean {
      * <dd>Flush journal</dd>
      * <dt>GP</dt>
      * <dd>Get Page</dd>
+     * <dt>PF</dt>
+     * <dd>Prefetch page by read-ahead</dd>
+     * <dt>PH</dt>
+     * <dd>Prefetched page used</dd>
+     * <dt>PW</dt>
+     * <dd>Prefetched page evicted before use</dd>
      * </dl>
      * 
      */
     public final static String[] OPERATION_NAMES = { "Unknown", "Read page from Volume", "Read page from Journal",
             "Copy page from journal", "Copy page to volume", "Write page from Journal", "Write Transaction to Journal",
-            "Other", "Evict page from pool", "Flush journal", "Get page" };
+            "Other", "Evict page from pool", "Flush journal", "Get page", "Prefetch page", "Prefetch hit",
+            "Prefetch waste" };
 
-    public final static String[] OPERATIONS = { "??", "RV", "RJ", "CJ", "CV", "WJ", "TJ", "XX", "EV", "FJ", "GP" };
+    public final static String[] OPERATIONS = { "??", "RV", "RJ", "CJ", "CV", "WJ", "TJ", "XX", "EV", "FJ", "GP",
+            "PF", "PH", "PW" };
 
     public final static String[] SUMMARY_ITEMS = { "CJ", "CV", "RV", "RJ", "WJ", "EV", "FJ" };
 
@@ -82,6 +90,21 @@ public interface IOMeterMXBean {
             + "between \"quiescent\" and \"busy\" states")
     public void setQuiescentIOthreshold(long quiescentIO);
 
+    /**
+     * @return the copierBandwidth
+     */
+    @Description("Maximum rate in KBytes per second at which the JOURNAL_COPIER writes pages to volumes "
+            + "unless copying is urgent, or 0 for no limit")
+    public long getCopierBandwidth();
+
+    /**
+     * @param copierBandwidth
+     *            the copierBandwidth to set
+     */
+    @Description("Maximum rate in KBytes per second at which the JOURNAL_COPIER writes pages to volumes "
+            + "unless copying is urgent, or 0 for no limit")
+    public void setCopierBandwidth(long copierBandwidth);
+
     /**
      * @return the ioRate
      */
@@ -95,6 +95,13 @@ public interface JournalManagerMXBean {
      * Default value for maximum pages to be copied per cycle.
      */
     final static int DEFAULT_COPIES_PER_CYCLE = 1000;
+    /**
+     * Default, minimum and maximum number of threads writing pages to
+     * different volumes concurrently while copying.
+     */
+    final static int DEFAULT_COPIER_THREADS = 1;
+    final static int MINIMUM_COPIER_THREADS = 1;
+    final static int MAXIMUM_COPIER_THREADS = 64;
 
     /**
      * Default time interval (in milliseconds) for logging repetitive I/O
@@ -193,6 +200,18 @@ public interface JournalManagerMXBean {
     @Description("Total number of page images pages dropped from the journal due the existence of newer versions")
     long getDroppedPageCount();
 
+    @Description("Total number of page images written to the journal in compressed form")
+    long getCompressedPageCount();
+
+    @Description("Ratio of bytes written to bytes presented for page images of volumes with journal compression enabled")
+    double getPageCompressionRatio();
+
+    @Description("Total time spent compressing page images in milliseconds")
+    long getPageCompressionTime();
+
+    @Description("Total time spent expanding compressed page images in milliseconds")
+    long getPageExpansionTime();
+
     @Description("System time when journal was first created")
     long getJournalCreatedTime();
 
@@ -244,6 +263,12 @@ public interface JournalManagerMXBean {
     @Description("Threshold in  milliseconds for warnings of long duration flush cycles")
     void setSlowIoAlertThreshold(long slowIoAlertThreshold);
 
+    @Description("Maximum number of volumes to which the JOURNAL_COPIER writes pages concurrently")
+    int getCopierThreads();
+
+    @Description("Maximum number of volumes to which the JOURNAL_COPIER writes pages concurrently")
+    void setCopierThreads(int threads);
+
     @Description("Journal file count threshold for throttling transactions")
     int getUrgentFileCountThreshold();
 
@@ -38,6 +38,12 @@ public interface RecoveryManagerMXBean {
      */
     final static int APPLY_TRANSACTION_LOG_COUNT = 1000;
 
+    final static int DEFAULT_RECOVERY_THREADS = 1;
+
+    final static int MINIMUM_RECOVERY_THREADS = 1;
+
+    final static int MAXIMUM_RECOVERY_THREADS = 64;
+
     public String getJournalFilePath();
 
     public int getCommittedCount();
@@ -68,4 +74,33 @@ public interface RecoveryManagerMXBean {
 
     public int getPageMapSize();
 
+    /**
+     * @return the number of threads that apply recovered transactions
+     */
+    public int getRecoveryThreads();
+
+    /**
+     * @return the number of recovered transactions not yet applied or rolled
+     *         back
+     */
+    public int getRemainingTransactionCount();
+
+    /**
+     * @return the number of updates (store, remove and accumulator records)
+     *         applied from recovered transactions
+     */
+    public long getAppliedRecordCount();
+
+    /**
+     * @return the rate at which updates have been applied from recovered
+     *         transactions, in records per second
+     */
+    public long getRecordsPerSecond();
+
+    /**
+     * @return estimated time in milliseconds to apply the remaining recovered
+     *         transactions, based on the rate achieved so far
+     */
+    public long getEstimatedRemainingTime();
+
 }
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * A statistics counter that is incremented by many threads and read rarely.
+ * The count is spread over several cells, each on its own cache line, and each
+ * thread increments the cell selected by its thread id. Threads on different
+ * processors therefore rarely write the same cache line, which avoids the
+ * contention a single <code>AtomicLong</code> suffers when it is incremented on
+ * every operation.
+ * </p>
+ * <p>
+ * {@link #get()} sums the cells and is therefore more expensive than
+ * incrementing. Its result is exact only when no thread is concurrently
+ * updating the counter, which is adequate for statistics. (This serves the
+ * same purpose as <code>java.util.concurrent.atomic.LongAdder</code>, which is
+ * not available on every platform Persistit supports.)
+ * </p>
+ */
+public class StripedCounter {
+
+    /**
+     * Spacing, in longs, between adjacent cells so that each cell occupies its
+     * own cache line
+     */
+    private final static int STRIDE = 8;
+
+    private final static int MAXIMUM_CELLS = 64;
+
+    private final static int CELLS = cellCount(Runtime.getRuntime().availableProcessors());
+
+    private final AtomicLongArray _cells = new AtomicLongArray(CELLS * STRIDE);
+
+    static int cellCount(final int processors) {
+        int cells = 1;
+        while (cells < processors && cells < MAXIMUM_CELLS) {
+            cells *= 2;
+        }
+        return cells;
+    }
+
+    private static int index() {
+        final long id = Thread.currentThread().getId();
+        final int hash = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+        return (hash & (CELLS - 1)) * STRIDE;
+    }
+
+    public void increment() {
+        _cells.incrementAndGet(index());
+    }
+
+    public void add(final long delta) {
+        _cells.addAndGet(index(), delta);
+    }
+
+    /**
+     * @return the sum of all cells
+     */
+    public long get() {
+        long sum = 0;
+        for (int index = 0; index < _cells.length(); index += STRIDE) {
+            sum += _cells.get(index);
+        }
+        return sum;
+    }
+
+    /**
+     * Set every cell to zero
+     */
+    public void reset() {
+        for (int index = 0; index < _cells.length(); index += STRIDE) {
+            _cells.set(index, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
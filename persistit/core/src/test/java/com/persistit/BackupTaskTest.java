@@ -19,7 +19,9 @@ package com.persistit;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Properties;
 import java.util.Random;
@@ -28,7 +30,9 @@ import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class BackupTaskTest extends PersistitUnitTestCase {
   private final static int TRANSACTION_COUNT = 50000;
@@ -76,6 +80,54 @@ public class BackupTaskTest extends PersistitUnitTestCase {
     assertTrue(comparison);
   }
 
+  @Test
+  public void testIncrementalBackup() throws Exception {
+    final PrintWriter writer = new PrintWriter(System.out);
+    final Exchange ex = _persistit.getExchange("persistit", "BackupTest", true);
+    final TreeMap<Integer, String> tmap = new TreeMap<Integer, String>();
+    final File[] files = new File[3];
+    long since = 0;
+    for (int backup = 0; backup < files.length; backup++) {
+      for (int index = backup * 10000; index < 50000 + backup * 1000; index++) {
+        final String value = "Backup " + backup + " record for index=" + index;
+        ex.to(index).getValue().put(value);
+        ex.store();
+        tmap.put(index, value);
+      }
+      files[backup] = temp.newFile("backup" + backup + ".zip");
+      final BackupTask task = (BackupTask) CLI.parseTask(_persistit, "backup -y -c since=" + since + " file="
+        + files[backup].getAbsolutePath().replaceAll("\\\\", "/"));
+      task.setMessageWriter(writer);
+      task.setup(1, "backup", "cli", 0, 5);
+      task.run();
+      assertEquals(since, task.getSince());
+      assertTrue(task.getBackupTimestamp() >= since);
+      since = task.getBackupTimestamp();
+    }
+
+    final Configuration config = _persistit.getConfiguration();
+    _persistit.close();
+    cleanUpDirectory(new File(DATA_PATH));
+
+    final BackupTask restore = new BackupTask();
+    restore.setMessageWriter(writer);
+    restore.setPersistit(_persistit);
+    try {
+      restore.doRestore(Arrays.asList(files[0].getAbsolutePath(), files[2].getAbsolutePath()));
+      fail("Expected an IOException for a broken chain");
+    } catch (final IOException e) {
+      // expected
+    }
+    restore.doRestore(Arrays.asList(files[0].getAbsolutePath(), files[1].getAbsolutePath(),
+      files[2].getAbsolutePath()));
+
+    _persistit = new Persistit(config);
+    _persistit.checkAllVolumes();
+    final PersistitMap<Integer, String> pmap = new PersistitMap<Integer, String>(_persistit.getExchange(
+      "persistit", "BackupTest", false));
+    assertTrue(pmap.equals(tmap));
+  }
+
   @Test
   public void testBackupWithConcurrentTransactions() throws Exception {
     final PrintWriter writer = new PrintWriter(System.out);
@@ -167,6 +219,7 @@ public class BackupTaskTest extends PersistitUnitTestCase {
   @Override
   public void runAllTests() throws Exception {
     testSimpleBackup();
+    testIncrementalBackup();
     testBackupWithConcurrentTransactions();
   }
 
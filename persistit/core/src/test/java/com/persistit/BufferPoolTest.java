@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -156,7 +157,7 @@ public class BufferPoolTest extends PersistitUnitTestCase {
         final long checkpointTimestamp = 2 * m;
         for (long timestamp = m; timestamp < m * 20; timestamp += m) {
             buffer.setDirtyAtTimestamp(timestamp);
-            final int priority = pool.writePriority(buffer, 123456, checkpointTimestamp, currentTimestamp);
+            final int priority = pool.writePriority(buffer, checkpointTimestamp, currentTimestamp);
             System.out.printf("Timestamp %,15d Checkpoint %,15d Current %,15d Priority %,15d\n", timestamp,
                     checkpointTimestamp, currentTimestamp, priority);
             currentTimestamp += 10000000;
@@ -184,4 +185,107 @@ public class BufferPoolTest extends PersistitUnitTestCase {
         }
     }
 
+    @Test
+    public void testScanResistantReplacementPolicy() throws Exception {
+        assertEquals("CLOCK should evict hot pages during a scan", 0, hotPageHitsAfterScans("CLOCK"));
+        assertTrue("2Q should retain hot pages during a scan", hotPageHitsAfterScans("2Q") >= 5);
+    }
+
+    @Test
+    public void testSegmentedClock() throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final BufferPool pool = new BufferPool(64, 16384, "CLOCK", 4, _persistit);
+        assertEquals(4, pool.getSegmentCount());
+        /*
+         * Hold claims on more buffers than one segment contains so that the
+         * allocator must steal from the other segments.
+         */
+        final Buffer[] held = new Buffer[40];
+        for (int i = 0; i < held.length; i++) {
+            held[i] = pool.get(volume, 1000 + i, false, false);
+        }
+        for (final Buffer buffer : held) {
+            buffer.release();
+        }
+        final int threadCount = 8;
+        final int pagesPerThread = 500;
+        final Thread[] threads = new Thread[threadCount];
+        final AtomicInteger errors = new AtomicInteger();
+        for (int t = 0; t < threadCount; t++) {
+            final long base = 2000 + t * pagesPerThread;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < pagesPerThread; i++) {
+                            pool.get(volume, base + i % 100, false, false).releaseTouched();
+                        }
+                    } catch (final Exception e) {
+                        e.printStackTrace();
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, errors.get());
+        assertEquals(held.length + threadCount * pagesPerThread, pool.getHitCounter() + pool.getMissCounter()
+                + pool.getNewCounter());
+    }
+
+    @Test
+    public void testBufferInventoryRecordsEveryClockHand() throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final BufferPool pool = new BufferPool(64, 16384, "CLOCK", 4, _persistit);
+        for (int i = 0; i < 200; i++) {
+            pool.get(volume, 1000 + i, false, false).release();
+        }
+        final int[] clocks = pool.clocks();
+        assertEquals(4, clocks.length);
+        for (int segment = 0; segment < clocks.length; segment++) {
+            assertTrue(clocks[segment] >= segment * 16 && clocks[segment] < (segment + 1) * 16);
+        }
+
+        pool.recordBufferInventory(1234L);
+        final Exchange exchange = _persistit.getExchange(_persistit.getSystemVolume(), "_buffers", false);
+        exchange.clear().append(16384).append(1234L).fetch();
+        final Value value = exchange.getValue();
+        value.setStreamMode(true);
+        assertEquals(64, value.getInt());
+        value.getInt();
+        assertTrue(Arrays.equals(clocks, (int[]) value.get()));
+        assertTrue(Arrays.equals(clocks, (int[]) value.get()));
+    }
+
+    /**
+     * Repeatedly touch a small set of hot pages followed by a scan of more
+     * pages than the pool holds, and return the count of hot pages still in
+     * the pool after the last scan.
+     */
+    private int hotPageHitsAfterScans(final String policyName) throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final BufferPool pool = new BufferPool(100, 16384, policyName, _persistit);
+        assertEquals(policyName, pool.getReplacementPolicy());
+        long scanPage = 1000;
+        int hits = 0;
+        for (int iteration = 0; iteration < 10; iteration++) {
+            final long before = pool.getHitCounter();
+            for (long page = 1; page <= 10; page++) {
+                pool.get(volume, page, true, false).releaseTouched();
+            }
+            hits = (int) (pool.getHitCounter() - before);
+            for (int i = 0; i < 150; i++) {
+                pool.get(volume, scanPage++, true, false).releaseTouched();
+            }
+        }
+        if ("2Q".equals(policyName)) {
+            assertTrue(pool.getGhostHitCounter() > 0);
+            assertTrue(pool.getProbationaryPageCount() <= 100);
+        }
+        return hits;
+    }
+
 }
@@ -0,0 +1,259 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import com.persistit.exception.InUseException;
+
+import org.junit.Test;
+
+public class BulkLoaderTest extends PersistitUnitTestCase {
+
+    private final static String TREE_NAME = "BulkLoaderTest";
+
+    private final static int COUNT = 50000;
+
+    private final static int LONG_RECORD_INTERVAL = 997;
+
+    private final String _longString = createString(20000);
+
+    private String valueFor(final int index) {
+        return index % LONG_RECORD_INTERVAL == 0 ? _longString + index : "value" + index;
+    }
+
+    private long bulkLoad(final Exchange ex) throws Exception {
+        final BulkLoader loader = new BulkLoader(ex);
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        for (int index = 0; index < COUNT; index++) {
+            key.clear().append(index).append("k");
+            value.put(valueFor(index));
+            loader.append(key, value);
+        }
+        loader.finish();
+        assertEquals(COUNT, loader.getRecordCount());
+        return loader.getPageCount();
+    }
+
+    private void verify(final Exchange ex) throws Exception {
+        ex.clear();
+        int index = 0;
+        while (ex.next(true)) {
+            assertEquals(index, ex.getKey().indexTo(0).decodeInt());
+            assertEquals(valueFor(index), ex.getValue().getString());
+            index++;
+        }
+        assertEquals(COUNT, index);
+        assertEquals(valueFor(12345), ex.clear().append(12345).append("k").fetch().getValue().getString());
+
+        final IntegrityCheck icheck = new IntegrityCheck(_persistit);
+        icheck.checkTree(ex.getTree());
+        assertEquals(0, icheck.getFaults().length);
+    }
+
+    @Test
+    public void loadEmptyTree() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        final long writesBefore = ex.getVolume().getStatistics().getWriteCounter();
+        final long pages = bulkLoad(ex);
+        assertTrue(ex.getTree().getDepth() > 1);
+        assertTrue(ex.getVolume().getStatistics().getWriteCounter() - writesBefore >= pages);
+        verify(ex);
+
+        ex.clear().append(-1).getValue().put("before");
+        ex.store();
+        ex.clear().append(COUNT).append("z").getValue().put("after");
+        ex.store();
+        assertEquals("before", ex.clear().append(-1).fetch().getValue().getString());
+        assertEquals("after", ex.clear().append(COUNT).append("z").fetch().getValue().getString());
+    }
+
+    @Test
+    public void loadSurvivesCrash() throws Exception {
+        bulkLoad(_persistit.getExchange("persistit", TREE_NAME, true));
+        crashWithoutFlushAndRestoreProperties();
+        verify(_persistit.getExchange("persistit", TREE_NAME, false));
+    }
+
+    @Test
+    public void outOfOrderKey() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        final BulkLoader loader = new BulkLoader(ex);
+        final Value value = new Value(_persistit);
+        value.put("value");
+        loader.append(new Key(_persistit).append(2), value);
+        assertFalse(loader.canAppend(new Key(_persistit).append(2)));
+        try {
+            loader.append(new Key(_persistit).append(1), value);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+        loader.finish();
+        assertEquals("value", ex.clear().append(2).fetch().getValue().getString());
+    }
+
+    @Test
+    public void nonEmptyTree() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        ex.clear().append(1).getValue().put("value");
+        ex.store();
+        try {
+            new BulkLoader(ex);
+            fail("Expected IllegalStateException");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void treeModifiedDuringLoad() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        final BulkLoader loader = new BulkLoader(ex);
+        final Value value = new Value(_persistit);
+        value.put("bulk");
+        for (int index = 0; index < 1000; index++) {
+            loader.append(new Key(_persistit).append(index), value);
+        }
+        final Exchange other = _persistit.getExchange("persistit", TREE_NAME, false);
+        other.clear().append("other").getValue().put("other");
+        other.store();
+        try {
+            loader.finish();
+            fail("Expected IllegalStateException");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+        assertEquals("other", ex.clear().append("other").fetch().getValue().getString());
+        assertFalse(ex.clear().append(1).isValueDefined());
+    }
+
+    private void runBackup(final String command) throws Exception {
+        final BackupTask backup = (BackupTask) CLI.parseTask(_persistit, command);
+        backup.setMessageWriter(new PrintWriter(System.out));
+        backup.setup(1, command, "cli", 0, 5);
+        backup.run();
+    }
+
+    @Test
+    public void refuseWhileAppendOnly() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        _persistit.getManagement().setAppendOnly(true);
+        try {
+            new BulkLoader(ex);
+            fail("Expected InUseException");
+        } catch (final InUseException e) {
+            // expected
+        } finally {
+            _persistit.getManagement().setAppendOnly(false);
+        }
+    }
+
+    @Test
+    public void backupDuringLoad() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        final BulkLoader loader = new BulkLoader(ex);
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        int index = 0;
+        for (; index < COUNT / 2; index++) {
+            key.clear().append(index).append("k");
+            value.put(valueFor(index));
+            loader.append(key, value);
+        }
+        /*
+         * Start appendOnly mode as a backup does, then finish the load while
+         * the volume file is being copied.
+         */
+        runBackup("backup -a");
+        final File volumeFile = new File(ex.getVolume().getPath());
+        final byte[] before = Files.readAllBytes(volumeFile.toPath());
+        final long writesBefore = ex.getVolume().getStatistics().getWriteCounter();
+        for (; index < COUNT; index++) {
+            key.clear().append(index).append("k");
+            value.put(valueFor(index));
+            loader.append(key, value);
+        }
+        loader.finish();
+        final byte[] after = Files.readAllBytes(volumeFile.toPath());
+        assertTrue(after.length >= before.length);
+        assertArrayEquals("Volume file changed in appendOnly mode", before, Arrays.copyOf(after, before.length));
+        verify(ex);
+
+        final File file = temp.newFile("backup.zip");
+        runBackup("backup -e file=" + file.getAbsolutePath().replaceAll("\\\\", "/"));
+        assertFalse(_persistit.getJournalManager().isAppendOnly());
+
+        final Configuration config = _persistit.getConfiguration();
+        _persistit.close();
+        cleanUpDirectory(new File(DATA_PATH));
+        final BackupTask restore = new BackupTask();
+        restore.setMessageWriter(new PrintWriter(System.out));
+        restore.setPersistit(_persistit);
+        restore.doRestore(file.getAbsolutePath());
+
+        _persistit = new Persistit(config);
+        _persistit.checkAllVolumes();
+        verify(_persistit.getExchange("persistit", TREE_NAME, false));
+    }
+
+    private void saveAndReload() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        for (int index = COUNT; --index >= 0;) {
+            ex.clear().append(index).append("k").getValue().put(valueFor(index));
+            ex.store();
+        }
+        final File file = new File(DATA_PATH, TREE_NAME + ".sav");
+        final StreamSaver saver = new StreamSaver(_persistit, file);
+        saver.saveTrees("persistit", new String[] { TREE_NAME });
+        saver.close();
+        ex.removeTree();
+
+        final StreamLoader loader = new StreamLoader(_persistit, file);
+        loader.setBulkLoad(true);
+        loader.load();
+    }
+
+    @Test
+    public void streamLoaderBulkLoad() throws Exception {
+        saveAndReload();
+        final Exchange loaded = _persistit.getExchange("persistit", TREE_NAME, false);
+        verify(loaded);
+    }
+
+    @Test
+    public void streamLoaderStoresWhileAppendOnly() throws Exception {
+        _persistit.getManagement().setAppendOnly(true);
+        try {
+            saveAndReload();
+            final Exchange loaded = _persistit.getExchange("persistit", TREE_NAME, false);
+            verify(loaded);
+        } finally {
+            _persistit.getManagement().setAppendOnly(false);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class CompactionTaskTest extends PersistitUnitTestCase {
+
+    private final static String TREE_NAME = "CompactionTaskTest";
+
+    private final static int COUNT = 20000;
+
+    private final static int KEEP_EVERY = 8;
+
+    private static String value(final int index) {
+        final StringBuilder sb = new StringBuilder("value").append(index);
+        while (sb.length() < 100) {
+            sb.append('.');
+        }
+        return sb.toString();
+    }
+
+    private Exchange populateAndThin() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        for (int index = 0; index < COUNT; index++) {
+            ex.clear().append(index).getValue().put(value(index));
+            ex.store();
+        }
+        for (int index = 0; index < COUNT; index++) {
+            if (index % KEEP_EVERY != 0) {
+                ex.clear().append(index).remove();
+            }
+        }
+        return ex;
+    }
+
+    private void verify(final Exchange ex, final int count, final int step) throws Exception {
+        ex.clear();
+        int index = 0;
+        while (ex.next(true)) {
+            assertEquals(index, ex.getKey().decodeInt());
+            assertEquals(value(index), ex.getValue().getString());
+            index += step;
+        }
+        assertEquals(count, index);
+    }
+
+    private IntegrityCheck icheck() throws Exception {
+        final IntegrityCheck icheck = new IntegrityCheck(_persistit);
+        icheck.checkVolume(_persistit.getVolume("persistit"));
+        assertEquals(0, icheck.getFaults().length);
+        return icheck;
+    }
+
+    @Test
+    public void compactThinnedTree() throws Exception {
+        final Exchange ex = populateAndThin();
+        final IntegrityCheck before = icheck();
+
+        final CompactionTask task = new CompactionTask(_persistit);
+        final long joined = task.compactTree(ex.getTree());
+        assertTrue("Expected pages to be joined", joined > 0);
+        assertTrue(task.getFillFactorAfter() > task.getFillFactorBefore() * 2);
+        assertTrue(task.getFillFactorAfter() <= 1.0);
+
+        verify(ex, COUNT, KEEP_EVERY);
+        final IntegrityCheck after = icheck();
+        assertEquals(before.getDataPageCount() - joined, after.getDataPageCount());
+        assertTrue(after.getDataFillFactor() > before.getDataFillFactor());
+
+        assertEquals(0, task.compactTree(ex.getTree()));
+    }
+
+    @Test
+    public void reportFillFactorInCsv() throws Exception {
+        populateAndThin();
+        final IntegrityCheck icheck = new IntegrityCheck(_persistit);
+        icheck.setCsvMode(true);
+        icheck.setMessageLogVerbosity(Task.LOG_NORMAL);
+        icheck.checkVolume(_persistit.getVolume("persistit"));
+        final String[] messages = icheck.getMessages(0);
+        final String[] columns = messages[messages.length - 1].split(",");
+        // Volume, Tree, Faults, IndexPages, IndexBytes, DataPages, DataBytes, DataFillFactor, ...
+        assertEquals(16, columns.length);
+        assertEquals(icheck.getDataFillFactor(), Double.parseDouble(columns[7]), 0.0001);
+        assertTrue(icheck.getDataFillFactor() > 0);
+    }
+
+    @Test
+    public void compactWithConcurrentUpdates() throws Exception {
+        final Exchange ex = populateAndThin();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicInteger written = new AtomicInteger();
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, false);
+                    for (int index = 0; index < COUNT && !done.get(); index++) {
+                        ex.clear().append(index).getValue().put(value(index));
+                        ex.store();
+                        written.set(index + 1);
+                    }
+                } catch (final Exception e) {
+                    failure.set(e);
+                }
+            }
+        });
+        writer.start();
+        final CompactionTask task = new CompactionTask(_persistit);
+        try {
+            task.compactTree(ex.getTree());
+        } finally {
+            done.set(true);
+            writer.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        for (int index = 0; index < COUNT; index++) {
+            ex.clear().append(index).fetch();
+            final boolean expected = index < written.get() || index % KEEP_EVERY == 0;
+            assertEquals("Key " + index, expected, ex.getValue().isDefined());
+        }
+        icheck();
+    }
+}
@@ -194,6 +194,16 @@ public class ConfigurationTest extends PersistitUnitTestCase {
         assertEquals(GIGA, bpc.getMaximumMemory());
         assertEquals(128 * MEGA, bpc.getReservedMemory());
         assertEquals(0, Float.compare(0.6f, bpc.getFraction()));
+        assertEquals("CLOCK", bpc.getReplacementPolicy());
+        properties.put("buffer.policy.16384", "2q");
+        bpc = testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap().get(16384);
+        assertEquals("2Q", bpc.getReplacementPolicy());
+        assertEquals(0, bpc.getSegmentCount());
+        properties.remove("buffer.policy.16384");
+        properties.put("buffer.segments.16384", "8");
+        bpc = testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap().get(16384);
+        assertEquals(8, bpc.getSegmentCount());
+        properties.remove("buffer.segments.16384");
         properties.put("buffer.memory.1024", "1M");
         try {
             testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap().get(1024).getMaximumCount();
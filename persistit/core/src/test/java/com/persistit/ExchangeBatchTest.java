@@ -0,0 +1,136 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ExchangeBatchTest extends PersistitUnitTestCase {
+
+    private final static String TREE_NAME = "ExchangeBatchTest";
+
+    private final static int COUNT = 20000;
+
+    private Key[] keys(final int... ids) {
+        final Key[] keys = new Key[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            keys[i] = new Key(_persistit).append(ids[i]);
+        }
+        return keys;
+    }
+
+    private Value[] values(final int size) {
+        final Value[] values = new Value[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = new Value(_persistit);
+        }
+        return values;
+    }
+
+    private void populate(final Exchange ex) throws Exception {
+        for (int i = 0; i < COUNT; i += 2) {
+            ex.getValue().put("value" + i);
+            ex.clear().append(i).store();
+        }
+    }
+
+    @Test
+    public void fetchUnsortedKeysAcrossPages() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        populate(ex);
+        final Random random = new Random(1);
+        final int[] ids = new int[500];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextInt(COUNT + 100);
+        }
+        final Key[] keys = keys(ids);
+        final Value[] values = values(ids.length);
+        ex.clear().append("unchanged");
+        ex.getValue().put("unchanged");
+
+        int expected = 0;
+        for (final int id : ids) {
+            if (id % 2 == 0 && id < COUNT) {
+                expected++;
+            }
+        }
+        assertEquals(expected, ex.fetch(keys, values));
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] % 2 == 0 && ids[i] < COUNT) {
+                assertEquals("value" + ids[i], values[i].getString());
+            } else {
+                assertFalse(values[i].isDefined());
+            }
+        }
+        assertEquals("{\"unchanged\"}", ex.getKey().toString());
+        assertEquals("unchanged", ex.getValue().getString());
+    }
+
+    @Test
+    public void fetchWithKeyFilter() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        populate(ex);
+        final Key[] keys = keys(10, 100, 1000, 10000);
+        final Value[] values = values(keys.length);
+        final KeyFilter filter = new KeyFilter(new KeyFilter.Term[] { KeyFilter.rangeTerm(50, 5000) });
+        assertEquals(2, ex.fetch(keys, values, filter));
+        assertFalse(values[0].isDefined());
+        assertEquals("value100", values[1].getString());
+        assertEquals("value1000", values[2].getString());
+        assertFalse(values[3].isDefined());
+    }
+
+    @Test
+    public void storeAndFetchWithinTransaction() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        final Key[] keys = keys(7, 3, 5, 1);
+        final Value[] values = values(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            values[i].put(i);
+        }
+        final Transaction txn = _persistit.getTransaction();
+        txn.begin();
+        try {
+            ex.store(keys, values);
+            final Value[] fetched = values(keys.length);
+            assertEquals(4, ex.fetch(keys, fetched));
+            for (int i = 0; i < keys.length; i++) {
+                assertEquals(i, fetched[i].getInt());
+            }
+            txn.rollback();
+        } finally {
+            txn.end();
+        }
+        assertEquals(0, ex.fetch(keys, values(keys.length)));
+    }
+
+    @Test
+    public void mismatchedArrays() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        try {
+            ex.fetch(keys(1, 2), values(1));
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.persistit.exception.CorruptJournalException;
+
+public class JournalCompressionTest extends PersistitUnitTestCase {
+
+    private final static int COUNT = 5000;
+
+    private final static String TREE_NAME = "JournalCompressionTest";
+
+    @Override
+    protected Properties doGetProperties(final boolean cleanup) {
+        final Properties p = super.getProperties(cleanup);
+        p.setProperty("volume.1", "${datapath}/" + VOLUME_NAME + ",create,pageSize:16384,initialPages:100,"
+                + "extensionPages:100,maximumPages:25000,compressJournal");
+        return p;
+    }
+
+    @Test
+    public void volumeSpecification() throws Exception {
+        final VolumeSpecification vs = new VolumeSpecification("/tmp/v,pageSize:16384,initialPages:1,compressJournal");
+        assertTrue(vs.isCompressJournal());
+        assertTrue(new VolumeSpecification(vs.toString()).isCompressJournal());
+        assertFalse(new VolumeSpecification("/tmp/v,pageSize:16384,initialPages:1").isCompressJournal());
+        assertTrue(_persistit.getVolume(VOLUME_NAME).isJournalCompressed());
+    }
+
+    @Test
+    public void compressAndExpand() throws Exception {
+        final PageCompressor compressor = PageCompressor.get();
+        final byte[] page = new byte[16384];
+        for (int i = 0; i < 2000; i++) {
+            page[i] = (byte) (i % 7);
+        }
+        for (int i = 10000; i < page.length; i++) {
+            page[i] = (byte) (i % 13);
+        }
+        final int size = compressor.compress(page, 2000, page.length - 10000, page.length);
+        assertTrue(size > 0 && size < 2000);
+        final byte[] compressed = Arrays.copyOf(compressor.getScratch(), size);
+        final byte[] image = new byte[page.length];
+        assertEquals(2000 + page.length - 10000, compressor.expand(compressed, 0, size, image, 0, page.length));
+        assertArrayEquals(Arrays.copyOfRange(page, 0, 2000), Arrays.copyOfRange(image, 0, 2000));
+        assertArrayEquals(Arrays.copyOfRange(page, 10000, page.length),
+                Arrays.copyOfRange(image, 2000, 2000 + page.length - 10000));
+        try {
+            compressor.expand(compressed, 0, size, image, 0, 1000);
+            fail("Expected CorruptJournalException");
+        } catch (final CorruptJournalException e) {
+            // expected
+        }
+        final byte[] random = new byte[page.length];
+        new Random(1).nextBytes(random);
+        assertEquals(-1, compressor.compress(random, 0, random.length, random.length));
+    }
+
+    @Test
+    public void recoverCompressedPages() throws Exception {
+        store();
+        _persistit.checkpoint();
+        final JournalManager jman = _persistit.getJournalManager();
+        assertTrue(jman.getCompressedPageCount() > 0);
+        assertTrue(jman.getPageCompressionRatio() < 1.0);
+        _persistit.getJournalManager().force();
+        crashWithoutFlushAndRestoreProperties();
+        verify();
+        assertTrue(_persistit.getJournalManager().getReadPageCount() > 0);
+        _persistit.getJournalManager().copyBack();
+        _persistit.getBufferPool(16384).invalidate(_persistit.getVolume(VOLUME_NAME));
+        verify();
+    }
+
+    private static String longValue() {
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < 50000) {
+            sb.append(RED_FOX);
+        }
+        return sb.toString();
+    }
+
+    private void store() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, TREE_NAME, true);
+        ex.getValue().put(longValue());
+        ex.clear().append("long").store();
+        for (int i = 0; i < COUNT; i++) {
+            ex.getValue().put(RED_FOX + i);
+            ex.clear().append(i).store();
+        }
+    }
+
+    private void verify() throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, TREE_NAME, false);
+        for (int i = 0; i < COUNT; i++) {
+            ex.clear().append(i).fetch();
+            assertEquals(RED_FOX + i, ex.getValue().getString());
+        }
+        ex.clear().append("long").fetch();
+        assertEquals(longValue(), ex.getValue().getString());
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.persistit.util.Util;
+
+public class JournalCopierTest extends PersistitUnitTestCase {
+
+    private final static int COUNT = 10000;
+
+    private final static String[] VOLUMES = { "persistit", "second", "third" };
+
+    private final static String TREE_NAME = "JournalCopierTest";
+
+    @Override
+    protected Properties doGetProperties(final boolean cleanup) {
+        final Properties p = getBiggerProperties(cleanup);
+        p.setProperty("volume.4", "${datapath}/persistit_second,create,"
+                + "pageSize:16384,initialPages:10,extensionPages:10,maximumPages:100000,alias:second");
+        p.setProperty("volume.5", "${datapath}/persistit_third,create,"
+                + "pageSize:16384,initialPages:10,extensionPages:10,maximumPages:100000,alias:third");
+        p.setProperty("copierthreads", "4");
+        p.setProperty("copierbandwidth", "100000");
+        return p;
+    }
+
+    @Test
+    public void configuration() throws Exception {
+        assertEquals(4, _config.getCopierThreads());
+        assertEquals(100000, _config.getCopierBandwidth());
+        assertEquals(4, _persistit.getJournalManager().getCopierThreads());
+        assertEquals(100000, _persistit.getIOMeter().getCopierBandwidth());
+    }
+
+    @Test
+    public void copyToSeveralVolumes() throws Exception {
+        for (final String volume : VOLUMES) {
+            final Exchange ex = _persistit.getExchange(volume, TREE_NAME, true);
+            for (int i = 0; i < COUNT; i++) {
+                ex.getValue().put(RED_FOX + volume + i);
+                ex.clear().append(i).store();
+            }
+        }
+        final JournalManager jman = _persistit.getJournalManager();
+        final long copied = jman.getCopiedPageCount();
+        drainJournal();
+        assertTrue(jman.getCopiedPageCount() > copied);
+        assertEquals(0, jman.getPageMapSize());
+
+        _persistit.close();
+        _persistit = new Persistit(_config);
+        for (final String volume : VOLUMES) {
+            final Exchange ex = _persistit.getExchange(volume, TREE_NAME, false);
+            ex.clear().append(Key.BEFORE);
+            int count = 0;
+            while (ex.next()) {
+                assertEquals(count, ex.getKey().decodeInt());
+                assertEquals(RED_FOX + volume + count, ex.getValue().getString());
+                count++;
+            }
+            assertEquals(COUNT, count);
+        }
+    }
+
+    @Test
+    public void throttleCopy() throws Exception {
+        final IOMeter meter = _persistit.getIOMeter();
+        meter.setCopierBandwidth(1000);
+        /*
+         * Five writes of 100 KBytes at 1000 KBytes/sec: the first is admitted
+         * as a burst and each of the others waits about 100ms.
+         */
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            meter.throttleCopy(100 * 1024, 0);
+        }
+        final long throttled = System.nanoTime() - start;
+        assertTrue("Elapsed " + throttled, throttled >= 300 * Util.NS_PER_MS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            meter.throttleCopy(100 * 1024, JournalManager.URGENT);
+        }
+        final long urgent = System.nanoTime() - start;
+        assertTrue("Elapsed " + urgent, urgent < 100 * Util.NS_PER_MS);
+
+        meter.setCopierBandwidth(0);
+        start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            meter.throttleCopy(100 * 1024, 0);
+        }
+        final long unlimited = System.nanoTime() - start;
+        assertTrue("Elapsed " + unlimited, unlimited < 100 * Util.NS_PER_MS);
+    }
+}
@@ -19,6 +19,7 @@ package com.persistit;
 import com.persistit.Accumulator.SumAccumulator;
 import com.persistit.CheckpointManager.Checkpoint;
 import com.persistit.JournalManager.PageNode;
+import com.persistit.Transaction.CommitPolicy;
 import com.persistit.TransactionPlayer.TransactionPlayerListener;
 import com.persistit.exception.PersistitException;
 import com.persistit.unit.ConcurrentUtil.ThrowingRunnable;
@@ -27,12 +28,10 @@ import org.junit.Test;
 
 import java.io.File;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
@@ -163,13 +162,13 @@ public class JournalManagerTest extends PersistitUnitTestCase {
         rman.buildRecoveryPlan();
         assertTrue(rman.getKeystoneAddress() != -1);
         assertEquals(checkpoint2.getTimestamp(), rman.getLastValidCheckpoint().getTimestamp());
-        final Map<PageNode, PageNode> pageMap = new HashMap<PageNode, PageNode>();
-        final Map<PageNode, PageNode> branchMap = new HashMap<PageNode, PageNode>();
+        final PageMap pageMap = new PageMap();
+        final PageMap branchMap = new PageMap();
 
         rman.collectRecoveredPages(pageMap, branchMap);
         assertEquals(pages, pageMap.size());
 
-        for (final PageNode pn : pageMap.values()) {
+        for (final PageNode pn : pageMap) {
             assertTrue(pn.getJournalAddress() <= noPagesAfterThis);
         }
 
@@ -698,6 +697,46 @@ public class JournalManagerTest extends PersistitUnitTestCase {
         }
     }
 
+    @Test
+    public void concurrentHardCommitsAreDurable() throws Exception {
+        final int THREADS = 8;
+        final int COMMITS = 200;
+        final String TREE_NAME = "JournalManagerTest2";
+        final Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            threads[t] = createThread("Committer" + t, new ThrowingRunnable() {
+                @Override
+                public void run() throws Exception {
+                    final Exchange ex = _persistit.getExchange(_volumeName, TREE_NAME, true);
+                    final Transaction txn = _persistit.getTransaction();
+                    for (int i = 0; i < COMMITS; i++) {
+                        txn.begin();
+                        try {
+                            ex.clear().append(thread).append(i);
+                            ex.getValue().put(RED_FOX + i);
+                            ex.store();
+                            txn.commit(CommitPolicy.HARD);
+                        } finally {
+                            txn.end();
+                        }
+                    }
+                    _persistit.releaseExchange(ex);
+                }
+            });
+        }
+        startAndJoinAssertSuccess(60000, threads);
+
+        crashWithoutFlushAndRestoreProperties();
+        final Exchange ex = _persistit.getExchange(_volumeName, TREE_NAME, false);
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < COMMITS; i++) {
+                ex.clear().append(t).append(i).fetch();
+                assertEquals(RED_FOX + i, ex.getValue().getString());
+            }
+        }
+    }
+
     private void store2() throws PersistitException {
         final Exchange exchange = _persistit.getExchange(_volumeName, "JournalManagerTest1", true);
         exchange.removeAll();
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.persistit.JournalManager.PageNode;
+
+public class PageMapTest {
+
+    @Test
+    public void putGetRemove() {
+        final PageMap map = new PageMap();
+        assertTrue(map.isEmpty());
+        final PageNode pn1 = new PageNode(1, 42, 1000, 10);
+        final PageNode pn2 = new PageNode(1, 42, 2000, 20);
+        final PageNode pn3 = new PageNode(2, 42, 3000, 30);
+        assertNull(map.put(pn1));
+        assertSame(pn1, map.put(pn2));
+        assertNull(map.put(pn3));
+        assertEquals(2, map.size());
+        assertSame(pn2, map.get(1, 42));
+        assertSame(pn3, map.get(2, 42));
+        assertNull(map.get(1, 43));
+        assertSame(pn2, map.remove(1, 42));
+        assertNull(map.remove(1, 42));
+        assertNull(map.get(1, 42));
+        assertEquals(1, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(2, 42));
+    }
+
+    /**
+     * Compare a PageMap with a HashMap through a random sequence of puts,
+     * removals and removals by iterator, large enough to cause the table to
+     * grow and to be rehashed to discard tombstones.
+     */
+    @Test
+    public void compareWithHashMap() {
+        final PageMap map = new PageMap(16);
+        final Map<PageNode, PageNode> reference = new HashMap<PageNode, PageNode>();
+        // fixed seed so that results are repeatable.
+        final Random random = new Random(1);
+        for (int pass = 0; pass < 20; pass++) {
+            for (int i = 0; i < 50000; i++) {
+                final int handle = random.nextInt(4);
+                final long page = random.nextInt(100000);
+                if (random.nextInt(4) == 0) {
+                    final PageNode expected = reference.remove(new PageNode(handle, page));
+                    assertSame(expected, map.remove(handle, page));
+                } else {
+                    final PageNode pn = new PageNode(handle, page, i, pass);
+                    assertSame(reference.put(pn, pn), map.put(pn));
+                }
+            }
+            assertEquals(reference.size(), map.size());
+            for (final Iterator<PageNode> iterator = map.iterator(); iterator.hasNext();) {
+                final PageNode pn = iterator.next();
+                assertSame(reference.get(pn), pn);
+                if (random.nextInt(3) == 0) {
+                    iterator.remove();
+                    reference.remove(pn);
+                }
+            }
+            assertEquals(reference.size(), map.size());
+            for (final PageNode pn : reference.values()) {
+                assertSame(pn, map.get(pn.getVolumeHandle(), pn.getPageAddress()));
+            }
+            int count = 0;
+            for (final PageNode pn : map) {
+                assertSame(reference.get(pn), pn);
+                count++;
+            }
+            assertEquals(reference.size(), count);
+        }
+    }
+}
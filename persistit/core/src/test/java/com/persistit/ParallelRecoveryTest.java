@@ -0,0 +1,128 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.persistit.Accumulator.SumAccumulator;
+
+public class ParallelRecoveryTest extends PersistitUnitTestCase {
+
+    private final static int TREES = 8;
+
+    private final static int TRANSACTIONS = 4000;
+
+    private final static String TREE_NAME = "ParallelRecoveryTest";
+
+    @Override
+    protected Properties doGetProperties(final boolean cleanup) {
+        final Properties p = getBiggerProperties(cleanup);
+        p.setProperty("recoverythreads", "4");
+        return p;
+    }
+
+    /**
+     * Commit a mix of transactions that update one tree, transactions that
+     * update two trees and transactions that remove keys, then crash and
+     * verify that recovery on several threads reproduces every tree and
+     * accumulator.
+     */
+    @Test
+    public void recoverOnSeveralThreads() throws Exception {
+        assertEquals(4, _persistit.getRecoveryManager().getRecoveryThreads());
+        _persistit.getJournalManager().setAppendOnly(true);
+        final List<SortedSet<Integer>> expected = new ArrayList<SortedSet<Integer>>();
+        final Exchange[] exchanges = new Exchange[TREES];
+        for (int tree = 0; tree < TREES; tree++) {
+            exchanges[tree] = _persistit.getExchange("persistit", TREE_NAME + tree, true);
+            expected.add(new TreeSet<Integer>());
+        }
+        final Transaction txn = _persistit.getTransaction();
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            final int tree = i % TREES;
+            txn.begin();
+            try {
+                store(exchanges[tree], i);
+                if (i % 50 == 0) {
+                    store(exchanges[(tree + 1) % TREES], -i - 1);
+                }
+                if (i % 7 == 0 && i >= TREES) {
+                    exchanges[tree].clear().append(i - TREES).remove();
+                    exchanges[tree].getTree().getSumAccumulator(0).add(-1);
+                }
+                txn.commit();
+            } finally {
+                txn.end();
+            }
+            expected.get(tree).add(i);
+            if (i % 50 == 0) {
+                expected.get((tree + 1) % TREES).add(-i - 1);
+            }
+            if (i % 7 == 0 && i >= TREES) {
+                expected.get(tree).remove(i - TREES);
+            }
+        }
+        _persistit.getJournalManager().flush();
+        crashWithoutFlushAndRestoreProperties();
+
+        final RecoveryManager rman = _persistit.getRecoveryManager();
+        assertTrue(rman.getAppliedTransactionCount() > 0);
+        assertEquals(0, rman.getRemainingTransactionCount());
+        assertEquals(0, rman.getErrorCount());
+        assertTrue(rman.getAppliedRecordCount() >= rman.getAppliedTransactionCount());
+        assertEquals(0, rman.getEstimatedRemainingTime());
+
+        for (int tree = 0; tree < TREES; tree++) {
+            final Exchange ex = _persistit.getExchange("persistit", TREE_NAME + tree, false);
+            final Iterator<Integer> iterator = expected.get(tree).iterator();
+            ex.clear().append(Key.BEFORE);
+            while (ex.next()) {
+                assertTrue(iterator.hasNext());
+                final int key = iterator.next();
+                assertEquals(key, ex.getKey().decodeInt());
+                assertEquals(key, ex.getValue().getInt());
+            }
+            assertFalse(iterator.hasNext());
+            final SumAccumulator acc = ex.getTree().getSumAccumulator(0);
+            final Transaction recovered = _persistit.getTransaction();
+            recovered.begin();
+            try {
+                assertEquals("Tree " + tree, expected.get(tree).size(), acc.getSnapshotValue());
+                recovered.commit();
+            } finally {
+                recovered.end();
+            }
+        }
+    }
+
+    private void store(final Exchange ex, final int key) throws Exception {
+        ex.getValue().put(key);
+        ex.clear().append(key).store();
+        ex.getTree().getSumAccumulator(0).add(1);
+    }
+}
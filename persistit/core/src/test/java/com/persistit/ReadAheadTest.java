@@ -0,0 +1,124 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+public class ReadAheadTest extends PersistitUnitTestCase {
+
+    private final static int COUNT = 20000;
+
+    private final static String TREE_NAME = "ReadAheadTest";
+
+    @Override
+    protected Properties doGetProperties(final boolean cleanup) {
+        final Properties p = getBiggerProperties(cleanup);
+        p.setProperty("readahead", "8");
+        return p;
+    }
+
+    @Test
+    public void configuration() throws Exception {
+        assertEquals(8, _config.getReadAheadPages());
+        assertEquals(8, _persistit.getDefaultReadAheadPages());
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        assertEquals(8, ex.getReadAheadPages());
+        ex.getTree().setReadAheadPages(4);
+        assertEquals(4, ex.getReadAheadPages());
+        ex.setReadAheadPages(0);
+        assertEquals(0, ex.getReadAheadPages());
+        ex.setReadAheadPages(-1);
+        assertEquals(4, ex.getReadAheadPages());
+        try {
+            ex.setReadAheadPages(ReadAheadManager.MAXIMUM_READ_AHEAD_PAGES + 1);
+            fail("Expected IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void sequentialTraverseReadsAhead() throws Exception {
+        store();
+        restart();
+        final ReadAheadManager manager = _persistit.getReadAheadManager();
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, false);
+        ex.setReadAheadPages(32);
+        ex.clear().append(Key.BEFORE);
+        int count = 0;
+        while (count < COUNT / 10 && ex.next()) {
+            count++;
+        }
+        assertTrue(manager.getAcceptedCount() > 0);
+        waitForReadAhead(manager);
+        while (ex.next()) {
+            assertEquals(count, ex.getKey().decodeInt());
+            count++;
+        }
+        assertEquals(COUNT, count);
+        final IOMeter meter = _persistit.getIOMeter();
+        assertTrue(meter.totalOperations("PF") > 0);
+        assertTrue(meter.totalOperations("PH") > 0);
+        assertEquals(0, manager.getErrorCount());
+    }
+
+    @Test
+    public void randomFetchDoesNotReadAhead() throws Exception {
+        store();
+        restart();
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, false);
+        for (int i = 0; i < COUNT; i += 97) {
+            ex.clear().append(i).fetch();
+            assertTrue(ex.getValue().isDefined());
+        }
+        ex.setReadAheadPages(0);
+        ex.clear().append(Key.BEFORE);
+        while (ex.next()) {
+        }
+        assertEquals(0, _persistit.getReadAheadManager().getAcceptedCount());
+    }
+
+    private void store() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        for (int i = 0; i < COUNT; i++) {
+            ex.getValue().put(RED_FOX + RED_FOX + i);
+            ex.clear().append(i).store();
+        }
+    }
+
+    /**
+     * Restart so that none of the tree's data pages are in the buffer pool
+     */
+    private void restart() throws Exception {
+        _persistit.close();
+        _persistit = new Persistit(_config);
+    }
+
+    private void waitForReadAhead(final ReadAheadManager manager) throws InterruptedException {
+        final long expires = System.currentTimeMillis() + 10000;
+        while (manager.getPerformedCount() + manager.getErrorCount() < manager.getAcceptedCount()
+                && System.currentTimeMillis() < expires) {
+            Thread.sleep(10);
+        }
+    }
+}
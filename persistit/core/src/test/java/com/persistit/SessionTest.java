@@ -0,0 +1,261 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class SessionTest extends PersistitUnitTestCase {
+
+    private final static String TREE_NAME = "SessionTest";
+
+    @Test
+    public void sessionSuppliesExchangesAndTransaction() throws Exception {
+        final Session session = _persistit.openSession();
+        try {
+            assertSame(session.getSessionId(), _persistit.getSessionId());
+            final Transaction txn = session.getTransaction();
+            assertSame(txn, _persistit.getTransaction());
+            assertSame(session.getSessionId(), txn.getSessionId());
+
+            final Exchange ex = session.getExchange("persistit", TREE_NAME, true);
+            assertSame(txn, ex.getTransaction());
+            txn.begin();
+            try {
+                ex.getValue().put("value");
+                ex.clear().append(1).store();
+                txn.commit();
+            } finally {
+                txn.end();
+            }
+            session.releaseExchange(ex);
+            assertSame(ex, session.getExchange("persistit", TREE_NAME, false));
+        } finally {
+            session.close();
+        }
+        assertFalse(session.isOpen());
+        assertFalse(session.getSessionId().isAlive());
+        assertNotSame(session.getSessionId(), _persistit.getSessionId());
+
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, false);
+        assertEquals("value", ex.clear().append(1).fetch().getValue().getString());
+    }
+
+    @Test
+    public void closeRollsBackActiveTransaction() throws Exception {
+        final Session session = _persistit.openSession();
+        final Exchange ex = session.getExchange("persistit", TREE_NAME, true);
+        final Transaction txn = session.getTransaction();
+        txn.begin();
+        ex.getValue().put("value");
+        ex.clear().append(2).store();
+        session.close();
+
+        _persistit.getTransaction().begin();
+        try {
+            final Exchange check = _persistit.getExchange("persistit", TREE_NAME, false);
+            assertFalse(check.clear().append(2).isValueDefined());
+            _persistit.getTransaction().commit();
+        } finally {
+            _persistit.getTransaction().end();
+        }
+        try {
+            session.attach();
+            fail("Expected IllegalStateException");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * A session opened on one thread survives the end of that thread and can
+     * be continued on another.
+     */
+    @Test
+    public void sessionOutlivesThread() throws Exception {
+        final AtomicReference<Session> reference = new AtomicReference<Session>();
+        final Thread opener = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final Session session = _persistit.openSession();
+                try {
+                    session.getTransaction().begin();
+                    final Exchange ex = session.getExchange("persistit", TREE_NAME, true);
+                    ex.getValue().put("value");
+                    ex.clear().append(3).store();
+                } catch (final Exception e) {
+                    throw new RuntimeException(e);
+                }
+                reference.set(session);
+            }
+        });
+        opener.start();
+        opener.join();
+        final Session session = reference.get();
+        assertTrue(session.getSessionId().isAlive());
+
+        _persistit.cleanup();
+        final List<Transaction> transactions = new ArrayList<Transaction>();
+        _persistit.populateTransactionList(transactions);
+        assertTrue(transactions.contains(session.getTransaction()));
+
+        final Transaction txn = session.getTransaction();
+        assertTrue(txn.isActive());
+        txn.commit();
+        txn.end();
+        session.close();
+
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, false);
+        assertEquals("value", ex.clear().append(3).fetch().getValue().getString());
+    }
+
+    /**
+     * Sessions opened and closed on many short-lived threads leave no
+     * transaction contexts behind.
+     */
+    @Test
+    public void closedSessionsReleaseTransactions() throws Exception {
+        final List<Transaction> transactions = new ArrayList<Transaction>();
+        _persistit.populateTransactionList(transactions);
+        final int before = transactions.size();
+        final Thread[] threads = new Thread[50];
+        for (int i = 0; i < threads.length; i++) {
+            final int key = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try (Session session = _persistit.openSession()) {
+                        final Exchange ex = session.getExchange("persistit", TREE_NAME, true);
+                        final Transaction txn = session.getTransaction();
+                        txn.begin();
+                        try {
+                            ex.getValue().put(key);
+                            ex.clear().append(key).store();
+                            txn.commit();
+                        } finally {
+                            txn.end();
+                        }
+                    } catch (final Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        _persistit.populateTransactionList(transactions);
+        assertEquals(before, transactions.size());
+
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, false);
+        for (int i = 0; i < threads.length; i++) {
+            assertEquals(i, ex.clear().append(i).fetch().getValue().getInt());
+        }
+    }
+
+    @Test
+    public void releaseRequiresGetOnTheSameSession() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        final Session session = _persistit.openSession();
+        try {
+            try {
+                session.releaseExchange(ex);
+                fail("Expected IllegalStateException");
+            } catch (final IllegalStateException e) {
+                // expected
+            }
+            final Exchange borrowed = session.getExchange("persistit", TREE_NAME, false);
+            session.releaseExchange(borrowed);
+            assertSame(borrowed, session.getExchange("persistit", TREE_NAME, false));
+        } finally {
+            session.close();
+        }
+    }
+
+    @Test
+    public void reusedTransactionStartsWithNoStatistics() throws Exception {
+        final Session first = _persistit.openSession();
+        final Transaction txn = first.getTransaction();
+        txn.begin();
+        try {
+            first.getExchange("persistit", TREE_NAME, true).clear().append(4).store();
+            txn.commit();
+        } finally {
+            txn.end();
+        }
+        assertEquals(1, txn.getCommittedTransactionCount());
+        first.close();
+
+        final Session second = _persistit.openSession();
+        try {
+            assertSame(txn, second.getTransaction());
+            assertEquals(0, txn.getCommittedTransactionCount());
+            assertEquals(0, txn.getRolledBackTransactionCount());
+            assertFalse(txn.toString().contains("owner="));
+        } finally {
+            second.close();
+        }
+    }
+
+    /**
+     * Closing Persistit removes its Exchanges from the pools of threads that
+     * are still alive, so that they do not keep the closed instance reachable.
+     */
+    @Test
+    public void closeDrainsExchangePoolsOfOtherThreads() throws Exception {
+        final AtomicReference<SessionId> reference = new AtomicReference<SessionId>();
+        final CountDownLatch released = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        final Thread user = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+                    _persistit.releaseExchange(ex);
+                    reference.set(_persistit.getSessionId());
+                    released.countDown();
+                    closed.await();
+                } catch (final Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        user.start();
+        try {
+            released.await();
+            final List<Exchange> pool = reference.get().getExchangePool(false);
+            assertEquals(1, pool.size());
+            _persistit.close();
+            assertTrue(pool.isEmpty());
+        } finally {
+            closed.countDown();
+            user.join();
+        }
+    }
+}
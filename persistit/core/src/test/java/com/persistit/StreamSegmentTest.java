@@ -0,0 +1,153 @@
+/**
+ * Copyright 2026 3A Systems, LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.persistit.exception.CorruptImportStreamException;
+
+public class StreamSegmentTest extends PersistitUnitTestCase {
+
+    private final static int LARGE_COUNT = 40000;
+
+    private final static int SMALL_COUNT = 500;
+
+    private final static String[] SMALL_TREES = { "small1", "small2", "small3" };
+
+    private final static int THREADS = 4;
+
+    private long populate() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", "large", true);
+        for (int index = 0; index < LARGE_COUNT; index++) {
+            ex.clear().append(index).append("k").getValue().put("large" + index);
+            ex.store();
+        }
+        for (final String treeName : SMALL_TREES) {
+            final Exchange small = _persistit.getExchange("persistit", treeName, true);
+            for (int index = 0; index < SMALL_COUNT; index++) {
+                small.clear().append(treeName).append(index).getValue().put(index);
+                small.store();
+            }
+        }
+        return LARGE_COUNT + SMALL_TREES.length * SMALL_COUNT;
+    }
+
+    private File save() throws Exception {
+        final File file = new File(DATA_PATH, "segments.sav");
+        final StreamSaver saver = new StreamSaver(_persistit, file);
+        saver.setSaveThreads(THREADS);
+        final List<StreamSaver.Segment> segments = saver.saveSegments(new TreeSelector(), file.getPath());
+        saver.close();
+        int largeSegments = 0;
+        for (final StreamSaver.Segment segment : segments) {
+            assertTrue(new File(DATA_PATH, segment.getFileName()).exists());
+            if (segment.getTreeName().equals("large")) {
+                largeSegments++;
+            }
+        }
+        assertTrue("Large tree should be split", largeSegments > 1);
+        return file;
+    }
+
+    private void removeTrees() throws Exception {
+        _persistit.getExchange("persistit", "large", false).removeTree();
+        for (final String treeName : SMALL_TREES) {
+            _persistit.getExchange("persistit", treeName, false).removeTree();
+        }
+    }
+
+    private void verifyTrees() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", "large", false);
+        ex.clear();
+        int index = 0;
+        while (ex.next(true)) {
+            assertEquals(index, ex.getKey().indexTo(0).decodeInt());
+            assertEquals("large" + index, ex.getValue().getString());
+            index++;
+        }
+        assertEquals(LARGE_COUNT, index);
+        for (final String treeName : SMALL_TREES) {
+            final Exchange small = _persistit.getExchange("persistit", treeName, false);
+            small.clear();
+            index = 0;
+            while (small.next(true)) {
+                assertEquals(index, small.getValue().getInt());
+                index++;
+            }
+            assertEquals(SMALL_COUNT, index);
+        }
+    }
+
+    @Test
+    public void saveAndLoadSegments() throws Exception {
+        final long count = populate();
+        final File file = save();
+        assertEquals(count, new StreamLoader(_persistit, file).verify());
+        removeTrees();
+
+        final StreamLoader loader = new StreamLoader(_persistit, file);
+        loader.setLoadThreads(THREADS);
+        loader.setBulkLoad(true);
+        loader.load();
+        verifyTrees();
+
+        final IntegrityCheck icheck = new IntegrityCheck(_persistit);
+        icheck.checkVolume(_persistit.getVolume("persistit"));
+        assertEquals(0, icheck.getFaults().length);
+    }
+
+    @Test
+    public void missingSegment() throws Exception {
+        populate();
+        final File file = save();
+        assertTrue(new File(DATA_PATH, "segments.sav.000001").delete());
+        try {
+            new StreamLoader(_persistit, file).verify();
+            fail("Expected CorruptImportStreamException");
+        } catch (final CorruptImportStreamException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void truncatedSegment() throws Exception {
+        populate();
+        final File file = save();
+        final RandomAccessFile raf = new RandomAccessFile(new File(DATA_PATH, "segments.sav.000000"), "rw");
+        try {
+            raf.setLength(raf.length() / 2);
+        } finally {
+            raf.close();
+        }
+        try {
+            final StreamLoader loader = new StreamLoader(_persistit, file);
+            loader.setLoadThreads(THREADS);
+            loader.verify();
+            fail("Expected CorruptImportStreamException");
+        } catch (final CorruptImportStreamException e) {
+            // expected
+        }
+    }
+}
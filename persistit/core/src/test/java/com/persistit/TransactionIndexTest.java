@@ -19,7 +19,9 @@ package com.persistit;
 import junit.framework.TestCase;
 import org.junit.Test;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.persistit.TransactionStatus.ABORTED;
 import static com.persistit.TransactionStatus.UNCOMMITTED;
@@ -358,4 +360,68 @@ public class TransactionIndexTest extends TestCase {
         ti.cleanup();
         assertTrue(ti.wwDependency(TransactionIndex.ts2vh(ts2.getTs()), ts1, 0) != 0);
     }
+
+    /**
+     * getStatus searches the bucket lists without locking. Verify that it
+     * never misses a TransactionStatus while another thread continually
+     * registers and completes transactions in the same bucket.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testGetStatusDuringChanges() throws Exception {
+        final TransactionIndex ti = new TransactionIndex(_tsa, 1);
+        final long[] aborted = new long[20];
+        for (int i = 0; i < aborted.length; i++) {
+            final TransactionStatus status = ti.registerTransaction();
+            status.incrementMvvCount();
+            status.abort();
+            ti.notifyCompleted(status, ABORTED);
+            aborted[i] = status.getTs();
+        }
+        /*
+         * Read at a timestamp later than any of the aborted transactions even
+         * before the churn thread allocates one.
+         */
+        final long readTimestamp = _tsa.updateTimestamp();
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicLong churned = new AtomicLong();
+        final AtomicReference<Throwable> churnFailure = new AtomicReference<Throwable>();
+        final Thread churn = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!stop.get()) {
+                        final TransactionStatus status = ti.registerTransaction();
+                        status.commit(_tsa.updateTimestamp());
+                        ti.notifyCompleted(status, _tsa.updateTimestamp());
+                        if (churned.incrementAndGet() % 10 == 0) {
+                            ti.updateActiveTransactionCache();
+                        }
+                    }
+                } catch (final Throwable t) {
+                    churnFailure.set(t);
+                }
+            }
+        });
+        churn.start();
+        final long expires = System.currentTimeMillis() + 1000;
+        try {
+            while (System.currentTimeMillis() < expires) {
+                for (final long ts : aborted) {
+                    final TransactionStatus status = ti.getStatus(ts);
+                    assertNotNull(status);
+                    assertEquals(ts, status.getTs());
+                    assertEquals(ABORTED, ti.commitStatus(TransactionIndex.ts2vh(ts), readTimestamp, 0));
+                }
+            }
+        } finally {
+            stop.set(true);
+            churn.join();
+        }
+        if (churnFailure.get() != null) {
+            throw new AssertionError("Churn thread failed", churnFailure.get());
+        }
+        assertTrue(churned.get() > 0);
+    }
 }
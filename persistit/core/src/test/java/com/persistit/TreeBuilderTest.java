@@ -185,6 +185,166 @@ public class TreeBuilderTest extends PersistitUnitTestCase {
         }, "xuorcxq");
     }
 
+    @Test
+    public void duplicatePriorityParallelMerge() throws Exception {
+        final TreeBuilder tb = new TreeBuilder(_persistit) {
+            // First value wins
+            @Override
+            protected boolean duplicateKeyDetected(final Tree tree, final Key key, final Value v1, final Value v2) {
+                return false;
+            }
+
+        };
+        tb.setMergeThreads(3);
+        duplicatePriorityCheck(tb, "xmnraxq");
+    }
+
+    @Test
+    public void concurrentStoreAndParallelMerge() throws Exception {
+        final int threadCount = 4;
+        final TreeBuilder tb = new TreeBuilder(_persistit, "TreeBuilderTest", -1, 0.1f);
+        tb.setMergeThreads(threadCount);
+        final Tree a = _persistit.getExchange(VOLUME_NAME, "a", true).getTree();
+        final Tree b = _persistit.getExchange(VOLUME_NAME, "b", true).getTree();
+        final List<Integer> shuffled = new ArrayList<Integer>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            shuffled.add(i);
+        }
+        Collections.shuffle(shuffled);
+
+        final Thread[] threads = new Thread[threadCount];
+        final AtomicInteger failures = new AtomicInteger();
+        for (int t = 0; t < threadCount; t++) {
+            final int first = t * COUNT / threadCount;
+            final int last = (t + 1) * COUNT / threadCount;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final Key key = new Key(_persistit);
+                        final Value value = new Value(_persistit);
+                        for (int i = first; i < last; i++) {
+                            final int k = shuffled.get(i);
+                            key.clear().append(k);
+                            value.put(RED_FOX + "," + k);
+                            tb.store(a, key, value);
+                            tb.store(b, key, value);
+                        }
+                    } catch (final Exception e) {
+                        e.printStackTrace();
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.get());
+        assertEquals(2 * COUNT, tb.getSortedKeyCount());
+        assertTrue("Expect several sort files", tb.getSortFileCount() >= threadCount);
+
+        tb.merge();
+        assertEquals(2 * COUNT, tb.getMergedKeyCount());
+
+        for (final Tree tree : new Tree[] { a, b }) {
+            final Exchange ex = new Exchange(tree);
+            ex.to(Key.BEFORE);
+            int count = 0;
+            while (ex.next()) {
+                assertEquals("Expect correct key value", count, ex.getKey().decodeInt());
+                assertEquals(RED_FOX + "," + count, ex.getValue().getString());
+                count++;
+            }
+            assertEquals("Expect every key value", COUNT, count);
+        }
+    }
+
+    @Test
+    public void bulkLoadEmptyTree() throws Exception {
+        final TreeBuilder tb = getBasicTreeBuilder();
+        tb.setMergeThreads(2);
+        final Exchange a = _persistit.getExchange(VOLUME_NAME, "a", true);
+        final Exchange b = _persistit.getExchange(VOLUME_NAME, "b", true);
+        b.to(-1).getValue().put(RED_FOX);
+        b.store();
+        final List<Integer> shuffled = new ArrayList<Integer>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            shuffled.add(i);
+        }
+        Collections.shuffle(shuffled);
+        for (int i = 0; i < COUNT; i++) {
+            final int k = shuffled.get(i);
+            a.to(k).getValue().put(RED_FOX + "," + k);
+            tb.store(a);
+            b.to(k).getValue().put(RED_FOX + "," + k);
+            tb.store(b);
+            if (((i + 1) % (COUNT / 4)) == 0) {
+                tb.unitTestNextSortFile();
+            }
+        }
+        tb.merge();
+        assertEquals(2 * COUNT, tb.getMergedKeyCount());
+
+        final double[] fillFactors = new double[2];
+        int index = 0;
+        for (final Exchange ex : new Exchange[] { a, b }) {
+            ex.to(Key.BEFORE);
+            int count = 0;
+            while (ex.next()) {
+                final int k = ex.getKey().decodeInt();
+                if (k >= 0) {
+                    assertEquals("Expect correct key value", count, k);
+                    assertEquals(RED_FOX + "," + k, ex.getValue().getString());
+                    count++;
+                }
+            }
+            assertEquals("Expect every key value", COUNT, count);
+            final IntegrityCheck icheck = new IntegrityCheck(_persistit);
+            icheck.checkTree(ex.getTree());
+            assertEquals(0, icheck.getFaults().length);
+            fillFactors[index++] = icheck.getDataFillFactor();
+        }
+        assertTrue("Expect bulk loaded pages to be fuller: " + fillFactors[0] + " vs " + fillFactors[1],
+                fillFactors[0] > fillFactors[1]);
+    }
+
+    @Test
+    public void bulkLoadOutOfOrderKey() throws Exception {
+        final int count = 1000;
+        final TreeBuilder tb = new TreeBuilder(_persistit) {
+            @Override
+            protected boolean beforeMergeKey(final Exchange ex) throws Exception {
+                final int k = ex.getKey().decodeInt();
+                if (k >= 10) {
+                    ex.to(-k);
+                }
+                return true;
+            }
+        };
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "a", true);
+        for (int k = 0; k < count; k++) {
+            ex.to(k).getValue().put(k);
+            tb.store(ex);
+        }
+        tb.merge();
+        assertEquals(count, tb.getMergedKeyCount());
+
+        ex.to(Key.BEFORE);
+        int found = 0;
+        while (ex.next()) {
+            final int k = ex.getKey().decodeInt();
+            assertEquals(Math.abs(k), ex.getValue().getInt());
+            assertTrue(k < 10);
+            found++;
+        }
+        assertEquals(count, found);
+        final IntegrityCheck icheck = new IntegrityCheck(_persistit);
+        icheck.checkTree(ex.getTree());
+        assertEquals(0, icheck.getFaults().length);
+    }
+
     @Test
     public void duplicatePriority2() throws Exception {
         duplicatePriorityCheck(new TreeBuilder(_persistit) {
@@ -0,0 +1,144 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 3A Systems LLC.
+ */
+
+package org.forgerock.script.groovy;
+
+import org.forgerock.json.resource.ResourceException;
+import org.forgerock.script.Script;
+import org.forgerock.script.ScriptEntry;
+import org.forgerock.script.ScriptName;
+import org.forgerock.script.engine.ScriptEngineFactory;
+import org.forgerock.script.registry.ScriptRegistryImpl;
+import org.forgerock.script.scope.Function;
+import org.forgerock.script.scope.Parameter;
+import org.forgerock.script.source.EmbeddedScriptSource;
+import org.forgerock.services.context.RootContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of evaluating a Groovy script through the script registry, with a new script instance for
+ * each evaluation ({@code poolSize} 0) and with pooled script instances. The {@code Trivial} script only reads a
+ * binding, so the per-evaluation overhead of the engine dominates. The {@code Realistic} script is an authorization
+ * policy which defines and calls a method, walks the request, and calls a function from the script scope for the
+ * requests it denies.
+ * <p/>
+ * Run with the GC profiler to see the allocation per evaluation, for example:
+ * <pre>
+ * java -jar target/script-benchmarks.jar GroovyScriptEvalBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Threads(4)
+@Fork(1)
+public class GroovyScriptEvalBenchmark {
+
+    private static final String TRIVIAL = "request.method";
+
+    private static final String REALISTIC =
+            "def hasRole(subject, role) {\n"
+            + "    subject.roles.contains(role)\n"
+            + "}\n"
+            + "def subject = request.subject\n"
+            + "def allowed = request.method == 'read' || hasRole(subject, 'admin')\n"
+            + "def result = [resource: request.resource, subject: subject.id, allowed: allowed]\n"
+            + "if (!allowed) {\n"
+            + "    audit(result)\n"
+            + "}\n"
+            + "result";
+
+    @Param({ "Trivial", "Realistic" })
+    private String script;
+
+    @Param({ "0", "16" })
+    private int poolSize;
+
+    private final AtomicLong denied = new AtomicLong();
+    private ScriptEntry entry;
+    private Map<String, Object> request;
+
+    @Setup
+    public void setUp() throws Exception {
+        Map<String, Object> groovyConfiguration = new HashMap<String, Object>();
+        groovyConfiguration.put(GroovyScriptEngineImpl.CONFIG_SCRIPT_POOL_SIZE, poolSize);
+        Map<String, Object> configuration = new HashMap<String, Object>();
+        configuration.put(GroovyScriptEngineFactory.LANGUAGE_NAME, groovyConfiguration);
+        ScriptRegistryImpl registry = new ScriptRegistryImpl(configuration,
+                ServiceLoader.load(ScriptEngineFactory.class), null, null);
+
+        String source = "Trivial".equals(script) ? TRIVIAL : REALISTIC;
+        registry.addSourceUnit(new EmbeddedScriptSource(ScriptEntry.Visibility.PUBLIC, source,
+                new ScriptName(script, GroovyScriptEngineFactory.LANGUAGE_NAME)));
+        entry = registry.takeScript(script);
+        entry.put("audit", new Function<Void>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Void call(Parameter scope, Function<?> callback, Object... arguments)
+                    throws ResourceException, NoSuchMethodException {
+                denied.incrementAndGet();
+                return null;
+            }
+        });
+
+        Map<String, Object> subject = new HashMap<String, Object>();
+        subject.put("id", "bjensen");
+        subject.put("roles", Arrays.asList("user", "manager"));
+        request = new HashMap<String, Object>();
+        request.put("method", "update");
+        request.put("resource", "managed/user/bjensen");
+        request.put("subject", subject);
+    }
+
+    @Benchmark
+    public Object eval() throws Exception {
+        Script s = entry.getScript(new RootContext());
+        s.put("request", request);
+        return s.eval();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GroovyScriptEvalBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
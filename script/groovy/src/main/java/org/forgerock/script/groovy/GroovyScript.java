@@ -40,6 +40,7 @@
 
 /**
  *  Portions Copyrighted 2012-2014 ForgeRock AS.
+ *  Portions Copyrighted 2026 3A Systems, LLC
  */
 
 package org.forgerock.script.groovy;
@@ -50,14 +51,18 @@ import java.lang.reflect.Method;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import javax.script.Bindings;
 import javax.script.ScriptException;
 import javax.script.SimpleBindings;
 
+import org.codehaus.groovy.runtime.InvokerHelper;
 import org.codehaus.groovy.runtime.MetaClassHelper;
 import org.codehaus.groovy.runtime.MethodClosure;
 import org.codehaus.groovy.control.CompilationFailedException;
@@ -87,6 +92,8 @@ import groovy.util.ResourceException;
  * This implementation pre-compiles the provided script. Any syntax errors in
  * the source code will throw an exception during construction of the object.
  * <p>
+ * Each evaluation uses a new instance of the script, unless pooling is enabled
+ * with {@link GroovyScriptEngineImpl#CONFIG_SCRIPT_POOL_SIZE}.
  *
  * @author Paul C. Bryan
  * @author aegloff
@@ -97,6 +104,8 @@ public class GroovyScript implements CompiledScript {
 
     private final GroovyScriptEngineImpl engine;
 
+    private volatile ScriptClass scriptClass;
+
     public GroovyScript(String scriptName, final GroovyScriptEngineImpl groovyEngine)
             throws IllegalAccessException, InstantiationException, ResourceException,
             groovy.util.ScriptException {
@@ -164,74 +173,9 @@ public class GroovyScript implements CompiledScript {
         // }
 
         try {
-            Script scriptObject = engine.createScript(scriptName, new Binding(bindings));
-
-            // create a Map of MethodClosures from this new script object
-            Method[] methods = scriptObject.getClass().getMethods();
-            final Map<String, Closure> closures = new HashMap<String, Closure>();
-            for (Method m : methods) {
-                String name = m.getName();
-                closures.put(name, new MethodClosure(scriptObject, name));
-            }
-
-            MetaClass oldMetaClass = scriptObject.getMetaClass();
-
-            /*
-             * We override the MetaClass of this script object so that we can
-             * forward calls to global closures (of previous or future "eval"
-             * calls) This gives the illusion of working on the same "global"
-             * scope.
-             */
-            scriptObject.setMetaClass(new DelegatingMetaClass(oldMetaClass) {
-                @Override
-                public Object invokeMethod(Object object, String name, Object args) {
-                    if (args == null) {
-                        return invokeMethod(object, name, MetaClassHelper.EMPTY_ARRAY);
-                    }
-                    if (args instanceof Tuple) {
-                        return invokeMethod(object, name, ((Tuple) args).toArray());
-                    }
-                    if (args instanceof Object[]) {
-                        return invokeMethod(object, name, (Object[]) args);
-                    } else {
-                        return invokeMethod(object, name, new Object[] { args });
-                    }
-                }
-
-                @Override
-                public Object invokeMethod(Object object, String name, Object[] args) {
-                    try {
-                        return super.invokeMethod(object, name, args);
-                    } catch (MissingMethodException mme) {
-                        return callGlobal(name, args, bindings);
-                    }
-                }
-
-                @Override
-                public Object invokeStaticMethod(Object object, String name, Object[] args) {
-                    try {
-                        return super.invokeStaticMethod(object, name, args);
-                    } catch (MissingMethodException mme) {
-                        return callGlobal(name, args, bindings);
-                    }
-                }
-
-                private Object callGlobal(String name, Object[] args, Map<String, Object> ctx) {
-                    Closure closure = closures.get(name);
-                    if (closure != null) {
-                        return closure.call(args);
-                    } else {
-                        // Look for closure valued variable in the
-                        // given ScriptContext. If available, call it.
-                        Object value = ctx.get(name);
-                        if (value instanceof Closure) {
-                            return ((Closure) value).call(args);
-                        } // else fall thru..
-                    }
-                    throw new MissingMethodException(name, getClass(), args);
-                }
-            });
-
+            final ScriptClass currentClass = getScriptClass();
+            final ScriptInstance scriptInstance = currentClass.acquire(bindings);
+            final Script scriptObject = scriptInstance.script;
             try {
                 return scriptObject.run();
             } catch (UndeclaredThrowableException e){
@@ -250,6 +194,8 @@ public class GroovyScript implements CompiledScript {
                 }
             } catch (Exception e) {
                 throw new ScriptThrownException(e.getMessage(), e);
+            } finally {
+                currentClass.release(scriptInstance);
             }
         } catch (ScriptException e) {
             throw e;
@@ -269,6 +215,156 @@ public class GroovyScript implements CompiledScript {
         }
     }
 
+    /**
+     * Returns the current class of the script, along with its pool of
+     * instances. A new pool is started when the script has been recompiled.
+     */
+    private ScriptClass getScriptClass() throws ResourceException, groovy.util.ScriptException {
+        final Class<?> clazz = engine.getScriptClass(scriptName);
+        ScriptClass current = scriptClass;
+        if (current == null || current.clazz != clazz) {
+            current = new ScriptClass(clazz, engine.getScriptPoolSize());
+            scriptClass = current;
+        }
+        return current;
+    }
+
+    /**
+     * A compiled script class, the names of its methods, which are looked up
+     * once rather than for each evaluation, and its idle instances.
+     */
+    private static final class ScriptClass {
+        private final Class<?> clazz;
+        private final Set<String> methodNames;
+        /** The idle instances, {@code null} if each evaluation uses a new instance. */
+        private final BlockingQueue<ScriptInstance> pool;
+
+        ScriptClass(final Class<?> clazz, final int poolSize) {
+            this.clazz = clazz;
+            final Set<String> names = new HashSet<String>();
+            for (Method m : clazz.getMethods()) {
+                names.add(m.getName());
+            }
+            this.methodNames = names;
+            this.pool = poolSize > 0 ? new ArrayBlockingQueue<ScriptInstance>(poolSize) : null;
+        }
+
+        ScriptInstance acquire(final Map<String, Object> bindings) {
+            ScriptInstance instance = pool != null ? pool.poll() : null;
+            if (instance == null) {
+                instance = new ScriptInstance(this, InvokerHelper.createScript(clazz, new Binding()));
+            }
+            instance.bind(bindings);
+            return instance;
+        }
+
+        void release(final ScriptInstance instance) {
+            if (pool == null) {
+                /*
+                 * The instance is not reused, so it keeps its bindings for
+                 * any closure that outlives the evaluation.
+                 */
+                return;
+            }
+            final Map<String, Object> bindings = instance.bindings;
+            instance.unbind();
+            if (!pool.offer(instance)) {
+                // The pool is full, so the instance is dropped.
+                instance.bind(bindings);
+            }
+        }
+    }
+
+    /**
+     * An instance of a script whose {@link MetaClass} is overridden once, so
+     * that the instance may be reused with the bindings of another evaluation.
+     */
+    private static final class ScriptInstance {
+        private final Script script;
+        /** The bindings of the evaluation in progress. */
+        private Map<String, Object> bindings;
+
+        ScriptInstance(final ScriptClass scriptClass, final Script script) {
+            this.script = script;
+            /*
+             * We override the MetaClass of this script object so that we can
+             * forward calls to global closures (of previous or future "eval"
+             * calls) This gives the illusion of working on the same "global"
+             * scope.
+             */
+            script.setMetaClass(new GlobalScopeMetaClass(script.getMetaClass(), scriptClass, this));
+        }
+
+        void bind(final Map<String, Object> bindings) {
+            this.bindings = bindings;
+            script.setBinding(new Binding(bindings));
+        }
+
+        void unbind() {
+            this.bindings = null;
+            script.setBinding(new Binding());
+        }
+    }
+
+    private static final class GlobalScopeMetaClass extends DelegatingMetaClass {
+        private final ScriptClass scriptClass;
+        private final ScriptInstance instance;
+
+        GlobalScopeMetaClass(final MetaClass delegate, final ScriptClass scriptClass,
+                final ScriptInstance instance) {
+            super(delegate);
+            this.scriptClass = scriptClass;
+            this.instance = instance;
+        }
+
+        @Override
+        public Object invokeMethod(Object object, String name, Object args) {
+            if (args == null) {
+                return invokeMethod(object, name, MetaClassHelper.EMPTY_ARRAY);
+            }
+            if (args instanceof Tuple) {
+                return invokeMethod(object, name, ((Tuple) args).toArray());
+            }
+            if (args instanceof Object[]) {
+                return invokeMethod(object, name, (Object[]) args);
+            } else {
+                return invokeMethod(object, name, new Object[] { args });
+            }
+        }
+
+        @Override
+        public Object invokeMethod(Object object, String name, Object[] args) {
+            try {
+                return super.invokeMethod(object, name, args);
+            } catch (MissingMethodException mme) {
+                return callGlobal(name, args, instance.bindings);
+            }
+        }
+
+        @Override
+        public Object invokeStaticMethod(Object object, String name, Object[] args) {
+            try {
+                return super.invokeStaticMethod(object, name, args);
+            } catch (MissingMethodException mme) {
+                return callGlobal(name, args, instance.bindings);
+            }
+        }
+
+        private Object callGlobal(String name, Object[] args, Map<String, Object> ctx) {
+            if (scriptClass.methodNames.contains(name)) {
+                return new MethodClosure(instance.script, name).call(args);
+            } else if (ctx != null) {
+                // Look for closure valued variable in the
+                // given ScriptContext. If available, call it.
+                Object value = ctx.get(name);
+                if (value instanceof Closure) {
+                    return ((Closure) value).call(args);
+                } // else fall thru..
+            }
+            throw new MissingMethodException(name, getClass(), args);
+        }
+    }
+
     private Map<String, Object> mergeBindings(final Context context, final Bindings request,
             final Bindings... scopes) {
         Set<String> safeAttributes = null != request ? request.keySet() : Collections.EMPTY_SET;
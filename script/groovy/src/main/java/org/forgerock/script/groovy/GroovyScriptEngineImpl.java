@@ -20,6 +20,8 @@
  * with the fields enclosed by brackets [] replaced by
  * your own identifying information:
  * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ * Portions Copyrighted 2026 3A Systems, LLC
  */
 
 package org.forgerock.script.groovy;
@@ -62,6 +64,18 @@ import java.util.concurrent.ConcurrentMap;
  */
 public class GroovyScriptEngineImpl extends AbstractScriptEngine {
 
+    /**
+     * The maximum number of idle instances of each script kept for reuse by
+     * subsequent evaluations. The default, 0, creates a new instance for each
+     * evaluation. Only enable pooling for scripts which are safe to share
+     * between requests: a pooled instance keeps the values of its
+     * {@code @Field} variables, and closures escaping from an evaluation lose
+     * its bindings when the instance goes back to the pool.
+     */
+    public static final String CONFIG_SCRIPT_POOL_SIZE = "groovy.script.pool.size";
+
+    static final int DEFAULT_SCRIPT_POOL_SIZE = 0;
+
     /**
      * Setup logging for the {@link GroovyScriptEngineImpl}.
      */
@@ -73,6 +87,8 @@ public class GroovyScriptEngineImpl extends AbstractScriptEngine {
 
     private final GroovyClassLoader loader;
 
+    private final int scriptPoolSize;
+
     private final ConcurrentMap<String, Class> scriptCache = new ConcurrentHashMap<String, Class>();
     private final ConcurrentMap<String, URL> sourceCache = new ConcurrentHashMap<String, URL>();
 
@@ -111,6 +127,15 @@ public class GroovyScriptEngineImpl extends AbstractScriptEngine {
         if (jointCompilationOptions instanceof Map) {
             config.setJointCompilationOptions((Map<String, Object>) jointCompilationOptions);
         }
+
+        Object poolSize = configuration.get(CONFIG_SCRIPT_POOL_SIZE);
+        if (poolSize instanceof Number) {
+            scriptPoolSize = ((Number) poolSize).intValue();
+        } else if (poolSize instanceof String) {
+            scriptPoolSize = Integer.parseInt(((String) poolSize).trim());
+        } else {
+            scriptPoolSize = DEFAULT_SCRIPT_POOL_SIZE;
+        }
         this.loader = new GroovyClassLoader(getParentLoader(), config, true);
         groovyScriptEngine = new GroovyScriptEngine(new ResourceConnector() {
             @Override
@@ -154,14 +179,40 @@ public class GroovyScriptEngineImpl extends AbstractScriptEngine {
      */
     Script createScript(String scriptName, Binding binding) throws ResourceException,
             groovy.util.ScriptException {
+        return InvokerHelper.createScript(getScriptClass(scriptName), binding);
+    }
 
+    /**
+     * Returns the class of a script, which changes when a script loaded from
+     * an URL is recompiled.
+     *
+     * @param scriptName
+     *            name of the script
+     * @return the script class
+     * @throws ResourceException
+     *             if there is a problem accessing the script
+     * @throws groovy.util.ScriptException
+     *             if there is a problem parsing the script
+     */
+    Class getScriptClass(String scriptName) throws ResourceException,
+            groovy.util.ScriptException {
         Class clazz = scriptCache.get(scriptName);
         if (clazz == null) {
             // Load from URL
-            return groovyScriptEngine.createScript(scriptName, binding);
-        } else {
-            return InvokerHelper.createScript(clazz, binding);
+            return groovyScriptEngine.loadScriptByName(scriptName);
         }
+        return clazz;
+    }
+
+    /**
+     * Returns the maximum number of idle instances of each script kept for
+     * reuse, 0 if scripts are not pooled.
+     *
+     * @return the script pool size
+     * @see #CONFIG_SCRIPT_POOL_SIZE
+     */
+    int getScriptPoolSize() {
+        return scriptPoolSize;
     }
 
     static ImportCustomizer getImportCustomizer(ImportCustomizer parent) {
@@ -0,0 +1,54 @@
+/*
+ * DO NOT REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2026 3A Systems, LLC. All rights reserved.
+ *
+ * The contents of this file are subject to the terms
+ * of the Common Development and Distribution License
+ * (the License). You may not use this file except in
+ * compliance with the License.
+ *
+ * You can obtain a copy of the License at
+ * http://forgerock.org/license/CDDLv1.0.html
+ * See the License for the specific language governing
+ * permission and limitations under the License.
+ *
+ * When distributing Covered Code, include this CDDL
+ * Header Notice in each file and include the License file
+ * at http://forgerock.org/license/CDDLv1.0.html
+ * If applicable, add the following below the CDDL Header,
+ * with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ */
+
+package org.forgerock.script.groovy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+/**
+ * Runs the Groovy script tests with pooled script instances, rather than with
+ * a new script instance for each evaluation.
+ */
+@Test
+public class GroovyPooledScriptTest extends GroovyScriptTest {
+
+    protected Map<String, Object> getConfiguration() {
+        Map<String, Object> configuration = new HashMap<String, Object>();
+        configuration.put(GroovyScriptEngineImpl.CONFIG_SCRIPT_POOL_SIZE, 4);
+        return configuration;
+    }
+
+    /**
+     * A pooled instance loses its bindings when it goes back to the pool, so a
+     * closure that outlives the evaluation cannot use them.
+     */
+    @Override
+    @Test(enabled = false)
+    public void testClosureRunsAfterEvaluation() throws Exception {
+        super.testClosureRunsAfterEvaluation();
+    }
+}
@@ -24,15 +24,29 @@
 
 package org.forgerock.script.groovy;
 
+import static org.fest.assertions.api.Assertions.assertThat;
+
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.forgerock.script.Script;
+import org.forgerock.script.ScriptEntry;
 import org.forgerock.script.ScriptName;
 import org.forgerock.script.ScriptTest;
 import org.forgerock.script.source.EmbeddedScriptSource;
+import org.forgerock.services.context.RootContext;
 import org.testng.annotations.Test;
 
+import groovy.lang.Closure;
+
 /**
  * A NAME does ...
  *
@@ -59,6 +73,72 @@ public class GroovyScriptTest extends ScriptTest {
         return new EmbeddedScriptSource("throw new Exception(\"Access denied\");", scriptName);
     }
 
+    @Test
+    public void testBindingsNotVisibleToNextEvaluation() throws Exception {
+        ScriptName scriptName = new ScriptName("bindings", getLanguageName());
+        getScriptRegistry().addSourceUnit(new EmbeddedScriptSource(ScriptEntry.Visibility.PUBLIC,
+                "def seen = [binding.hasVariable('secret') ? secret : null, binding.hasVariable('leaked')]\n"
+                        + "leaked = true\n"
+                        + "seen", scriptName));
+        ScriptEntry scriptEntry = getScriptRegistry().takeScript(scriptName);
+
+        Script script = scriptEntry.getScript(new RootContext());
+        script.put("secret", "s3cret");
+        assertThat(script.eval()).isEqualTo(Arrays.asList("s3cret", false));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(scriptEntry.getScript(new RootContext()).eval()).isEqualTo(Arrays.asList(null, false));
+        }
+    }
+
+    @Test
+    public void testClosureRunsAfterEvaluation() throws Exception {
+        ScriptName scriptName = new ScriptName("closure", getLanguageName());
+        getScriptRegistry().addSourceUnit(new EmbeddedScriptSource(ScriptEntry.Visibility.PUBLIC,
+                "twice = { it + it }\n"
+                        + "return { -> twice(secret) }", scriptName));
+        ScriptEntry scriptEntry = getScriptRegistry().takeScript(scriptName);
+
+        Script script = scriptEntry.getScript(new RootContext());
+        script.put("secret", "s3cret");
+        Object closure = script.eval();
+        assertThat(closure).isInstanceOf(Closure.class);
+
+        assertThat(((Closure<?>) closure).call()).isEqualTo("s3crets3cret");
+    }
+
+    @Test
+    public void testConcurrentEvaluationsHaveTheirOwnBindings() throws Exception {
+        ScriptName scriptName = new ScriptName("concurrent", getLanguageName());
+        getScriptRegistry().addSourceUnit(new EmbeddedScriptSource(ScriptEntry.Visibility.PUBLIC,
+                "def before = id\nThread.sleep(1)\n[before, id]", scriptName));
+        final ScriptEntry scriptEntry = getScriptRegistry().takeScript(scriptName);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        for (int i = 0; i < 50; i++) {
+                            String id = thread + "-" + i;
+                            Script script = scriptEntry.getScript(new RootContext());
+                            script.put("id", id);
+                            assertThat(script.eval()).isEqualTo(Arrays.asList(id, id));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     // private ScriptRegistry scriptRegistry = null;
     //
     // @BeforeClass